@@ -22,7 +22,6 @@ package org.dinky;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.boot.autoconfigure.freemarker.FreeMarkerAutoConfiguration;
-import org.springframework.cache.annotation.EnableCaching;
 import org.springframework.transaction.annotation.EnableTransactionManagement;
 
 import lombok.SneakyThrows;
@@ -34,7 +33,6 @@ import lombok.SneakyThrows;
  */
 @EnableTransactionManagement
 @SpringBootApplication(exclude = FreeMarkerAutoConfiguration.class)
-@EnableCaching
 public class Dinky {
 
     static {
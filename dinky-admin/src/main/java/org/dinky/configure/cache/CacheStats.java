@@ -0,0 +1,54 @@
+/*
+ *
+ *  Licensed to the Apache Software Foundation (ASF) under one or more
+ *  contributor license agreements.  See the NOTICE file distributed with
+ *  this work for additional information regarding copyright ownership.
+ *  The ASF licenses this file to You under the Apache License, Version 2.0
+ *  (the "License"); you may not use this file except in compliance with
+ *  the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+
+package org.dinky.configure.cache;
+
+import lombok.Builder;
+import lombok.Data;
+
+/**
+ * Statistics of a {@link PaimonCache}.
+ */
+@Data
+@Builder
+public class CacheStats {
+
+    private String cacheName;
+
+    /** Number of values in memory */
+    private int size;
+
+    private int capacity;
+
+    /** Number of live keys in paimon, including the ones not written yet */
+    private int storeSize;
+
+    /** Lookups served from memory */
+    private long hitCount;
+
+    /** Lookups served from paimon */
+    private long storeHitCount;
+
+    private long missCount;
+
+    private long putCount;
+
+    /** Values removed from memory by the LRU policy, the time to live or an eviction */
+    private long removalCount;
+}
@@ -19,15 +19,10 @@
 
 package org.dinky.configure.cache;
 
-import org.dinky.data.constant.PaimonTableConstant;
-import org.dinky.data.paimon.CacheData;
-import org.dinky.shaded.paimon.data.BinaryString;
-import org.dinky.utils.PaimonUtil;
-
-import java.util.Arrays;
-import java.util.Collections;
-import java.util.List;
+import java.util.Map;
 import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
 
 import org.springframework.cache.support.AbstractValueAdaptingCache;
 
@@ -35,22 +30,43 @@ import com.alibaba.fastjson2.JSON;
 import com.alibaba.fastjson2.JSONReader;
 import com.alibaba.fastjson2.JSONWriter;
 
-import cn.hutool.cache.impl.TimedCache;
+import cn.hutool.cache.CacheListener;
+import cn.hutool.cache.CacheUtil;
 import cn.hutool.core.convert.Convert;
-import cn.hutool.core.date.DateUtil;
 
+/**
+ * Two tier cache: a size bounded LRU cache with a time to live in memory, backed by the shared
+ * {@link PaimonCacheStore} which keeps the values across restarts.
+ */
 public class PaimonCache extends AbstractValueAdaptingCache {
-    private static final Class<CacheData> clazz = CacheData.class;
+
+    /** Max number of values kept in memory per cache */
+    private static final int L1_CAPACITY = 1000;
+
+    private static final long L1_TIMEOUT = 1000 * 60;
+
     private final String cacheName;
-    private static final String TABLE_NAME = PaimonTableConstant.DINKY_CACHE;
+    private final PaimonCacheStore store;
+
     /**
-     * TIMEOUT CACHE
+     * LRU + TIMEOUT CACHE
      */
-    private final cn.hutool.cache.Cache<Object, Object> cache = new TimedCache<>(1000 * 60);
+    private final cn.hutool.cache.Cache<String, Object> cache = CacheUtil.newLRUCache(L1_CAPACITY, L1_TIMEOUT);
+
+    /** key -> lock of the value being loaded */
+    private final Map<String, Object> loadLocks = new ConcurrentHashMap<>();
 
-    public PaimonCache(String cacheName) {
+    private final AtomicLong hitCount = new AtomicLong(0);
+    private final AtomicLong storeHitCount = new AtomicLong(0);
+    private final AtomicLong missCount = new AtomicLong(0);
+    private final AtomicLong putCount = new AtomicLong(0);
+    private final AtomicLong removalCount = new AtomicLong(0);
+
+    public PaimonCache(String cacheName, PaimonCacheStore store) {
         super(true);
         this.cacheName = cacheName;
+        this.store = store;
+        cache.setListener((CacheListener<String, Object>) (key, value) -> removalCount.incrementAndGet());
     }
 
     @Override
@@ -65,61 +81,98 @@ public class PaimonCache extends AbstractValueAdaptingCache {
 
     @Override
     public <T> T get(Object key, Class<T> type) {
-        return (T) get(key).get();
+        ValueWrapper valueWrapper = get(key);
+        return valueWrapper == null ? null : (T) valueWrapper.get();
     }
 
     @Override
     protected Object lookup(Object key) {
         String strKey = Convert.toStr(key);
-        Object o = cache.get(strKey);
-        if (o == null) {
-            PaimonUtil.createOrGetTable(TABLE_NAME, clazz);
-            List<CacheData> cacheData = PaimonUtil.batchReadTable(
-                    TABLE_NAME,
-                    clazz,
-                    x -> Arrays.asList(
-                            x.equal(x.indexOf("cache_name"), BinaryString.fromString(cacheName)),
-                            x.equal(x.indexOf("key"), BinaryString.fromString(strKey))));
-            if (cacheData.isEmpty()) {
-                return null;
-            }
-            return deserialize(cacheData.get(0).getData());
+        Object o = cache.get(strKey, false);
+        if (o != null) {
+            hitCount.incrementAndGet();
+            return o;
+        }
+        String data = store.get(cacheName, strKey);
+        if (data == null) {
+            missCount.incrementAndGet();
+            return null;
         }
+        storeHitCount.incrementAndGet();
+        o = deserialize(data);
+        cache.put(strKey, o);
         return o;
     }
 
+    /**
+     * Load a missing value once per key: the concurrent loads of a key wait for the first one, the loads of the
+     * other keys are not blocked.
+     */
     @Override
     public <T> T get(Object key, Callable<T> valueLoader) {
-        return (T) get(key).get();
+        ValueWrapper valueWrapper = get(key);
+        if (valueWrapper != null) {
+            return (T) valueWrapper.get();
+        }
+        String strKey = Convert.toStr(key);
+        Object lock = loadLocks.computeIfAbsent(strKey, k -> new Object());
+        try {
+            synchronized (lock) {
+                // Loaded by the thread holding the lock before
+                valueWrapper = get(key);
+                if (valueWrapper != null) {
+                    return (T) valueWrapper.get();
+                }
+                T value;
+                try {
+                    value = valueLoader.call();
+                } catch (Exception e) {
+                    throw new ValueRetrievalException(key, valueLoader, e);
+                }
+                put(key, value);
+                return value;
+            }
+        } finally {
+            loadLocks.remove(strKey, lock);
+        }
     }
 
     @Override
     public void put(Object key, Object value) {
         String strKey = Convert.toStr(key);
         cache.put(strKey, value);
-        PaimonUtil.createOrGetTable(TABLE_NAME, clazz);
-        CacheData cacheData = CacheData.builder()
-                .cacheTime(DateUtil.format(DateUtil.date(), "yyyy-MM-dd HH:mm"))
-                .cacheName(cacheName)
-                .key(strKey)
-                .data(serialize(value))
-                .build();
-        PaimonUtil.write(TABLE_NAME, Collections.singletonList(cacheData), clazz);
+        store.put(cacheName, strKey, serialize(value));
+        putCount.incrementAndGet();
     }
 
     @Override
     public void evict(Object key) {
         String strKey = Convert.toStr(key);
         cache.remove(strKey);
-        CacheData cacheData =
-                CacheData.builder().cacheName(cacheName).key(strKey).data("").build();
-        PaimonUtil.write(TABLE_NAME, Collections.singletonList(cacheData), clazz);
+        store.evict(cacheName, strKey);
     }
 
+    /**
+     * Only clear this cache, the other caches sharing the paimon table are left untouched.
+     */
     @Override
     public void clear() {
         cache.clear();
-        PaimonUtil.dropTable(TABLE_NAME);
+        store.clear(cacheName);
+    }
+
+    public CacheStats getStats() {
+        return CacheStats.builder()
+                .cacheName(cacheName)
+                .size(cache.size())
+                .capacity(L1_CAPACITY)
+                .storeSize(store.size(cacheName))
+                .hitCount(hitCount.get())
+                .storeHitCount(storeHitCount.get())
+                .missCount(missCount.get())
+                .putCount(putCount.get())
+                .removalCount(removalCount.get())
+                .build();
     }
 
     public String serialize(Object object) {
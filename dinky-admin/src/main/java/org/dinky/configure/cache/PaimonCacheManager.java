@@ -21,24 +21,80 @@ package org.dinky.configure.cache;
 
 import java.util.Collection;
 import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
 
+import org.springframework.beans.factory.DisposableBean;
 import org.springframework.cache.Cache;
 import org.springframework.cache.support.AbstractCacheManager;
 
-public class PaimonCacheManager extends AbstractCacheManager {
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * The {@link org.springframework.cache.CacheManager} bean of the {@link PaimonCache}s. The caches are got by name
+ * with {@link #getCache(String)}, the cache annotations are not enabled as no method uses them since the datasource
+ * metadata moved to its own cache. Their statistics are served by /api/monitor/getCacheStats.
+ */
+@Slf4j
+public class PaimonCacheManager extends AbstractCacheManager implements DisposableBean {
+
+    /** Write-behind interval of the paimon store */
+    private static final long FLUSH_INTERVAL = 5;
+
+    private final PaimonCacheStore store = new PaimonCacheStore();
+
+    private final ScheduledExecutorService flusher = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "Paimon-Cache-Flusher");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public PaimonCacheManager() {
+        try {
+            store.load();
+        } catch (Exception e) {
+            // The cache still works, the values written before the restart are just missed
+            log.error("Load paimon cache index failed", e);
+        }
+        flusher.scheduleWithFixedDelay(this::flush, FLUSH_INTERVAL, FLUSH_INTERVAL, TimeUnit.SECONDS);
+    }
 
     @Override
     protected Collection<? extends Cache> loadCaches() {
         Collection<Cache> caches = new LinkedHashSet<>();
-        for (String cacheName : this.getCacheNames()) {
-            Cache cache = this.getCache(cacheName);
-            caches.add(cache);
+        for (String cacheName : store.getCacheNames()) {
+            caches.add(new PaimonCache(cacheName, store));
         }
         return caches;
     }
 
     @Override
     protected Cache getMissingCache(String name) {
-        return new PaimonCache(name);
+        return new PaimonCache(name, store);
+    }
+
+    private void flush() {
+        try {
+            store.flush();
+        } catch (Exception e) {
+            log.error("Flush paimon cache failed", e);
+        }
+    }
+
+    public List<CacheStats> getStats() {
+        return getCacheNames().stream()
+                .map(this::getCache)
+                .filter(PaimonCache.class::isInstance)
+                .map(cache -> ((PaimonCache) cache).getStats())
+                .collect(Collectors.toList());
+    }
+
+    @Override
+    public void destroy() {
+        flusher.shutdown();
+        flush();
     }
 }
@@ -0,0 +1,195 @@
+/*
+ *
+ *  Licensed to the Apache Software Foundation (ASF) under one or more
+ *  contributor license agreements.  See the NOTICE file distributed with
+ *  this work for additional information regarding copyright ownership.
+ *  The ASF licenses this file to You under the Apache License, Version 2.0
+ *  (the "License"); you may not use this file except in compliance with
+ *  the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+
+package org.dinky.configure.cache;
+
+import org.dinky.data.constant.PaimonTableConstant;
+import org.dinky.data.paimon.CacheData;
+import org.dinky.shaded.paimon.data.BinaryString;
+import org.dinky.utils.PaimonQuery;
+import org.dinky.utils.PaimonUtil;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import cn.hutool.core.date.DateUtil;
+import cn.hutool.core.util.StrUtil;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * The paimon tier of the {@link PaimonCache}s, shared by all the cache names.
+ * <p>
+ * An index of the live keys, with the partition of their last row, is loaded from the table at startup,
+ * so a key that is not in the index is a miss without any read, and a key that is in it is read from its partition.
+ * Puts and evictions are written behind: they are queued, a newer row of a key replacing the queued one,
+ * and written in one batch by {@link #flush()}. An eviction is written as a row with empty data.
+ * </p>
+ */
+@Slf4j
+public class PaimonCacheStore {
+
+    private static final String TABLE_NAME = PaimonTableConstant.DINKY_CACHE;
+    private static final Class<CacheData> clazz = CacheData.class;
+    private static final String CACHE_TIME_FORMAT = "yyyy-MM-dd HH:mm";
+
+    /** cache name -> key -> cache time partition of the last row of a live key */
+    private final Map<String, Map<String, String>> index = new ConcurrentHashMap<>();
+
+    /** cache name -> key -> row waiting for the next flush */
+    private final Map<String, Map<String, CacheData>> pending = new ConcurrentHashMap<>();
+
+    /**
+     * Build the index from the rows of the table, the last row of a key tells whether it is live.
+     */
+    public void load() {
+        PaimonUtil.createOrGetTable(TABLE_NAME, clazz);
+        Map<String, Map<String, CacheData>> lastRows = new HashMap<>();
+        PaimonUtil.readTable(TABLE_NAME, clazz, PaimonQuery.builder().build(), row -> {
+            Map<String, CacheData> rows = lastRows.computeIfAbsent(row.getCacheName(), k -> new HashMap<>());
+            CacheData last = rows.get(row.getKey());
+            if (last == null || StrUtil.compare(row.getCacheTime(), last.getCacheTime(), false) >= 0) {
+                // Only the state is needed, not the data
+                rows.put(
+                        row.getKey(),
+                        new CacheData(row.getCacheTime(), row.getCacheName(), row.getKey(), isLive(row) ? "1" : ""));
+            }
+        });
+        lastRows.forEach((cacheName, rows) -> rows.values().stream()
+                .filter(PaimonCacheStore::isLive)
+                .forEach(row -> getIndex(cacheName).put(row.getKey(), row.getCacheTime())));
+        log.info(
+                "Paimon cache index loaded, {} keys of {} caches",
+                index.values().stream().mapToInt(Map::size).sum(),
+                index.size());
+    }
+
+    private static boolean isLive(CacheData row) {
+        return StrUtil.isNotEmpty(row.getData());
+    }
+
+    private Map<String, String> getIndex(String cacheName) {
+        return index.computeIfAbsent(cacheName, k -> new ConcurrentHashMap<>());
+    }
+
+    private Map<String, CacheData> getPending(String cacheName) {
+        return pending.computeIfAbsent(cacheName, k -> new ConcurrentHashMap<>());
+    }
+
+    /**
+     * @return the serialized value, null if the key is not cached
+     */
+    public String get(String cacheName, String key) {
+        CacheData queued = getPending(cacheName).get(key);
+        if (queued != null) {
+            return isLive(queued) ? queued.getData() : null;
+        }
+        String cacheTime = getIndex(cacheName).get(key);
+        if (cacheTime == null) {
+            return null;
+        }
+        List<CacheData> rows = new ArrayList<>(1);
+        PaimonUtil.readTable(
+                TABLE_NAME,
+                clazz,
+                PaimonQuery.builder()
+                        .filter(x -> Arrays.asList(
+                                x.equal(x.indexOf("cache_time"), BinaryString.fromString(cacheTime)),
+                                x.equal(x.indexOf("cache_name"), BinaryString.fromString(cacheName)),
+                                x.equal(x.indexOf("key"), BinaryString.fromString(key))))
+                        .limit(1)
+                        .build(),
+                rows::add);
+        if (rows.isEmpty() || !isLive(rows.get(0))) {
+            // The partition expired meanwhile
+            getIndex(cacheName).remove(key, cacheTime);
+            return null;
+        }
+        return rows.get(0).getData();
+    }
+
+    public void put(String cacheName, String key, String data) {
+        String cacheTime = DateUtil.format(DateUtil.date(), CACHE_TIME_FORMAT);
+        getPending(cacheName).put(key, new CacheData(cacheTime, cacheName, key, data));
+        getIndex(cacheName).put(key, cacheTime);
+    }
+
+    public void evict(String cacheName, String key) {
+        boolean indexed = getIndex(cacheName).remove(key) != null;
+        if (indexed || getPending(cacheName).containsKey(key)) {
+            String cacheTime = DateUtil.format(DateUtil.date(), CACHE_TIME_FORMAT);
+            getPending(cacheName).put(key, new CacheData(cacheTime, cacheName, key, ""));
+        }
+    }
+
+    /**
+     * Evict all the keys of one cache, the other caches are left untouched.
+     */
+    public void clear(String cacheName) {
+        Set<String> keys = new HashSet<>(getPending(cacheName).keySet());
+        Map<String, String> cacheIndex = index.remove(cacheName);
+        if (cacheIndex != null) {
+            keys.addAll(cacheIndex.keySet());
+        }
+        String cacheTime = DateUtil.format(DateUtil.date(), CACHE_TIME_FORMAT);
+        keys.forEach(key -> getPending(cacheName).put(key, new CacheData(cacheTime, cacheName, key, "")));
+    }
+
+    /**
+     * Write and commit the queued rows. A row stays queued, and visible to {@link #get}, until it is committed.
+     */
+    public synchronized void flush() {
+        List<CacheData> rows = new ArrayList<>();
+        pending.values().forEach(cacheRows -> rows.addAll(cacheRows.values()));
+        if (rows.isEmpty()) {
+            return;
+        }
+        try {
+            PaimonUtil.streamWrite(TABLE_NAME, rows, clazz);
+            PaimonUtil.commit(TABLE_NAME);
+        } catch (Exception e) {
+            log.error("Write {} cache rows failed, retry with the next flush", rows.size(), e);
+            return;
+        }
+        // Rows queued again meanwhile are kept for the next flush
+        rows.forEach(row -> getPending(row.getCacheName()).remove(row.getKey(), row));
+    }
+
+    public int size(String cacheName) {
+        Set<String> keys = new HashSet<>(getIndex(cacheName).keySet());
+        getPending(cacheName).forEach((key, row) -> {
+            if (isLive(row)) {
+                keys.add(key);
+            }
+        });
+        return keys.size();
+    }
+
+    public Set<String> getCacheNames() {
+        Set<String> cacheNames = new HashSet<>(index.keySet());
+        cacheNames.addAll(pending.keySet());
+        return Collections.unmodifiableSet(cacheNames);
+    }
+}
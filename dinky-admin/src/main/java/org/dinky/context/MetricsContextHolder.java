@@ -22,19 +22,29 @@ package org.dinky.context;
 import org.dinky.data.constant.PaimonTableConstant;
 import org.dinky.data.enums.SseTopic;
 import org.dinky.data.vo.MetricsVO;
+import org.dinky.utils.MpscRingBuffer;
 import org.dinky.utils.PaimonUtil;
 
 import java.util.ArrayList;
-import java.util.Collections;
 import java.util.List;
-import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
 
 import cn.hutool.core.text.StrFormatter;
+import lombok.AllArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 
 /**
  * The MetricsContextHolder class is used to manage the metric context,
  * including operations such as storing and sending metric data.
+ * <p>
+ * Producers only append the samples to a bounded lock-free ring buffer.
+ * A single flusher thread pushes them to the sse subscribers and hands them to the paimon stream writer in batches,
+ * when a batch reaches {@link #MAX_BATCH_SIZE} samples or is older than {@link #MAX_BATCH_INTERVAL}.
+ * The stream writer commits them periodically, see {@link org.dinky.utils.PaimonStreamWriter}.
+ * When the buffer is full the new samples are dropped and counted instead of blocking the monitoring threads.
+ * </p>
  */
 @Slf4j
 public class MetricsContextHolder {
@@ -45,31 +55,120 @@ public class MetricsContextHolder {
         return instance;
     }
 
+    private static final int BUFFER_CAPACITY = 1 << 16;
+
+    private static final int MAX_BATCH_SIZE = 1000;
+
+    private static final long MAX_BATCH_INTERVAL = 1000 * 5;
+
+    private static final long IDLE_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(100);
+
+    private final MpscRingBuffer<MetricsSample> buffer = new MpscRingBuffer<>(BUFFER_CAPACITY);
+
+    private final AtomicLong acceptedCount = new AtomicLong(0);
+    private final AtomicLong droppedCount = new AtomicLong(0);
+
+    /** Only updated by the flusher thread */
+    private volatile long writtenCount = 0;
+
+    private volatile long commitCount = 0;
+    private volatile long failedCount = 0;
+
+    @AllArgsConstructor
+    private static class MetricsSample {
+        private final String key;
+        private final MetricsVO metrics;
+    }
+
+    protected MetricsContextHolder() {
+        Thread flusher = new Thread(this::flushLoop, "Metrics-Flusher");
+        flusher.setDaemon(true);
+        flusher.start();
+    }
+
     /**
-     * Temporary cache monitoring information, mainly to prevent excessive buffering of write IO,
-     * when metricsVOS data reaches 1000 or the time exceeds 5 seconds
+     * Hand a sample over to the flusher, never blocks.
      */
-    private final List<MetricsVO> metricsVOS = Collections.synchronizedList(new ArrayList<>());
+    public void sendAsync(String key, MetricsVO o) {
+        if (buffer.offer(new MetricsSample(key, o))) {
+            acceptedCount.incrementAndGet();
+        } else {
+            long dropped = droppedCount.incrementAndGet();
+            if (dropped % BUFFER_CAPACITY == 1) {
+                log.warn("Metrics buffer is full, {} samples have been dropped", dropped);
+            }
+        }
+    }
+
+    private void flushLoop() {
+        List<MetricsVO> batch = new ArrayList<>(MAX_BATCH_SIZE);
+        long batchStartTime = 0;
+        while (!Thread.currentThread().isInterrupted()) {
+            boolean wasEmpty = batch.isEmpty();
+            int drained = buffer.drain(
+                    sample -> {
+                        batch.add(sample.metrics);
+                        sendTopic(sample);
+                    },
+                    MAX_BATCH_SIZE - batch.size());
+            long now = System.currentTimeMillis();
+            if (wasEmpty && drained > 0) {
+                batchStartTime = now;
+            }
+            if (batch.size() >= MAX_BATCH_SIZE || (!batch.isEmpty() && now - batchStartTime >= MAX_BATCH_INTERVAL)) {
+                write(batch);
+                batch.clear();
+            } else if (drained == 0) {
+                LockSupport.parkNanos(IDLE_PARK_NANOS);
+            }
+        }
+    }
 
-    private final Long lastDumpTime = System.currentTimeMillis();
+    private void sendTopic(MetricsSample sample) {
+        try {
+            String topic = StrFormatter.format("{}/{}", SseTopic.METRICS.getValue(), sample.key);
+            SseSessionContextHolder.sendTopic(topic, sample.metrics);
+        } catch (Exception e) {
+            log.error("send metrics error", e);
+        }
+    }
 
-    public void sendAsync(String key, MetricsVO o) {
-        CompletableFuture.runAsync(() -> {
-                    metricsVOS.add(o);
-                    long duration = System.currentTimeMillis() - lastDumpTime;
-                    synchronized (metricsVOS) {
-                        if (metricsVOS.size() > 1000 || duration > 1000 * 5) {
-                            PaimonUtil.write(PaimonTableConstant.DINKY_METRICS, metricsVOS, MetricsVO.class);
-                            metricsVOS.clear();
-                        }
-                    }
-                    String topic = StrFormatter.format("{}/{}", SseTopic.METRICS.getValue(), key);
-                    SseSessionContextHolder.sendTopic(topic, o);
-                })
-                .whenComplete((v, t) -> {
-                    if (t != null) {
-                        log.error("send metrics async error", t);
-                    }
-                });
+    private void write(List<MetricsVO> batch) {
+        try {
+            PaimonUtil.streamWrite(PaimonTableConstant.DINKY_METRICS, batch, MetricsVO.class);
+            writtenCount += batch.size();
+            commitCount++;
+        } catch (Exception e) {
+            failedCount += batch.size();
+            log.error("write {} metrics error", batch.size(), e);
+        }
+    }
+
+    /** Number of samples waiting for the flusher */
+    public int getPendingCount() {
+        return buffer.size();
+    }
+
+    public long getAcceptedCount() {
+        return acceptedCount.get();
+    }
+
+    /** Number of samples dropped because the buffer was full */
+    public long getDroppedCount() {
+        return droppedCount.get();
+    }
+
+    public long getWrittenCount() {
+        return writtenCount;
+    }
+
+    /** Number of batches handed to paimon */
+    public long getCommitCount() {
+        return commitCount;
+    }
+
+    /** Number of samples lost because their paimon write failed */
+    public long getFailedCount() {
+        return failedCount;
     }
 }
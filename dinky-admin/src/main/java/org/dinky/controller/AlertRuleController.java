@@ -26,6 +26,7 @@ import org.dinky.data.enums.Status;
 import org.dinky.data.model.alert.AlertRule;
 import org.dinky.data.result.ProTableResult;
 import org.dinky.data.result.Result;
+import org.dinky.data.vo.AlertRuleMetricsVO;
 import org.dinky.job.handler.JobAlertHandler;
 import org.dinky.service.AlertRuleService;
 
@@ -33,6 +34,7 @@ import java.util.List;
 import java.util.stream.Collectors;
 
 import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
@@ -70,6 +72,12 @@ public class AlertRuleController {
         return result;
     }
 
+    @GetMapping("/metrics")
+    @ApiOperation("Query alert rules evaluation metrics")
+    public Result<List<AlertRuleMetricsVO>> metrics() {
+        return Result.succeed(JobAlertHandler.getInstance().getRuleMetrics());
+    }
+
     @PutMapping
     @ApiImplicitParam(
             name = "alertRule",
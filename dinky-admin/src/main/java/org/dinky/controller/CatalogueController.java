@@ -32,6 +32,7 @@ import java.io.File;
 import java.util.List;
 
 import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
@@ -132,6 +133,24 @@ public class CatalogueController {
         return Result.succeed(catalogues);
     }
 
+    /**
+     * query the children of a catalogue, to load the catalogue tree lazily
+     * @param parentId parent catalogue id, 0 for the root
+     * @return {@link Result}< {@link List}< {@link Catalogue}>>}
+     */
+    @GetMapping("/getCatalogueChildren")
+    @ApiOperation("Get Catalogue Children")
+    @ApiImplicitParam(
+            name = "parentId",
+            value = "parentId",
+            required = true,
+            dataType = "Integer",
+            dataTypeClass = Integer.class,
+            example = "0")
+    public Result<List<Catalogue>> getCatalogueChildren(@RequestParam Integer parentId) {
+        return Result.succeed(catalogueService.getCatalogueChildren(parentId));
+    }
+
     /**
      * create catalogue and task
      * @param catalogueTaskDTO {@link CatalogueTaskDTO}
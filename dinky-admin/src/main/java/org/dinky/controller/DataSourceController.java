@@ -38,8 +38,6 @@ import org.dinky.service.DataBaseService;
 
 import java.util.List;
 
-import org.springframework.cache.annotation.CacheEvict;
-import org.springframework.cache.annotation.Cacheable;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PostMapping;
@@ -78,7 +76,6 @@ public class DataSourceController {
      * @param dataBaseDTO {@link DataBaseDTO}
      * @return {@link Result}< {@link Void}>
      */
-    @CacheEvict(cacheNames = "metadata_schema", key = "#dataBaseDTO.id")
     @PutMapping("/saveOrUpdate")
     @Log(title = "Insert Or Update DataBase", businessType = BusinessType.INSERT_OR_UPDATE)
     @ApiOperation("Insert Or Update DataBase")
@@ -134,6 +131,7 @@ public class DataSourceController {
     @SaCheckPermission(PermissionConstants.REGISTRATION_DATA_SOURCE_DELETE)
     public Result<Void> deleteDataBaseById(@RequestParam Integer id) {
         if (databaseService.removeById(id)) {
+            databaseService.invalidateMetadata(id);
             return Result.succeed(Status.DELETE_SUCCESS);
         }
         return Result.failed(Status.DELETE_FAILED);
@@ -242,7 +240,6 @@ public class DataSourceController {
      * @param id {@link Integer}
      * @return {@link Result}< {@link List}< {@link Schema}>>
      */
-    @Cacheable(cacheNames = "metadata_schema", key = "#id")
     @GetMapping("/getSchemasAndTables")
     @ApiOperation("Get All Schemas And Tables")
     @ApiImplicitParam(
@@ -264,7 +261,6 @@ public class DataSourceController {
      * @param id {@link Integer}
      * @return {@link Result}< {@link String}>
      */
-    @CacheEvict(cacheNames = "metadata_schema", key = "#id")
     @GetMapping("/unCacheSchemasAndTables")
     @ApiOperation("Clear Cache Of Schemas And Tables")
     @ApiImplicitParam(
@@ -283,6 +279,59 @@ public class DataSourceController {
             },
             mode = SaMode.OR)
     public Result<String> unCacheSchemasAndTables(@RequestParam Integer id) {
+        databaseService.invalidateMetadata(id);
+        return Result.succeed(Status.DATASOURCE_CLEAR_CACHE_SUCCESS);
+    }
+
+    /**
+     * refresh the cached metadata of a schema, or of one of its tables
+     *
+     * @param id         {@link Integer}
+     * @param schemaName {@link String}
+     * @param tableName  {@link String}
+     * @return {@link Result}< {@link String}>
+     */
+    @GetMapping("/refreshMetadata")
+    @ApiOperation("Refresh Metadata Of Schema Or Table")
+    @ApiImplicitParams(
+            value = {
+                @ApiImplicitParam(
+                        name = "id",
+                        value = "DataBase Id",
+                        required = true,
+                        dataType = "Integer",
+                        paramType = "path",
+                        dataTypeClass = Integer.class,
+                        example = "1"),
+                @ApiImplicitParam(
+                        name = "schemaName",
+                        value = "Schema Name",
+                        required = false,
+                        dataType = "String",
+                        paramType = "query",
+                        dataTypeClass = String.class,
+                        example = "public"),
+                @ApiImplicitParam(
+                        name = "tableName",
+                        value = "Table Name",
+                        required = false,
+                        dataType = "String",
+                        paramType = "query",
+                        dataTypeClass = String.class,
+                        example = "user")
+            })
+    @SaCheckPermission(
+            value = {
+                PermissionConstants.REGISTRATION_DATA_SOURCE_DETAIL_REFRESH,
+                PermissionConstants.REGISTRATION_DATA_SOURCE_DETAIL_TREE,
+                PermissionConstants.REGISTRATION_DATA_SOURCE_DETAIL_DESC,
+            },
+            mode = SaMode.OR)
+    public Result<String> refreshMetadata(
+            @RequestParam Integer id,
+            @RequestParam(required = false) String schemaName,
+            @RequestParam(required = false) String tableName) {
+        databaseService.refreshMetadata(id, schemaName, tableName);
         return Result.succeed(Status.DATASOURCE_CLEAR_CACHE_SUCCESS);
     }
 
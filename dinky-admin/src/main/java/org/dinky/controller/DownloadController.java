@@ -21,19 +21,28 @@ package org.dinky.controller;
 
 import org.dinky.assertion.Asserts;
 import org.dinky.data.exception.BusException;
+import org.dinky.data.model.DependencyManifest;
 import org.dinky.data.model.FlinkUdfManifest;
+import org.dinky.data.result.Result;
 import org.dinky.function.constant.PathConstant;
 import org.dinky.function.util.ZipWriter;
 import org.dinky.resource.BaseResourceManager;
+import org.dinky.utils.DependencyDigests;
 
 import java.io.File;
 import java.io.InputStream;
 import java.nio.charset.Charset;
 import java.util.List;
+import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 
 import javax.servlet.http.HttpServletResponse;
 
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.http.CacheControl;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RequestMapping;
@@ -58,19 +67,64 @@ import lombok.extern.slf4j.Slf4j;
 @RequestMapping("/download")
 public class DownloadController {
 
-    @GetMapping("downloadDepJar/{taskId}")
-    @ApiOperation("Download UDF Jar")
-    public void downloadJavaUDF(@PathVariable Integer taskId, HttpServletResponse resp) {
+    /**
+     * The dependencies of the task by their digest, the application downloads the ones it has not cached with
+     * {@link #downloadDepArtifact(Integer, String)}.
+     *
+     * @param taskId task id
+     */
+    @GetMapping("depManifest/{taskId}")
+    @ApiOperation("Get Dependency Manifest")
+    public Result<DependencyManifest> getDepManifest(@PathVariable Integer taskId) {
+        FlinkUdfManifest flinkUdfManifest = readUdfManifest(taskId);
+        return Result.succeed(
+                flinkUdfManifest == null
+                        ? new DependencyManifest()
+                        : DependencyDigests.buildManifest(flinkUdfManifest));
+    }
+
+    /**
+     * Download a dependency of the task by its digest, the content of a digest never changes so the response
+     * supports range requests and conditional requests by etag.
+     *
+     * @param taskId task id
+     * @param digest sha256 of the dependency
+     */
+    @GetMapping("depArtifact/{taskId}/{digest}")
+    @ApiOperation("Download Dependency By Digest")
+    public ResponseEntity<Resource> downloadDepArtifact(@PathVariable Integer taskId, @PathVariable String digest) {
+        FlinkUdfManifest flinkUdfManifest = readUdfManifest(taskId);
+        File file = flinkUdfManifest == null ? null : DependencyDigests.findArtifact(flinkUdfManifest, digest);
+        if (file == null) {
+            return ResponseEntity.notFound().build();
+        }
+        return ResponseEntity.ok()
+                .eTag(digest)
+                .cacheControl(CacheControl.maxAge(365, TimeUnit.DAYS))
+                .contentType(MediaType.APPLICATION_OCTET_STREAM)
+                .body(new FileSystemResource(file));
+    }
+
+    private FlinkUdfManifest readUdfManifest(Integer taskId) {
         if (Asserts.isNull(taskId)) {
             throw new BusException("task id can not null!");
         }
-        String udfPackagePath = PathConstant.getUdfPackagePath(taskId);
-        File depManifestFile = FileUtil.file(udfPackagePath + PathConstant.DEP_MANIFEST);
+        File depManifestFile = FileUtil.file(PathConstant.getUdfPackagePath(taskId) + PathConstant.DEP_MANIFEST);
         if (!depManifestFile.exists()) {
+            return null;
+        }
+        return JSONUtil.toBean(FileUtil.readUtf8String(depManifestFile), FlinkUdfManifest.class);
+    }
+
+    @GetMapping("downloadDepJar/{taskId}")
+    @ApiOperation("Download UDF Jar")
+    public void downloadJavaUDF(@PathVariable Integer taskId, HttpServletResponse resp) {
+        FlinkUdfManifest flinkUdfManifest = readUdfManifest(taskId);
+        if (flinkUdfManifest == null) {
             return;
         }
-        FlinkUdfManifest flinkUdfManifest =
-                JSONUtil.toBean(FileUtil.readUtf8String(depManifestFile), FlinkUdfManifest.class);
+        String udfPackagePath = PathConstant.getUdfPackagePath(taskId);
+        File depManifestFile = FileUtil.file(udfPackagePath + PathConstant.DEP_MANIFEST);
         List<String> filePath =
                 flinkUdfManifest.getJars().stream().map(Convert::toStr).collect(Collectors.toList());
         List<String> pyFilePath =
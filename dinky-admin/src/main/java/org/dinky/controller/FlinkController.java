@@ -20,6 +20,8 @@
 package org.dinky.controller;
 
 import org.dinky.data.model.CheckPointReadTable;
+import org.dinky.data.model.CheckPointStateInfo;
+import org.dinky.data.model.CheckPointStatePage;
 import org.dinky.data.result.Result;
 import org.dinky.data.vo.CascaderVO;
 import org.dinky.flink.checkpoint.CheckpointRead;
@@ -30,6 +32,7 @@ import java.util.Map;
 
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
 import io.swagger.annotations.Api;
@@ -53,6 +56,24 @@ public class FlinkController {
         return Result.data(INSTANCE.readCheckpoint(path, operatorId));
     }
 
+    @GetMapping("/checkPointStates")
+    @ApiOperation("List Checkpoint States")
+    public Result<List<CheckPointStateInfo>> listCheckPointStates(String path, String operatorId) {
+        return Result.data(INSTANCE.listStates(path, operatorId));
+    }
+
+    @GetMapping("/readCheckPointState")
+    @ApiOperation("Read Checkpoint State By Page")
+    public Result<CheckPointStatePage> readCheckPointState(
+            @RequestParam String path,
+            @RequestParam String operatorId,
+            @RequestParam String stateName,
+            Integer subtask,
+            @RequestParam(defaultValue = "1") Integer page,
+            @RequestParam(defaultValue = "100") Integer limit) {
+        return Result.data(INSTANCE.readState(path, operatorId, stateName, subtask, page, limit));
+    }
+
     @GetMapping("/configOptions")
     @ApiOperation("Query Flink Configuration Options")
     public Result<List<CascaderVO>> loadDataByGroup() {
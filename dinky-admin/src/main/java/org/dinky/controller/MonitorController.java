@@ -19,6 +19,10 @@
 
 package org.dinky.controller;
 
+import org.dinky.configure.cache.CacheStats;
+import org.dinky.configure.cache.PaimonCacheManager;
+import org.dinky.daemon.entity.TaskQueueMetrics;
+import org.dinky.daemon.pool.FlinkJobThreadPool;
 import org.dinky.data.MetricsLayoutVo;
 import org.dinky.data.annotations.Log;
 import org.dinky.data.dto.MetricsLayoutDTO;
@@ -30,10 +34,14 @@ import org.dinky.data.result.Result;
 import org.dinky.data.vo.MetricsVO;
 import org.dinky.service.JobInstanceService;
 import org.dinky.service.MonitorService;
+import org.dinky.utils.PaimonPage;
 
 import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
 import java.util.List;
 
+import org.springframework.cache.CacheManager;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
@@ -46,7 +54,9 @@ import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import cn.hutool.core.collection.CollUtil;
 import cn.hutool.core.date.DateUtil;
+import cn.hutool.core.date.LocalDateTimeUtil;
 import cn.hutool.core.lang.Opt;
+import cn.hutool.core.util.StrUtil;
 import io.swagger.annotations.Api;
 import io.swagger.annotations.ApiImplicitParam;
 import io.swagger.annotations.ApiImplicitParams;
@@ -63,19 +73,22 @@ public class MonitorController {
 
     private final MonitorService monitorService;
     private final JobInstanceService jobInstanceService;
+    private final CacheManager cacheManager;
 
     @GetMapping("/getSysData")
     @ApiOperation("Get System Data")
     @ApiImplicitParams({
         @ApiImplicitParam(name = "startTime", value = "Start Time", required = true, dataType = "Long"),
-        @ApiImplicitParam(name = "endTime", value = "End Time", required = false, dataType = "Long")
+        @ApiImplicitParam(name = "endTime", value = "End Time", required = false, dataType = "Long"),
+        @ApiImplicitParam(
+                name = "maxPoints",
+                value = "Downsample to at most this number of samples",
+                required = false,
+                dataType = "Integer")
     })
-    public Result<List<MetricsVO>> getData(@RequestParam Long startTime, Long endTime) {
-        List<MetricsVO> data = monitorService.getData(
-                DateUtil.date(startTime),
-                DateUtil.date(Opt.ofNullable(endTime).orElse(DateUtil.date().getTime())),
-                CollUtil.newArrayList(MetricsType.LOCAL.getType()));
-        return Result.succeed(data);
+    public Result<List<MetricsVO>> getData(@RequestParam Long startTime, Long endTime, Integer maxPoints) {
+        return Result.succeed(
+                getData(startTime, endTime, CollUtil.newArrayList(MetricsType.LOCAL.getType()), maxPoints));
     }
 
     @GetMapping("/getFlinkData")
@@ -83,13 +96,52 @@ public class MonitorController {
     @ApiImplicitParams({
         @ApiImplicitParam(name = "startTime", value = "Start Time", required = true, dataType = "Long"),
         @ApiImplicitParam(name = "endTime", value = "End Time", required = false, dataType = "Long"),
-        @ApiImplicitParam(name = "taskIds", value = "Task Ids", required = true, dataType = "String")
+        @ApiImplicitParam(name = "taskIds", value = "Task Ids", required = true, dataType = "String"),
+        @ApiImplicitParam(
+                name = "maxPoints",
+                value = "Downsample to at most this number of samples per job",
+                required = false,
+                dataType = "Integer")
+    })
+    public Result<List<MetricsVO>> getFlinkData(
+            @RequestParam Long startTime, Long endTime, String flinkJobIds, Integer maxPoints) {
+        return Result.succeed(getData(startTime, endTime, Arrays.asList(flinkJobIds.split(",")), maxPoints));
+    }
+
+    private List<MetricsVO> getData(Long startTime, Long endTime, List<String> models, Integer maxPoints) {
+        Date start = DateUtil.date(startTime);
+        Date end = DateUtil.date(Opt.ofNullable(endTime).orElse(DateUtil.date().getTime()));
+        if (maxPoints != null && maxPoints > 0) {
+            return monitorService.getDownsampledData(start, end, models, maxPoints);
+        }
+        return monitorService.getData(start, end, models);
+    }
+
+    @GetMapping("/getFlinkDataPage")
+    @ApiOperation("Get Flink Data Page")
+    @ApiImplicitParams({
+        @ApiImplicitParam(name = "startTime", value = "Start Time", required = true, dataType = "Long"),
+        @ApiImplicitParam(name = "endTime", value = "End Time", required = false, dataType = "Long"),
+        @ApiImplicitParam(name = "flinkJobIds", value = "Flink Job Ids", required = true, dataType = "String"),
+        @ApiImplicitParam(name = "limit", value = "Page Size", required = true, dataType = "Integer"),
+        @ApiImplicitParam(
+                name = "cursor",
+                value = "Next cursor of the previous page",
+                required = false,
+                dataType = "String")
     })
-    public Result<List<MetricsVO>> getFlinkData(@RequestParam Long startTime, Long endTime, String flinkJobIds) {
-        return Result.succeed(monitorService.getData(
+    public Result<PaimonPage<MetricsVO>> getFlinkDataPage(
+            @RequestParam Long startTime,
+            Long endTime,
+            @RequestParam String flinkJobIds,
+            @RequestParam Integer limit,
+            String cursor) {
+        return Result.succeed(monitorService.getDataPage(
                 DateUtil.date(startTime),
                 DateUtil.date(Opt.ofNullable(endTime).orElse(DateUtil.date().getTime())),
-                Arrays.asList(flinkJobIds.split(","))));
+                Arrays.asList(flinkJobIds.split(",")),
+                limit,
+                StrUtil.isBlank(cursor) ? null : LocalDateTimeUtil.parse(cursor, PaimonPage.CURSOR_PATTERN)));
     }
 
     @PutMapping("/saveFlinkMetrics/{layout}")
@@ -130,6 +182,21 @@ public class MonitorController {
         return monitorService.sendJvmInfo();
     }
 
+    @GetMapping("/getJobMonitorQueue")
+    @ApiOperation("Get Job Monitor Queue Metrics")
+    public Result<TaskQueueMetrics> getJobMonitorQueue() {
+        return Result.succeed(FlinkJobThreadPool.getInstance().getMetrics());
+    }
+
+    @GetMapping("/getCacheStats")
+    @ApiOperation("Get Cache Statistics")
+    public Result<List<CacheStats>> getCacheStats() {
+        if (cacheManager instanceof PaimonCacheManager) {
+            return Result.succeed(((PaimonCacheManager) cacheManager).getStats());
+        }
+        return Result.succeed(Collections.emptyList());
+    }
+
     @DeleteMapping("/deleteMetricsLayout")
     @ApiOperation("Delete Metrics Layout")
     @ApiImplicitParam(name = "taskId", value = "taskId", required = true, dataType = "Integer")
@@ -84,9 +84,22 @@ public class StudioController {
     /** 根据jobId获取数据 */
     @GetMapping("/getJobData")
     @ApiOperation("Get Job Plan")
-    @ApiImplicitParam(name = "jobId", value = "Get Job Plan", required = true, dataType = "String", paramType = "query")
-    public Result<SelectResult> getJobData(@RequestParam String jobId) {
-        return Result.succeed(studioService.getJobData(jobId));
+    @ApiImplicitParams({
+        @ApiImplicitParam(
+                name = "jobId",
+                value = "Get Job Plan",
+                required = true,
+                dataType = "String",
+                paramType = "query"),
+        @ApiImplicitParam(
+                name = "version",
+                value = "Version of the last poll, only the rows added since are returned",
+                dataType = "Long",
+                paramType = "query")
+    })
+    public Result<SelectResult> getJobData(
+            @RequestParam String jobId, @RequestParam(required = false, defaultValue = "0") long version) {
+        return Result.succeed(studioService.getJobData(jobId, version));
     }
 
     /** 获取单任务实例的血缘分析 */
@@ -32,8 +32,13 @@ import org.dinky.data.options.JobAlertRuleOptions;
 import org.dinky.utils.TimeUtil;
 
 import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
 import java.util.Optional;
+import java.util.function.Function;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonProperty;
 
 import cn.hutool.core.text.StrFormatter;
@@ -48,6 +53,36 @@ import lombok.NoArgsConstructor;
 @AllArgsConstructor
 public class JobAlertData {
 
+    /**
+     * The fields the alert rules can refer to, in the order of {@link #getFieldValues()}
+     */
+    public static final Map<String, Function<JobAlertData, Object>> FIELD_GETTERS;
+
+    static {
+        Map<String, Function<JobAlertData, Object>> getters = new LinkedHashMap<>();
+        getters.put(JobAlertRuleOptions.FIELD_NAME_TIME, JobAlertData::getAlertTime);
+        getters.put(JobAlertRuleOptions.FIELD_NAME_START_TIME, JobAlertData::getJobStartTime);
+        getters.put(JobAlertRuleOptions.FIELD_NAME_END_TIME, JobAlertData::getJobEndTime);
+        getters.put(JobAlertRuleOptions.FIELD_NAME_DURATION, JobAlertData::getDuration);
+        getters.put(JobAlertRuleOptions.FIELD_NAME_JOB_NAME, JobAlertData::getJobName);
+        getters.put(JobAlertRuleOptions.FIELD_NAME_JOB_ID, JobAlertData::getJobId);
+        getters.put(JobAlertRuleOptions.FIELD_NAME_JOB_STATUS, JobAlertData::getJobStatus);
+        getters.put(JobAlertRuleOptions.FIELD_TASK_ID, JobAlertData::getTaskId);
+        getters.put(JobAlertRuleOptions.FIELD_JOB_INSTANCE_ID, JobAlertData::getJobInstanceId);
+        getters.put(JobAlertRuleOptions.FIELD_JOB_TASK_URL, JobAlertData::getTaskUrl);
+        getters.put(JobAlertRuleOptions.FIELD_JOB_BATCH_MODEL, JobAlertData::isBatchModel);
+        getters.put(JobAlertRuleOptions.FIELD_NAME_CLUSTER_NAME, JobAlertData::getClusterName);
+        getters.put(JobAlertRuleOptions.FIELD_NAME_CLUSTER_TYPE, JobAlertData::getClusterType);
+        getters.put(JobAlertRuleOptions.FIELD_NAME_CLUSTER_HOSTS, JobAlertData::getClusterHosts);
+        getters.put(JobAlertRuleOptions.FIELD_NAME_EXCEPTIONS_MSG, JobAlertData::getErrorMsg);
+        getters.put(JobAlertRuleOptions.FIELD_NAME_CHECKPOINT_COST_TIME, JobAlertData::getCheckpointCostTime);
+        getters.put(JobAlertRuleOptions.FIELD_NAME_CHECKPOINT_FAILED_COUNT, JobAlertData::getCheckpointFailedCount);
+        getters.put(JobAlertRuleOptions.FIELD_NAME_CHECKPOINT_COMPLETE_COUNT, JobAlertData::getCheckpointCompleteCount);
+        getters.put(JobAlertRuleOptions.FIELD_NAME_CHECKPOINT_FAILED, JobAlertData::isCheckpointFailed);
+        getters.put(JobAlertRuleOptions.FIELD_NAME_IS_EXCEPTION, JobAlertData::isException);
+        FIELD_GETTERS = Collections.unmodifiableMap(getters);
+    }
+
     /**
      * Time about
      */
@@ -140,6 +175,19 @@ public class JobAlertData {
     @Builder.Default
     private boolean isException = false;
 
+    /**
+     * The values of the {@link #FIELD_GETTERS}, the alert rules are evaluated against them.
+     */
+    @JsonIgnore
+    public Object[] getFieldValues() {
+        Object[] values = new Object[FIELD_GETTERS.size()];
+        int i = 0;
+        for (Function<JobAlertData, Object> getter : FIELD_GETTERS.values()) {
+            values[i++] = getter.apply(this);
+        }
+        return values;
+    }
+
     private static String buildTaskUrl(JobInstance jobInstance) {
         return StrFormatter.format(
                 "{}/#/devops/job-detail?id={}",
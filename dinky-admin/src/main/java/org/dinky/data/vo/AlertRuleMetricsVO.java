@@ -0,0 +1,64 @@
+/*
+ *
+ *  Licensed to the Apache Software Foundation (ASF) under one or more
+ *  contributor license agreements.  See the NOTICE file distributed with
+ *  this work for additional information regarding copyright ownership.
+ *  The ASF licenses this file to You under the Apache License, Version 2.0
+ *  (the "License"); you may not use this file except in compliance with
+ *  the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+
+package org.dinky.data.vo;
+
+import io.swagger.annotations.ApiModel;
+import io.swagger.annotations.ApiModelProperty;
+import lombok.Builder;
+import lombok.Data;
+
+@Data
+@Builder
+@ApiModel(value = "AlertRuleMetricsVO", description = "Evaluation metrics of an alert rule")
+public class AlertRuleMetricsVO {
+
+    @ApiModelProperty(value = "Rule ID", dataType = "Integer", example = "1")
+    private Integer ruleId;
+
+    @ApiModelProperty(value = "Rule Name", dataType = "String", example = "alert.rule.jobFail")
+    private String ruleName;
+
+    @ApiModelProperty(
+            value = "Compiled",
+            dataType = "Boolean",
+            notes = "Whether the rule is compiled, otherwise it is evaluated with SpEL")
+    private boolean compiled;
+
+    @ApiModelProperty(value = "Evaluations", dataType = "Long", notes = "The times the rule was evaluated")
+    private long evaluations;
+
+    @ApiModelProperty(
+            value = "Skips",
+            dataType = "Long",
+            notes = "The times the last result was reused because the fields of the rule did not change")
+    private long skips;
+
+    @ApiModelProperty(value = "Matches", dataType = "Long", notes = "The times the rule matched")
+    private long matches;
+
+    @ApiModelProperty(value = "Total evaluation nanos", dataType = "Long")
+    private long totalEvaluationNanos;
+
+    @ApiModelProperty(value = "Average evaluation nanos", dataType = "Long")
+    private long avgEvaluationNanos;
+
+    @ApiModelProperty(value = "Max evaluation nanos", dataType = "Long")
+    private long maxEvaluationNanos;
+}
@@ -21,6 +21,7 @@ package org.dinky.init;
 
 import org.dinky.assertion.Asserts;
 import org.dinky.context.TenantContextHolder;
+import org.dinky.daemon.constant.FlinkTaskConstant;
 import org.dinky.daemon.pool.FlinkJobThreadPool;
 import org.dinky.daemon.pool.ScheduleThreadPool;
 import org.dinky.daemon.task.DaemonTask;
@@ -35,6 +36,7 @@ import org.dinky.function.constant.PathConstant;
 import org.dinky.function.pool.UdfCodePool;
 import org.dinky.job.ClearJobHistoryTask;
 import org.dinky.job.FlinkJobTask;
+import org.dinky.job.JobPersistTask;
 import org.dinky.job.SystemMetricsTask;
 import org.dinky.resource.BaseResourceManager;
 import org.dinky.scheduler.client.ProjectClient;
@@ -166,6 +168,10 @@ public class SystemInit implements ApplicationRunner {
         DaemonTask clearJobHistoryTask = DaemonTask.build(new DaemonTaskConfig(ClearJobHistoryTask.TYPE));
         schedule.addSchedule(clearJobHistoryTask, new PeriodicTrigger(1, TimeUnit.HOURS));
 
+        // Init job persist task, it writes the job instances and histories changed by the flink job tasks
+        DaemonTask jobPersistTask = DaemonTask.build(new DaemonTaskConfig(JobPersistTask.TYPE));
+        schedule.addSchedule(jobPersistTask, new PeriodicTrigger(FlinkTaskConstant.TIME_SLEEP));
+
         // Add flink running job task to flink job thread pool
         List<JobInstance> jobInstances = jobInstanceService.listJobInstanceActive();
         FlinkJobThreadPool flinkJobThreadPool = FlinkJobThreadPool.getInstance();
@@ -53,7 +53,7 @@ public class FlinkJobTask implements DaemonTask {
 
     private static final MonitorService monitorService;
 
-    private long preDealTime;
+    private long refreshInterval = FlinkTaskConstant.TIME_SLEEP;
 
     private long refreshCount = 0;
 
@@ -98,8 +98,6 @@ public class FlinkJobTask implements DaemonTask {
      */
     @Override
     public boolean dealTask() {
-        volatilityBalance();
-
         boolean isDone = JobRefreshHandler.refreshJob(jobInfoDetail, isNeedSave());
         if (Asserts.isAllNotNull(jobInfoDetail.getClusterInstance())) {
             JobAlertHandler.getInstance().check(jobInfoDetail);
@@ -108,27 +106,6 @@ public class FlinkJobTask implements DaemonTask {
         return isDone;
     }
 
-    /**
-     * Volatility balance.
-     * <p>
-     * This method is used to perform volatility equilibrium operations. Between each call,
-     * by calculating the time interval between the current time and the last processing time,
-     * If the interval is less than the set sleep time (TIME_SLEEP),
-     * The thread sleeps for a period of time. Then update the last processing time to the current time.
-     * </p>
-     */
-    public void volatilityBalance() {
-        long gap = System.currentTimeMillis() - this.preDealTime;
-        if (gap < FlinkTaskConstant.TIME_SLEEP) {
-            try {
-                Thread.sleep(FlinkTaskConstant.TIME_SLEEP);
-            } catch (InterruptedException e) {
-                log.error(e.getMessage(), e);
-            }
-        }
-        preDealTime = System.currentTimeMillis();
-    }
-
     /**
      * Determine if you need to save.
      * <p>
@@ -0,0 +1,173 @@
+/*
+ *
+ *  Licensed to the Apache Software Foundation (ASF) under one or more
+ *  contributor license agreements.  See the NOTICE file distributed with
+ *  this work for additional information regarding copyright ownership.
+ *  The ASF licenses this file to You under the Apache License, Version 2.0
+ *  (the "License"); you may not use this file except in compliance with
+ *  the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+
+package org.dinky.job.handler;
+
+import org.dinky.api.FlinkAPI;
+import org.dinky.api.FlinkAsyncAPI;
+import org.dinky.daemon.constant.FlinkTaskConstant;
+import org.dinky.data.model.ClusterInstance;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+import com.fasterxml.jackson.databind.JsonNode;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Cluster level job status polling.
+ * <p>
+ * The {@code /jobs/overview} of a cluster is fetched at most once per tick and shared by every job running on it,
+ * so the refresh of a session cluster with hundreds of jobs costs one request instead of one per job.
+ * A job only needs its detail endpoints to be fetched again when its overview changed since the last detailed
+ * refresh, that is its state, last modification or task counts, or when that refresh is older than
+ * {@link #FULL_REFRESH_INTERVAL}, which keeps the checkpoints, watermarks and backpressure of a quiet job fresh.
+ * </p>
+ */
+@Slf4j
+public class ClusterJobOverviewHandler {
+
+    private static final String LAST_MODIFICATION = "last-modification";
+    private static final String STATE = "state";
+    private static final String TASKS = "tasks";
+
+    /** Max age of the detailed refresh of an unchanged job, it can be set with {@code dinky.job.full-refresh-interval} */
+    private static final long FULL_REFRESH_INTERVAL =
+            Long.getLong("dinky.job.full-refresh-interval", TimeUnit.SECONDS.toMillis(30));
+
+    /** Key is the cluster instance id */
+    private static final Map<Integer, ClusterOverview> CLUSTER_OVERVIEWS = new ConcurrentHashMap<>();
+
+    /** Key is the job instance id, value is the fingerprint and time of the last detailed refresh of the job */
+    private static final Map<Integer, Refresh> JOB_REFRESHES = new ConcurrentHashMap<>();
+
+    @Getter
+    @AllArgsConstructor
+    private static class ClusterOverview {
+        private final long fetchTime;
+        private final String host;
+        private final CompletableFuture<Map<String, JsonNode>> jobs;
+    }
+
+    @Getter
+    @AllArgsConstructor
+    private static class Refresh {
+        private final String fingerprint;
+        private final long time;
+    }
+
+    /**
+     * The overview of all jobs of a cluster, fetched again once it is older than a tick or the cluster moved.
+     * Concurrent callers of the same tick share the same request.
+     *
+     * @return jid -> job overview
+     */
+    public static CompletableFuture<Map<String, JsonNode>> getJobsOverview(ClusterInstance clusterInstance) {
+        String host = clusterInstance.getJobManagerHost();
+        return CLUSTER_OVERVIEWS
+                .compute(clusterInstance.getId(), (id, overview) -> {
+                    long now = System.currentTimeMillis();
+                    if (overview != null
+                            && now - overview.getFetchTime() < FlinkTaskConstant.TIME_SLEEP
+                            && Objects.equals(host, overview.getHost())
+                            && !overview.getJobs().isCompletedExceptionally()) {
+                        return overview;
+                    }
+                    return new ClusterOverview(now, host, fetchJobsOverview(FlinkAsyncAPI.build(host)));
+                })
+                .getJobs();
+    }
+
+    private static CompletableFuture<Map<String, JsonNode>> fetchJobsOverview(FlinkAsyncAPI api) {
+        return api.getJobsOverview().thenApply(result -> {
+            Map<String, JsonNode> jobs = new HashMap<>();
+            JsonNode jobList = result.get(FlinkAPI.JOBS);
+            if (jobList != null && jobList.isArray()) {
+                jobList.forEach(job -> jobs.put(job.get("jid").asText(), job));
+            }
+            return jobs;
+        });
+    }
+
+    /**
+     * The overview of one job, null if the cluster is unreachable or does not know the job,
+     * in both cases the caller should fall back to a detailed refresh.
+     */
+    public static JsonNode getJobOverview(ClusterInstance clusterInstance, String jid) {
+        try {
+            return getJobsOverview(clusterInstance).join().get(jid);
+        } catch (Exception e) {
+            log.debug("Get jobs overview of cluster {} failed: {}", clusterInstance.getId(), e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * The fingerprint of a job, made of the state, the last modification and the task counts of its overview.
+     */
+    public static String getFingerprint(JsonNode jobOverview) {
+        StringBuilder fingerprint = new StringBuilder(jobOverview.path(STATE).asText())
+                .append('|')
+                .append(jobOverview.path(LAST_MODIFICATION).asLong());
+        jobOverview.path(TASKS).forEach(count -> fingerprint.append('|').append(count.asInt()));
+        return fingerprint.toString();
+    }
+
+    /**
+     * Whether the detail endpoints of the job should be fetched: it changed since its last detailed refresh, or
+     * that refresh is older than {@link #FULL_REFRESH_INTERVAL}.
+     *
+     * @param fingerprint the current fingerprint of the job, see {@link #getFingerprint}
+     */
+    public static boolean isRefreshDue(Integer jobInstanceId, String fingerprint) {
+        Refresh refresh = JOB_REFRESHES.get(jobInstanceId);
+        return refresh == null
+                || !Objects.equals(refresh.getFingerprint(), fingerprint)
+                || System.currentTimeMillis() - refresh.getTime() >= FULL_REFRESH_INTERVAL;
+    }
+
+    /**
+     * Remember the fingerprint of the job after a detailed refresh.
+     */
+    public static void markRefreshed(Integer jobInstanceId, String fingerprint) {
+        if (fingerprint == null) {
+            JOB_REFRESHES.remove(jobInstanceId);
+        } else {
+            JOB_REFRESHES.put(jobInstanceId, new Refresh(fingerprint, System.currentTimeMillis()));
+        }
+    }
+
+    public static void remove(Integer jobInstanceId) {
+        JOB_REFRESHES.remove(jobInstanceId);
+    }
+
+    /**
+     * Forget the overview of a cluster, e.g. when its cluster instance is removed.
+     */
+    public static void removeCluster(Integer clusterInstanceId) {
+        CLUSTER_OVERVIEWS.remove(clusterInstanceId);
+    }
+}
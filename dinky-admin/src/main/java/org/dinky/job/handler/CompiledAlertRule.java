@@ -0,0 +1,347 @@
+/*
+ *
+ *  Licensed to the Apache Software Foundation (ASF) under one or more
+ *  contributor license agreements.  See the NOTICE file distributed with
+ *  this work for additional information regarding copyright ownership.
+ *  The ASF licenses this file to You under the Apache License, Version 2.0
+ *  (the "License"); you may not use this file except in compliance with
+ *  the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+
+package org.dinky.job.handler;
+
+import org.dinky.data.dto.AlertRuleDTO;
+import org.dinky.data.model.ext.JobAlertData;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+import java.util.regex.Pattern;
+
+import org.jeasy.rules.api.Condition;
+import org.jeasy.rules.api.Facts;
+import org.jeasy.rules.spel.SpELCondition;
+
+import cn.hutool.core.text.StrFormatter;
+import cn.hutool.json.JSONUtil;
+import lombok.Data;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * An alert rule compiled once into a predicate over the {@link JobAlertData#getFieldValues() field values} of a job,
+ * instead of evaluating its SpEL condition over a map of the job data on every check. A rule that can not be
+ * compiled, e.g. its value is a SpEL expression, is still evaluated with SpEL.
+ */
+@Slf4j
+@Getter
+public class CompiledAlertRule {
+
+    private static final List<String> FIELD_NAMES = new ArrayList<>(JobAlertData.FIELD_GETTERS.keySet());
+
+    private static final Pattern INTEGER = Pattern.compile("-?\\d{1,18}");
+    private static final Pattern DECIMAL = Pattern.compile("-?\\d+(\\.\\d+)?([eE][-+]?\\d+)?");
+
+    private final AlertRuleDTO alertRule;
+
+    /** The indexes of the fields the rule refers to, null when the rule is evaluated with SpEL */
+    private final int[] fields;
+
+    private final Predicate<Object[]> predicate;
+    private final Condition spelCondition;
+
+    private final LongAdder evaluations = new LongAdder();
+    private final LongAdder skips = new LongAdder();
+    private final LongAdder matches = new LongAdder();
+    private final LongAdder evaluationNanos = new LongAdder();
+    private final AtomicLong maxEvaluationNanos = new AtomicLong();
+
+    private CompiledAlertRule(
+            AlertRuleDTO alertRule, int[] fields, Predicate<Object[]> predicate, Condition spelCondition) {
+        this.alertRule = alertRule;
+        this.fields = fields;
+        this.predicate = predicate;
+        this.spelCondition = spelCondition;
+    }
+
+    public static CompiledAlertRule compile(AlertRuleDTO alertRuleDTO) {
+        List<RuleItem> ruleItems = JSONUtil.parseArray(alertRuleDTO.getRule()).toList(RuleItem.class);
+        try {
+            return new CompiledAlertRule(
+                    alertRuleDTO,
+                    ruleItems.stream()
+                            .mapToInt(item -> fieldIndex(item.getRuleKey()))
+                            .distinct()
+                            .toArray(),
+                    buildPredicate(ruleItems, alertRuleDTO.getTriggerConditions()),
+                    null);
+        } catch (IllegalArgumentException e) {
+            List<String> conditionList = new ArrayList<>();
+            ruleItems.forEach(item -> conditionList.add(item.toString()));
+            String condition = StrFormatter.format(
+                    "#{{}}", String.join(String.valueOf(alertRuleDTO.getTriggerConditions()), conditionList));
+            log.warn("Alert Rule: {} is evaluated with SpEL {}, {}", alertRuleDTO.getName(), condition, e.getMessage());
+            return new CompiledAlertRule(alertRuleDTO, null, null, new SpELCondition(condition));
+        }
+    }
+
+    public boolean isCompiled() {
+        return predicate != null;
+    }
+
+    /**
+     * Whether none of the fields the rule refers to changed, so the last result of the rule still holds.
+     */
+    public boolean isUnchanged(Object[] lastValues, Object[] values) {
+        if (fields == null || lastValues == null) {
+            return false;
+        }
+        for (int field : fields) {
+            if (!Objects.equals(lastValues[field], values[field])) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @param values the field values of the job
+     * @param facts  the facts of the job, only built for the rules evaluated with SpEL
+     */
+    public boolean evaluate(Object[] values, Supplier<Facts> facts) {
+        long start = System.nanoTime();
+        boolean matched;
+        try {
+            matched = predicate != null ? predicate.test(values) : spelCondition.evaluate(facts.get());
+        } catch (RuntimeException e) {
+            log.error("Evaluate Alert Rule: {} failed", alertRule.getName(), e);
+            matched = false;
+        }
+        long cost = System.nanoTime() - start;
+        evaluations.increment();
+        evaluationNanos.add(cost);
+        maxEvaluationNanos.accumulateAndGet(cost, Math::max);
+        if (matched) {
+            matches.increment();
+        }
+        return matched;
+    }
+
+    /**
+     * Count a check that reused the last result of the rule.
+     */
+    public void skip(boolean matched) {
+        skips.increment();
+        if (matched) {
+            matches.increment();
+        }
+    }
+
+    private static int fieldIndex(String ruleKey) {
+        int index = FIELD_NAMES.indexOf(ruleKey);
+        if (index < 0) {
+            throw new IllegalArgumentException("unknown field " + ruleKey);
+        }
+        return index;
+    }
+
+    private static Predicate<Object[]> buildPredicate(List<RuleItem> ruleItems, String triggerConditions) {
+        List<Predicate<Object[]>> conditions = new ArrayList<>(ruleItems.size());
+        for (RuleItem item : ruleItems) {
+            int field = fieldIndex(item.getRuleKey());
+            Operator operator = Operator.of(item.getRuleOperator());
+            Object value = parseLiteral(item.getRuleValue());
+            conditions.add(values -> operator.test(values[field], value));
+        }
+        if (conditions.isEmpty()) {
+            return values -> false;
+        }
+        if (conditions.size() == 1) {
+            return conditions.get(0);
+        }
+        Predicate<Object[]>[] array = conditions.toArray(new Predicate[0]);
+        String trigger = String.valueOf(triggerConditions).trim().toLowerCase(Locale.ROOT);
+        if ("and".equals(trigger) || "&&".equals(trigger)) {
+            return values -> {
+                for (Predicate<Object[]> condition : array) {
+                    if (!condition.test(values)) {
+                        return false;
+                    }
+                }
+                return true;
+            };
+        } else if ("or".equals(trigger) || "||".equals(trigger)) {
+            return values -> {
+                for (Predicate<Object[]> condition : array) {
+                    if (condition.test(values)) {
+                        return true;
+                    }
+                }
+                return false;
+            };
+        }
+        throw new IllegalArgumentException("unknown trigger conditions " + triggerConditions);
+    }
+
+    /**
+     * Parse the SpEL literal of a rule value: a quoted string, a boolean, a number or null.
+     */
+    static Object parseLiteral(String ruleValue) {
+        String value = ruleValue == null ? "" : ruleValue.trim();
+        if (value.length() >= 2) {
+            char quote = value.charAt(0);
+            if ((quote == '\'' || quote == '"') && value.charAt(value.length() - 1) == quote) {
+                String content = value.substring(1, value.length() - 1);
+                String escapedQuote = String.valueOf(quote);
+                if (content.replace(escapedQuote + escapedQuote, "").contains(escapedQuote)) {
+                    throw new IllegalArgumentException("not a literal " + ruleValue);
+                }
+                return content.replace(escapedQuote + escapedQuote, escapedQuote);
+            }
+        }
+        if ("true".equalsIgnoreCase(value) || "false".equalsIgnoreCase(value)) {
+            return Boolean.valueOf(value);
+        } else if ("null".equalsIgnoreCase(value)) {
+            return null;
+        } else if (INTEGER.matcher(value).matches()) {
+            return Long.valueOf(value);
+        } else if (DECIMAL.matcher(value).matches()) {
+            return Double.valueOf(value);
+        }
+        throw new IllegalArgumentException("not a literal " + ruleValue);
+    }
+
+    /**
+     * The rule operators, compared the way SpEL does: numbers by value, other values of the same type by equality
+     * or their natural order, and values that can not be compared never match.
+     */
+    enum Operator {
+        EQ {
+            @Override
+            boolean test(Object left, Object right) {
+                if (left == null || right == null) {
+                    return left == right;
+                }
+                Integer compared = compare(left, right);
+                return compared != null ? compared == 0 : left.equals(right);
+            }
+        },
+        NE {
+            @Override
+            boolean test(Object left, Object right) {
+                return !EQ.test(left, right);
+            }
+        },
+        GT {
+            @Override
+            boolean test(Object left, Object right) {
+                Integer compared = compare(left, right);
+                return compared != null && compared > 0;
+            }
+        },
+        GE {
+            @Override
+            boolean test(Object left, Object right) {
+                Integer compared = compare(left, right);
+                return compared != null && compared >= 0;
+            }
+        },
+        LT {
+            @Override
+            boolean test(Object left, Object right) {
+                Integer compared = compare(left, right);
+                return compared != null && compared < 0;
+            }
+        },
+        LE {
+            @Override
+            boolean test(Object left, Object right) {
+                Integer compared = compare(left, right);
+                return compared != null && compared <= 0;
+            }
+        };
+
+        abstract boolean test(Object left, Object right);
+
+        static Operator of(String operator) {
+            switch (String.valueOf(operator).trim().toUpperCase(Locale.ROOT)) {
+                case "EQ":
+                case "==":
+                    return EQ;
+                case "NE":
+                case "!=":
+                    return NE;
+                case "GT":
+                case ">":
+                    return GT;
+                case "GE":
+                case ">=":
+                    return GE;
+                case "LT":
+                case "<":
+                    return LT;
+                case "LE":
+                case "<=":
+                    return LE;
+                default:
+                    throw new IllegalArgumentException("unknown operator " + operator);
+            }
+        }
+
+        /**
+         * @return null if the values can not be compared
+         */
+        @SuppressWarnings("unchecked")
+        private static Integer compare(Object left, Object right) {
+            if (left instanceof Number && right instanceof Number) {
+                Number l = (Number) left;
+                Number r = (Number) right;
+                if (isIntegral(l) && isIntegral(r)) {
+                    return Long.compare(l.longValue(), r.longValue());
+                }
+                return Double.compare(l.doubleValue(), r.doubleValue());
+            }
+            if (left == null || right == null) {
+                return left == right ? 0 : left == null ? -1 : 1;
+            }
+            if (left.getClass() == right.getClass() && left instanceof Comparable) {
+                return ((Comparable<Object>) left).compareTo(right);
+            }
+            return null;
+        }
+
+        private static boolean isIntegral(Number number) {
+            return number instanceof Long
+                    || number instanceof Integer
+                    || number instanceof Short
+                    || number instanceof Byte;
+        }
+    }
+
+    @Data
+    public static class RuleItem {
+        private String ruleKey;
+        private String ruleOperator;
+        //        private int rulePriority;
+        private String ruleValue;
+
+        @Override
+        public String toString() {
+            return StrFormatter.format(" #{} {} {} ", getRuleKey(), getRuleOperator(), getRuleValue());
+        }
+    }
+}
@@ -19,9 +19,9 @@
 
 package org.dinky.job.handler;
 
-import org.dinky.alert.Alert;
 import org.dinky.alert.AlertConfig;
-import org.dinky.alert.AlertResult;
+import org.dinky.alert.dispatch.AlertDispatcher;
+import org.dinky.alert.dispatch.AlertMessage;
 import org.dinky.assertion.Asserts;
 import org.dinky.context.FreeMarkerHolder;
 import org.dinky.context.SpringContextUtils;
@@ -39,35 +39,32 @@ import org.dinky.data.model.alert.AlertInstance;
 import org.dinky.data.model.ext.JobAlertData;
 import org.dinky.data.model.ext.JobInfoDetail;
 import org.dinky.data.options.JobAlertRuleOptions;
+import org.dinky.data.vo.AlertRuleMetricsVO;
 import org.dinky.service.AlertHistoryService;
 import org.dinky.service.TaskService;
 import org.dinky.service.impl.AlertRuleServiceImpl;
 import org.dinky.utils.JsonUtils;
 
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
 import org.jeasy.rules.api.Facts;
-import org.jeasy.rules.api.Rule;
-import org.jeasy.rules.api.Rules;
-import org.jeasy.rules.api.RulesEngine;
-import org.jeasy.rules.core.DefaultRulesEngine;
-import org.jeasy.rules.core.RuleBuilder;
-import org.jeasy.rules.spel.SpELCondition;
 import org.springframework.context.annotation.DependsOn;
 
+import com.google.common.base.Suppliers;
+import com.google.common.cache.Cache;
 import com.google.common.cache.CacheBuilder;
 import com.google.common.cache.CacheLoader;
 import com.google.common.cache.LoadingCache;
 
 import cn.hutool.core.text.StrFormatter;
-import cn.hutool.json.JSONObject;
-import cn.hutool.json.JSONUtil;
-import lombok.Data;
 import lombok.extern.slf4j.Slf4j;
 
 @Slf4j
@@ -80,14 +77,15 @@ public class JobAlertHandler {
     private static final SystemConfiguration systemConfiguration = SystemConfiguration.getInstances();
 
     /**
-     * Rules for evaluating alert conditions.
+     * Rules for evaluating alert conditions, compiled once when the rules are refreshed.
      */
-    private Rules rules;
+    private volatile List<CompiledAlertRule> rules = Collections.emptyList();
 
     /**
-     * Engine for evaluating rules.
+     * The last field values and rule results of the jobs, the rules whose fields did not change are not evaluated again.
      */
-    private RulesEngine rulesEngine;
+    private final Cache<Integer, JobRuleState> jobRuleStates =
+            CacheBuilder.newBuilder().expireAfterAccess(10, TimeUnit.MINUTES).build();
 
     /**
      * Holder for FreeMarker templates.
@@ -103,12 +101,32 @@ public class JobAlertHandler {
      */
     private static LoadingCache<Integer, Map<Integer, Integer>> alertCache;
 
+    /**
+     * 缓存任务信息，避免每次告警都查询数据库 | Cache the task info, so it is not queried for every alert
+     */
+    private static final LoadingCache<Integer, TaskDTO> taskCache;
+
+    /**
+     * 异步发送告警，不阻塞任务监控线程 | Send the alerts asynchronously, so a slow channel does not block the job refresh.
+     * The sizes can be set with the system properties {@code dinky.alert.queue-size},
+     * {@code dinky.alert.coalesce-seconds}, {@code dinky.alert.rate-per-minute} and {@code dinky.alert.burst}.
+     */
+    private static final AlertDispatcher alertDispatcher = new AlertDispatcher(
+            Integer.getInteger("dinky.alert.queue-size", 1000),
+            TimeUnit.SECONDS.toMillis(Integer.getInteger("dinky.alert.coalesce-seconds", 30)),
+            Integer.getInteger("dinky.alert.rate-per-minute", 20),
+            Integer.getInteger("dinky.alert.burst", 5),
+            JobAlertHandler::saveAlertHistory);
+
     private static volatile JobAlertHandler defaultJobAlertHandler;
 
     static {
         taskService = SpringContextUtils.getBean("taskServiceImpl", TaskService.class);
         alertHistoryService = SpringContextUtils.getBean("alertHistoryServiceImpl", AlertHistoryService.class);
         alertRuleService = SpringContextUtils.getBean("alertRuleServiceImpl", AlertRuleServiceImpl.class);
+        taskCache = CacheBuilder.newBuilder()
+                .expireAfterWrite(30, TimeUnit.SECONDS)
+                .build(CacheLoader.from(taskService::getTaskInfoById));
 
         Configuration<Integer> jobReSendDiffSecond = systemConfiguration.getJobReSendDiffSecond();
         jobReSendDiffSecond.addChangeEvent((c) -> {
@@ -139,8 +157,45 @@ public class JobAlertHandler {
      * checks for alert conditions for each job in the task pool.
      */
     public void check(JobInfoDetail jobInfoDetail) {
-        Facts ruleFacts = new Facts();
         JobAlertData jobAlertData = JobAlertData.buildData(jobInfoDetail);
+        Object[] values = jobAlertData.getFieldValues();
+        List<CompiledAlertRule> currentRules = rules;
+        Supplier<Facts> ruleFacts = Suppliers.memoize(() -> buildFacts(jobAlertData));
+
+        JobRuleState state =
+                jobRuleStates.asMap().computeIfAbsent(jobAlertData.getJobInstanceId(), id -> new JobRuleState());
+        List<CompiledAlertRule> matchedRules = new ArrayList<>();
+        synchronized (state) {
+            boolean sameRules = state.rules == currentRules;
+            boolean[] results = new boolean[currentRules.size()];
+            for (int i = 0; i < currentRules.size(); i++) {
+                CompiledAlertRule rule = currentRules.get(i);
+                if (sameRules && rule.isUnchanged(state.values, values)) {
+                    results[i] = state.results[i];
+                    rule.skip(results[i]);
+                } else {
+                    results[i] = rule.evaluate(values, ruleFacts::get);
+                }
+                if (results[i]) {
+                    matchedRules.add(rule);
+                }
+            }
+            state.rules = currentRules;
+            state.values = values;
+            state.results = results;
+        }
+
+        for (CompiledAlertRule rule : matchedRules) {
+            try {
+                executeAlertAction(ruleFacts.get(), rule.getAlertRule());
+            } catch (Exception e) {
+                log.error("Alert Rule: {} action failed", rule.getAlertRule().getName(), e);
+            }
+        }
+    }
+
+    private static Facts buildFacts(JobAlertData jobAlertData) {
+        Facts ruleFacts = new Facts();
         JsonUtils.toMap(jobAlertData).forEach((k, v) -> {
             if (v == null) {
                 throw new DinkyException(StrFormatter.format(
@@ -148,7 +203,7 @@ public class JobAlertHandler {
             }
             ruleFacts.put(k, v);
         });
-        rulesEngine.fire(rules, ruleFacts);
+        return ruleFacts;
     }
 
     /**
@@ -156,41 +211,48 @@ public class JobAlertHandler {
      */
     public void refreshRulesData() {
         List<AlertRuleDTO> ruleDTOS = alertRuleService.getBaseMapper().selectWithTemplate();
-        freeMarkerHolder = new FreeMarkerHolder();
-        rulesEngine = new DefaultRulesEngine();
-        rules = new Rules();
+        FreeMarkerHolder templates = new FreeMarkerHolder();
+        List<CompiledAlertRule> compiledRules = new ArrayList<>(ruleDTOS.size());
 
         ruleDTOS.forEach(ruleDto -> {
             if (ruleDto.getTemplateName() != null && !ruleDto.getTemplateName().isEmpty()) {
-                freeMarkerHolder.putTemplate(ruleDto.getTemplateName(), ruleDto.getTemplateContent());
+                templates.putTemplate(ruleDto.getTemplateName(), ruleDto.getTemplateContent());
                 ruleDto.setName(Status.findMessageByKey(ruleDto.getName()));
                 ruleDto.setDescription(Status.findMessageByKey(ruleDto.getDescription()));
-                rules.register(buildRule(ruleDto));
+                CompiledAlertRule rule = CompiledAlertRule.compile(ruleDto);
+                log.info("Build Alert Rule: {}, compiled: {}", ruleDto.getName(), rule.isCompiled());
+                compiledRules.add(rule);
             } else {
                 log.error("Alert Rule: {} has no template", ruleDto.getName());
             }
         });
+        freeMarkerHolder = templates;
+        rules = Collections.unmodifiableList(compiledRules);
     }
 
-    private Rule buildRule(AlertRuleDTO alertRuleDTO) {
-
-        List<JSONObject> ruleItemList =
-                JSONUtil.parseArray(alertRuleDTO.getRule()).toBean(List.class);
-        List<String> conditionList = ruleItemList.stream()
-                .map(r -> r.toBean(RuleItem.class).toString())
+    /**
+     * The evaluation metrics of the alert rules since they were refreshed.
+     */
+    public List<AlertRuleMetricsVO> getRuleMetrics() {
+        return rules.stream()
+                .map(rule -> {
+                    long evaluations = rule.getEvaluations().sum();
+                    return AlertRuleMetricsVO.builder()
+                            .ruleId(rule.getAlertRule().getId())
+                            .ruleName(rule.getAlertRule().getName())
+                            .compiled(rule.isCompiled())
+                            .evaluations(evaluations)
+                            .skips(rule.getSkips().sum())
+                            .matches(rule.getMatches().sum())
+                            .totalEvaluationNanos(rule.getEvaluationNanos().sum())
+                            .avgEvaluationNanos(
+                                    evaluations == 0
+                                            ? 0
+                                            : rule.getEvaluationNanos().sum() / evaluations)
+                            .maxEvaluationNanos(rule.getMaxEvaluationNanos().get())
+                            .build();
+                })
                 .collect(Collectors.toList());
-        String conditionContent = String.join(alertRuleDTO.getTriggerConditions(), conditionList);
-        String condition = StrFormatter.format("#{{}}", conditionContent);
-
-        log.info("Build Alert Rule: {}", condition);
-
-        return new RuleBuilder()
-                .name(alertRuleDTO.getName())
-                .description(alertRuleDTO.getDescription())
-                .priority(1)
-                .when(new SpELCondition(condition))
-                .then(f -> executeAlertAction(f, alertRuleDTO))
-                .build();
     }
 
     /**
@@ -218,7 +280,7 @@ public class JobAlertHandler {
         }
         map.put(ruleId, map.get(ruleId) + 1);
 
-        TaskDTO task = taskService.getTaskInfoById(taskId);
+        TaskDTO task = taskCache.get(taskId);
         if (!Objects.equals(task.getStep(), JobLifeCycle.PUBLISH.getValue())) {
             // Only publish job can be alerted
             return;
@@ -233,46 +295,48 @@ public class JobAlertHandler {
                     .filter(Objects::nonNull)
                     .filter(AlertInstance::getEnabled)
                     .forEach(alertInstance -> sendAlert(
-                            alertInstance, jobInstanceId, alertGroup.getId(), alertRuleDTO.getName(), alertContent));
+                            alertInstance,
+                            new AlertMessage(
+                                    jobInstanceId, ruleId, alertGroup.getId(), alertRuleDTO.getName(), alertContent)));
         }
     }
 
     /**
-     * Sends an alert based on the alert instance's configuration.
+     * Queues an alert to the alert instance, it is sent by the alert dispatcher.
      *
      * @param alertInstance The alert instance to use for sending the alert.
-     * @param jobInstanceId The ID of the job instance triggering the alert.
-     * @param alertGid      The ID of the alert group.
-     * @param title         The title of the alert.
-     * @param alertMsg      The content of the alert message.
+     * @param alertMessage  The alert of the job instance.
      */
-    private void sendAlert(
-            AlertInstance alertInstance, int jobInstanceId, int alertGid, String title, String alertMsg) {
+    private void sendAlert(AlertInstance alertInstance, AlertMessage alertMessage) {
         AlertConfig alertConfig =
                 AlertConfig.build(alertInstance.getName(), alertInstance.getType(), alertInstance.getParams());
-        Alert alert = Alert.build(alertConfig);
-        AlertResult alertResult = alert.send(title, alertMsg);
-
-        AlertHistory alertHistory = new AlertHistory();
-        alertHistory.setAlertGroupId(alertGid);
-        alertHistory.setJobInstanceId(jobInstanceId);
-        alertHistory.setTitle(title);
-        alertHistory.setContent(alertMsg);
-        alertHistory.setStatus(alertResult.getSuccessCode());
-        alertHistory.setLog(alertResult.getMessage());
-        alertHistoryService.save(alertHistory);
+        alertDispatcher.submit(alertConfig, alertMessage);
     }
 
-    @Data
-    private static class RuleItem {
-        private String ruleKey;
-        private String ruleOperator;
-        //        private int rulePriority;
-        private String ruleValue;
+    /**
+     * Saves the sent alerts in one batch.
+     *
+     * @param alertMessages The alerts sent by the alert dispatcher.
+     */
+    private static void saveAlertHistory(List<AlertMessage> alertMessages) {
+        List<AlertHistory> alertHistories = alertMessages.stream()
+                .map(alertMessage -> {
+                    AlertHistory alertHistory = new AlertHistory();
+                    alertHistory.setAlertGroupId(alertMessage.getAlertGroupId());
+                    alertHistory.setJobInstanceId(alertMessage.getJobInstanceId());
+                    alertHistory.setTitle(alertMessage.getDigestTitle());
+                    alertHistory.setContent(alertMessage.getDigestContent());
+                    alertHistory.setStatus(alertMessage.getResult().getSuccessCode());
+                    alertHistory.setLog(alertMessage.getResult().getMessage());
+                    return alertHistory;
+                })
+                .collect(Collectors.toList());
+        alertHistoryService.saveBatch(alertHistories);
+    }
 
-        @Override
-        public String toString() {
-            return StrFormatter.format(" #{} {} {} ", getRuleKey(), getRuleOperator(), getRuleValue());
-        }
+    private static class JobRuleState {
+        private List<CompiledAlertRule> rules;
+        private Object[] values;
+        private boolean[] results;
     }
 }
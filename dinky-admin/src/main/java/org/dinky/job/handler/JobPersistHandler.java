@@ -0,0 +1,219 @@
+/*
+ *
+ *  Licensed to the Apache Software Foundation (ASF) under one or more
+ *  contributor license agreements.  See the NOTICE file distributed with
+ *  this work for additional information regarding copyright ownership.
+ *  The ASF licenses this file to You under the Apache License, Version 2.0
+ *  (the "License"); you may not use this file except in compliance with
+ *  the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+
+package org.dinky.job.handler;
+
+import org.dinky.context.SpringContextUtils;
+import org.dinky.data.dto.JobDataDto;
+import org.dinky.data.flink.checkpoint.CheckPointOverView;
+import org.dinky.data.flink.checkpoint.CheckpointStatistics;
+import org.dinky.data.flink.exceptions.FlinkJobExceptionsDetail;
+import org.dinky.data.flink.job.FlinkJobDetailInfo;
+import org.dinky.data.flink.job.FlinkJobVertex;
+import org.dinky.data.model.ext.JobInfoDetail;
+import org.dinky.data.model.job.JobHistory;
+import org.dinky.data.model.job.JobInstance;
+import org.dinky.service.JobHistoryService;
+import org.dinky.service.JobInstanceService;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+
+import cn.hutool.core.bean.BeanUtil;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Write coalescing of the job instance and job history rows refreshed by the monitoring tasks.
+ * <p>
+ * Every refresh hands its result to {@link #persist}, which compares a hash of the persisted columns with the
+ * hash of the last written row and only queues the row when it actually changed.
+ * The queued rows are written in batches by {@link #flush()}, called periodically by
+ * {@link org.dinky.job.JobPersistTask} and right away when a job is done.
+ * Only the state of a job is hashed: its running duration, metrics and timestamps change on every refresh,
+ * they are written with the next real change or forced save.
+ * </p>
+ */
+@Slf4j
+public class JobPersistHandler {
+
+    private static final JobInstanceService jobInstanceService;
+    private static final JobHistoryService jobHistoryService;
+
+    /** Key is the job instance id, value is the hash of the last queued row */
+    private static final Map<Integer, Integer> INSTANCE_HASHES = new ConcurrentHashMap<>();
+
+    private static final Map<Integer, Integer> HISTORY_HASHES = new ConcurrentHashMap<>();
+
+    /** Rows waiting for the next flush, a newer version of a row replaces the queued one */
+    private static final Map<Integer, JobInstance> DIRTY_INSTANCES = new ConcurrentHashMap<>();
+
+    private static final Map<Integer, JobHistory> DIRTY_HISTORIES = new ConcurrentHashMap<>();
+
+    static {
+        jobInstanceService = SpringContextUtils.getBean("jobInstanceServiceImpl", JobInstanceService.class);
+        jobHistoryService = SpringContextUtils.getBean("jobHistoryServiceImpl", JobHistoryService.class);
+    }
+
+    /**
+     * Queue the instance and history of a job if they changed since they were last queued.
+     *
+     * @param jobInfoDetail job info detail.
+     * @param force         Queue the instance even if only its duration changed.
+     */
+    public static void persist(JobInfoDetail jobInfoDetail, boolean force) {
+        JobInstance jobInstance = jobInfoDetail.getInstance();
+        Integer id = jobInstance.getId();
+
+        int instanceHash = hash(jobInstance);
+        if (force || !Objects.equals(INSTANCE_HASHES.put(id, instanceHash), instanceHash)) {
+            // Snapshot the instance, the monitoring task keeps on modifying it until the flush
+            DIRTY_INSTANCES.put(id, BeanUtil.copyProperties(jobInstance, JobInstance.class));
+        }
+
+        JobDataDto jobDataDto = jobInfoDetail.getJobDataDto();
+        if (jobDataDto != null && jobDataDto.getId() != null) {
+            int historyHash = hash(jobDataDto);
+            if (!Objects.equals(HISTORY_HASHES.put(jobDataDto.getId(), historyHash), historyHash)) {
+                DIRTY_HISTORIES.put(jobDataDto.getId(), jobDataDto.toJobHistory());
+            }
+        }
+    }
+
+    /**
+     * Forget the hashes of a job that is not monitored anymore.
+     */
+    public static void remove(JobInfoDetail jobInfoDetail) {
+        INSTANCE_HASHES.remove(jobInfoDetail.getInstance().getId());
+        if (jobInfoDetail.getJobDataDto() != null) {
+            HISTORY_HASHES.remove(jobInfoDetail.getJobDataDto().getId());
+        }
+    }
+
+    /**
+     * Write all the queued rows with one batch update per table.
+     * If a batch fails, the hashes of its rows are dropped so the next refresh queues them again.
+     */
+    public static synchronized void flush() {
+        List<JobInstance> instances = drain(DIRTY_INSTANCES);
+        if (!instances.isEmpty()) {
+            log.debug("Dump {} job instances to database", instances.size());
+            try {
+                jobInstanceService.updateBatchById(instances);
+            } catch (Exception e) {
+                log.error("Dump job instances to database failed", e);
+                instances.forEach(instance -> INSTANCE_HASHES.remove(instance.getId()));
+            }
+        }
+
+        List<JobHistory> histories = drain(DIRTY_HISTORIES);
+        if (!histories.isEmpty()) {
+            log.debug("Dump {} job histories to database", histories.size());
+            try {
+                jobHistoryService.updateBatchById(histories);
+            } catch (Exception e) {
+                log.error("Dump job histories to database failed", e);
+                histories.forEach(history -> HISTORY_HASHES.remove(history.getId()));
+            }
+        }
+    }
+
+    private static <T> List<T> drain(Map<Integer, T> dirty) {
+        List<T> rows = new ArrayList<>(dirty.size());
+        for (Integer id : dirty.keySet()) {
+            T row = dirty.remove(id);
+            if (row != null) {
+                rows.add(row);
+            }
+        }
+        return rows;
+    }
+
+    private static int hash(JobInstance jobInstance) {
+        return Objects.hash(
+                jobInstance.getJid(),
+                jobInstance.getStatus(),
+                jobInstance.getError(),
+                jobInstance.getClusterId(),
+                jobInstance.getHistoryId(),
+                jobInstance.getCreateTime(),
+                jobInstance.getFinishTime(),
+                jobInstance.getFailedRestartCount());
+    }
+
+    private static int hash(JobDataDto jobDataDto) {
+        FlinkJobDetailInfo job = jobDataDto.getJob();
+        int jobHash = job == null
+                ? 0
+                : Objects.hash(
+                        job.getJid(),
+                        job.getState(),
+                        job.getStartTime(),
+                        job.getEndTime(),
+                        hashVertices(job.getVertices()),
+                        job.getStatusCounts(),
+                        job.getPlan());
+        FlinkJobExceptionsDetail exceptions = jobDataDto.getExceptions();
+        return Objects.hash(
+                jobHash,
+                exceptions == null ? null : exceptions.getTimestamp(),
+                exceptions == null ? null : exceptions.getRootException(),
+                hashCheckpoints(jobDataDto.getCheckpoints()),
+                jobDataDto.getCheckpointsConfig(),
+                jobDataDto.getConfig(),
+                jobDataDto.getCluster(),
+                jobDataDto.getClusterConfiguration());
+    }
+
+    private static int hashVertices(List<FlinkJobVertex> vertices) {
+        if (vertices == null) {
+            return 0;
+        }
+        int hash = 1;
+        for (FlinkJobVertex vertex : vertices) {
+            hash = 31 * hash
+                    + Objects.hash(vertex.getId(), vertex.getStatus(), vertex.getParallelism(), vertex.getTasks());
+        }
+        return hash;
+    }
+
+    private static int hashCheckpoints(CheckPointOverView checkpoints) {
+        if (checkpoints == null) {
+            return 0;
+        }
+        CheckPointOverView.Counts counts = checkpoints.getCounts();
+        CheckPointOverView.LatestCheckpoints latest = checkpoints.getLatestCheckpoints();
+        return Objects.hash(
+                counts == null ? null : counts.getNumberCompletedCheckpoints(),
+                counts == null ? null : counts.getNumberFailedCheckpoints(),
+                counts == null ? null : counts.getNumberRestoredCheckpoints(),
+                latest == null ? null : checkpointId(latest.getCompletedCheckpointStatistics()),
+                latest == null ? null : checkpointId(latest.getSavepointStatistics()),
+                latest == null ? null : checkpointId(latest.getFailedCheckpointStatistics()),
+                latest == null || latest.getRestoredCheckpointStatistics() == null
+                        ? null
+                        : latest.getRestoredCheckpointStatistics().getId());
+    }
+
+    private static Long checkpointId(CheckpointStatistics checkpoint) {
+        return checkpoint == null ? null : checkpoint.getId();
+    }
+}
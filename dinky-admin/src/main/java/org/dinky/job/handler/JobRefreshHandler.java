@@ -19,7 +19,7 @@
 
 package org.dinky.job.handler;
 
-import org.dinky.api.FlinkAPI;
+import org.dinky.api.FlinkAsyncAPI;
 import org.dinky.assertion.Asserts;
 import org.dinky.context.SpringContextUtils;
 import org.dinky.data.constant.FlinkRestResultConstant;
@@ -34,6 +34,7 @@ import org.dinky.data.flink.config.FlinkJobConfigInfo;
 import org.dinky.data.flink.exceptions.FlinkJobExceptionsDetail;
 import org.dinky.data.flink.job.FlinkJobDetailInfo;
 import org.dinky.data.flink.watermark.FlinkJobNodeWaterMark;
+import org.dinky.data.model.ClusterInstance;
 import org.dinky.data.model.ext.JobInfoDetail;
 import org.dinky.data.model.job.JobInstance;
 import org.dinky.gateway.Gateway;
@@ -41,13 +42,16 @@ import org.dinky.gateway.config.GatewayConfig;
 import org.dinky.gateway.exception.NotSupportGetStatusException;
 import org.dinky.gateway.model.FlinkClusterConfig;
 import org.dinky.job.JobConfig;
-import org.dinky.service.JobHistoryService;
 import org.dinky.service.JobInstanceService;
 import org.dinky.utils.JsonUtils;
 import org.dinky.utils.TimeUtil;
 
 import java.time.Duration;
 import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 
 import org.springframework.context.annotation.DependsOn;
 import org.springframework.stereotype.Component;
@@ -67,11 +71,9 @@ import lombok.extern.slf4j.Slf4j;
 public class JobRefreshHandler {
 
     private static final JobInstanceService jobInstanceService;
-    private static final JobHistoryService jobHistoryService;
 
     static {
         jobInstanceService = SpringContextUtils.getBean("jobInstanceServiceImpl", JobInstanceService.class);
-        jobHistoryService = SpringContextUtils.getBean("jobHistoryServiceImpl", JobHistoryService.class);
     }
 
     /**
@@ -92,7 +94,6 @@ public class JobRefreshHandler {
 
         JobInstance jobInstance = jobInfoDetail.getInstance();
         JobDataDto jobDataDto = jobInfoDetail.getJobDataDto();
-        String oldStatus = jobInstance.getStatus();
 
         // Cluster information is missing and cannot be monitored
         if (Asserts.isNull(jobInfoDetail.getClusterInstance())) {
@@ -100,15 +101,34 @@ public class JobRefreshHandler {
             jobInstanceService.updateById(jobInstance);
             return true;
         }
-        // Update the value of JobData from the flink api while ignoring the null value to prevent
-        // some other configuration from being overwritten
-        BeanUtil.copyProperties(
-                getJobData(
-                        jobInstance.getId(),
-                        jobInfoDetail.getClusterInstance().getJobManagerHost(),
-                        jobInfoDetail.getInstance().getJid()),
-                jobDataDto,
-                CopyOptions.create().ignoreNullValue());
+        // The status of all jobs of the cluster comes from one shared overview request,
+        // the detail endpoints are only requested when the job changed since its last detailed refresh
+        ClusterInstance clusterInstance = jobInfoDetail.getClusterInstance();
+        JsonNode jobOverview = ClusterJobOverviewHandler.getJobOverview(clusterInstance, jobInstance.getJid());
+        String fingerprint = jobOverview == null ? null : ClusterJobOverviewHandler.getFingerprint(jobOverview);
+        boolean needDetail = needSave
+                || fingerprint == null
+                || Asserts.isNull(jobDataDto.getJob())
+                || jobDataDto.isError()
+                || ClusterJobOverviewHandler.isRefreshDue(jobInstance.getId(), fingerprint);
+
+        if (needDetail) {
+            // Update the value of JobData from the flink api while ignoring the null value to prevent
+            // some other configuration from being overwritten
+            BeanUtil.copyProperties(
+                    getJobData(
+                            jobInstance.getId(),
+                            clusterInstance.getJobManagerHost(),
+                            jobInfoDetail.getInstance().getJid()),
+                    jobDataDto,
+                    CopyOptions.create().ignoreNullValue());
+            ClusterJobOverviewHandler.markRefreshed(jobInstance.getId(), jobDataDto.isError() ? null : fingerprint);
+        } else {
+            // Nothing but the running time changed
+            FlinkJobDetailInfo flinkJobDetailInfo = jobDataDto.getJob();
+            flinkJobDetailInfo.setDuration(jobOverview.path("duration").asLong());
+            flinkJobDetailInfo.setEndTime(jobOverview.path("end-time").asLong());
+        }
 
         if (Asserts.isNull(jobDataDto.getJob()) || jobDataDto.isError()) {
             // If the job fails to get it, the default Finish Time is the current time
@@ -165,14 +185,14 @@ public class JobRefreshHandler {
 
         isDone = !isTransition && isDone;
 
-        if (!oldStatus.equals(jobInstance.getStatus()) || isDone || needSave) {
-            log.debug("Dump JobInfo to database: {}->{}", jobInstance.getId(), jobInstance.getName());
-            jobInstanceService.updateById(jobInstance);
-            jobHistoryService.updateById(jobInfoDetail.getJobDataDto().toJobHistory());
-        }
+        // Only the rows which really changed are queued, they are written in batches by the JobPersistTask
+        JobPersistHandler.persist(jobInfoDetail, isDone || needSave);
 
         if (isDone) {
             log.debug("Job is done: {}->{}", jobInstance.getId(), jobInstance.getName());
+            JobPersistHandler.flush();
+            JobPersistHandler.remove(jobInfoDetail);
+            ClusterJobOverviewHandler.remove(jobInstance.getId());
             handleJobDone(jobInfoDetail);
         }
         return isDone;
@@ -189,47 +209,59 @@ public class JobRefreshHandler {
      */
     public static JobDataDto getJobData(Integer id, String jobManagerHost, String jobId) {
         JobDataDto.JobDataDtoBuilder builder = JobDataDto.builder();
-        FlinkAPI api = FlinkAPI.build(jobManagerHost);
+        FlinkAsyncAPI api = FlinkAsyncAPI.build(jobManagerHost);
         try {
-            JsonNode jobInfo = FlinkAPI.build(jobManagerHost).getJobInfo(jobId);
+            // All the requests are issued at once over the pooled connections of the job manager
+            CompletableFuture<JsonNode> jobInfoFuture = api.getJobInfo(jobId);
+            CompletableFuture<JsonNode> jobConfigFuture = api.getJobsConfig(jobId);
+            CompletableFuture<JsonNode> checkPointsFuture = api.getCheckPoints(jobId);
+            CompletableFuture<JsonNode> checkpointConfigFuture = api.getCheckPointsConfig(jobId);
+            CompletableFuture<JsonNode> exceptionFuture = api.getException(jobId);
+
+            JsonNode jobInfo = jobInfoFuture.join();
             if (jobInfo.has(FlinkRestResultConstant.ERRORS)) {
                 throw new Exception(String.valueOf(jobInfo.get(FlinkRestResultConstant.ERRORS)));
             }
-
-            FlinkJobConfigInfo jobConfigInfo =
-                    JSON.parseObject(api.getJobsConfig(jobId).toString()).toJavaObject(FlinkJobConfigInfo.class);
-
             FlinkJobDetailInfo flinkJobDetailInfo =
                     JSON.parseObject(jobInfo.toString()).toJavaObject(FlinkJobDetailInfo.class);
+
             // 获取 WATERMARK  & BACKPRESSURE 信息
-            api.getVertices(jobId).forEach(vertex -> {
-                flinkJobDetailInfo.getPlan().getNodes().forEach(planNode -> {
-                    if (planNode.getId().equals(vertex)) {
-                        planNode.setWatermark(
-                                JsonUtils.toList(api.getWatermark(jobId, vertex), FlinkJobNodeWaterMark.class));
-                        planNode.setBackpressure(JsonUtils.toJavaBean(
-                                api.getBackPressure(jobId, vertex), FlinkJobNodeBackPressure.class));
-                    }
-                });
+            Map<String, CompletableFuture<String>> watermarks = new HashMap<>();
+            Map<String, CompletableFuture<String>> backPressures = new HashMap<>();
+            for (String vertex : FlinkAsyncAPI.getVertices(jobInfo)) {
+                watermarks.put(vertex, api.getWatermark(jobId, vertex));
+                backPressures.put(vertex, api.getBackPressure(jobId, vertex));
+            }
+            flinkJobDetailInfo.getPlan().getNodes().forEach(planNode -> {
+                if (watermarks.containsKey(planNode.getId())) {
+                    planNode.setWatermark(
+                            JsonUtils.toList(watermarks.get(planNode.getId()).join(), FlinkJobNodeWaterMark.class));
+                    planNode.setBackpressure(JsonUtils.toJavaBean(
+                            backPressures.get(planNode.getId()).join(), FlinkJobNodeBackPressure.class));
+                }
             });
-            JsonNode checkPoints = api.getCheckPoints(jobId);
+
+            FlinkJobConfigInfo jobConfigInfo =
+                    JSON.parseObject(jobConfigFuture.join().toString()).toJavaObject(FlinkJobConfigInfo.class);
+            JsonNode checkPoints = checkPointsFuture.join();
             if (checkPoints.findParent("errors") == null) {
                 builder.checkpoints(JsonUtils.parseObject(checkPoints.toString(), CheckPointOverView.class));
             }
-            JsonNode checkpointConfigInfo = api.getCheckPointsConfig(jobId);
+            JsonNode checkpointConfigInfo = checkpointConfigFuture.join();
             if (checkpointConfigInfo.findParent("errors") == null) {
                 builder.checkpointsConfig(
                         JsonUtils.parseObject(checkpointConfigInfo.toString(), CheckpointConfigInfo.class));
             }
             return builder.id(id)
                     .exceptions(
-                            JsonUtils.parseObject(api.getException(jobId).toString(), FlinkJobExceptionsDetail.class))
+                            JsonUtils.parseObject(exceptionFuture.join().toString(), FlinkJobExceptionsDetail.class))
                     .job(flinkJobDetailInfo)
                     .config(jobConfigInfo)
                     .build();
         } catch (Exception e) {
-            log.warn("Connect {} failed,{}", jobManagerHost, e.getMessage());
-            return builder.id(id).error(true).errorMsg(e.getMessage()).build();
+            Throwable cause = e instanceof CompletionException && e.getCause() != null ? e.getCause() : e;
+            log.warn("Connect {} failed,{}", jobManagerHost, cause.getMessage());
+            return builder.id(id).error(true).errorMsg(cause.getMessage()).build();
         }
     }
 
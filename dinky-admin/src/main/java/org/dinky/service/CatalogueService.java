@@ -40,6 +40,14 @@ public interface CatalogueService extends ISuperService<Catalogue> {
      */
     List<Catalogue> getCatalogueTree();
 
+    /**
+     * Get the children of a catalogue, without their descendants, to load the catalogue tree lazily.
+     *
+     * @param parentId the id of the parent catalogue, 0 for the root
+     * @return the child catalogues
+     */
+    List<Catalogue> getCatalogueChildren(Integer parentId);
+
     /**
      * Find a catalogue by its parent ID and name.
      *
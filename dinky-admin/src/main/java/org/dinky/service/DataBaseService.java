@@ -27,6 +27,7 @@ import org.dinky.data.model.DataBase;
 import org.dinky.data.model.QueryData;
 import org.dinky.data.model.Schema;
 import org.dinky.data.model.SqlGeneration;
+import org.dinky.data.model.Table;
 import org.dinky.data.result.SqlExplainResult;
 import org.dinky.job.JobResult;
 import org.dinky.metadata.result.JdbcSelectResult;
@@ -106,6 +107,31 @@ public interface DataBaseService extends ISuperService<DataBase> {
      */
     List<Column> listColumns(Integer id, String schemaName, String tableName);
 
+    /**
+     * get tables of schema
+     *
+     * @param id {@link Integer}
+     * @param schemaName {@link String}
+     * @return {@link List}< {@link Table}>
+     */
+    List<Table> listTables(Integer id, String schemaName);
+
+    /**
+     * refresh the cached metadata of a schema, or of one of its tables, all the metadata without a schema
+     *
+     * @param id {@link Integer}
+     * @param schemaName {@link String}
+     * @param tableName {@link String}
+     */
+    void refreshMetadata(Integer id, String schemaName, String tableName);
+
+    /**
+     * drop the cached metadata of database
+     *
+     * @param id {@link Integer}
+     */
+    void invalidateMetadata(Integer id);
+
     /**
      * Get the Flink table SQL for the given ID, schema name, and table name.
      *
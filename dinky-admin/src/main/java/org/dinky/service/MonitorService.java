@@ -23,7 +23,9 @@ import org.dinky.data.MetricsLayoutVo;
 import org.dinky.data.dto.MetricsLayoutDTO;
 import org.dinky.data.model.Metrics;
 import org.dinky.data.vo.MetricsVO;
+import org.dinky.utils.PaimonPage;
 
+import java.time.LocalDateTime;
 import java.util.Date;
 import java.util.List;
 
@@ -43,6 +45,30 @@ public interface MonitorService extends IService<Metrics> {
      */
     List<MetricsVO> getData(Date startTime, Date endTime, List<String> jobIds);
 
+    /**
+     * Get the metrics data for a specified time range and job IDs, downsampled on the server side.
+     *
+     * @param startTime The start time of the time range.
+     * @param endTime The end time of the time range.
+     * @param jobIds A list of job IDs to get the metrics data for.
+     * @param maxPoints The max number of samples per job, each numeric value becomes its min, max and avg.
+     * @return A list of {@link MetricsVO} objects, one per job and time bucket.
+     */
+    List<MetricsVO> getDownsampledData(Date startTime, Date endTime, List<String> jobIds, int maxPoints);
+
+    /**
+     * Get one page of the metrics data for a specified time range and job IDs, ordered by time.
+     *
+     * @param startTime The start time of the time range.
+     * @param endTime The end time of the time range.
+     * @param jobIds A list of job IDs to get the metrics data for.
+     * @param limit The max number of samples of the page.
+     * @param cursor The cursor returned with the previous page, null for the first page.
+     * @return A {@link PaimonPage} of {@link MetricsVO}.
+     */
+    PaimonPage<MetricsVO> getDataPage(
+            Date startTime, Date endTime, List<String> jobIds, int limit, LocalDateTime cursor);
+
     /**
      * Send the JVM information to the specified SSE emitter.
      *
@@ -44,6 +44,8 @@ public interface StudioService {
 
     SelectResult getJobData(String jobId);
 
+    SelectResult getJobData(String jobId, long version);
+
     LineageResult getLineage(StudioLineageDTO studioCADTO);
 
     List<JsonNode> listFlinkJobs(Integer clusterId);
@@ -23,6 +23,7 @@ import static org.dinky.assertion.Asserts.isNull;
 
 import org.dinky.assertion.Asserts;
 import org.dinky.config.Dialect;
+import org.dinky.context.TenantContextHolder;
 import org.dinky.data.dto.CatalogueTaskDTO;
 import org.dinky.data.enums.GatewayType;
 import org.dinky.data.enums.JobLifeCycle;
@@ -49,23 +50,27 @@ import org.dinky.service.TaskService;
 import java.io.BufferedReader;
 import java.io.File;
 import java.io.InputStreamReader;
+import java.io.Serializable;
 import java.nio.file.Files;
-import java.util.ArrayList;
-import java.util.Comparator;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.stream.Collectors;
 
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
 import com.baomidou.mybatisplus.core.conditions.query.QueryWrapper;
 
 import cn.hutool.core.bean.BeanUtil;
 import cn.hutool.core.collection.CollUtil;
-import cn.hutool.core.collection.CollectionUtil;
 import cn.hutool.core.lang.Opt;
 import cn.hutool.core.util.ObjectUtil;
 import lombok.RequiredArgsConstructor;
@@ -88,12 +93,24 @@ public class CatalogueServiceImpl extends SuperServiceImpl<CatalogueMapper, Cata
 
     private final MonitorService monitorService;
 
+    /**
+     * tenant id -> the catalogue index of the tenant
+     */
+    private final Map<String, CatalogueTreeIndex> treeIndexes = new ConcurrentHashMap<>();
+
     /**
      * @return
      */
     @Override
     public List<Catalogue> getCatalogueTree() {
-        return buildCatalogueTree(this.list());
+        CatalogueTreeIndex treeIndex = getTreeIndex();
+        return treeIndex.buildTree(getTreeTasks(null));
+    }
+
+    @Override
+    public List<Catalogue> getCatalogueChildren(Integer parentId) {
+        CatalogueTreeIndex treeIndex = getTreeIndex();
+        return treeIndex.getChildren(parentId, getTreeTasks(treeIndex.getTaskIds(parentId)));
     }
 
     /**
@@ -103,80 +120,92 @@ public class CatalogueServiceImpl extends SuperServiceImpl<CatalogueMapper, Cata
      * @return catalogue tree
      */
     public List<Catalogue> buildCatalogueTree(List<Catalogue> catalogueList) {
-        // sort
-        if (CollectionUtil.isNotEmpty(catalogueList)) {
-            catalogueList = catalogueList.stream()
-                    .sorted(Comparator.comparing(Catalogue::getId))
-                    .collect(Collectors.toList());
-        }
-        List<Task> taskList = taskService.list();
-        List<Catalogue> returnList = new ArrayList<>();
-        for (Catalogue catalogue : catalogueList) {
-            //  get all child catalogue of parent catalogue id , the 0 is root catalogue
-            if (catalogue.getParentId() == 0) {
-                recursionBuildCatalogueAndChildren(catalogueList, catalogue, taskList);
-                returnList.add(catalogue);
-            }
-        }
-        if (returnList.isEmpty()) {
-            returnList = catalogueList;
-        }
-        return returnList;
+        return new CatalogueTreeIndex(catalogueList).buildTree(getTreeTasks(null));
     }
 
     /**
-     * recursion build catalogue and children
-     *
-     * @param list
-     * @param catalogues
+     * The catalogue index of the current tenant, it is loaded once and then kept up to date by the changes of the
+     * catalogues.
      */
-    private void recursionBuildCatalogueAndChildren(List<Catalogue> list, Catalogue catalogues, List<Task> taskList) {
-        // 得到子节点列表
-        List<Catalogue> childList = getChildList(list, catalogues);
-        catalogues.setChildren(childList);
-        for (Catalogue tChild : childList) {
-            if (hasChild(list, tChild)) {
-                // Determine whether there are child nodes
-                for (Catalogue children : childList) {
-                    recursionBuildCatalogueAndChildren(list, children, taskList);
-                }
-            } else {
-                if (tChild.getIsLeaf() || null != tChild.getTaskId()) {
-                    taskList.stream()
-                            .filter(t -> t.getId().equals(tChild.getTaskId()))
-                            .findFirst()
-                            .ifPresent(tChild::setTaskAndNote);
-                }
-            }
+    private CatalogueTreeIndex getTreeIndex() {
+        if (TenantContextHolder.isIgnoreTenant()) {
+            return new CatalogueTreeIndex(this.list());
         }
+        return treeIndexes.computeIfAbsent(getTenantKey(), k -> new CatalogueTreeIndex(this.list()));
+    }
+
+    private static String getTenantKey() {
+        return String.valueOf(TenantContextHolder.get());
     }
 
     /**
-     * Determine whether there are child nodes
+     * task id -> task of the catalogue tree, without the statements which the tree does not show
      *
-     * @param list
-     * @param catalogue
-     * @return
+     * @param taskIds the task ids, or null for all the tasks
      */
-    private boolean hasChild(List<Catalogue> list, Catalogue catalogue) {
-        return !getChildList(list, catalogue).isEmpty();
+    private Map<Integer, Task> getTreeTasks(Collection<Integer> taskIds) {
+        if (taskIds != null && taskIds.isEmpty()) {
+            return Collections.emptyMap();
+        }
+        LambdaQueryWrapper<Task> queryWrapper = new LambdaQueryWrapper<Task>()
+                .select(Task.class, field -> !"statement".equals(field.getColumn()))
+                .in(taskIds != null, Task::getId, taskIds);
+        return taskService.list(queryWrapper).stream().collect(Collectors.toMap(Task::getId, t -> t, (a, b) -> a));
+    }
+
+    @Override
+    public boolean save(Catalogue entity) {
+        boolean saved = super.save(entity);
+        if (saved) {
+            refreshTreeIndex(entity.getId());
+        }
+        return saved;
+    }
+
+    @Override
+    public boolean updateById(Catalogue entity) {
+        boolean updated = super.updateById(entity);
+        if (updated) {
+            refreshTreeIndex(entity.getId());
+        }
+        return updated;
+    }
+
+    @Override
+    public boolean removeById(Serializable id) {
+        boolean removed = super.removeById(id);
+        if (removed) {
+            refreshTreeIndex((Integer) id);
+        }
+        return removed;
     }
 
     /**
-     * get child list
-     *
-     * @param list
-     * @param catalogue
-     * @return
+     * Apply a changed catalogue to the index of the tenant once the change is committed.
      */
-    private List<Catalogue> getChildList(List<Catalogue> list, Catalogue catalogue) {
-        List<Catalogue> childList = new ArrayList<>();
-        for (Catalogue n : list) {
-            if (n.getParentId().longValue() == catalogue.getId().longValue()) {
-                childList.add(n);
+    private void refreshTreeIndex(Integer id) {
+        CatalogueTreeIndex treeIndex = treeIndexes.get(getTenantKey());
+        if (treeIndex == null || id == null) {
+            return;
+        }
+        Catalogue catalogue = baseMapper.selectById(id);
+        Runnable refresh = () -> {
+            if (catalogue == null) {
+                treeIndex.remove(id);
+            } else {
+                treeIndex.put(catalogue);
             }
+        };
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    refresh.run();
+                }
+            });
+        } else {
+            refresh.run();
         }
-        return childList;
     }
 
     @Override
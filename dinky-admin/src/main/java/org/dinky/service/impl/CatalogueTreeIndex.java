@@ -0,0 +1,167 @@
+/*
+ *
+ *  Licensed to the Apache Software Foundation (ASF) under one or more
+ *  contributor license agreements.  See the NOTICE file distributed with
+ *  this work for additional information regarding copyright ownership.
+ *  The ASF licenses this file to You under the Apache License, Version 2.0
+ *  (the "License"); you may not use this file except in compliance with
+ *  the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+
+package org.dinky.service.impl;
+
+import org.dinky.data.model.Catalogue;
+import org.dinky.data.model.Task;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * In memory index of the catalogues of a tenant, built in one pass with the children of every catalogue, and kept up
+ * to date when a catalogue is created, renamed, moved or deleted. The trees are built from copies of the indexed
+ * catalogues, so the callers can not change the index.
+ */
+public class CatalogueTreeIndex {
+
+    private static final Integer ROOT_ID = 0;
+
+    /** id -> catalogue */
+    private final Map<Integer, Catalogue> catalogues = new HashMap<>();
+
+    /** parent id -> the child ids, ordered by id */
+    private final Map<Integer, NavigableSet<Integer>> children = new HashMap<>();
+
+    public CatalogueTreeIndex(Collection<Catalogue> catalogueList) {
+        catalogueList.forEach(this::put);
+    }
+
+    /**
+     * Add a catalogue, or replace it when it is renamed or moved.
+     */
+    public synchronized void put(Catalogue catalogue) {
+        Catalogue old = catalogues.put(catalogue.getId(), catalogue);
+        if (old != null) {
+            unlink(old);
+        }
+        children.computeIfAbsent(catalogue.getParentId(), k -> new TreeSet<>()).add(catalogue.getId());
+    }
+
+    public synchronized void remove(Integer id) {
+        Catalogue old = catalogues.remove(id);
+        if (old != null) {
+            unlink(old);
+        }
+    }
+
+    public synchronized int size() {
+        return catalogues.size();
+    }
+
+    /**
+     * The task ids of the children of a catalogue, or of all the catalogues when the parent id is null.
+     */
+    public synchronized Set<Integer> getTaskIds(Integer parentId) {
+        Set<Integer> taskIds = new TreeSet<>();
+        Collection<Integer> ids = parentId == null ? catalogues.keySet() : childIds(parentId);
+        for (Integer id : ids) {
+            Integer taskId = catalogues.get(id).getTaskId();
+            if (taskId != null) {
+                taskIds.add(taskId);
+            }
+        }
+        return taskIds;
+    }
+
+    /**
+     * Build the whole tree, the catalogues under the root catalogue with all their descendants.
+     *
+     * @param tasks task id -> task, set on the catalogues without children
+     */
+    public synchronized List<Catalogue> buildTree(Map<Integer, Task> tasks) {
+        List<Catalogue> roots = new ArrayList<>();
+        for (Integer id : childIds(ROOT_ID)) {
+            roots.add(buildNode(id, tasks));
+        }
+        if (roots.isEmpty()) {
+            // Without a root catalogue, every catalogue is returned as is
+            for (Integer id : new TreeSet<>(catalogues.keySet())) {
+                roots.add(copy(catalogues.get(id), tasks));
+            }
+        }
+        return roots;
+    }
+
+    /**
+     * The children of a catalogue, without their descendants, to load the tree lazily.
+     */
+    public synchronized List<Catalogue> getChildren(Integer parentId, Map<Integer, Task> tasks) {
+        List<Catalogue> result = new ArrayList<>();
+        for (Integer id : childIds(parentId)) {
+            result.add(copy(catalogues.get(id), tasks));
+        }
+        return result;
+    }
+
+    private Catalogue buildNode(Integer id, Map<Integer, Task> tasks) {
+        Catalogue node = copy(catalogues.get(id), tasks);
+        for (Integer childId : childIds(id)) {
+            node.getChildren().add(buildNode(childId, tasks));
+        }
+        return node;
+    }
+
+    private Catalogue copy(Catalogue catalogue, Map<Integer, Task> tasks) {
+        Catalogue copy = new Catalogue(
+                catalogue.getName(),
+                catalogue.getTaskId(),
+                catalogue.getType(),
+                catalogue.getParentId(),
+                catalogue.getIsLeaf());
+        copy.setId(catalogue.getId());
+        copy.setTenantId(catalogue.getTenantId());
+        copy.setEnabled(catalogue.getEnabled());
+        copy.setCreateTime(catalogue.getCreateTime());
+        copy.setUpdateTime(catalogue.getUpdateTime());
+        copy.setCreator(catalogue.getCreator());
+        copy.setUpdater(catalogue.getUpdater());
+        if (childIds(catalogue.getId()).isEmpty()
+                && (Boolean.TRUE.equals(catalogue.getIsLeaf()) || catalogue.getTaskId() != null)) {
+            Task task = tasks.get(catalogue.getTaskId());
+            if (task != null) {
+                copy.setTaskAndNote(task);
+            }
+        }
+        return copy;
+    }
+
+    private Set<Integer> childIds(Integer parentId) {
+        NavigableSet<Integer> ids = children.get(parentId);
+        return ids == null ? Collections.emptySet() : ids;
+    }
+
+    private void unlink(Catalogue catalogue) {
+        NavigableSet<Integer> siblings = children.get(catalogue.getParentId());
+        if (siblings != null) {
+            siblings.remove(catalogue.getId());
+            if (siblings.isEmpty()) {
+                children.remove(catalogue.getParentId());
+            }
+        }
+    }
+}
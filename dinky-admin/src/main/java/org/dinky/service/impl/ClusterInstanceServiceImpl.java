@@ -19,6 +19,7 @@
 
 package org.dinky.service.impl;
 
+import org.dinky.api.FlinkAsyncAPI;
 import org.dinky.assertion.Asserts;
 import org.dinky.assertion.DinkyAssert;
 import org.dinky.cluster.FlinkCluster;
@@ -37,6 +38,7 @@ import org.dinky.gateway.model.FlinkClusterConfig;
 import org.dinky.gateway.result.GatewayResult;
 import org.dinky.job.JobConfig;
 import org.dinky.job.JobManager;
+import org.dinky.job.handler.ClusterJobOverviewHandler;
 import org.dinky.mapper.ClusterInstanceMapper;
 import org.dinky.mybatis.service.impl.SuperServiceImpl;
 import org.dinky.service.ClusterConfigurationService;
@@ -97,6 +99,7 @@ public class ClusterInstanceServiceImpl extends SuperServiceImpl<ClusterInstance
         }
         DinkyAssert.checkHost(host);
         if (!host.equals(clusterInstance.getJobManagerHost())) {
+            closeClient(clusterInstance.getJobManagerHost());
             clusterInstance.setJobManagerHost(host);
             updateById(clusterInstance);
         }
@@ -176,12 +179,18 @@ public class ClusterInstanceServiceImpl extends SuperServiceImpl<ClusterInstance
             throw new BusException(Status.CLUSTER_INSTANCE_EXIST_RELATIONSHIP);
         }
         ClusterInstance clusterInstance = getById(id);
+        String jobManagerHost = Asserts.isNull(clusterInstance) ? null : clusterInstance.getJobManagerHost();
         // if cluster instance is not null and cluster instance is health, can not delete, must kill cluster instance
         // first
         if (Asserts.isNotNull(clusterInstance) && checkHealth(clusterInstance)) {
             throw new BusException(Status.CLUSTER_INSTANCE_HEALTH_NOT_DELETE);
         }
-        return removeById(id);
+        boolean removed = removeById(id);
+        if (removed) {
+            closeClient(jobManagerHost);
+            ClusterJobOverviewHandler.removeCluster(id);
+        }
+        return removed;
     }
 
     @Override
@@ -198,6 +207,7 @@ public class ClusterInstanceServiceImpl extends SuperServiceImpl<ClusterInstance
         int count = 0;
         for (ClusterInstance item : clusterInstances) {
             if ((!checkHealth(item)) && removeById(item)) {
+                ClusterJobOverviewHandler.removeCluster(item.getId());
                 count++;
             }
         }
@@ -291,7 +301,12 @@ public class ClusterInstanceServiceImpl extends SuperServiceImpl<ClusterInstance
     }
 
     private boolean checkHealth(ClusterInstance clusterInstance) {
-        FlinkClusterInfo info = checkHeartBeat(clusterInstance.getHosts(), clusterInstance.getJobManagerHost());
+        String jobManagerHost = clusterInstance.getJobManagerHost();
+        FlinkClusterInfo info = checkHeartBeat(clusterInstance.getHosts(), jobManagerHost);
+        if (!StrUtil.equals(jobManagerHost, info.getJobManagerAddress())) {
+            // The cluster moved or is gone, the pooled connections to its old address are of no use
+            closeClient(jobManagerHost);
+        }
         if (!info.isEffective()) {
             clusterInstance.setJobManagerHost("");
             clusterInstance.setStatus(0);
@@ -303,4 +318,10 @@ public class ClusterInstanceServiceImpl extends SuperServiceImpl<ClusterInstance
             return true;
         }
     }
+
+    private static void closeClient(String jobManagerHost) {
+        if (StrUtil.isNotBlank(jobManagerHost)) {
+            FlinkAsyncAPI.close(jobManagerHost);
+        }
+    }
 }
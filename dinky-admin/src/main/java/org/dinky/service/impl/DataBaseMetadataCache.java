@@ -0,0 +1,342 @@
+/*
+ *
+ *  Licensed to the Apache Software Foundation (ASF) under one or more
+ *  contributor license agreements.  See the NOTICE file distributed with
+ *  this work for additional information regarding copyright ownership.
+ *  The ASF licenses this file to You under the Apache License, Version 2.0
+ *  (the "License"); you may not use this file except in compliance with
+ *  the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+
+package org.dinky.service.impl;
+
+import org.dinky.data.exception.BusException;
+import org.dinky.data.model.Column;
+import org.dinky.data.model.DataBase;
+import org.dinky.data.model.Schema;
+import org.dinky.data.model.Table;
+import org.dinky.metadata.driver.Driver;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * The schemas, tables and columns of the datasources, loaded once and then refreshed per schema.
+ *
+ * <p>The tables of the schemas are listed in parallel, each loader takes its own connection from the pool of the
+ * driver. A schema older than the ttl is listed again and only the tables whose create time, update time or, when the
+ * dialect reports no time, row count changed lose their columns; the columns are loaded again on the next lookup. A
+ * dialect that reports none of them loses all the columns of the schema.
+ *
+ * <p>The ttl and the loaders can be set with the system properties {@code dinky.metadata.cache-ttl} (millis) and
+ * {@code dinky.metadata.load-parallelism}.
+ */
+@Slf4j
+public class DataBaseMetadataCache {
+
+    private static final long TTL = Long.getLong("dinky.metadata.cache-ttl", TimeUnit.MINUTES.toMillis(10));
+    private static final int PARALLELISM = Integer.getInteger("dinky.metadata.load-parallelism", 4);
+
+    private static final AtomicInteger THREAD_INDEX = new AtomicInteger(0);
+
+    private static final ThreadPoolExecutor EXECUTOR =
+            new ThreadPoolExecutor(PARALLELISM, PARALLELISM, 60, TimeUnit.SECONDS, new LinkedBlockingQueue<>(), r -> {
+                Thread thread = new Thread(r, "MetadataLoader-" + THREAD_INDEX.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            });
+
+    static {
+        EXECUTOR.allowCoreThreadTimeOut(true);
+    }
+
+    private final Function<DataBase, Driver> driverFactory;
+
+    /** datasource id -> catalog */
+    private final Map<Integer, CatalogEntry> catalogs = new ConcurrentHashMap<>();
+
+    public DataBaseMetadataCache() {
+        this(dataBase -> Driver.build(dataBase.getDriverConfig()));
+    }
+
+    DataBaseMetadataCache(Function<DataBase, Driver> driverFactory) {
+        this.driverFactory = driverFactory;
+    }
+
+    /**
+     * @return the schemas with their tables, the tables come without columns
+     */
+    public List<Schema> getSchemasAndTables(DataBase dataBase) {
+        CatalogEntry catalog = getCatalog(dataBase);
+        List<Schema> schemas = new ArrayList<>();
+        for (SchemaEntry schema : catalog.schemas.values()) {
+            schemas.add(new Schema(schema.name, copyTables(schema)));
+        }
+        Collections.sort(schemas);
+        return schemas;
+    }
+
+    public List<Table> listTables(DataBase dataBase, String schemaName) {
+        SchemaEntry schema = getSchema(dataBase, schemaName);
+        if (schema == null) {
+            return new ArrayList<>();
+        }
+        return copyTables(schema);
+    }
+
+    public List<Column> listColumns(DataBase dataBase, String schemaName, String tableName) {
+        TableEntry table = getTableEntry(dataBase, schemaName, tableName);
+        if (table == null) {
+            // Not listed by the dialect, e.g. a table hidden from the tables query
+            try (Driver driver = driverFactory.apply(dataBase)) {
+                return driver.listColumns(schemaName, tableName);
+            }
+        }
+        return new ArrayList<>(loadColumns(dataBase, table));
+    }
+
+    /**
+     * @return a copy of the table with its columns, or null if there is no such table
+     */
+    public Table getTable(DataBase dataBase, String schemaName, String tableName) {
+        TableEntry entry = getTableEntry(dataBase, schemaName, tableName);
+        if (entry == null) {
+            return null;
+        }
+        Table table = (Table) entry.table.clone();
+        table.setColumns(new ArrayList<>(loadColumns(dataBase, entry)));
+        return table;
+    }
+
+    /**
+     * Refresh the tables of a schema, or the columns of one of its tables. Without a schema the whole catalog of the
+     * datasource is dropped and loaded again on the next lookup.
+     */
+    public void refresh(DataBase dataBase, String schemaName, String tableName) {
+        if (schemaName == null) {
+            invalidate(dataBase.getId());
+            return;
+        }
+        CatalogEntry catalog = catalogs.get(dataBase.getId());
+        SchemaEntry schema = catalog == null ? null : catalog.schemas.get(schemaName);
+        if (schema == null) {
+            getSchema(dataBase, schemaName);
+            return;
+        }
+        if (tableName == null) {
+            try (Driver driver = driverFactory.apply(dataBase)) {
+                schema.refresh(driver.listTables(schemaName));
+            }
+            return;
+        }
+        TableEntry table = schema.tables.get(tableName);
+        if (table == null) {
+            try (Driver driver = driverFactory.apply(dataBase)) {
+                schema.refresh(driver.listTables(schemaName));
+            }
+            table = schema.tables.get(tableName);
+        }
+        if (table != null) {
+            table.columns = null;
+            loadColumns(dataBase, table);
+        }
+    }
+
+    public void invalidate(Integer id) {
+        catalogs.remove(id);
+    }
+
+    private CatalogEntry getCatalog(DataBase dataBase) {
+        CatalogEntry catalog = catalogs.computeIfAbsent(dataBase.getId(), id -> new CatalogEntry());
+        synchronized (catalog) {
+            if (System.currentTimeMillis() - catalog.loadTime > TTL) {
+                load(dataBase, catalog);
+            }
+        }
+        return catalog;
+    }
+
+    private SchemaEntry getSchema(DataBase dataBase, String schemaName) {
+        CatalogEntry catalog = getCatalog(dataBase);
+        SchemaEntry schema = catalog.schemas.get(schemaName);
+        if (schema == null) {
+            // Created after the catalog was loaded
+            synchronized (catalog) {
+                load(dataBase, catalog);
+            }
+            schema = catalog.schemas.get(schemaName);
+        }
+        return schema;
+    }
+
+    private TableEntry getTableEntry(DataBase dataBase, String schemaName, String tableName) {
+        SchemaEntry schema = getSchema(dataBase, schemaName);
+        if (schema == null) {
+            return null;
+        }
+        TableEntry table = schema.tables.get(tableName);
+        if (table == null) {
+            // Created after the schema was listed
+            try (Driver driver = driverFactory.apply(dataBase)) {
+                schema.refresh(driver.listTables(schemaName));
+            }
+            table = schema.tables.get(tableName);
+        }
+        return table;
+    }
+
+    private List<Column> loadColumns(DataBase dataBase, TableEntry table) {
+        List<Column> columns = table.columns;
+        if (columns == null) {
+            synchronized (table) {
+                columns = table.columns;
+                if (columns == null) {
+                    try (Driver driver = driverFactory.apply(dataBase)) {
+                        columns = Collections.unmodifiableList(
+                                driver.listColumns(table.table.getSchema(), table.table.getName()));
+                    }
+                    table.columns = columns;
+                }
+            }
+        }
+        return columns;
+    }
+
+    /**
+     * List the schemas, then the tables of the new and the expired schemas in parallel.
+     */
+    private void load(DataBase dataBase, CatalogEntry catalog) {
+        List<Schema> schemas;
+        try (Driver driver = driverFactory.apply(dataBase)) {
+            schemas = driver.listSchemas();
+        }
+        long now = System.currentTimeMillis();
+        Map<String, SchemaEntry> entries = new LinkedHashMap<>();
+        Map<SchemaEntry, Future<List<Table>>> loads = new HashMap<>();
+        for (Schema schema : schemas) {
+            SchemaEntry entry = catalog.schemas.get(schema.getName());
+            if (entry == null) {
+                entry = new SchemaEntry(schema.getName());
+            }
+            entries.put(schema.getName(), entry);
+            if (now - entry.loadTime > TTL) {
+                loads.put(entry, EXECUTOR.submit(() -> {
+                    try (Driver driver = driverFactory.apply(dataBase)) {
+                        return driver.listTables(schema.getName());
+                    }
+                }));
+            }
+        }
+        try {
+            for (Map.Entry<SchemaEntry, Future<List<Table>>> load : loads.entrySet()) {
+                load.getKey().refresh(load.getValue().get());
+            }
+        } catch (InterruptedException e) {
+            loads.values().forEach(load -> load.cancel(true));
+            Thread.currentThread().interrupt();
+            throw new BusException(e.getMessage());
+        } catch (ExecutionException e) {
+            loads.values().forEach(load -> load.cancel(true));
+            log.error("Load the tables of {} failed", dataBase.getName(), e.getCause());
+            throw new BusException(e.getCause().getMessage());
+        }
+        catalog.schemas = entries;
+        catalog.loadTime = now;
+    }
+
+    private static List<Table> copyTables(SchemaEntry schema) {
+        List<Table> tables = new ArrayList<>();
+        for (TableEntry table : schema.tables.values()) {
+            tables.add((Table) table.table.clone());
+        }
+        Collections.sort(tables);
+        return tables;
+    }
+
+    /**
+     * Whether the columns of a table may have changed since it was listed.
+     */
+    static boolean isChanged(Table cached, Table listed) {
+        boolean hasTime = listed.getCreateTime() != null || listed.getUpdateTime() != null;
+        if (hasTime) {
+            return !Objects.equals(cached.getCreateTime(), listed.getCreateTime())
+                    || !Objects.equals(cached.getUpdateTime(), listed.getUpdateTime());
+        }
+        return listed.getRows() == null || !Objects.equals(cached.getRows(), listed.getRows());
+    }
+
+    private static class CatalogEntry {
+
+        /** schema name -> schema, replaced as a whole on every load */
+        private volatile Map<String, SchemaEntry> schemas = Collections.emptyMap();
+
+        private volatile long loadTime = 0;
+    }
+
+    private static class SchemaEntry {
+
+        private final String name;
+
+        /** table name -> table, replaced as a whole on every refresh */
+        private volatile Map<String, TableEntry> tables = Collections.emptyMap();
+
+        private volatile long loadTime = 0;
+
+        private SchemaEntry(String name) {
+            this.name = name;
+        }
+
+        /**
+         * Replace the tables with the listed ones, keeping the columns of the unchanged tables.
+         */
+        private synchronized void refresh(List<Table> listed) {
+            Map<String, TableEntry> refreshed = new HashMap<>();
+            for (Table table : listed) {
+                table.setColumns(null);
+                TableEntry entry = new TableEntry(table);
+                TableEntry cached = tables.get(table.getName());
+                if (cached != null && !isChanged(cached.table, table)) {
+                    entry.columns = cached.columns;
+                }
+                refreshed.put(table.getName(), entry);
+            }
+            tables = refreshed;
+            loadTime = System.currentTimeMillis();
+        }
+    }
+
+    private static class TableEntry {
+
+        private final Table table;
+
+        private volatile List<Column> columns;
+
+        private TableEntry(Table table) {
+            this.table = table;
+        }
+    }
+}
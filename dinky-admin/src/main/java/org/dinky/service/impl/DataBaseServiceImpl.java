@@ -73,6 +73,8 @@ public class DataBaseServiceImpl extends SuperServiceImpl<DataBaseMapper, DataBa
     @Autowired
     private TaskService taskService;
 
+    private final DataBaseMetadataCache metadataCache = new DataBaseMetadataCache();
+
     @Override
     public String testConnect(DataBaseDTO db) {
         return Driver.buildUnconnected(db.getName(), db.getType(), db.getConnectConfig())
@@ -107,6 +109,9 @@ public class DataBaseServiceImpl extends SuperServiceImpl<DataBaseMapper, DataBa
         if (Asserts.isNull(dataBase)) {
             return false;
         }
+        if (Asserts.isNotNull(dataBase.getId())) {
+            metadataCache.invalidate(dataBase.getId());
+        }
         try {
             checkHeartBeat(dataBase);
         } finally {
@@ -148,57 +153,61 @@ public class DataBaseServiceImpl extends SuperServiceImpl<DataBaseMapper, DataBa
         if (hasRelationShip(id)) {
             throw new BusException(Status.DATASOURCE_EXIST_RELATIONSHIP);
         }
+        metadataCache.invalidate(id);
         return this.removeById(id);
     }
 
     @Override
     public List<Schema> getSchemasAndTables(Integer id) {
-        DataBase dataBase = getById(id);
-        Asserts.checkNotNull(dataBase, Status.DATASOURCE_NOT_EXIST.getMessage());
-        Driver driver = Driver.build(dataBase.getDriverConfig());
-        List<Schema> schemasAndTables = driver.getSchemasAndTables();
-        driver.close();
-        return schemasAndTables;
+        return metadataCache.getSchemasAndTables(getDataBase(id));
+    }
+
+    @Override
+    public List<Table> listTables(Integer id, String schemaName) {
+        return metadataCache.listTables(getDataBase(id), schemaName);
     }
 
     @Override
     public List<Column> listColumns(Integer id, String schemaName, String tableName) {
-        DataBase dataBase = getById(id);
-        Asserts.checkNotNull(dataBase, Status.DATASOURCE_NOT_EXIST.getMessage());
-        Driver driver = Driver.build(dataBase.getDriverConfig());
-        List<Column> columns = driver.listColumns(schemaName, tableName);
-        driver.close();
-        return columns;
+        return metadataCache.listColumns(getDataBase(id), schemaName, tableName);
+    }
+
+    @Override
+    public void refreshMetadata(Integer id, String schemaName, String tableName) {
+        metadataCache.refresh(getDataBase(id), schemaName, tableName);
+    }
+
+    @Override
+    public void invalidateMetadata(Integer id) {
+        metadataCache.invalidate(id);
     }
 
     @Override
     public String getFlinkTableSql(Integer id, String schemaName, String tableName) {
-        DataBase dataBase = getById(id);
-        Asserts.checkNotNull(dataBase, Status.DATASOURCE_NOT_EXIST.getMessage());
-        Driver driver = Driver.build(dataBase.getDriverConfig());
-        List<Column> columns = driver.listColumns(schemaName, tableName);
+        DataBase dataBase = getDataBase(id);
+        List<Column> columns = metadataCache.listColumns(dataBase, schemaName, tableName);
         Table table = Table.build(tableName, schemaName, columns);
         return table.getFlinkTableSql(dataBase.getName(), dataBase.getFlinkTemplate());
     }
 
     @Override
     public String getSqlSelect(Integer id, String schemaName, String tableName) {
-        DataBase dataBase = getById(id);
-        Asserts.checkNotNull(dataBase, Status.DATASOURCE_NOT_EXIST.getMessage());
-        Driver driver = Driver.build(dataBase.getDriverConfig());
-        List<Column> columns = driver.listColumns(schemaName, tableName);
+        DataBase dataBase = getDataBase(id);
+        List<Column> columns = metadataCache.listColumns(dataBase, schemaName, tableName);
         Table table = Table.build(tableName, schemaName, columns);
-        return driver.getSqlSelect(table);
+        try (Driver driver = Driver.build(dataBase.getDriverConfig())) {
+            return driver.getSqlSelect(table);
+        }
     }
 
     @Override
     public String getSqlCreate(Integer id, String schemaName, String tableName) {
-        DataBase dataBase = getById(id);
-        Asserts.checkNotNull(dataBase, Status.DATASOURCE_NOT_EXIST.getMessage());
-        Driver driver = Driver.build(dataBase.getDriverConfig());
-        List<Column> columns = driver.listColumns(schemaName, tableName);
+        DataBase dataBase = getDataBase(id);
+        List<Column> columns = metadataCache.listColumns(dataBase, schemaName, tableName);
         Table table = Table.build(tableName, schemaName, columns);
-        return driver.getCreateTableSql(table);
+        try (Driver driver = Driver.build(dataBase.getDriverConfig())) {
+            return driver.getCreateTableSql(table);
+        }
     }
 
     @Override
@@ -225,15 +234,15 @@ public class DataBaseServiceImpl extends SuperServiceImpl<DataBaseMapper, DataBa
 
     @Override
     public SqlGeneration getSqlGeneration(Integer id, String schemaName, String tableName) {
-        DataBase dataBase = getById(id);
-        Asserts.checkNotNull(dataBase, Status.DATASOURCE_NOT_EXIST.getMessage());
-        Driver driver = Driver.build(dataBase.getDriverConfig());
-        Table table = driver.getTable(schemaName, tableName);
+        DataBase dataBase = getDataBase(id);
+        Table table = metadataCache.getTable(dataBase, schemaName, tableName);
+        Asserts.checkNotNull(table, "Table " + schemaName + "." + tableName + " does not exist");
         SqlGeneration sqlGeneration = new SqlGeneration();
         sqlGeneration.setFlinkSqlCreate(table.getFlinkTableSql(dataBase.getName(), dataBase.getFlinkTemplate()));
-        sqlGeneration.setSqlSelect(driver.getSqlSelect(table));
-        sqlGeneration.setSqlCreate(driver.getCreateTableSql(table));
-        driver.close();
+        try (Driver driver = Driver.build(dataBase.getDriverConfig())) {
+            sqlGeneration.setSqlSelect(driver.getSqlSelect(table));
+            sqlGeneration.setSqlCreate(driver.getCreateTableSql(table));
+        }
         return sqlGeneration;
     }
 
@@ -387,6 +396,12 @@ public class DataBaseServiceImpl extends SuperServiceImpl<DataBaseMapper, DataBa
         }
     }
 
+    private DataBase getDataBase(Integer id) {
+        DataBase dataBase = getById(id);
+        Asserts.checkNotNull(dataBase, Status.DATASOURCE_NOT_EXIST.getMessage());
+        return dataBase;
+    }
+
     /**
      * check datasource has relationship with other table
      *
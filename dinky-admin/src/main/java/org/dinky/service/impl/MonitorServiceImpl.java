@@ -32,19 +32,19 @@ import org.dinky.mapper.MetricsMapper;
 import org.dinky.service.JobInstanceService;
 import org.dinky.service.MonitorService;
 import org.dinky.shaded.paimon.data.BinaryString;
-import org.dinky.shaded.paimon.data.Timestamp;
-import org.dinky.shaded.paimon.predicate.Predicate;
-import org.dinky.shaded.paimon.predicate.PredicateBuilder;
 import org.dinky.utils.JsonUtils;
+import org.dinky.utils.MetricsDownsampler;
+import org.dinky.utils.PaimonPage;
+import org.dinky.utils.PaimonQuery;
 import org.dinky.utils.PaimonUtil;
 
+import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.Date;
 import java.util.List;
 import java.util.Map;
 import java.util.UUID;
 import java.util.concurrent.Executor;
-import java.util.function.Function;
 import java.util.stream.Collectors;
 
 import org.springframework.stereotype.Service;
@@ -68,33 +68,69 @@ public class MonitorServiceImpl extends ServiceImpl<MetricsMapper, Metrics> impl
     private final Executor scheduleRefreshMonitorDataExecutor;
     private final JobInstanceService jobInstanceService;
 
-    @Override
-    public List<MetricsVO> getData(Date startTime, Date endTime, List<String> models) {
+    private static final String HEART_TIME = "heart_time";
+    private static final String MODEL = "model";
+    private static final String CONTENT = "content";
+
+    /**
+     * The metrics of the models in the time range, the range is also pushed down to the date partitions.
+     */
+    private static PaimonQuery.PaimonQueryBuilder buildQuery(Date startTime, Date endTime, List<String> models) {
         if (models.isEmpty()) {
             throw new DinkyException("Please provide at least one monitoring ID");
         }
-        endTime = Opt.ofNullable(endTime).orElse(DateUtil.date());
-        Timestamp startTS = Timestamp.fromLocalDateTime(DateUtil.toLocalDateTime(startTime));
-        Timestamp endTS = Timestamp.fromLocalDateTime(DateUtil.toLocalDateTime(endTime));
-
         if (endTime.compareTo(startTime) < 1) {
             throw new DinkyException("The end date must be greater than the start date!");
         }
+        List<Object> modelValues = models.stream().map(BinaryString::fromString).collect(Collectors.toList());
+        return PaimonQuery.builder()
+                .filter(p -> CollUtil.newArrayList(p.in(p.indexOf(MODEL), modelValues)))
+                .timeColumn(HEART_TIME)
+                .startTime(DateUtil.toLocalDateTime(startTime))
+                .endTime(DateUtil.toLocalDateTime(endTime));
+    }
 
-        Function<PredicateBuilder, List<Predicate>> filter = p -> {
-            Predicate greaterOrEqual = p.greaterOrEqual(0, startTS);
-            Predicate lessOrEqual = p.lessOrEqual(0, endTS);
-            Predicate local =
-                    p.in(1, models.stream().map(BinaryString::fromString).collect(Collectors.toList()));
-            return CollUtil.newArrayList(local, greaterOrEqual, lessOrEqual);
-        };
-        List<MetricsVO> metricsVOList =
-                PaimonUtil.batchReadTable(PaimonTableConstant.DINKY_METRICS, MetricsVO.class, filter);
-        return metricsVOList.stream()
-                .filter(x -> x.getHeartTime().isAfter(startTS.toLocalDateTime()))
-                .filter(x -> x.getHeartTime().isBefore(endTS.toLocalDateTime()))
-                .peek(vo -> vo.setContent(JsonUtils.parseObject(vo.getContent().toString())))
-                .collect(Collectors.toList());
+    @Override
+    public List<MetricsVO> getData(Date startTime, Date endTime, List<String> models) {
+        endTime = Opt.ofNullable(endTime).orElse(DateUtil.date());
+        PaimonQuery query = buildQuery(startTime, endTime, models).build();
+        LocalDateTime start = query.getStartTime();
+        LocalDateTime end = query.getEndTime();
+
+        List<MetricsVO> metricsVOList = new ArrayList<>();
+        PaimonUtil.readTable(PaimonTableConstant.DINKY_METRICS, MetricsVO.class, query, vo -> {
+            if (vo.getHeartTime().isAfter(start) && vo.getHeartTime().isBefore(end)) {
+                vo.setContent(JsonUtils.parseObject(vo.getContent().toString()));
+                metricsVOList.add(vo);
+            }
+        });
+        return metricsVOList;
+    }
+
+    @Override
+    public List<MetricsVO> getDownsampledData(Date startTime, Date endTime, List<String> models, int maxPoints) {
+        endTime = Opt.ofNullable(endTime).orElse(DateUtil.date());
+        PaimonQuery query = buildQuery(startTime, endTime, models)
+                .columns(CollUtil.newArrayList(HEART_TIME, MODEL, CONTENT))
+                .build();
+        MetricsDownsampler downsampler = new MetricsDownsampler(query.getStartTime(), query.getEndTime(), maxPoints);
+        PaimonUtil.readTable(PaimonTableConstant.DINKY_METRICS, MetricsVO.class, query, downsampler::add);
+        return downsampler.getResult();
+    }
+
+    @Override
+    public PaimonPage<MetricsVO> getDataPage(
+            Date startTime, Date endTime, List<String> models, int limit, LocalDateTime cursor) {
+        endTime = Opt.ofNullable(endTime).orElse(DateUtil.date());
+        PaimonQuery query = buildQuery(startTime, endTime, models)
+                .limit(limit)
+                .after(cursor)
+                .build();
+        PaimonPage<MetricsVO> page = PaimonUtil.readPage(PaimonTableConstant.DINKY_METRICS, MetricsVO.class, query);
+        page.getData()
+                .forEach(vo ->
+                        vo.setContent(JsonUtils.parseObject(vo.getContent().toString())));
+        return page;
     }
 
     @Override
@@ -19,6 +19,7 @@
 
 package org.dinky.service.impl;
 
+import org.dinky.connector.printnet.sink.PrintNetFrame;
 import org.dinky.context.SseSessionContextHolder;
 import org.dinky.data.enums.SseTopic;
 import org.dinky.data.vo.PrintTableVo;
@@ -28,15 +29,31 @@ import org.dinky.service.PrintTableService;
 import org.dinky.trans.Operations;
 import org.dinky.utils.SqlUtil;
 
+import java.io.IOException;
 import java.net.DatagramPacket;
 import java.net.DatagramSocket;
 import java.net.InetAddress;
+import java.net.InetSocketAddress;
 import java.net.SocketException;
 import java.net.UnknownHostException;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
 import java.util.Arrays;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BiConsumer;
 import java.util.function.Consumer;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
@@ -56,6 +73,8 @@ public class PrintTableServiceImpl implements PrintTableService {
     public PrintTableServiceImpl() {
         PrintTableListener printer = new PrintTableListener(this::send);
         printer.start();
+        PrintTableFrameListener framePrinter = new PrintTableFrameListener(this::send, PrintTableListener.PORT);
+        framePrinter.start();
     }
 
     @Override
@@ -72,10 +91,14 @@ public class PrintTableServiceImpl implements PrintTableService {
     }
 
     public void send(String message) {
+        String[] data = message.split("\n", 2);
+        send(data[0], data[1]);
+    }
+
+    public void send(String table, String data) {
         try {
-            String[] data = message.split("\n", 2);
-            String topic = StrFormatter.format("{}/{}", SseTopic.PRINT_TABLE.getValue(), data[0]);
-            SseSessionContextHolder.sendTopic(topic, data[1]);
+            String topic = StrFormatter.format("{}/{}", SseTopic.PRINT_TABLE.getValue(), table);
+            SseSessionContextHolder.sendTopic(topic, data);
         } catch (Exception e) {
             log.error("send message failed: {}", e.getMessage());
         }
@@ -146,4 +169,173 @@ public class PrintTableServiceImpl implements PrintTableService {
             }
         }
     }
+
+    /**
+     * Receives the {@link PrintNetFrame}s of the tcp transport of the print tables. One acceptor thread hands the
+     * connections to a few worker threads, each one polling its connections with its own selector. The frames are
+     * demultiplexed by table, and a gap in the sequence of the frames of a subtask is reported.
+     */
+    public static class PrintTableFrameListener {
+
+        private static final int WORKER_NUM = Math.max(2, Runtime.getRuntime().availableProcessors() / 2);
+        private static final int INITIAL_BUFFER_SIZE = 64 * 1024;
+
+        private final BiConsumer<String, String> consumer;
+        private final int port;
+        private final Worker[] workers = new Worker[WORKER_NUM];
+        private final AtomicInteger nextWorker = new AtomicInteger(0);
+
+        /** table#subtask -> sequence of its last frame */
+        private final Map<String, Long> sequences = new ConcurrentHashMap<>();
+
+        private final AtomicLong lostFrames = new AtomicLong(0);
+
+        public PrintTableFrameListener(BiConsumer<String, String> consumer, int port) {
+            this.consumer = consumer;
+            this.port = port;
+        }
+
+        public void start() {
+            ServerSocketChannel server;
+            try {
+                server = ServerSocketChannel.open();
+                server.bind(new InetSocketAddress("0.0.0.0", port));
+                for (int i = 0; i < WORKER_NUM; i++) {
+                    workers[i] = new Worker(Selector.open());
+                    newThread(workers[i], "PrintTable-Worker-" + i).start();
+                }
+                log.info("PrintTableFrameListener init success, port: {}, workers: {}", port, WORKER_NUM);
+            } catch (IOException e) {
+                log.error("PrintTableFrameListener init failed, port {}: {}", port, e.getMessage());
+                return;
+            }
+            newThread(() -> accept(server), "PrintTable-Acceptor").start();
+        }
+
+        public long getLostFrames() {
+            return lostFrames.get();
+        }
+
+        private static Thread newThread(Runnable runnable, String name) {
+            Thread thread = new Thread(runnable, name);
+            thread.setDaemon(true);
+            return thread;
+        }
+
+        private void accept(ServerSocketChannel server) {
+            while (server.isOpen()) {
+                try {
+                    SocketChannel channel = server.accept();
+                    channel.configureBlocking(false);
+                    workers[Math.floorMod(nextWorker.getAndIncrement(), WORKER_NUM)].register(channel);
+                } catch (Exception e) {
+                    log.error("print table accept connection: {}", e.getMessage());
+                }
+            }
+        }
+
+        private void dispatch(PrintNetFrame frame) {
+            String key = frame.getIdentifier() + "#" + frame.getSubtask();
+            Long last = sequences.put(key, frame.getSequence());
+            if (last != null && frame.getSequence() > last + 1) {
+                long lost = frame.getSequence() - last - 1;
+                lostFrames.addAndGet(lost);
+                log.warn(
+                        "print table {} subtask {} lost {} frames between {} and {}",
+                        frame.getIdentifier(),
+                        frame.getSubtask(),
+                        lost,
+                        last,
+                        frame.getSequence());
+            }
+            for (byte[] row : frame.getRows()) {
+                consumer.accept(frame.getIdentifier(), new String(row, StandardCharsets.UTF_8));
+            }
+        }
+
+        private class Worker implements Runnable {
+
+            private final Selector selector;
+            private final Queue<SocketChannel> pending = new ConcurrentLinkedQueue<>();
+
+            Worker(Selector selector) {
+                this.selector = selector;
+            }
+
+            void register(SocketChannel channel) {
+                pending.add(channel);
+                selector.wakeup();
+            }
+
+            @Override
+            public void run() {
+                while (selector.isOpen()) {
+                    try {
+                        selector.select();
+                        for (SocketChannel channel = pending.poll(); channel != null; channel = pending.poll()) {
+                            channel.register(selector, SelectionKey.OP_READ, ByteBuffer.allocate(INITIAL_BUFFER_SIZE));
+                        }
+                        Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+                        while (keys.hasNext()) {
+                            SelectionKey key = keys.next();
+                            keys.remove();
+                            read(key);
+                        }
+                    } catch (Exception e) {
+                        log.error("print table receive data:" + e.getMessage());
+                    }
+                }
+            }
+
+            private void read(SelectionKey key) {
+                SocketChannel channel = (SocketChannel) key.channel();
+                ByteBuffer buffer = (ByteBuffer) key.attachment();
+                try {
+                    if (channel.read(buffer) < 0) {
+                        close(key);
+                        return;
+                    }
+                    buffer.flip();
+                    while (buffer.remaining() >= 4) {
+                        int length = buffer.getInt(buffer.position());
+                        if (length <= 0 || length > PrintNetFrame.MAX_FRAME_SIZE) {
+                            throw new IOException("Invalid print frame length " + length);
+                        }
+                        if (buffer.remaining() < 4 + length) {
+                            break;
+                        }
+                        ByteBuffer frame = buffer.slice();
+                        frame.position(4);
+                        frame.limit(4 + length);
+                        buffer.position(buffer.position() + 4 + length);
+                        dispatch(PrintNetFrame.decode(frame.slice()));
+                    }
+                    buffer.compact();
+                    if (!buffer.hasRemaining()) {
+                        // The frame does not fit, grow the buffer up to the frame length
+                        int length = buffer.getInt(0);
+                        ByteBuffer larger = ByteBuffer.allocate(Math.max(buffer.capacity() * 2, 4 + length));
+                        buffer.flip();
+                        larger.put(buffer);
+                        key.attach(larger);
+                    }
+                } catch (Exception e) {
+                    log.error(
+                            "print table receive frame from {}: {}",
+                            channel.socket().getRemoteSocketAddress(),
+                            e.getMessage());
+                    close(key);
+                }
+            }
+
+            private void close(SelectionKey key) {
+                key.cancel();
+                try {
+                    key.channel().close();
+                } catch (IOException e) {
+                    log.debug("close print table connection failed", e);
+                }
+            }
+        }
+    }
 }
@@ -97,6 +97,11 @@ public class StudioServiceImpl implements StudioService {
         return JobManager.getJobData(jobId);
     }
 
+    @Override
+    public SelectResult getJobData(String jobId, long version) {
+        return JobManager.getJobData(jobId, version);
+    }
+
     @Override
     public LineageResult getLineage(StudioLineageDTO studioCADTO) {
         // TODO 添加ProcessStep
@@ -165,8 +170,7 @@ public class StudioServiceImpl implements StudioService {
         if (Dialect.isCommonSql(studioMetaStoreDTO.getDialect())) {
             DataBase dataBase = dataBaseService.getById(studioMetaStoreDTO.getDatabaseId());
             if (Asserts.isNotNull(dataBase)) {
-                Driver driver = Driver.build(dataBase.getDriverConfig());
-                tables.addAll(driver.listTables(database));
+                tables.addAll(dataBaseService.listTables(dataBase.getId(), database));
             }
         } else {
             String envSql = taskService.buildEnvSql(studioMetaStoreDTO);
@@ -189,8 +193,7 @@ public class StudioServiceImpl implements StudioService {
         if (Dialect.isCommonSql(studioMetaStoreDTO.getDialect())) {
             DataBase dataBase = dataBaseService.getById(studioMetaStoreDTO.getDatabaseId());
             if (Asserts.isNotNull(dataBase)) {
-                Driver driver = Driver.build(dataBase.getDriverConfig());
-                columns.addAll(driver.listColumns(database, tableName));
+                columns.addAll(dataBaseService.listColumns(dataBase.getId(), database, tableName));
             }
         } else {
 
@@ -123,6 +123,8 @@ import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.node.ObjectNode;
 
+import cn.dev33.satoken.spring.SpringMVCUtil;
+import cn.dev33.satoken.stp.StpUtil;
 import cn.hutool.core.bean.BeanUtil;
 import cn.hutool.core.lang.Assert;
 import cn.hutool.core.lang.tree.Tree;
@@ -249,6 +251,10 @@ public class TaskServiceImpl extends SuperServiceImpl<TaskMapper, Task> implemen
             task.setType(GatewayType.LOCAL.getLongValue());
         }
         JobConfig config = task.getJobConfig();
+        if (SpringMVCUtil.isWeb() && StpUtil.isLogin()) {
+            // The preview rows of the job are accounted to the user running it
+            config.setOperatorId(StpUtil.getLoginIdAsInt());
+        }
         if (GatewayType.get(task.getType()).isDeployCluster()) {
             log.info("Init gateway config, type:{}", task.getType());
             FlinkClusterConfig flinkClusterCfg =
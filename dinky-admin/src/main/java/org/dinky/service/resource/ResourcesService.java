@@ -137,4 +137,12 @@ public interface ResourcesService extends IService<Resources> {
      * @return {@link Result}< {@link List}< {@link Resources}>>}
      */
     List<Resources> getResourcesTreeByFilter(Function<Resources, Boolean> filterFunction);
+
+    /**
+     * Get a resource by its full name, from the in memory index of the resources.
+     *
+     * @param path the full name of the resource, with or without the leading slash
+     * @return the resource, or null if it does not exist
+     */
+    Resources getResourceByPath(String path);
 }
@@ -33,32 +33,38 @@ import org.dinky.utils.URLUtils;
 import java.io.File;
 import java.io.IOException;
 import java.util.ArrayList;
-import java.util.Comparator;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.function.Consumer;
 import java.util.function.Function;
 import java.util.stream.Collectors;
 
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 import org.springframework.web.multipart.MultipartFile;
 
 import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
 import com.baomidou.mybatisplus.extension.service.impl.ServiceImpl;
 
-import cn.hutool.cache.impl.TimedCache;
 import cn.hutool.core.collection.CollUtil;
-import cn.hutool.core.collection.CollectionUtil;
 import cn.hutool.core.lang.Assert;
 import cn.hutool.core.lang.Opt;
 import cn.hutool.core.util.StrUtil;
 
 @Service
 public class ResourceServiceImpl extends ServiceImpl<ResourcesMapper, Resources> implements ResourcesService {
-    private static final TimedCache<Integer, Resources> RESOURCES_CACHE = new TimedCache<>(30 * 1000);
     private static final long ALLOW_MAX_CAT_CONTENT_SIZE = 10 * 1024 * 1024;
 
+    /**
+     * The version of the resources, increased once a change of the resources is committed
+     */
+    private final AtomicLong resourcesVersion = new AtomicLong();
+
+    private volatile ResourceTreeIndex treeIndex;
+
     @Override
     @Transactional(rollbackFor = Exception.class)
     public boolean syncRemoteDirectoryStructure() {
@@ -88,6 +94,7 @@ public class ResourceServiceImpl extends ServiceImpl<ResourcesMapper, Resources>
         // not delete root directory
         this.remove(new LambdaQueryWrapper<Resources>().ne(Resources::getPid, -1));
         this.saveBatch(resourcesList);
+        invalidateTreeIndex();
         return true;
     }
 
@@ -108,6 +115,7 @@ public class ResourceServiceImpl extends ServiceImpl<ResourcesMapper, Resources>
         resources.setSize(0L);
         resources.setDescription(desc);
         save(resources);
+        invalidateTreeIndex();
         return convertTree(resources);
     }
 
@@ -131,6 +139,7 @@ public class ResourceServiceImpl extends ServiceImpl<ResourcesMapper, Resources>
             resources.setSize(0L);
             resources.setDescription(desc);
             save(resources);
+            invalidateTreeIndex();
         }
         return convertTree(resources);
     }
@@ -155,6 +164,7 @@ public class ResourceServiceImpl extends ServiceImpl<ResourcesMapper, Resources>
         byId.setFileName(fileName);
         byId.setFullName(fullName);
         updateById(byId);
+        invalidateTreeIndex();
         boolean isRunStorageMove = false;
         if (!byId.getIsDirectory()) {
             List<Resources> list = list(new LambdaQueryWrapper<Resources>().eq(Resources::getPid, byId.getId()));
@@ -192,7 +202,7 @@ public class ResourceServiceImpl extends ServiceImpl<ResourcesMapper, Resources>
         if (currentFloor > showFloorNum) {
             return;
         }
-        List<Resources> list = list(new LambdaQueryWrapper<Resources>().eq(Resources::getPid, pid));
+        List<Resources> list = getTreeIndex().getChildren(pid);
         for (Resources resources : list) {
             TreeNodeDTO tree = convertTree(resources);
             if (resources.getIsDirectory()) {
@@ -218,7 +228,7 @@ public class ResourceServiceImpl extends ServiceImpl<ResourcesMapper, Resources>
 
     @Override
     public String getContentByResourceId(Integer id) {
-        Resources resources = getById(id);
+        Resources resources = getTreeIndex().get(id);
         DinkyAssert.checkNull(resources, Status.RESOURCE_DIR_OR_FILE_NOT_EXIST);
         Assert.isFalse(resources.getSize() > ALLOW_MAX_CAT_CONTENT_SIZE, () -> new BusException("file is too large!"));
         return getBaseResourceManager().getFileContent(resources.getFullName());
@@ -226,7 +236,7 @@ public class ResourceServiceImpl extends ServiceImpl<ResourcesMapper, Resources>
 
     @Override
     public File getFile(Integer id) {
-        Resources resources = getById(id);
+        Resources resources = getTreeIndex().get(id);
         DinkyAssert.checkNull(resources, Status.RESOURCE_DIR_OR_FILE_NOT_EXIST);
         Assert.isFalse(resources.getSize() > ALLOW_MAX_CAT_CONTENT_SIZE, () -> new BusException("file is too large!"));
         return URLUtils.toFile("rs://" + resources.getFullName());
@@ -235,11 +245,11 @@ public class ResourceServiceImpl extends ServiceImpl<ResourcesMapper, Resources>
     @Transactional(rollbackFor = Exception.class)
     @Override
     public void uploadFile(Integer pid, String desc, File file) {
-        Resources pResource = RESOURCES_CACHE.get(pid, () -> getById(pid));
+        ResourceTreeIndex index = getTreeIndex();
+        Resources pResource = index.get(pid);
+        DinkyAssert.checkNull(pResource, Status.RESOURCE_DIR_OR_FILE_NOT_EXIST);
         if (!pResource.getIsDirectory()) {
-            RESOURCES_CACHE.remove(pid);
-            Integer realPid = pResource.getPid();
-            pResource = RESOURCES_CACHE.get(pid, () -> getById(realPid));
+            pResource = index.get(pResource.getPid());
         }
         long size = file.length();
         String fileName = file.getName();
@@ -284,16 +294,17 @@ public class ResourceServiceImpl extends ServiceImpl<ResourcesMapper, Resources>
         List<Resources> resourceByPidToParent = getResourceByPidToParent(new ArrayList<>(), pid);
         resourceByPidToParent.forEach(x -> x.setSize(x.getSize() + size));
         updateBatchById(resourceByPidToParent);
+        invalidateTreeIndex();
     }
 
     @Transactional(rollbackFor = Exception.class)
     @Override
     public void uploadFile(Integer pid, String desc, MultipartFile file) {
-        Resources pResource = RESOURCES_CACHE.get(pid, () -> getById(pid));
+        ResourceTreeIndex index = getTreeIndex();
+        Resources pResource = index.get(pid);
+        DinkyAssert.checkNull(pResource, Status.RESOURCE_DIR_OR_FILE_NOT_EXIST);
         if (!pResource.getIsDirectory()) {
-            RESOURCES_CACHE.remove(pid);
-            Integer realPid = pResource.getPid();
-            pResource = RESOURCES_CACHE.get(pid, () -> getById(realPid));
+            pResource = index.get(pResource.getPid());
         }
         long size = file.getSize();
         String fileName = file.getOriginalFilename();
@@ -315,6 +326,7 @@ public class ResourceServiceImpl extends ServiceImpl<ResourcesMapper, Resources>
     @Transactional(rollbackFor = Exception.class)
     @Override
     public boolean remove(Integer id) {
+        invalidateTreeIndex();
         Assert.isFalse(
                 Opt.ofNullable(getById(id))
                                 .orElseThrow(() -> new BusException(Status.RESOURCE_DIR_OR_FILE_NOT_EXIST))
@@ -332,7 +344,6 @@ public class ResourceServiceImpl extends ServiceImpl<ResourcesMapper, Resources>
                 List<Resources> resourceByPidToParent = getResourceByPidToParent(new ArrayList<>(), byId.getPid());
                 resourceByPidToParent.forEach(x -> x.setSize(x.getSize() - byId.getSize()));
                 updateBatchById(resourceByPidToParent);
-                return removeById(id);
             }
             return removeById(id);
         } catch (Exception e) {
@@ -353,12 +364,8 @@ public class ResourceServiceImpl extends ServiceImpl<ResourcesMapper, Resources>
      */
     @Override
     public List<Resources> getResourceByPidToParent(List<Resources> resourcesList, Integer pid) {
-        if (pid < 1) {
-            return resourcesList;
-        }
-        Resources byId = RESOURCES_CACHE.get(pid, () -> getById(pid));
-        resourcesList.add(byId);
-        return getResourceByPidToParent(resourcesList, byId.getPid());
+        resourcesList.addAll(getTreeIndex().getAncestors(pid));
+        return resourcesList;
     }
 
     /**
@@ -370,16 +377,7 @@ public class ResourceServiceImpl extends ServiceImpl<ResourcesMapper, Resources>
      */
     @Override
     public List<Resources> getResourceByPidToChildren(List<Resources> resourcesList, Integer pid) {
-        List<Resources> list = list(new LambdaQueryWrapper<Resources>().eq(Resources::getPid, pid));
-        if (CollUtil.isEmpty(list)) {
-            return resourcesList;
-        }
-        for (Resources resources : list) {
-            resourcesList.add(resources);
-            if (resources.getIsDirectory()) {
-                getResourceByPidToChildren(resourcesList, resources.getId());
-            }
-        }
+        resourcesList.addAll(getTreeIndex().getDescendants(pid));
         return resourcesList;
     }
 
@@ -390,7 +388,7 @@ public class ResourceServiceImpl extends ServiceImpl<ResourcesMapper, Resources>
      */
     @Override
     public List<Resources> getResourcesTree() {
-        return buildResourcesTree(this.list());
+        return getTreeIndex().buildTree(resources -> true);
     }
 
     /**
@@ -401,88 +399,46 @@ public class ResourceServiceImpl extends ServiceImpl<ResourcesMapper, Resources>
      */
     @Override
     public List<Resources> getResourcesTreeByFilter(Function<Resources, Boolean> filterFunction) {
-        List<Resources> list = this.list();
-        return buildResourcesTree(
-                filterFunction == null
-                        ? list
-                        : list.stream().filter(filterFunction::apply).collect(Collectors.toList()));
+        return getTreeIndex().buildTree(filterFunction == null ? resources -> true : filterFunction::apply);
     }
 
-    /**
-     * build resources tree
-     *
-     * @param resourcesList resources list
-     * @return Resources tree
-     */
-    private List<Resources> buildResourcesTree(List<Resources> resourcesList) {
-        // sort
-        if (CollectionUtil.isNotEmpty(resourcesList)) {
-            resourcesList = resourcesList.stream()
-                    .sorted(Comparator.comparing(Resources::getId))
-                    .collect(Collectors.toList());
-        }
-
-        List<Resources> returnList = new ArrayList<>();
-
-        for (Resources resources : resourcesList) {
-            //  get all child catalogue of parent catalogue id , the -1 is root catalogue
-            if (resources.getPid() == -1) {
-                recursionBuildResourcesAndChildren(resourcesList, resources);
-                returnList.add(resources);
-            }
-        }
-        if (returnList.isEmpty()) {
-            returnList = resourcesList;
-        }
-        return returnList;
+    @Override
+    public Resources getResourceByPath(String path) {
+        return getTreeIndex().getByPath(path);
     }
 
     /**
-     * recursion build resources and children
-     *
-     * @param resourcesList
-     * @param resources
+     * The snapshot of the resources, it is loaded with one query and loaded again once the resources changed.
      */
-    private void recursionBuildResourcesAndChildren(List<Resources> resourcesList, Resources resources) {
-        // obtain a list of child nodes
-        List<Resources> childList = getChildList(resourcesList, resources);
-        resources.setChildren(childList);
-        for (Resources tChild : childList) {
-            if (hasChild(resourcesList, tChild)) {
-                // Determine whether there are child nodes
-                recursionBuildResourcesAndChildren(resourcesList, tChild);
-            } else {
-                tChild.setLeaf(true);
+    private ResourceTreeIndex getTreeIndex() {
+        long version = resourcesVersion.get();
+        ResourceTreeIndex index = treeIndex;
+        if (index == null || index.getVersion() != version) {
+            synchronized (this) {
+                index = treeIndex;
+                if (index == null || index.getVersion() != version) {
+                    index = new ResourceTreeIndex(version, list());
+                    treeIndex = index;
+                }
             }
         }
+        return index;
     }
 
     /**
-     * get child list
-     *
-     * @param list
-     * @param resources
-     * @return
+     * Drop the snapshot of the resources now and once the current transaction completes, so neither a read in the
+     * transaction nor a read after it gets the resources from before the change.
      */
-    private List<Resources> getChildList(List<Resources> list, Resources resources) {
-        List<Resources> childList = new ArrayList<>();
-        for (Resources n : list) {
-            if (n.getPid().longValue() == resources.getId().longValue()) {
-                childList.add(n);
-            }
+    private void invalidateTreeIndex() {
+        resourcesVersion.incrementAndGet();
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    resourcesVersion.incrementAndGet();
+                }
+            });
         }
-        return childList;
-    }
-
-    /**
-     * Determine whether there are child nodes
-     *
-     * @param resourcesList
-     * @param resources
-     * @return
-     */
-    private boolean hasChild(List<Resources> resourcesList, Resources resources) {
-        return !getChildList(resourcesList, resources).isEmpty();
     }
 
     private BaseResourceManager getBaseResourceManager() {
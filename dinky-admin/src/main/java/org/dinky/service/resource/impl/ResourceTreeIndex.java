@@ -0,0 +1,181 @@
+/*
+ *
+ *  Licensed to the Apache Software Foundation (ASF) under one or more
+ *  contributor license agreements.  See the NOTICE file distributed with
+ *  this work for additional information regarding copyright ownership.
+ *  The ASF licenses this file to You under the Apache License, Version 2.0
+ *  (the "License"); you may not use this file except in compliance with
+ *  the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+
+package org.dinky.service.resource.impl;
+
+import org.dinky.data.model.Resources;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Predicate;
+
+import cn.hutool.core.util.StrUtil;
+
+/**
+ * A snapshot of all the resources loaded with one query, indexed by id, parent id and path. It is replaced by a new
+ * snapshot once the resources change, the callers get copies of the resources so the snapshot never changes.
+ */
+public class ResourceTreeIndex {
+
+    private static final Integer ROOT_PID = -1;
+
+    private final long version;
+
+    /** id -> resource */
+    private final Map<Integer, Resources> resources = new HashMap<>();
+
+    /** parent id -> the children, ordered by id */
+    private final Map<Integer, List<Resources>> children = new HashMap<>();
+
+    /** normalized full name -> resource */
+    private final Map<String, Resources> paths = new HashMap<>();
+
+    public ResourceTreeIndex(long version, Collection<Resources> resourcesList) {
+        this.version = version;
+        for (Resources resource : resourcesList) {
+            resources.put(resource.getId(), resource);
+            children.computeIfAbsent(resource.getPid(), k -> new ArrayList<>()).add(resource);
+            if (resource.getFullName() != null) {
+                paths.put(normalizePath(resource.getFullName()), resource);
+            }
+        }
+        children.values().forEach(list -> list.sort(Comparator.comparing(Resources::getId)));
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    public Resources get(Integer id) {
+        return copy(resources.get(id));
+    }
+
+    /**
+     * @param path the full name of the resource, with or without the leading slash
+     */
+    public Resources getByPath(String path) {
+        return path == null ? null : copy(paths.get(normalizePath(path)));
+    }
+
+    public List<Resources> getChildren(Integer pid) {
+        List<Resources> result = new ArrayList<>();
+        for (Resources child : children.getOrDefault(pid, Collections.emptyList())) {
+            result.add(copy(child));
+        }
+        return result;
+    }
+
+    /**
+     * All the descendants of a resource, depth first.
+     */
+    public List<Resources> getDescendants(Integer pid) {
+        List<Resources> result = new ArrayList<>();
+        collectDescendants(pid, result);
+        return result;
+    }
+
+    /**
+     * The resource and its ancestors, from the resource up to the root directory.
+     */
+    public List<Resources> getAncestors(Integer id) {
+        List<Resources> result = new ArrayList<>();
+        Resources resource = id == null || id < 1 ? null : resources.get(id);
+        while (resource != null && result.size() <= resources.size()) {
+            result.add(copy(resource));
+            Integer pid = resource.getPid();
+            resource = pid == null || pid < 1 ? null : resources.get(pid);
+        }
+        return result;
+    }
+
+    /**
+     * Build the tree under the root directory from the resources accepted by the filter, a resource whose parent is
+     * not accepted is left out with its descendants.
+     */
+    public List<Resources> buildTree(Predicate<Resources> filter) {
+        List<Resources> roots = new ArrayList<>();
+        for (Resources root : children.getOrDefault(ROOT_PID, Collections.emptyList())) {
+            if (filter.test(root)) {
+                roots.add(buildNode(root, filter));
+            }
+        }
+        if (roots.isEmpty()) {
+            // Without a root directory, every accepted resource is returned as is
+            resources.values().stream()
+                    .filter(filter)
+                    .sorted(Comparator.comparing(Resources::getId))
+                    .forEach(resource -> roots.add(copy(resource)));
+        }
+        return roots;
+    }
+
+    private Resources buildNode(Resources resource, Predicate<Resources> filter) {
+        Resources node = copy(resource);
+        for (Resources child : children.getOrDefault(resource.getId(), Collections.emptyList())) {
+            if (filter.test(child)) {
+                node.getChildren().add(buildNode(child, filter));
+            }
+        }
+        if (!ROOT_PID.equals(resource.getPid()) && node.getChildren().isEmpty()) {
+            node.setLeaf(true);
+        }
+        return node;
+    }
+
+    private void collectDescendants(Integer pid, List<Resources> result) {
+        for (Resources child : children.getOrDefault(pid, Collections.emptyList())) {
+            result.add(copy(child));
+            if (Boolean.TRUE.equals(child.getIsDirectory())) {
+                collectDescendants(child.getId(), result);
+            }
+        }
+    }
+
+    private static String normalizePath(String path) {
+        return StrUtil.removePrefix(path, StrUtil.SLASH);
+    }
+
+    private static Resources copy(Resources resource) {
+        if (resource == null) {
+            return null;
+        }
+        Resources copy = Resources.builder()
+                .id(resource.getId())
+                .fileName(resource.getFileName())
+                .description(resource.getDescription())
+                .userId(resource.getUserId())
+                .type(resource.getType())
+                .size(resource.getSize())
+                .pid(resource.getPid())
+                .fullName(resource.getFullName())
+                .isDirectory(resource.getIsDirectory())
+                .createTime(resource.getCreateTime())
+                .updateTime(resource.getUpdateTime())
+                .creator(resource.getCreator())
+                .updater(resource.getUpdater())
+                .build();
+        copy.setChildren(new ArrayList<>());
+        return copy;
+    }
+}
@@ -0,0 +1,104 @@
+/*
+ *
+ *  Licensed to the Apache Software Foundation (ASF) under one or more
+ *  contributor license agreements.  See the NOTICE file distributed with
+ *  this work for additional information regarding copyright ownership.
+ *  The ASF licenses this file to You under the Apache License, Version 2.0
+ *  (the "License"); you may not use this file except in compliance with
+ *  the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+
+package org.dinky.utils;
+
+import org.dinky.data.model.DependencyManifest;
+import org.dinky.data.model.FlinkUdfManifest;
+
+import java.io.File;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import cn.hutool.core.collection.CollUtil;
+import cn.hutool.core.convert.Convert;
+import cn.hutool.core.io.FileUtil;
+import cn.hutool.crypto.digest.DigestUtil;
+
+/**
+ * Digests of the dependency files of the tasks. A digest is computed once for a file and computed again only when
+ * the size or the modification time of the file changes.
+ */
+public final class DependencyDigests {
+
+    private DependencyDigests() {}
+
+    /** absolute path -> digest of the file */
+    private static final Map<String, FileDigest> DIGESTS = new ConcurrentHashMap<>();
+
+    public static DependencyManifest buildManifest(FlinkUdfManifest udfManifest) {
+        DependencyManifest manifest = new DependencyManifest();
+        addArtifacts(manifest, udfManifest.getJars(), DependencyManifest.TYPE_JAR);
+        addArtifacts(manifest, udfManifest.getPythonFiles(), DependencyManifest.TYPE_PYTHON);
+        return manifest;
+    }
+
+    /**
+     * @return the dependency file of the manifest with the digest, or null if there is none
+     */
+    public static File findArtifact(FlinkUdfManifest udfManifest, String digest) {
+        List<URL> urls = new ArrayList<>(CollUtil.emptyIfNull(udfManifest.getJars()));
+        urls.addAll(CollUtil.emptyIfNull(udfManifest.getPythonFiles()));
+        for (URL url : urls) {
+            File file = FileUtil.file(Convert.toStr(url));
+            if (file.isFile() && digest.equals(digest(file))) {
+                return file;
+            }
+        }
+        return null;
+    }
+
+    public static String digest(File file) {
+        long size = file.length();
+        long lastModified = file.lastModified();
+        FileDigest cached = DIGESTS.get(file.getAbsolutePath());
+        if (cached != null && cached.size == size && cached.lastModified == lastModified) {
+            return cached.digest;
+        }
+        String digest = DigestUtil.sha256Hex(file);
+        DIGESTS.put(file.getAbsolutePath(), new FileDigest(size, lastModified, digest));
+        return digest;
+    }
+
+    private static void addArtifacts(DependencyManifest manifest, List<URL> urls, String type) {
+        for (URL url : CollUtil.emptyIfNull(urls)) {
+            File file = FileUtil.file(Convert.toStr(url));
+            if (file.isFile()) {
+                manifest.getArtifacts()
+                        .add(new DependencyManifest.Artifact(file.getName(), type, digest(file), file.length()));
+            }
+        }
+    }
+
+    private static final class FileDigest {
+
+        private final long size;
+        private final long lastModified;
+        private final String digest;
+
+        private FileDigest(long size, long lastModified, String digest) {
+            this.size = size;
+            this.lastModified = lastModified;
+            this.digest = digest;
+        }
+    }
+}
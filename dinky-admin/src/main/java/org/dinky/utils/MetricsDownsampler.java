@@ -0,0 +1,137 @@
+/*
+ *
+ *  Licensed to the Apache Software Foundation (ASF) under one or more
+ *  contributor license agreements.  See the NOTICE file distributed with
+ *  this work for additional information regarding copyright ownership.
+ *  The ASF licenses this file to You under the Apache License, Version 2.0
+ *  (the "License"); you may not use this file except in compliance with
+ *  the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+
+package org.dinky.utils;
+
+import org.dinky.data.vo.MetricsVO;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import com.fasterxml.jackson.databind.JsonNode;
+
+import cn.hutool.core.util.NumberUtil;
+
+/**
+ * Server side downsampling of metrics samples.
+ * <p>
+ * The time range is cut into at most {@code maxPoints} buckets, the samples of a model falling into the same bucket
+ * are merged into one: every numeric value of the content becomes {@code {"min": .., "max": .., "avg": ..}}
+ * and the other values keep the last sample. Only the buckets are kept in memory, not the samples.
+ * </p>
+ */
+public class MetricsDownsampler {
+
+    private static final DateTimeFormatter DATE_FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd");
+
+    private final LocalDateTime startTime;
+    private final long bucketMillis;
+
+    /** model -> bucket index -> merged content */
+    private final Map<String, TreeMap<Long, Object>> buckets = new LinkedHashMap<>();
+
+    private static class Stats {
+        private double min = Double.MAX_VALUE;
+        private double max = -Double.MAX_VALUE;
+        private double sum = 0;
+        private long count = 0;
+
+        void add(double value) {
+            min = Math.min(min, value);
+            max = Math.max(max, value);
+            sum += value;
+            count++;
+        }
+
+        Map<String, Double> toMap() {
+            Map<String, Double> map = new LinkedHashMap<>();
+            map.put("min", min);
+            map.put("max", max);
+            map.put("avg", sum / count);
+            return map;
+        }
+    }
+
+    public MetricsDownsampler(LocalDateTime startTime, LocalDateTime endTime, int maxPoints) {
+        this.startTime = startTime;
+        long rangeMillis = Duration.between(startTime, endTime).toMillis();
+        this.bucketMillis = Math.max(1, (rangeMillis + maxPoints - 1) / Math.max(1, maxPoints));
+    }
+
+    public void add(MetricsVO metrics) {
+        if (metrics.getHeartTime() == null || metrics.getContent() == null) {
+            return;
+        }
+        long bucket = Duration.between(startTime, metrics.getHeartTime()).toMillis() / bucketMillis;
+        JsonNode content = JsonUtils.parseToJsonNode(metrics.getContent().toString());
+        buckets.computeIfAbsent(metrics.getModel(), k -> new TreeMap<>())
+                .compute(bucket, (k, merged) -> merge(merged, content));
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Object merge(Object merged, JsonNode node) {
+        if (node == null || node.isNull()) {
+            return merged;
+        }
+        if (node.isObject()) {
+            Map<String, Object> map = merged instanceof Map ? (Map<String, Object>) merged : new LinkedHashMap<>();
+            node.fields()
+                    .forEachRemaining(
+                            field -> map.put(field.getKey(), merge(map.get(field.getKey()), field.getValue())));
+            return map;
+        }
+        Double value = node.isNumber()
+                ? Double.valueOf(node.asDouble())
+                : node.isTextual() && NumberUtil.isNumber(node.asText()) ? Double.valueOf(node.asText()) : null;
+        if (value == null || value.isNaN() || value.isInfinite()) {
+            return node;
+        }
+        Stats stats = merged instanceof Stats ? (Stats) merged : new Stats();
+        stats.add(value);
+        return stats;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Object toContent(Object merged) {
+        if (merged instanceof Map) {
+            Map<String, Object> content = new LinkedHashMap<>();
+            ((Map<String, Object>) merged).forEach((key, value) -> content.put(key, toContent(value)));
+            return content;
+        }
+        return merged instanceof Stats ? ((Stats) merged).toMap() : merged;
+    }
+
+    /**
+     * @return one sample per model and non empty bucket, timed at the start of the bucket
+     */
+    public List<MetricsVO> getResult() {
+        List<MetricsVO> result = new ArrayList<>();
+        buckets.forEach((model, modelBuckets) -> modelBuckets.forEach((bucket, merged) -> {
+            LocalDateTime heartTime = startTime.plus(Duration.ofMillis(bucket * bucketMillis));
+            result.add(new MetricsVO(heartTime, model, toContent(merged), heartTime.format(DATE_FORMATTER)));
+        }));
+        return result;
+    }
+}
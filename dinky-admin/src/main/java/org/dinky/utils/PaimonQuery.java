@@ -0,0 +1,64 @@
+/*
+ *
+ *  Licensed to the Apache Software Foundation (ASF) under one or more
+ *  contributor license agreements.  See the NOTICE file distributed with
+ *  this work for additional information regarding copyright ownership.
+ *  The ASF licenses this file to You under the Apache License, Version 2.0
+ *  (the "License"); you may not use this file except in compliance with
+ *  the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+
+package org.dinky.utils;
+
+import org.dinky.shaded.paimon.predicate.Predicate;
+import org.dinky.shaded.paimon.predicate.PredicateBuilder;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.function.Function;
+
+import lombok.Builder;
+import lombok.Data;
+
+/**
+ * Read options of {@link PaimonUtil#readTable} and {@link PaimonUtil#readPage}.
+ * <p>
+ * The filter and the time range are pushed down to paimon to skip partitions and files,
+ * then tested again on every row read, except for the conditions on columns that are not read.
+ * The time range is also mapped onto the partition key when the partitions of the table
+ * are derived from a single column, see the {@code partition.timestamp-pattern} option of the class.
+ * </p>
+ */
+@Data
+@Builder
+public class PaimonQuery {
+
+    /** Columns to read, all the columns if empty, the other fields of the read objects are left null */
+    private List<String> columns;
+
+    private Function<PredicateBuilder, List<Predicate>> filter;
+
+    /** Timestamp column of the time range and of the page cursor */
+    private String timeColumn;
+
+    /** Inclusive */
+    private LocalDateTime startTime;
+
+    /** Inclusive */
+    private LocalDateTime endTime;
+
+    /** Exclusive lower bound of the time column, compared by millisecond, the cursor of the next page */
+    private LocalDateTime after;
+
+    /** Max number of rows, no limit if null */
+    private Integer limit;
+}
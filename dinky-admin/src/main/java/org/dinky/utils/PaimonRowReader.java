@@ -0,0 +1,112 @@
+/*
+ *
+ *  Licensed to the Apache Software Foundation (ASF) under one or more
+ *  contributor license agreements.  See the NOTICE file distributed with
+ *  this work for additional information regarding copyright ownership.
+ *  The ASF licenses this file to You under the Apache License, Version 2.0
+ *  (the "License"); you may not use this file except in compliance with
+ *  the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+
+package org.dinky.utils;
+
+import org.dinky.shaded.paimon.data.BinaryString;
+import org.dinky.shaded.paimon.data.Decimal;
+import org.dinky.shaded.paimon.data.InternalRow;
+import org.dinky.shaded.paimon.data.Timestamp;
+import org.dinky.shaded.paimon.types.DataField;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Field;
+import java.util.List;
+
+import cn.hutool.core.convert.BasicType;
+import cn.hutool.core.convert.Convert;
+import cn.hutool.core.util.ModifierUtil;
+import cn.hutool.core.util.ReflectUtil;
+import cn.hutool.core.util.StrUtil;
+
+/**
+ * Converts paimon rows, possibly projected, back to beans of a class.
+ * The field getters of the row and the field setters of the class are resolved once per read.
+ */
+public class PaimonRowReader<T> {
+
+    private static final MethodType SETTER_TYPE = MethodType.methodType(void.class, Object.class, Object.class);
+
+    private final Class<T> clazz;
+    private final InternalRow.FieldGetter[] getters;
+    private final MethodHandle[] setters;
+    private final Class<?>[] fieldTypes;
+
+    /**
+     * @param fields the fields of the rows, in the order of the rows
+     */
+    public PaimonRowReader(Class<T> clazz, List<DataField> fields) {
+        this.clazz = clazz;
+        this.getters = new InternalRow.FieldGetter[fields.size()];
+        this.setters = new MethodHandle[fields.size()];
+        this.fieldTypes = new Class<?>[fields.size()];
+        Field[] classFields = ReflectUtil.getFields(clazz, field -> !ModifierUtil.isStatic(field));
+        for (int i = 0; i < fields.size(); i++) {
+            DataField dataField = fields.get(i);
+            getters[i] = InternalRow.createFieldGetter(dataField.type(), i);
+            for (Field field : classFields) {
+                if (StrUtil.toUnderlineCase(field.getName()).equals(dataField.name())) {
+                    try {
+                        field.setAccessible(true);
+                        setters[i] =
+                                MethodHandles.lookup().unreflectSetter(field).asType(SETTER_TYPE);
+                        fieldTypes[i] = BasicType.wrap(field.getType());
+                    } catch (IllegalAccessException e) {
+                        throw new RuntimeException(e);
+                    }
+                }
+            }
+        }
+    }
+
+    public T read(InternalRow row) {
+        T t = ReflectUtil.newInstance(clazz);
+        for (int i = 0; i < getters.length; i++) {
+            if (setters[i] == null) {
+                continue;
+            }
+            Object value = toExternal(getters[i].getFieldOrNull(row));
+            if (value == null) {
+                continue;
+            }
+            try {
+                if (!fieldTypes[i].isInstance(value)) {
+                    value = Convert.convert(fieldTypes[i], value);
+                }
+                setters[i].invokeExact((Object) t, value);
+            } catch (Throwable ignored) {
+                // Same as before, a value that does not fit the field is left out
+            }
+        }
+        return t;
+    }
+
+    private static Object toExternal(Object value) {
+        if (value instanceof BinaryString) {
+            return value.toString();
+        } else if (value instanceof Timestamp) {
+            return ((Timestamp) value).toLocalDateTime();
+        } else if (value instanceof Decimal) {
+            return ((Decimal) value).toBigDecimal();
+        }
+        return value;
+    }
+}
@@ -0,0 +1,157 @@
+/*
+ *
+ *  Licensed to the Apache Software Foundation (ASF) under one or more
+ *  contributor license agreements.  See the NOTICE file distributed with
+ *  this work for additional information regarding copyright ownership.
+ *  The ASF licenses this file to You under the Apache License, Version 2.0
+ *  (the "License"); you may not use this file except in compliance with
+ *  the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+
+package org.dinky.utils;
+
+import org.dinky.shaded.paimon.data.BinaryRow;
+import org.dinky.shaded.paimon.data.BinaryRowWriter;
+import org.dinky.shaded.paimon.data.BinaryString;
+import org.dinky.shaded.paimon.data.BinaryWriter;
+import org.dinky.shaded.paimon.data.Decimal;
+import org.dinky.shaded.paimon.data.Timestamp;
+import org.dinky.shaded.paimon.schema.Schema;
+import org.dinky.shaded.paimon.types.DataField;
+import org.dinky.shaded.paimon.types.DataType;
+import org.dinky.shaded.paimon.types.DecimalType;
+import org.dinky.shaded.paimon.types.TimestampType;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Field;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Date;
+import java.util.List;
+
+import cn.hutool.core.text.StrFormatter;
+import cn.hutool.core.util.ModifierUtil;
+import cn.hutool.core.util.ReflectUtil;
+import cn.hutool.core.util.StrUtil;
+import cn.hutool.json.JSONUtil;
+
+/**
+ * Converts the beans of a class to paimon {@link BinaryRow}s.
+ * <p>
+ * The field getters and the value setters are resolved once from the schema of the class,
+ * so a row costs one {@link MethodHandle} call and one typed write per column instead of a reflective lookup.
+ * The row buffer is reused between calls, {@link #toRow} hands out a compact copy of it.
+ * </p>
+ */
+public class PaimonRowWriter<T> {
+
+    private static final MethodType GETTER_TYPE = MethodType.methodType(Object.class, Object.class);
+
+    private final List<DataField> fields;
+    private final MethodHandle[] getters;
+    private final FieldSetter[] setters;
+
+    private final BinaryRow row;
+    private final BinaryRowWriter writer;
+
+    @FunctionalInterface
+    private interface FieldSetter {
+        void setValue(BinaryRowWriter writer, int pos, Object value);
+    }
+
+    public PaimonRowWriter(Class<T> clazz, Schema schema) {
+        this.fields = schema.fields();
+        this.getters = new MethodHandle[fields.size()];
+        this.setters = new FieldSetter[fields.size()];
+        Field[] classFields = ReflectUtil.getFields(clazz, field -> !ModifierUtil.isStatic(field));
+        for (int i = 0; i < fields.size(); i++) {
+            DataField dataField = fields.get(i);
+            getters[i] = createGetter(classFields, dataField.name());
+            setters[i] = createSetter(dataField.type());
+        }
+        this.row = new BinaryRow(fields.size());
+        this.writer = new BinaryRowWriter(row);
+    }
+
+    private static MethodHandle createGetter(Field[] classFields, String columnName) {
+        for (Field field : classFields) {
+            if (StrUtil.toUnderlineCase(field.getName()).equals(columnName)) {
+                try {
+                    field.setAccessible(true);
+                    return MethodHandles.lookup().unreflectGetter(field).asType(GETTER_TYPE);
+                } catch (IllegalAccessException e) {
+                    throw new RuntimeException(e);
+                }
+            }
+        }
+        // The column has no field anymore, it is written as null
+        return MethodHandles.dropArguments(MethodHandles.constant(Object.class, null), 0, Object.class);
+    }
+
+    private static FieldSetter createSetter(DataType type) {
+        switch (type.getTypeRoot()) {
+            case VARCHAR:
+                // Same encoding as before: strings as is, other objects as json
+                return (writer, pos, value) -> writer.writeString(
+                        pos,
+                        BinaryString.fromString(
+                                value instanceof CharSequence ? value.toString() : JSONUtil.toJsonStr(value)));
+            case TIMESTAMP_WITHOUT_TIME_ZONE:
+                int precision = ((TimestampType) type).getPrecision();
+                return (writer, pos, value) -> {
+                    Timestamp timestamp = value instanceof Date
+                            ? Timestamp.fromEpochMillis(((Date) value).getTime())
+                            : Timestamp.fromLocalDateTime((LocalDateTime) value);
+                    writer.writeTimestamp(pos, timestamp, precision);
+                };
+            case DECIMAL:
+                DecimalType decimalType = (DecimalType) type;
+                return (writer, pos, value) -> writer.writeDecimal(
+                        pos,
+                        Decimal.fromBigDecimal((BigDecimal) value, decimalType.getPrecision(), decimalType.getScale()),
+                        decimalType.getPrecision());
+            default:
+                BinaryWriter.ValueSetter valueSetter = BinaryWriter.createValueSetter(type);
+                return valueSetter::setValue;
+        }
+    }
+
+    /**
+     * Serialize a bean, thread safe.
+     *
+     * @return a new row that does not share memory with this writer
+     */
+    public synchronized BinaryRow toRow(T data) {
+        writer.reset();
+        for (int i = 0; i < getters.length; i++) {
+            Object value = null;
+            try {
+                value = (Object) getters[i].invokeExact((Object) data);
+                if (value == null) {
+                    writer.setNullAt(i);
+                } else {
+                    setters[i].setValue(writer, i, value);
+                }
+            } catch (Throwable e) {
+                String err = StrFormatter.format(
+                        "write data filed [{}], value: [{}] error",
+                        fields.get(i).name(),
+                        value);
+                throw new RuntimeException(err, e);
+            }
+        }
+        writer.complete();
+        return row.copy();
+    }
+}
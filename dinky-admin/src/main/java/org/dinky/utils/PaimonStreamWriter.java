@@ -0,0 +1,128 @@
+/*
+ *
+ *  Licensed to the Apache Software Foundation (ASF) under one or more
+ *  contributor license agreements.  See the NOTICE file distributed with
+ *  this work for additional information regarding copyright ownership.
+ *  The ASF licenses this file to You under the Apache License, Version 2.0
+ *  (the "License"); you may not use this file except in compliance with
+ *  the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+
+package org.dinky.utils;
+
+import org.dinky.shaded.paimon.table.Table;
+import org.dinky.shaded.paimon.table.sink.CommitMessage;
+import org.dinky.shaded.paimon.table.sink.StreamTableCommit;
+import org.dinky.shaded.paimon.table.sink.StreamTableWrite;
+import org.dinky.shaded.paimon.table.sink.StreamWriteBuilder;
+
+import java.util.List;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Keeps one paimon {@link StreamTableWrite} open for a table and commits it like a checkpoint,
+ * once {@code maxPendingRows} rows were written or {@code commitInterval} elapsed since the last commit.
+ * Compared to a batch write per call, the rows of many calls end up in the same data files and snapshot.
+ * <p>
+ * Rows are only visible to the readers once committed. If a write or a commit fails, the writer is closed
+ * and the uncommitted rows are lost, {@link PaimonUtil} opens a new writer for the next rows.
+ * </p>
+ */
+@Slf4j
+public class PaimonStreamWriter<T> implements AutoCloseable {
+
+    private final Table table;
+    private final PaimonRowWriter<T> rowWriter;
+    private final long commitInterval;
+    private final int maxPendingRows;
+
+    private final StreamTableWrite write;
+    private final StreamTableCommit commit;
+
+    private long commitIdentifier = 0;
+    private int pendingRows = 0;
+    private long lastCommitTime = System.currentTimeMillis();
+    private boolean closed = false;
+
+    public PaimonStreamWriter(Table table, PaimonRowWriter<T> rowWriter, long commitInterval, int maxPendingRows) {
+        this.table = table;
+        this.rowWriter = rowWriter;
+        this.commitInterval = commitInterval;
+        this.maxPendingRows = maxPendingRows;
+        StreamWriteBuilder writeBuilder = table.newStreamWriteBuilder();
+        this.write = writeBuilder.newWrite();
+        this.commit = writeBuilder.newCommit();
+    }
+
+    public synchronized void write(List<T> dataList) throws Exception {
+        checkOpen();
+        for (T t : dataList) {
+            write.write(rowWriter.toRow(t));
+        }
+        pendingRows += dataList.size();
+        if (pendingRows >= maxPendingRows) {
+            commit();
+        }
+    }
+
+    /**
+     * Commit if the last commit is older than the commit interval, called periodically by {@link PaimonUtil}.
+     */
+    public synchronized void commitIfDue() throws Exception {
+        if (!closed && pendingRows > 0 && System.currentTimeMillis() - lastCommitTime >= commitInterval) {
+            commit();
+        }
+    }
+
+    /**
+     * Commit the pending rows right away.
+     */
+    public synchronized void commit() throws Exception {
+        checkOpen();
+        if (pendingRows > 0) {
+            long identifier = commitIdentifier++;
+            List<CommitMessage> messages = write.prepareCommit(false, identifier);
+            commit.commit(identifier, messages);
+            log.debug("paimon commit; table: {} ,rows: {} ,identifier: {}", table.name(), pendingRows, identifier);
+            pendingRows = 0;
+        }
+        lastCommitTime = System.currentTimeMillis();
+    }
+
+    public synchronized boolean isClosed() {
+        return closed;
+    }
+
+    private void checkOpen() {
+        if (closed) {
+            throw new IllegalStateException("Paimon writer of table " + table.name() + " is closed");
+        }
+    }
+
+    /**
+     * Close without committing, the pending rows are discarded.
+     */
+    @Override
+    public synchronized void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        try {
+            write.close();
+            commit.close();
+        } catch (Exception e) {
+            log.warn("Close paimon writer of table {} failed", table.name(), e);
+        }
+    }
+}
@@ -31,49 +31,64 @@ import org.dinky.shaded.paimon.catalog.CatalogContext;
 import org.dinky.shaded.paimon.catalog.CatalogFactory;
 import org.dinky.shaded.paimon.catalog.Identifier;
 import org.dinky.shaded.paimon.data.BinaryRow;
-import org.dinky.shaded.paimon.data.BinaryRowWriter;
 import org.dinky.shaded.paimon.data.BinaryString;
-import org.dinky.shaded.paimon.data.BinaryWriter;
 import org.dinky.shaded.paimon.data.InternalRow;
 import org.dinky.shaded.paimon.data.Timestamp;
 import org.dinky.shaded.paimon.fs.Path;
+import org.dinky.shaded.paimon.io.DataFileMeta;
+import org.dinky.shaded.paimon.predicate.CompoundPredicate;
+import org.dinky.shaded.paimon.predicate.LeafPredicate;
 import org.dinky.shaded.paimon.predicate.Predicate;
 import org.dinky.shaded.paimon.predicate.PredicateBuilder;
-import org.dinky.shaded.paimon.reader.RecordReader;
+import org.dinky.shaded.paimon.reader.RecordReaderIterator;
 import org.dinky.shaded.paimon.schema.Schema;
 import org.dinky.shaded.paimon.table.Table;
 import org.dinky.shaded.paimon.table.sink.BatchTableCommit;
 import org.dinky.shaded.paimon.table.sink.BatchTableWrite;
 import org.dinky.shaded.paimon.table.sink.BatchWriteBuilder;
 import org.dinky.shaded.paimon.table.sink.CommitMessage;
+import org.dinky.shaded.paimon.table.source.DataSplit;
 import org.dinky.shaded.paimon.table.source.ReadBuilder;
 import org.dinky.shaded.paimon.table.source.Split;
-import org.dinky.shaded.paimon.table.source.TableRead;
 import org.dinky.shaded.paimon.types.DataField;
 import org.dinky.shaded.paimon.types.DataType;
-import org.dinky.shaded.paimon.types.DataTypeRoot;
+import org.dinky.shaded.paimon.types.DataTypeChecks;
+import org.dinky.shaded.paimon.types.RowType;
 
-import java.io.IOException;
 import java.lang.reflect.Field;
 import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
 import java.util.function.Function;
+import java.util.stream.Collectors;
 
 import cn.hutool.cache.Cache;
 import cn.hutool.cache.CacheUtil;
 import cn.hutool.core.annotation.AnnotationUtil;
 import cn.hutool.core.collection.CollUtil;
 import cn.hutool.core.date.DateUtil;
+import cn.hutool.core.date.LocalDateTimeUtil;
 import cn.hutool.core.date.TimeInterval;
+import cn.hutool.core.lang.Pair;
 import cn.hutool.core.map.MapUtil;
 import cn.hutool.core.text.StrFormatter;
 import cn.hutool.core.util.ModifierUtil;
 import cn.hutool.core.util.ReflectUtil;
 import cn.hutool.core.util.StrUtil;
 import cn.hutool.core.util.URLUtil;
-import cn.hutool.json.JSONUtil;
 import lombok.Data;
 import lombok.extern.slf4j.Slf4j;
 
@@ -83,12 +98,26 @@ public class PaimonUtil {
 
     private static PaimonUtil instance;
 
+    /** Max time the rows of a stream writer stay uncommitted */
+    private static final long STREAM_COMMIT_INTERVAL = 1000 * 10;
+
+    private static final int STREAM_MAX_PENDING_ROWS = 10000;
+
+    private static final String PARTITION_TIMESTAMP_PATTERN = "partition.timestamp-pattern";
+    private static final String PARTITION_TIMESTAMP_FORMATTER = "partition.timestamp-formatter";
+
     private final Cache<Class<?>, Schema> schemaCache;
+    private final Cache<Class<?>, PaimonRowWriter<?>> rowWriterCache;
+    /** Key is the table name */
+    private final Map<String, PaimonStreamWriter<?>> streamWriters;
+
     private final CatalogContext context;
     private final Catalog catalog;
 
     public PaimonUtil() {
         schemaCache = CacheUtil.newLRUCache(100);
+        rowWriterCache = CacheUtil.newLRUCache(100);
+        streamWriters = new ConcurrentHashMap<>();
         context = CatalogContext.create(new Path(URLUtil.toURI(URLUtil.url(PathConstant.TMP_PATH + "paimon"))));
         catalog = CatalogFactory.createCatalog(context);
         try {
@@ -101,11 +130,37 @@ public class PaimonUtil {
     public static synchronized PaimonUtil getInstance() {
         if (instance == null) {
             instance = new PaimonUtil();
+            startStreamCommitter();
         }
         return instance;
     }
 
+    private static void startStreamCommitter() {
+        ScheduledExecutorService committer = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "Paimon-Committer");
+            thread.setDaemon(true);
+            return thread;
+        });
+        committer.scheduleWithFixedDelay(PaimonUtil::commitDueStreamWriters, 1, 1, TimeUnit.SECONDS);
+        // Commit the pending rows on a graceful shutdown
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            committer.shutdown();
+            instance.getStreamWriters().forEach((table, writer) -> {
+                try {
+                    writer.commit();
+                } catch (Exception e) {
+                    log.error("commit table: [{}] error", table, e);
+                }
+                writer.close();
+            });
+        }));
+    }
+
     public static void dropTable(String table) {
+        PaimonStreamWriter<?> writer = getInstance().getStreamWriters().remove(table);
+        if (writer != null) {
+            writer.close();
+        }
         Identifier identifier = Identifier.create(DINKY_DB, table);
         if (getInstance().getCatalog().tableExists(identifier)) {
             try {
@@ -116,47 +171,21 @@ public class PaimonUtil {
         }
     }
 
-    public static <T> void write(String table, List<T> dataList, Class<?> clazz) {
+    /**
+     * Write and commit the data in one batch, the data is visible to the readers once this method returns.
+     */
+    public static <T> void write(String table, List<T> dataList, Class<T> clazz) {
         if (CollUtil.isEmpty(dataList)) {
             return;
         }
         Table paimonTable = createOrGetTable(table, clazz);
         BatchWriteBuilder writeBuilder = paimonTable.newBatchWriteBuilder();
+        PaimonRowWriter<T> rowWriter = getRowWriter(clazz);
 
         // 2. Write records in distributed tasks
         try (BatchTableWrite write = writeBuilder.newWrite()) {
-            Schema schema = getSchemaByClass(clazz);
-            List<DataField> fields = schema.fields();
             for (T t : dataList) {
-                BinaryRow row = new BinaryRow(fields.size());
-                BinaryRowWriter writer = new BinaryRowWriter(row);
-                for (int i = 0; i < fields.size(); i++) {
-                    DataField dataField = fields.get(i);
-                    DataType type = dataField.type();
-                    String fieldName = StrUtil.toCamelCase(dataField.name());
-                    Object fieldValue = ReflectUtil.getFieldValue(t, fieldName);
-                    try {
-                        // TODO BinaryWriter.write已被废弃，后续可以考虑改成这种方式
-                        // BinaryWriter.createValueSetter(type).setValue(writer, i, fieldValue);
-                        if (type.getTypeRoot() == DataTypeRoot.VARCHAR) {
-                            BinaryWriter.write(
-                                    writer, i, BinaryString.fromString(JSONUtil.toJsonStr(fieldValue)), type, null);
-                        } else if (type.getTypeRoot() == DataTypeRoot.TIMESTAMP_WITHOUT_TIME_ZONE) {
-                            Timestamp timestamp = Timestamp.fromLocalDateTime((LocalDateTime) fieldValue);
-                            BinaryWriter.write(writer, i, timestamp, type, null);
-                        } else {
-                            BinaryWriter.write(writer, i, fieldValue, type, null);
-                        }
-                    } catch (Throwable e) {
-                        String err = StrFormatter.format(
-                                "write table: [{}], data filed [{}], value: [{}] error",
-                                paimonTable.name(),
-                                fieldName,
-                                fieldValue);
-                        throw new RuntimeException(err, e);
-                    }
-                }
-                write.write(row);
+                write.write(rowWriter.toRow(t));
             }
 
             List<CommitMessage> messages = write.prepareCommit();
@@ -167,68 +196,457 @@ public class PaimonUtil {
             }
 
         } catch (Exception e) {
-            throw new RuntimeException(e);
+            throw new RuntimeException(StrFormatter.format("write table: [{}] error", paimonTable.name()), e);
+        }
+    }
+
+    /**
+     * Append the data to the open stream writer of the table,
+     * the data is committed with the next checkpoint-like commit of the writer, see {@link PaimonStreamWriter}.
+     * Use {@link #commit(String)} when the data must be visible right away.
+     */
+    @SuppressWarnings("unchecked")
+    public static <T> void streamWrite(String table, List<T> dataList, Class<T> clazz) {
+        if (CollUtil.isEmpty(dataList)) {
+            return;
+        }
+        PaimonStreamWriter<T> writer = (PaimonStreamWriter<T>) getInstance()
+                .getStreamWriters()
+                .computeIfAbsent(
+                        table,
+                        name -> new PaimonStreamWriter<>(
+                                createOrGetTable(name, clazz),
+                                getRowWriter(clazz),
+                                STREAM_COMMIT_INTERVAL,
+                                STREAM_MAX_PENDING_ROWS));
+        try {
+            writer.write(dataList);
+        } catch (Exception e) {
+            closeStreamWriter(table, writer);
+            throw new RuntimeException(StrFormatter.format("write table: [{}] error", table), e);
+        }
+    }
+
+    /**
+     * Commit the pending data of the stream writer of the table.
+     */
+    public static void commit(String table) {
+        PaimonStreamWriter<?> writer = getInstance().getStreamWriters().get(table);
+        if (writer == null) {
+            return;
+        }
+        try {
+            writer.commit();
+        } catch (Exception e) {
+            closeStreamWriter(table, writer);
+            throw new RuntimeException(StrFormatter.format("commit table: [{}] error", table), e);
         }
     }
 
+    private static void commitDueStreamWriters() {
+        getInstance().getStreamWriters().forEach((table, writer) -> {
+            try {
+                writer.commitIfDue();
+            } catch (Exception e) {
+                log.error("commit table: [{}] error", table, e);
+                closeStreamWriter(table, writer);
+            }
+        });
+    }
+
+    private static void closeStreamWriter(String table, PaimonStreamWriter<?> writer) {
+        getInstance().getStreamWriters().remove(table, writer);
+        writer.close();
+    }
+
+    @SuppressWarnings("unchecked")
+    public static <T> PaimonRowWriter<T> getRowWriter(Class<T> clazz) {
+        return (PaimonRowWriter<T>) getInstance()
+                .getRowWriterCache()
+                .get(clazz, () -> new PaimonRowWriter<>(clazz, getSchemaByClass(clazz)));
+    }
+
     public static <T> List<T> batchReadTable(String table, Class<T> clazz) {
         return batchReadTable(table, clazz, null);
     }
 
     public static <T> List<T> batchReadTable(
             String table, Class<T> clazz, Function<PredicateBuilder, List<Predicate>> filter) {
-        Identifier identifier = getIdentifier(table);
-        TimeInterval timer = DateUtil.timer();
         List<T> dataList = new ArrayList<>();
+        readTable(table, clazz, PaimonQuery.builder().filter(filter).build(), dataList::add);
+        return dataList;
+    }
+
+    /**
+     * Stream the matching rows to the consumer one by one, without materializing the whole result.
+     *
+     * @return the number of rows read
+     */
+    public static <T> int readTable(String table, Class<T> clazz, PaimonQuery query, Consumer<T> consumer) {
+        int limit = query.getLimit() == null ? Integer.MAX_VALUE : query.getLimit();
+        int[] count = {0};
+        scan(table, clazz, query, (time, data) -> {
+            consumer.accept(data);
+            return ++count[0] < limit;
+        });
+        return count[0];
+    }
+
+    /**
+     * Read the first {@link PaimonQuery#getLimit()} rows after {@link PaimonQuery#getAfter()}, ordered by the
+     * time column. Only the rows of the page are kept in memory. The splits are read in the order of the min time of
+     * their files, and the read stops at the first split starting after the page, so a page does not read the
+     * splits of the pages after it. The splits of the pages before it are skipped by the cursor.
+     * The cursor is a millisecond, the rows of the millisecond of the last row are never split between two pages:
+     * a page may be shorter than the limit for this reason, or longer if all its rows share the same millisecond,
+     * then they are all read again.
+     */
+    public static <T> PaimonPage<T> readPage(String table, Class<T> clazz, PaimonQuery query) {
+        if (query.getTimeColumn() == null || query.getLimit() == null || query.getLimit() <= 0) {
+            throw new IllegalArgumentException("A page needs a time column and a positive limit");
+        }
+        int limit = query.getLimit();
+        // Max heap on the time, keeps the limit + 1 first rows to know whether there is a next page
+        PriorityQueue<Pair<Long, T>> heap =
+                new PriorityQueue<>(limit + 1, Comparator.comparing(Pair<Long, T>::getKey, Comparator.reverseOrder()));
+        // The limit of the query is applied to the sorted rows, not to the scan
+        PaimonQuery scanQuery = PaimonQuery.builder()
+                .columns(query.getColumns())
+                .filter(query.getFilter())
+                .timeColumn(query.getTimeColumn())
+                .startTime(query.getStartTime())
+                .endTime(query.getEndTime())
+                .after(query.getAfter())
+                .build();
+        ScanPlan<T> plan = plan(table, clazz, scanQuery);
+        if (plan != null) {
+            List<Pair<Long, Split>> splits = plan.splits.stream()
+                    .map(split -> Pair.of(plan.minTime(split), split))
+                    .sorted(Comparator.comparing(Pair::getKey))
+                    .collect(Collectors.toList());
+            for (Pair<Long, Split> split : splits) {
+                if (heap.size() > limit && split.getKey() > heap.peek().getKey()) {
+                    // This split and the next ones start after the page
+                    break;
+                }
+                read(plan, Collections.singletonList(split.getValue()), (time, data) -> {
+                    if (time != null) {
+                        heap.add(Pair.of(time.getMillisecond(), data));
+                        if (heap.size() > limit + 1) {
+                            heap.poll();
+                        }
+                    }
+                    return true;
+                });
+            }
+        }
 
-        PredicateBuilder builder = new PredicateBuilder(getSchemaByClass(clazz).rowType());
+        List<Pair<Long, T>> rows = new ArrayList<>(heap);
+        rows.sort(Comparator.comparing(Pair::getKey));
+        if (rows.size() <= limit) {
+            return new PaimonPage<>(rows.stream().map(Pair::getValue).collect(Collectors.toList()), null);
+        }
+        long lastTime = rows.get(limit - 1).getKey();
+        List<Pair<Long, T>> page = rows.subList(0, limit);
+        if (rows.get(limit).getKey() == lastTime) {
+            // The last time is cut by the limit, leave it to the next page
+            List<Pair<Long, T>> complete = new ArrayList<>();
+            for (Pair<Long, T> row : page) {
+                if (row.getKey() != lastTime) {
+                    complete.add(row);
+                }
+            }
+            if (!complete.isEmpty()) {
+                page = complete;
+                lastTime = complete.get(complete.size() - 1).getKey();
+            } else {
+                // More rows than the limit in one millisecond, the page is all of them
+                List<T> tied = readMillisecond(table, clazz, query, lastTime);
+                return new PaimonPage<>(
+                        tied, Timestamp.fromEpochMillis(lastTime).toLocalDateTime());
+            }
+        }
+        return new PaimonPage<>(
+                page.stream().map(Pair::getValue).collect(Collectors.toList()),
+                Timestamp.fromEpochMillis(lastTime).toLocalDateTime());
+    }
+
+    private static <T> List<T> readMillisecond(String table, Class<T> clazz, PaimonQuery query, long millis) {
+        LocalDateTime start = Timestamp.fromEpochMillis(millis).toLocalDateTime();
+        LocalDateTime end = start.plusNanos(999_999);
+        if (query.getStartTime() != null && query.getStartTime().isAfter(start)) {
+            start = query.getStartTime();
+        }
+        if (query.getEndTime() != null && query.getEndTime().isBefore(end)) {
+            end = query.getEndTime();
+        }
+        PaimonQuery tiedQuery = PaimonQuery.builder()
+                .columns(query.getColumns())
+                .filter(query.getFilter())
+                .timeColumn(query.getTimeColumn())
+                .startTime(start)
+                .endTime(end)
+                .build();
+        List<T> rows = new ArrayList<>();
+        scan(table, clazz, tiedQuery, (time, data) -> {
+            if (time != null && time.getMillisecond() == millis) {
+                rows.add(data);
+            }
+            return true;
+        });
+        return rows;
+    }
+
+    @FunctionalInterface
+    private interface RowHandler<T> {
+        /**
+         * @param time the value of the time column, null without time column
+         * @return false to stop the read
+         */
+        boolean handle(Timestamp time, T data);
+    }
+
+    private static <T> void scan(String table, Class<T> clazz, PaimonQuery query, RowHandler<T> handler) {
+        ScanPlan<T> plan = plan(table, clazz, query);
+        if (plan != null) {
+            read(plan, plan.splits, handler);
+        }
+    }
+
+    /**
+     * The splits of a query and how to read their rows.
+     */
+    private static class ScanPlan<T> {
+        private final String table;
+        private final ReadBuilder readBuilder;
+        private final List<Split> splits;
+        /** The predicates on the projected rows */
+        private final List<Predicate> rowPredicates;
+
+        private final PaimonRowReader<T> rowReader;
+        /** Index of the time column in the projection and in the table, -1 without time column */
+        private final int timeIndex;
+
+        private final int tableTimeIndex;
+        private final int timePrecision;
+
+        private ScanPlan(
+                String table,
+                ReadBuilder readBuilder,
+                List<Split> splits,
+                List<Predicate> rowPredicates,
+                PaimonRowReader<T> rowReader,
+                int timeIndex,
+                int tableTimeIndex,
+                int timePrecision) {
+            this.table = table;
+            this.readBuilder = readBuilder;
+            this.splits = splits;
+            this.rowPredicates = rowPredicates;
+            this.rowReader = rowReader;
+            this.timeIndex = timeIndex;
+            this.tableTimeIndex = tableTimeIndex;
+            this.timePrecision = timePrecision;
+        }
+
+        /**
+         * The min time of the files of a split from their statistics, Long.MIN_VALUE when unknown.
+         */
+        private long minTime(Split split) {
+            if (tableTimeIndex < 0 || !(split instanceof DataSplit)) {
+                return Long.MIN_VALUE;
+            }
+            long minTime = Long.MAX_VALUE;
+            try {
+                for (DataFileMeta file : ((DataSplit) split).dataFiles()) {
+                    BinaryRow min = file.valueStats().min();
+                    if (min == null || min.getFieldCount() <= tableTimeIndex || min.isNullAt(tableTimeIndex)) {
+                        return Long.MIN_VALUE;
+                    }
+                    minTime = Math.min(
+                            minTime,
+                            min.getTimestamp(tableTimeIndex, timePrecision).getMillisecond());
+                }
+            } catch (RuntimeException e) {
+                log.debug("Read the statistics of a split of {} failed: {}", table, e.getMessage());
+                return Long.MIN_VALUE;
+            }
+            return minTime;
+        }
+    }
+
+    /**
+     * @return null if the table does not exist
+     */
+    private static <T> ScanPlan<T> plan(String table, Class<T> clazz, PaimonQuery query) {
+        Identifier identifier = getIdentifier(table);
+        RowType rowType = getSchemaByClass(clazz).rowType();
+        List<String> fieldNames = rowType.getFieldNames();
+        PredicateBuilder builder = new PredicateBuilder(rowType);
+
+        List<String> columns = CollUtil.isEmpty(query.getColumns()) ? fieldNames : new ArrayList<>(query.getColumns());
+        String timeColumn = query.getTimeColumn();
+        if (timeColumn != null && !columns.contains(timeColumn)) {
+            columns.add(timeColumn);
+        }
+        List<Predicate> predicates = new ArrayList<>();
+        if (query.getFilter() != null) {
+            predicates.addAll(query.getFilter().apply(builder));
+        }
+        predicates.addAll(getTimePredicates(clazz, builder, query));
+
+        // The columns of the predicates are read too, to test the rows, but they are not set in the beans
+        List<String> readColumns = new ArrayList<>(columns);
+        Set<String> predicateColumns = new LinkedHashSet<>();
+        predicates.forEach(predicate -> collectFieldNames(predicate, predicateColumns));
+        predicateColumns.stream()
+                .filter(column -> !readColumns.contains(column))
+                .forEach(readColumns::add);
+
+        int[] projection = new int[readColumns.size()];
+        // Index in the table -> index in the projection, -1 if not read
+        int[] fieldMapping = new int[fieldNames.size()];
+        Arrays.fill(fieldMapping, -1);
+        List<DataField> projectedFields = new ArrayList<>(readColumns.size());
+        for (int i = 0; i < readColumns.size(); i++) {
+            int index = fieldNames.indexOf(readColumns.get(i));
+            if (index < 0) {
+                throw new IllegalArgumentException(
+                        StrFormatter.format("table: [{}] has no column [{}]", table, readColumns.get(i)));
+            }
+            projection[i] = index;
+            fieldMapping[index] = i;
+            projectedFields.add(rowType.getFields().get(index));
+        }
+
+        // Paimon only uses the predicates to skip partitions and files, the rows read are tested again
+        List<Predicate> rowPredicates = predicates.stream()
+                .map(p -> PredicateBuilder.transformFieldMapping(p, fieldMapping)
+                        .orElseThrow(() -> new IllegalStateException("A predicate column is not read: " + p)))
+                .collect(Collectors.toList());
 
         ReadBuilder readBuilder;
         try {
             if (!getInstance().getCatalog().tableExists(identifier)) {
-                return dataList;
+                return null;
             }
             readBuilder = getInstance().getCatalog().getTable(identifier).newReadBuilder();
-            if (filter != null) {
-                List<Predicate> predicates = filter.apply(builder);
-                readBuilder.withFilter(predicates);
-            }
         } catch (Catalog.TableNotExistException e) {
             throw new RuntimeException(e);
         }
+        readBuilder.withProjection(projection);
+        if (!predicates.isEmpty()) {
+            readBuilder.withFilter(predicates);
+        }
 
-        // 2. Plan splits in 'Coordinator' (or named 'Driver')
         List<Split> splits = readBuilder.newScan().plan().splits();
+        PaimonRowReader<T> rowReader = new PaimonRowReader<>(clazz, projectedFields.subList(0, columns.size()));
+        int timeIndex = timeColumn == null ? -1 : columns.indexOf(timeColumn);
+        int timePrecision = timeIndex < 0
+                ? 0
+                : DataTypeChecks.getPrecision(projectedFields.get(timeIndex).type());
+        return new ScanPlan<>(
+                identifier.getFullName(),
+                readBuilder,
+                splits,
+                rowPredicates,
+                rowReader,
+                timeIndex,
+                timeIndex < 0 ? -1 : projection[timeIndex],
+                timePrecision);
+    }
 
-        // 3. Distribute these splits to different tasks
-
-        // 4. Read a split in task
-        TableRead read = readBuilder.newRead();
-        try (RecordReader<InternalRow> reader = read.createReader(splits)) {
-
-            Schema schema = getSchemaByClass(clazz);
-            reader.forEachRemaining(x -> {
-                T t = ReflectUtil.newInstance(clazz);
-                schema.fields().forEach(f -> {
-                    Object value =
-                            InternalRow.createFieldGetter(f.type(), f.id()).getFieldOrNull(x);
-                    String fieldName = StrUtil.toCamelCase(f.name());
-                    try {
-                        ReflectUtil.setFieldValue(t, fieldName, value);
-                    } catch (Exception ignored) {
-                    }
-                });
-                dataList.add(t);
-            });
-        } catch (IOException e) {
+    private static void collectFieldNames(Predicate predicate, Set<String> fieldNames) {
+        if (predicate instanceof LeafPredicate) {
+            fieldNames.add(((LeafPredicate) predicate).fieldName());
+        } else if (predicate instanceof CompoundPredicate) {
+            ((CompoundPredicate) predicate).children().forEach(child -> collectFieldNames(child, fieldNames));
+        }
+    }
+
+    /**
+     * @return false if the handler stopped the read
+     */
+    private static <T> boolean read(ScanPlan<T> plan, List<Split> splits, RowHandler<T> handler) {
+        TimeInterval timer = DateUtil.timer();
+        int count = 0;
+        try (RecordReaderIterator<InternalRow> iterator =
+                new RecordReaderIterator<>(plan.readBuilder.newRead().createReader(splits))) {
+            while (iterator.hasNext()) {
+                InternalRow row = iterator.next();
+                if (!test(plan.rowPredicates, row)) {
+                    continue;
+                }
+                count++;
+                Timestamp time = plan.timeIndex < 0 || row.isNullAt(plan.timeIndex)
+                        ? null
+                        : row.getTimestamp(plan.timeIndex, plan.timePrecision);
+                if (!handler.handle(time, plan.rowReader.read(row))) {
+                    return false;
+                }
+            }
+        } catch (Exception e) {
             throw new RuntimeException(e);
+        } finally {
+            log.debug("paimon read; table: {} ,size: {} ,timer: {}ms", plan.table, count, timer.intervalMs());
         }
-        log.debug(
-                "paimon read; table: {} ,size: {} ,timer: {}ms",
-                identifier.getFullName(),
-                dataList.size(),
-                timer.intervalMs());
-        return dataList;
+        return true;
+    }
+
+    private static boolean test(List<Predicate> predicates, InternalRow row) {
+        for (Predicate predicate : predicates) {
+            if (!predicate.test(row)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * The predicates of the time range, on the time column and on the partition key derived from it.
+     */
+    private static List<Predicate> getTimePredicates(Class<?> clazz, PredicateBuilder builder, PaimonQuery query) {
+        List<Predicate> predicates = new ArrayList<>();
+        if (query.getTimeColumn() == null) {
+            return predicates;
+        }
+        int timeIndex = builder.indexOf(query.getTimeColumn());
+        LocalDateTime lower = query.getStartTime();
+        if (lower != null) {
+            predicates.add(builder.greaterOrEqual(timeIndex, Timestamp.fromLocalDateTime(lower)));
+        }
+        if (query.getAfter() != null) {
+            // The cursor is the millisecond of the last row, the next page starts at the next millisecond
+            LocalDateTime next = query.getAfter().truncatedTo(ChronoUnit.MILLIS).plus(1, ChronoUnit.MILLIS);
+            predicates.add(builder.greaterOrEqual(timeIndex, Timestamp.fromLocalDateTime(next)));
+            lower = lower == null || query.getAfter().isAfter(lower) ? query.getAfter() : lower;
+        }
+        LocalDateTime upper = query.getEndTime();
+        if (upper != null) {
+            predicates.add(builder.lessOrEqual(timeIndex, Timestamp.fromLocalDateTime(upper)));
+        }
+
+        // e.g. partition.timestamp-pattern = $date, partition.timestamp-formatter = yyyy-MM-dd
+        Map<String, String> options = getSchemaByClass(clazz).options();
+        String pattern = options.get(PARTITION_TIMESTAMP_PATTERN);
+        String formatter = options.get(PARTITION_TIMESTAMP_FORMATTER);
+        if (pattern == null || formatter == null || !pattern.matches("\\$\\w+")) {
+            return predicates;
+        }
+        int partitionIndex = builder.indexOf(StrUtil.toUnderlineCase(pattern.substring(1)));
+        if (partitionIndex < 0) {
+            return predicates;
+        }
+        // The formatted times sort like the times, as long as the formatter goes from years to seconds
+        if (lower != null) {
+            predicates.add(builder.greaterOrEqual(
+                    partitionIndex, BinaryString.fromString(LocalDateTimeUtil.format(lower, formatter))));
+        }
+        if (upper != null) {
+            predicates.add(builder.lessOrEqual(
+                    partitionIndex, BinaryString.fromString(LocalDateTimeUtil.format(upper, formatter))));
+        }
+        return predicates;
     }
 
     public static Table createOrGetTable(String tableName, Class<?> clazz) {
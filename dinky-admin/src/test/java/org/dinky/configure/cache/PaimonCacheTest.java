@@ -0,0 +1,89 @@
+/*
+ *
+ *  Licensed to the Apache Software Foundation (ASF) under one or more
+ *  contributor license agreements.  See the NOTICE file distributed with
+ *  this work for additional information regarding copyright ownership.
+ *  The ASF licenses this file to You under the Apache License, Version 2.0
+ *  (the "License"); you may not use this file except in compliance with
+ *  the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+
+package org.dinky.configure.cache;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+class PaimonCacheTest {
+
+    /** Not loaded, the store only holds the queued rows */
+    private final PaimonCache cache = new PaimonCache("paimon_cache_test", new PaimonCacheStore());
+
+    private final ExecutorService executor = Executors.newFixedThreadPool(8);
+
+    @AfterEach
+    void shutdown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void concurrentLoadsOfOneKeyRunTheLoaderOnce() throws Exception {
+        AtomicInteger loads = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<String>> results = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            results.add(executor.submit(() -> {
+                start.await();
+                return cache.get("key", () -> {
+                    loads.incrementAndGet();
+                    Thread.sleep(100);
+                    return "value";
+                });
+            }));
+        }
+        start.countDown();
+        for (Future<String> result : results) {
+            assertEquals("value", result.get(5, TimeUnit.SECONDS));
+        }
+        assertEquals(1, loads.get());
+    }
+
+    @Test
+    void slowLoadDoesNotBlockTheOtherKeys() throws Exception {
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        Future<String> slow = executor.submit(() -> cache.get("slow", () -> {
+            loading.countDown();
+            release.await();
+            return "slow";
+        }));
+        assertTrue(loading.await(5, TimeUnit.SECONDS));
+
+        Future<String> fast = executor.submit(() -> cache.get("fast", () -> "fast"));
+        assertEquals("fast", fast.get(5, TimeUnit.SECONDS));
+        assertFalse(slow.isDone());
+
+        release.countDown();
+        assertEquals("slow", slow.get(5, TimeUnit.SECONDS));
+        assertEquals("slow", cache.get("slow", () -> "reloaded"));
+    }
+}
@@ -0,0 +1,70 @@
+/*
+ *
+ *  Licensed to the Apache Software Foundation (ASF) under one or more
+ *  contributor license agreements.  See the NOTICE file distributed with
+ *  this work for additional information regarding copyright ownership.
+ *  The ASF licenses this file to You under the Apache License, Version 2.0
+ *  (the "License"); you may not use this file except in compliance with
+ *  the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+
+package org.dinky.job.handler;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.junit.jupiter.api.Test;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+class ClusterJobOverviewHandlerTest {
+
+    static {
+        System.setProperty("dinky.job.full-refresh-interval", "200");
+    }
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    private static JsonNode overview(String state, long lastModification, int running, int finished) throws Exception {
+        return MAPPER.readTree(String.format(
+                "{\"jid\":\"j1\",\"state\":\"%s\",\"last-modification\":%d,\"duration\":%d,"
+                        + "\"tasks\":{\"total\":4,\"running\":%d,\"finished\":%d,\"failed\":0}}",
+                state, lastModification, System.nanoTime(), running, finished));
+    }
+
+    @Test
+    void fingerprint() throws Exception {
+        String fingerprint = ClusterJobOverviewHandler.getFingerprint(overview("RUNNING", 1, 4, 0));
+        // The duration is left out
+        assertEquals(fingerprint, ClusterJobOverviewHandler.getFingerprint(overview("RUNNING", 1, 4, 0)));
+        assertNotEquals(fingerprint, ClusterJobOverviewHandler.getFingerprint(overview("RUNNING", 2, 4, 0)));
+        assertNotEquals(fingerprint, ClusterJobOverviewHandler.getFingerprint(overview("RUNNING", 1, 3, 1)));
+        assertNotEquals(fingerprint, ClusterJobOverviewHandler.getFingerprint(overview("FAILING", 1, 4, 0)));
+    }
+
+    @Test
+    void refreshDue() throws Exception {
+        String fingerprint = ClusterJobOverviewHandler.getFingerprint(overview("RUNNING", 1, 4, 0));
+        assertTrue(ClusterJobOverviewHandler.isRefreshDue(1, fingerprint));
+        ClusterJobOverviewHandler.markRefreshed(1, fingerprint);
+        assertFalse(ClusterJobOverviewHandler.isRefreshDue(1, fingerprint));
+        assertTrue(ClusterJobOverviewHandler.isRefreshDue(
+                1, ClusterJobOverviewHandler.getFingerprint(overview("RUNNING", 2, 4, 0))));
+
+        // An unchanged job is refreshed in full once its last refresh is too old
+        Thread.sleep(250);
+        assertTrue(ClusterJobOverviewHandler.isRefreshDue(1, fingerprint));
+
+        ClusterJobOverviewHandler.remove(1);
+        assertTrue(ClusterJobOverviewHandler.isRefreshDue(1, fingerprint));
+    }
+}
@@ -0,0 +1,91 @@
+/*
+ *
+ *  Licensed to the Apache Software Foundation (ASF) under one or more
+ *  contributor license agreements.  See the NOTICE file distributed with
+ *  this work for additional information regarding copyright ownership.
+ *  The ASF licenses this file to You under the Apache License, Version 2.0
+ *  (the "License"); you may not use this file except in compliance with
+ *  the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+
+package org.dinky.job.handler;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.dinky.data.dto.AlertRuleDTO;
+import org.dinky.data.model.ext.JobAlertData;
+
+import org.junit.jupiter.api.Test;
+
+class CompiledAlertRuleTest {
+
+    private static CompiledAlertRule compile(String rule, String triggerConditions) {
+        AlertRuleDTO alertRuleDTO = new AlertRuleDTO();
+        alertRuleDTO.setName("test");
+        alertRuleDTO.setRule(rule);
+        alertRuleDTO.setTriggerConditions(triggerConditions);
+        return CompiledAlertRule.compile(alertRuleDTO);
+    }
+
+    @Test
+    void evaluate() {
+        CompiledAlertRule rule = compile(
+                "[{\"ruleKey\":\"jobStatus\",\"ruleOperator\":\"EQ\",\"ruleValue\":\"'FAILED'\"},"
+                        + "{\"ruleKey\":\"duration\",\"ruleOperator\":\"GE\",\"ruleValue\":\"60\"}]",
+                " and ");
+        assertTrue(rule.isCompiled());
+        JobAlertData data =
+                JobAlertData.builder().jobStatus("FAILED").duration(60L).build();
+        assertTrue(rule.evaluate(data.getFieldValues(), () -> null));
+        data.setDuration(59L);
+        assertFalse(rule.evaluate(data.getFieldValues(), () -> null));
+
+        CompiledAlertRule checkpoint = compile(
+                "[{\"ruleKey\":\"isCheckpointFailed\",\"ruleOperator\":\"EQ\",\"ruleValue\":\"true\"},"
+                        + "{\"ruleKey\":\"jobName\",\"ruleOperator\":\"GT\",\"ruleValue\":\"10\"}]",
+                " or ");
+        assertTrue(checkpoint.isCompiled());
+        // A string can not be compared with a number, that condition never matches
+        assertFalse(checkpoint.evaluate(data.getFieldValues(), () -> null));
+        data.setCheckpointFailed(true);
+        assertTrue(checkpoint.evaluate(data.getFieldValues(), () -> null));
+        assertEquals(2, checkpoint.getEvaluations().sum());
+    }
+
+    @Test
+    void unchanged() {
+        CompiledAlertRule rule =
+                compile("[{\"ruleKey\":\"jobStatus\",\"ruleOperator\":\"NE\",\"ruleValue\":\"'RUNNING'\"}]", " or ");
+        Object[] last = JobAlertData.builder().jobStatus("FAILED").build().getFieldValues();
+        Object[] values = JobAlertData.builder()
+                .jobStatus("FAILED")
+                .duration(100L)
+                .build()
+                .getFieldValues();
+        assertFalse(rule.isUnchanged(null, values));
+        assertTrue(rule.isUnchanged(last, values));
+        values = JobAlertData.builder().jobStatus("RUNNING").build().getFieldValues();
+        assertFalse(rule.isUnchanged(last, values));
+    }
+
+    @Test
+    void parseLiteral() {
+        assertEquals("it's", CompiledAlertRule.parseLiteral("'it''s'"));
+        assertEquals(10L, CompiledAlertRule.parseLiteral("10"));
+        assertEquals(1.5, CompiledAlertRule.parseLiteral(" 1.5 "));
+        assertEquals(Boolean.FALSE, CompiledAlertRule.parseLiteral("false"));
+        assertNull(CompiledAlertRule.parseLiteral("null"));
+        assertThrows(IllegalArgumentException.class, () -> CompiledAlertRule.parseLiteral("T(java.lang.Math).PI"));
+        assertFalse(compile("[{\"ruleKey\":\"jobStatus\",\"ruleOperator\":\"EQ\",\"ruleValue\":\"#jobName\"}]", " or ")
+                .isCompiled());
+    }
+}
@@ -0,0 +1,72 @@
+/*
+ *
+ *  Licensed to the Apache Software Foundation (ASF) under one or more
+ *  contributor license agreements.  See the NOTICE file distributed with
+ *  this work for additional information regarding copyright ownership.
+ *  The ASF licenses this file to You under the Apache License, Version 2.0
+ *  (the "License"); you may not use this file except in compliance with
+ *  the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+
+package org.dinky.service.impl;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.dinky.data.model.Catalogue;
+import org.dinky.data.model.Task;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+
+class CatalogueTreeIndexTest {
+
+    private static Catalogue catalogue(int id, int parentId, Integer taskId) {
+        Catalogue catalogue =
+                new Catalogue("c" + id, taskId, taskId == null ? null : "FlinkSql", parentId, taskId != null);
+        catalogue.setId(id);
+        return catalogue;
+    }
+
+    @Test
+    void buildTree() {
+        Task task = new Task();
+        task.setId(100);
+        task.setNote("note");
+        Map<Integer, Task> tasks = Collections.singletonMap(100, task);
+        CatalogueTreeIndex index = new CatalogueTreeIndex(Arrays.asList(
+                catalogue(3, 1, null), catalogue(1, 0, null), catalogue(4, 3, 100), catalogue(2, 0, null)));
+
+        List<Catalogue> tree = index.buildTree(tasks);
+        assertEquals(2, tree.size());
+        assertEquals(1, tree.get(0).getId());
+        Catalogue leaf = tree.get(0).getChildren().get(0).getChildren().get(0);
+        assertEquals(4, leaf.getId());
+        assertEquals("note", leaf.getNote());
+        assertEquals(Collections.singleton(100), index.getTaskIds(3));
+
+        // move the folder 3 under 2, and the tree built before does not change
+        index.put(catalogue(3, 2, null));
+        assertEquals(1, tree.get(0).getChildren().size());
+        tree = index.buildTree(tasks);
+        assertTrue(tree.get(0).getChildren().isEmpty());
+        assertEquals(3, tree.get(1).getChildren().get(0).getId());
+
+        index.remove(4);
+        assertTrue(index.getChildren(3, tasks).isEmpty());
+        assertEquals(1, index.getChildren(2, tasks).size());
+        assertEquals(3, index.size());
+    }
+}
@@ -0,0 +1,149 @@
+/*
+ *
+ *  Licensed to the Apache Software Foundation (ASF) under one or more
+ *  contributor license agreements.  See the NOTICE file distributed with
+ *  this work for additional information regarding copyright ownership.
+ *  The ASF licenses this file to You under the Apache License, Version 2.0
+ *  (the "License"); you may not use this file except in compliance with
+ *  the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+
+package org.dinky.service.impl;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+import org.dinky.data.model.Column;
+import org.dinky.data.model.DataBase;
+import org.dinky.data.model.Schema;
+import org.dinky.data.model.Table;
+import org.dinky.metadata.driver.Driver;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class DataBaseMetadataCacheTest {
+
+    private Driver driver;
+    private DataBaseMetadataCache cache;
+    private DataBase dataBase;
+
+    private static Table table(String schema, String name, Date updateTime) {
+        Table table = Table.build(name, schema);
+        table.setUpdateTime(updateTime);
+        return table;
+    }
+
+    private static List<Column> columns(String... names) {
+        List<Column> columns = new ArrayList<>();
+        for (String name : names) {
+            Column column = new Column();
+            column.setName(name);
+            columns.add(column);
+        }
+        return columns;
+    }
+
+    @BeforeEach
+    void setUp() {
+        driver = mock(Driver.class);
+        cache = new DataBaseMetadataCache(dataBase -> driver);
+        dataBase = new DataBase();
+        dataBase.setId(1);
+        dataBase.setName("test");
+        when(driver.listSchemas()).thenReturn(Arrays.asList(new Schema("b"), new Schema("a")));
+        when(driver.listTables("a"))
+                .thenAnswer(invocation ->
+                        new ArrayList<>(Arrays.asList(table("a", "t2", new Date(1)), table("a", "t1", new Date(1)))));
+        when(driver.listTables("b")).thenAnswer(invocation -> new ArrayList<>());
+        when(driver.listColumns("a", "t1")).thenReturn(columns("id", "name"));
+        when(driver.listColumns("a", "t2")).thenReturn(columns("id"));
+    }
+
+    @Test
+    void getSchemasAndTables() {
+        List<Schema> schemas = cache.getSchemasAndTables(dataBase);
+        assertEquals("a", schemas.get(0).getName());
+        assertEquals("t1", schemas.get(0).getTables().get(0).getName());
+        assertEquals(2, schemas.get(0).getTables().size());
+        assertTrue(schemas.get(1).getTables().isEmpty());
+
+        cache.getSchemasAndTables(dataBase);
+        verify(driver, times(1)).listSchemas();
+        verify(driver, times(1)).listTables("a");
+    }
+
+    @Test
+    void listColumnsFromCache() {
+        assertEquals(2, cache.listColumns(dataBase, "a", "t1").size());
+        assertEquals(2, cache.listColumns(dataBase, "a", "t1").size());
+        Table table = cache.getTable(dataBase, "a", "t1");
+        assertEquals("name", table.getColumns().get(1).getName());
+        verify(driver, times(1)).listColumns("a", "t1");
+
+        // The copies handed out never change the cache
+        table.getColumns().clear();
+        assertNull(cache.listTables(dataBase, "a").get(0).getColumns());
+        assertEquals(2, cache.getTable(dataBase, "a", "t1").getColumns().size());
+    }
+
+    @Test
+    void refreshSchemaKeepsUnchangedColumns() {
+        cache.listColumns(dataBase, "a", "t1");
+        cache.listColumns(dataBase, "a", "t2");
+        when(driver.listTables("a"))
+                .thenAnswer(invocation -> new ArrayList<>(Arrays.asList(
+                        table("a", "t1", new Date(1)), table("a", "t2", new Date(2)), table("a", "t3", new Date(2)))));
+
+        cache.refresh(dataBase, "a", null);
+        assertEquals(3, cache.listTables(dataBase, "a").size());
+        cache.listColumns(dataBase, "a", "t1");
+        cache.listColumns(dataBase, "a", "t2");
+        verify(driver, times(1)).listColumns("a", "t1");
+        verify(driver, times(2)).listColumns("a", "t2");
+    }
+
+    @Test
+    void refreshTable() {
+        cache.listColumns(dataBase, "a", "t1");
+        when(driver.listColumns("a", "t1")).thenReturn(columns("id", "name", "age"));
+        cache.refresh(dataBase, "a", "t1");
+        assertEquals(3, cache.listColumns(dataBase, "a", "t1").size());
+
+        cache.refresh(dataBase, null, null);
+        cache.getSchemasAndTables(dataBase);
+        verify(driver, times(2)).listSchemas();
+    }
+
+    @Test
+    void isChanged() {
+        Table cached = table("a", "t1", null);
+        Table listed = table("a", "t1", null);
+        // Nothing to compare, the columns have to be loaded again
+        assertTrue(DataBaseMetadataCache.isChanged(cached, listed));
+        cached.setRows(10L);
+        listed.setRows(10L);
+        assertFalse(DataBaseMetadataCache.isChanged(cached, listed));
+        listed.setRows(11L);
+        assertTrue(DataBaseMetadataCache.isChanged(cached, listed));
+        cached.setCreateTime(new Date(1));
+        listed.setCreateTime(new Date(1));
+        assertFalse(DataBaseMetadataCache.isChanged(cached, listed));
+        listed.setUpdateTime(new Date(2));
+        assertTrue(DataBaseMetadataCache.isChanged(cached, listed));
+    }
+}
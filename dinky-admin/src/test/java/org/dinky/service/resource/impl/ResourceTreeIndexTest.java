@@ -0,0 +1,85 @@
+/*
+ *
+ *  Licensed to the Apache Software Foundation (ASF) under one or more
+ *  contributor license agreements.  See the NOTICE file distributed with
+ *  this work for additional information regarding copyright ownership.
+ *  The ASF licenses this file to You under the Apache License, Version 2.0
+ *  (the "License"); you may not use this file except in compliance with
+ *  the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+
+package org.dinky.service.resource.impl;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.dinky.data.model.Resources;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.Test;
+
+class ResourceTreeIndexTest {
+
+    private static Resources resource(int id, int pid, String fullName, boolean directory) {
+        return Resources.builder()
+                .id(id)
+                .pid(pid)
+                .fileName(fullName.substring(fullName.lastIndexOf('/') + 1))
+                .fullName(fullName)
+                .isDirectory(directory)
+                .size(directory ? 0L : 10L)
+                .build();
+    }
+
+    private static final ResourceTreeIndex INDEX = new ResourceTreeIndex(
+            1,
+            Arrays.asList(
+                    resource(4, 2, "/a/b/c.jar", false),
+                    resource(1, -1, "/", true),
+                    resource(3, 1, "/d.txt", false),
+                    resource(2, 1, "/a", true),
+                    resource(5, 4, "/a/b/c.jar/x", false)));
+
+    @Test
+    void buildTree() {
+        List<Resources> tree = INDEX.buildTree(resources -> true);
+        assertEquals(1, tree.size());
+        Resources root = tree.get(0);
+        assertEquals(Arrays.asList(2, 3), ids(root.getChildren()));
+        assertFalse(root.getChildren().get(0).isLeaf());
+        assertTrue(root.getChildren().get(1).isLeaf());
+
+        List<Resources> directories = INDEX.buildTree(Resources::getIsDirectory);
+        assertEquals(1, directories.get(0).getChildren().size());
+        assertTrue(directories.get(0).getChildren().get(0).isLeaf());
+    }
+
+    @Test
+    void lookup() {
+        assertEquals(4, INDEX.getByPath("a/b/c.jar").getId());
+        assertEquals(4, INDEX.getByPath("/a/b/c.jar").getId());
+        assertNull(INDEX.getByPath("/a/b"));
+        assertEquals(Arrays.asList(4, 2, 1), ids(INDEX.getAncestors(4)));
+        // files are not expanded
+        assertEquals(Arrays.asList(2, 4, 3), ids(INDEX.getDescendants(1)));
+
+        // the snapshot does not change with the copies it returned
+        INDEX.get(3).setSize(100L);
+        assertEquals(10L, INDEX.get(3).getSize());
+    }
+
+    private static List<Integer> ids(List<Resources> resources) {
+        return resources.stream().map(Resources::getId).collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,98 @@
+/*
+ *
+ *  Licensed to the Apache Software Foundation (ASF) under one or more
+ *  contributor license agreements.  See the NOTICE file distributed with
+ *  this work for additional information regarding copyright ownership.
+ *  The ASF licenses this file to You under the Apache License, Version 2.0
+ *  (the "License"); you may not use this file except in compliance with
+ *  the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+
+package org.dinky.utils;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.dinky.data.model.DependencyManifest;
+import org.dinky.data.model.FlinkUdfManifest;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collections;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import cn.hutool.core.io.FileUtil;
+import cn.hutool.crypto.digest.DigestUtil;
+
+class DependencyDigestsTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void digestIsCachedUntilTheFileChanges() throws IOException {
+        File file = write("udf.jar", "aaaa");
+        long lastModified = file.lastModified();
+        String digest = DependencyDigests.digest(file);
+        assertEquals(DigestUtil.sha256Hex("aaaa"), digest);
+
+        // Same size and modification time, the cached digest is used
+        FileUtil.writeString("bbbb", file, StandardCharsets.UTF_8);
+        assertTrue(file.setLastModified(lastModified));
+        assertEquals(digest, DependencyDigests.digest(file));
+
+        assertTrue(file.setLastModified(lastModified + 2000));
+        assertEquals(DigestUtil.sha256Hex("bbbb"), DependencyDigests.digest(file));
+
+        FileUtil.writeString("ccccc", file, StandardCharsets.UTF_8);
+        assertTrue(file.setLastModified(lastModified + 2000));
+        assertEquals(DigestUtil.sha256Hex("ccccc"), DependencyDigests.digest(file));
+    }
+
+    @Test
+    void buildManifestAndFindArtifact() throws IOException {
+        File jar = write("udf.jar", "jar");
+        File py = write("udf.py", "py");
+        FlinkUdfManifest udfManifest = new FlinkUdfManifest();
+        udfManifest.setJars(Arrays.asList(url(jar), url(new File(dir.toFile(), "missing.jar"))));
+        udfManifest.setPythonFiles(Collections.singletonList(url(py)));
+
+        DependencyManifest manifest = DependencyDigests.buildManifest(udfManifest);
+        assertEquals(
+                Arrays.asList(
+                        new DependencyManifest.Artifact(
+                                "udf.jar", DependencyManifest.TYPE_JAR, DigestUtil.sha256Hex("jar"), 3),
+                        new DependencyManifest.Artifact(
+                                "udf.py", DependencyManifest.TYPE_PYTHON, DigestUtil.sha256Hex("py"), 2)),
+                manifest.getArtifacts());
+        assertTrue(manifest.hasArtifacts(DependencyManifest.TYPE_JAR));
+
+        assertEquals(py, DependencyDigests.findArtifact(udfManifest, DigestUtil.sha256Hex("py")));
+        assertNull(DependencyDigests.findArtifact(udfManifest, DigestUtil.sha256Hex("other")));
+    }
+
+    private File write(String name, String content) throws IOException {
+        File file = dir.resolve(name).toFile();
+        Files.write(file.toPath(), content.getBytes(StandardCharsets.UTF_8));
+        return file;
+    }
+
+    private static URL url(File file) throws IOException {
+        return file.toURI().toURL();
+    }
+}
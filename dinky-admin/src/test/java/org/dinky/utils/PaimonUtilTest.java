@@ -0,0 +1,147 @@
+/*
+ *
+ *  Licensed to the Apache Software Foundation (ASF) under one or more
+ *  contributor license agreements.  See the NOTICE file distributed with
+ *  this work for additional information regarding copyright ownership.
+ *  The ASF licenses this file to You under the Apache License, Version 2.0
+ *  (the "License"); you may not use this file except in compliance with
+ *  the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+
+package org.dinky.utils;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.dinky.data.vo.MetricsVO;
+import org.dinky.shaded.paimon.data.BinaryString;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+class PaimonUtilTest {
+
+    private static final String TABLE = "dinky_metrics_page_test";
+
+    @AfterEach
+    void dropTable() {
+        PaimonUtil.dropTable(TABLE);
+    }
+
+    @Test
+    void readPageKeepsTiedRows() {
+        LocalDateTime tied = LocalDateTime.of(2024, 1, 1, 10, 0, 0, 123_000_000);
+        List<MetricsVO> rows = new ArrayList<>();
+        rows.add(metrics(tied.minusSeconds(1), "before"));
+        for (int i = 0; i < 5; i++) {
+            rows.add(metrics(tied, "tied" + i));
+        }
+        rows.add(metrics(tied.plusSeconds(1), "after"));
+        PaimonUtil.write(TABLE, rows, MetricsVO.class);
+
+        List<String> models = new ArrayList<>();
+        List<Integer> pageSizes = new ArrayList<>();
+        LocalDateTime cursor = null;
+        do {
+            PaimonQuery query = PaimonQuery.builder()
+                    .timeColumn("heart_time")
+                    .startTime(tied.minusMinutes(1))
+                    .endTime(tied.plusMinutes(1))
+                    .after(cursor)
+                    .limit(3)
+                    .build();
+            PaimonPage<MetricsVO> page = PaimonUtil.readPage(TABLE, MetricsVO.class, query);
+            page.getData().forEach(m -> models.add(m.getModel()));
+            pageSizes.add(page.getData().size());
+            cursor = page.getNextCursor();
+        } while (cursor != null && pageSizes.size() < 10);
+
+        assertEquals(7, models.size(), models.toString());
+        Set<String> distinct = new HashSet<>(models);
+        assertEquals(7, distinct.size(), models.toString());
+        // The five rows of the same time are one page, longer than the limit
+        assertTrue(pageSizes.contains(5), pageSizes.toString());
+        assertEquals("before", models.get(0));
+        assertEquals("after", models.get(models.size() - 1));
+    }
+
+    @Test
+    void filterOnColumnNotRead() {
+        LocalDateTime time = LocalDateTime.of(2024, 1, 1, 10, 0, 0);
+        List<MetricsVO> rows = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            rows.add(metrics(time.plusSeconds(i), i % 2 == 0 ? "even" : "odd"));
+        }
+        PaimonUtil.write(TABLE, rows, MetricsVO.class);
+
+        PaimonQuery query = PaimonQuery.builder()
+                .columns(Arrays.asList("heart_time", "content"))
+                .filter(builder -> Collections.singletonList(
+                        builder.equal(builder.indexOf("model"), BinaryString.fromString("even"))))
+                .build();
+        List<MetricsVO> read = new ArrayList<>();
+        PaimonUtil.readTable(TABLE, MetricsVO.class, query, read::add);
+
+        assertEquals(2, read.size(), read.toString());
+        for (MetricsVO metrics : read) {
+            assertEquals(0, metrics.getHeartTime().getSecond() % 2, read.toString());
+            // The filter column is only read to test the rows
+            assertNull(metrics.getModel());
+        }
+    }
+
+    @Test
+    void readPageAcrossSplits() {
+        LocalDateTime start = LocalDateTime.of(2024, 1, 1, 10, 0, 0);
+        List<LocalDateTime> times = new ArrayList<>();
+        // One write per day, each day is a partition and a split of its own, written out of order
+        for (int day : new int[] {2, 0, 3, 1}) {
+            List<MetricsVO> rows = new ArrayList<>();
+            for (int i = 0; i < 3; i++) {
+                LocalDateTime time = start.plusDays(day).plusMinutes(i);
+                rows.add(metrics(time, "model"));
+                times.add(time);
+            }
+            PaimonUtil.write(TABLE, rows, MetricsVO.class);
+        }
+        Collections.sort(times);
+
+        List<LocalDateTime> read = new ArrayList<>();
+        LocalDateTime cursor = null;
+        int pages = 0;
+        do {
+            PaimonQuery query = PaimonQuery.builder()
+                    .timeColumn("heart_time")
+                    .startTime(start.minusDays(1))
+                    .endTime(start.plusDays(5))
+                    .after(cursor)
+                    .limit(2)
+                    .build();
+            PaimonPage<MetricsVO> page = PaimonUtil.readPage(TABLE, MetricsVO.class, query);
+            page.getData().forEach(m -> read.add(m.getHeartTime()));
+            cursor = page.getNextCursor();
+        } while (cursor != null && ++pages < 20);
+
+        assertEquals(times, read);
+    }
+
+    private static MetricsVO metrics(LocalDateTime time, String model) {
+        return new MetricsVO(time, model, "{}", time.toLocalDate().toString());
+    }
+}
@@ -0,0 +1,230 @@
+/*
+ *
+ *  Licensed to the Apache Software Foundation (ASF) under one or more
+ *  contributor license agreements.  See the NOTICE file distributed with
+ *  this work for additional information regarding copyright ownership.
+ *  The ASF licenses this file to You under the Apache License, Version 2.0
+ *  (the "License"); you may not use this file except in compliance with
+ *  the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+
+package org.dinky.alert.dispatch;
+
+import org.dinky.alert.Alert;
+import org.dinky.alert.AlertConfig;
+import org.dinky.alert.AlertResult;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * AlertDispatcher
+ *
+ * <p>Sends the alerts off the caller thread. Every alert instance has its own lane, a single worker thread limited by
+ * a {@link TokenBucket}, so a slow or limited channel only delays its own alerts. An alert is sent at once, the alerts
+ * of the same job and rule that fire within the coalesce window after it are merged and sent as one digest when the
+ * window ends. At most {@code capacity} alerts wait to be sent, the alerts over it are dropped. The send results are
+ * handed to the history writer in batches.
+ */
+@Slf4j
+public class AlertDispatcher {
+
+    private static final int HISTORY_BATCH_SIZE = 100;
+    private static final long HISTORY_FLUSH_INTERVAL = 2000;
+
+    private final long coalesceWindow;
+    private final int ratePerMinute;
+    private final int burst;
+    private final Consumer<List<AlertMessage>> historyWriter;
+
+    private final Semaphore slots;
+    private final Map<String, Lane> lanes = new ConcurrentHashMap<>();
+    private final Queue<AlertMessage> history = new ConcurrentLinkedQueue<>();
+    private final ScheduledExecutorService scheduler;
+
+    /**
+     * @param capacity       the max alerts waiting to be sent
+     * @param coalesceWindow the millis in which the alerts of the same job and rule are merged
+     * @param ratePerMinute  the max alerts sent to one instance a minute
+     * @param burst          the max alerts sent to one instance at once
+     * @param historyWriter  saves the sent alerts
+     */
+    public AlertDispatcher(
+            int capacity,
+            long coalesceWindow,
+            int ratePerMinute,
+            int burst,
+            Consumer<List<AlertMessage>> historyWriter) {
+        this.coalesceWindow = coalesceWindow;
+        this.ratePerMinute = ratePerMinute;
+        this.burst = burst;
+        this.historyWriter = historyWriter;
+        this.slots = new Semaphore(capacity);
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(threadFactory("AlertDispatcher"));
+        scheduler.scheduleWithFixedDelay(
+                this::flushHistory, HISTORY_FLUSH_INTERVAL, HISTORY_FLUSH_INTERVAL, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Queue an alert to the instance.
+     *
+     * @return false if the queue is full and the alert is dropped
+     */
+    public boolean submit(AlertConfig alertConfig, AlertMessage message) {
+        message.setAlertConfig(alertConfig);
+        Lane lane = lanes.computeIfAbsent(alertConfig.getName(), Lane::new);
+        if (lane.offer(message)) {
+            return true;
+        }
+        log.warn(
+                "The alert queue is full, drop the alert [{}] of job instance {} to {}",
+                message.getTitle(),
+                message.getJobInstanceId(),
+                alertConfig.getName());
+        message.setResult(new AlertResult(false, "The alert queue is full, the alert is dropped"));
+        addHistory(message);
+        return false;
+    }
+
+    /**
+     * The alerts waiting to be sent.
+     */
+    public int getPending() {
+        return lanes.values().stream().mapToInt(Lane::size).sum();
+    }
+
+    private void addHistory(AlertMessage message) {
+        history.add(message);
+        if (history.size() >= HISTORY_BATCH_SIZE) {
+            scheduler.execute(this::flushHistory);
+        }
+    }
+
+    private void flushHistory() {
+        while (!history.isEmpty()) {
+            List<AlertMessage> batch = new ArrayList<>(HISTORY_BATCH_SIZE);
+            AlertMessage message;
+            while (batch.size() < HISTORY_BATCH_SIZE && (message = history.poll()) != null) {
+                batch.add(message);
+            }
+            try {
+                historyWriter.accept(batch);
+            } catch (Exception e) {
+                log.error("Save {} alert histories failed", batch.size(), e);
+            }
+        }
+    }
+
+    private static ThreadFactory threadFactory(String name) {
+        AtomicInteger index = new AtomicInteger(0);
+        return r -> {
+            Thread thread = new Thread(r, name + "-" + index.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    /**
+     * The alerts of one instance.
+     */
+    private class Lane {
+
+        private final String name;
+        private final TokenBucket bucket;
+        private final ThreadPoolExecutor worker;
+
+        /** job and rule -> the alert waiting to be sent */
+        private final Map<String, AlertMessage> pending = new HashMap<>();
+
+        /** job and rule -> the millis the last alert was sent, kept for the coalesce window */
+        private final Map<String, Long> lastSent = new HashMap<>();
+
+        Lane(String name) {
+            this.name = name;
+            this.bucket = new TokenBucket(ratePerMinute, burst);
+            this.worker = new ThreadPoolExecutor(
+                    1, 1, 60, TimeUnit.SECONDS, new LinkedBlockingQueue<>(), threadFactory("AlertLane-" + name));
+            worker.allowCoreThreadTimeOut(true);
+        }
+
+        synchronized int size() {
+            return pending.size();
+        }
+
+        synchronized boolean offer(AlertMessage message) {
+            String key = message.getKey();
+            AlertMessage waiting = pending.get(key);
+            if (waiting != null) {
+                waiting.merge(message);
+                waiting.setAlertConfig(message.getAlertConfig());
+                return true;
+            }
+            if (!slots.tryAcquire()) {
+                return false;
+            }
+            pending.put(key, message);
+            long now = System.currentTimeMillis();
+            lastSent.values().removeIf(time -> time + coalesceWindow <= now);
+            long delay = lastSent.containsKey(key) ? lastSent.get(key) + coalesceWindow - now : 0;
+            if (delay > 0) {
+                scheduler.schedule(() -> worker.execute(() -> send(key)), delay, TimeUnit.MILLISECONDS);
+            } else {
+                worker.execute(() -> send(key));
+            }
+            return true;
+        }
+
+        private void send(String key) {
+            AlertResult result = null;
+            try {
+                // Wait for the token first, the alerts firing meanwhile are merged into this one
+                bucket.acquire();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                result = new AlertResult(false, "The alert dispatcher is interrupted");
+            }
+            AlertMessage message;
+            synchronized (this) {
+                message = pending.remove(key);
+                lastSent.put(key, System.currentTimeMillis());
+            }
+            slots.release();
+            if (result == null) {
+                try {
+                    Alert alert = Alert.build(message.getAlertConfig());
+                    result = alert.send(message.getDigestTitle(), message.getDigestContent());
+                } catch (Exception e) {
+                    log.error("Send the alert [{}] to {} failed", message.getTitle(), name, e);
+                    result = new AlertResult(false, e.getMessage());
+                }
+            }
+            message.setResult(result);
+            addHistory(message);
+        }
+    }
+}
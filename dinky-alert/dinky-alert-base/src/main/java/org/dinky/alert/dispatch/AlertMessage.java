@@ -0,0 +1,107 @@
+/*
+ *
+ *  Licensed to the Apache Software Foundation (ASF) under one or more
+ *  contributor license agreements.  See the NOTICE file distributed with
+ *  this work for additional information regarding copyright ownership.
+ *  The ASF licenses this file to You under the Apache License, Version 2.0
+ *  (the "License"); you may not use this file except in compliance with
+ *  the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+
+package org.dinky.alert.dispatch;
+
+import org.dinky.alert.AlertConfig;
+import org.dinky.alert.AlertResult;
+
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+
+import lombok.Getter;
+import lombok.Setter;
+
+/**
+ * An alert of a job fired by a rule, to be sent to one alert instance. The alerts of the same job and rule that fire
+ * while one is waiting to be sent are merged into it, and sent as one digest.
+ */
+@Getter
+public class AlertMessage {
+
+    /** The contents kept in a digest, the later ones are only counted */
+    private static final int MAX_DIGEST_CONTENTS = 5;
+
+    private static final DateTimeFormatter TIME_FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+
+    private final Integer jobInstanceId;
+    private final Integer ruleId;
+    private final Integer alertGroupId;
+    private final String title;
+    private final List<String> contents = new ArrayList<>(1);
+    private final LocalDateTime firstTime;
+    private LocalDateTime lastTime;
+    private int count = 1;
+
+    /** The instance the alert is sent to, set by the dispatcher */
+    @Setter
+    private AlertConfig alertConfig;
+
+    /** The send result, set by the dispatcher */
+    @Setter
+    private AlertResult result;
+
+    public AlertMessage(Integer jobInstanceId, Integer ruleId, Integer alertGroupId, String title, String content) {
+        this.jobInstanceId = jobInstanceId;
+        this.ruleId = ruleId;
+        this.alertGroupId = alertGroupId;
+        this.title = title;
+        this.contents.add(content);
+        this.firstTime = LocalDateTime.now();
+        this.lastTime = firstTime;
+    }
+
+    /**
+     * The job and rule of the alert, the alerts with the same key are coalesced.
+     */
+    public String getKey() {
+        return jobInstanceId + "#" + ruleId;
+    }
+
+    void merge(AlertMessage other) {
+        count += other.count;
+        lastTime = other.lastTime;
+        for (String content : other.contents) {
+            if (contents.size() < MAX_DIGEST_CONTENTS) {
+                contents.add(content);
+            }
+        }
+    }
+
+    public String getDigestTitle() {
+        return count == 1 ? title : String.format("%s (x%d)", title, count);
+    }
+
+    public String getDigestContent() {
+        if (count == 1) {
+            return contents.get(0);
+        }
+        StringBuilder digest = new StringBuilder();
+        digest.append(String.format(
+                "> The alert fired %d times from %s to %s%n%n",
+                count, TIME_FORMATTER.format(firstTime), TIME_FORMATTER.format(lastTime)));
+        digest.append(String.join(String.format("%n%n---%n%n"), contents));
+        if (count > contents.size()) {
+            digest.append(String.format("%n%n---%n%n> %d more alerts are omitted", count - contents.size()));
+        }
+        return digest.toString();
+    }
+}
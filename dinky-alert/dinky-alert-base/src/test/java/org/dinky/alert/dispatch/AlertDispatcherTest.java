@@ -0,0 +1,136 @@
+/*
+ *
+ *  Licensed to the Apache Software Foundation (ASF) under one or more
+ *  contributor license agreements.  See the NOTICE file distributed with
+ *  this work for additional information regarding copyright ownership.
+ *  The ASF licenses this file to You under the Apache License, Version 2.0
+ *  (the "License"); you may not use this file except in compliance with
+ *  the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+
+package org.dinky.alert.dispatch;
+
+import org.dinky.alert.Alert;
+import org.dinky.alert.AlertConfig;
+import org.dinky.alert.AlertPool;
+import org.dinky.alert.AlertResult;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class AlertDispatcherTest {
+
+    private static final String INSTANCE = "AlertDispatcherTest";
+
+    private final AlertConfig alertConfig = AlertConfig.build(INSTANCE, "Test", Collections.emptyMap());
+
+    @After
+    public void removeAlert() {
+        AlertPool.remove(INSTANCE);
+    }
+
+    @Test
+    public void sendInOrderTest() throws InterruptedException {
+        RecordingAlert alert = new RecordingAlert(false);
+        AlertPool.push(INSTANCE, alert);
+        AlertDispatcher dispatcher = new AlertDispatcher(10, 60000, 600, 10, messages -> {});
+
+        for (int job = 1; job <= 3; job++) {
+            Assert.assertTrue(dispatcher.submit(alertConfig, message(job)));
+        }
+        Assert.assertTrue(alert.sent.tryAcquire(3, 10, TimeUnit.SECONDS));
+        Assert.assertEquals(Arrays.asList("job 1", "job 2", "job 3"), alert.titles);
+    }
+
+    @Test
+    public void dropWhenFullTest() throws InterruptedException {
+        RecordingAlert alert = new RecordingAlert(true);
+        AlertPool.push(INSTANCE, alert);
+        AlertDispatcher dispatcher = new AlertDispatcher(2, 60000, 600, 10, messages -> {});
+
+        // The first alert holds the worker, the next two fill the queue
+        Assert.assertTrue(dispatcher.submit(alertConfig, message(1)));
+        Assert.assertTrue(alert.sending.await(10, TimeUnit.SECONDS));
+        Assert.assertTrue(dispatcher.submit(alertConfig, message(2)));
+        Assert.assertTrue(dispatcher.submit(alertConfig, message(3)));
+        Assert.assertEquals(2, dispatcher.getPending());
+
+        AlertMessage dropped = message(4);
+        Assert.assertFalse(dispatcher.submit(alertConfig, dropped));
+        Assert.assertFalse(dropped.getResult().getSuccess());
+        // An alert of a waiting job and rule is merged, it needs no slot
+        Assert.assertTrue(dispatcher.submit(alertConfig, message(3)));
+        Assert.assertEquals(2, dispatcher.getPending());
+
+        alert.release.countDown();
+        Assert.assertTrue(alert.sent.tryAcquire(3, 10, TimeUnit.SECONDS));
+        Assert.assertEquals(Arrays.asList("job 1", "job 2", "job 3 (x2)"), alert.titles);
+        Assert.assertEquals(0, dispatcher.getPending());
+        // The slots are free again
+        Assert.assertTrue(dispatcher.submit(alertConfig, message(5)));
+        Assert.assertTrue(alert.sent.tryAcquire(1, 10, TimeUnit.SECONDS));
+    }
+
+    private static AlertMessage message(int job) {
+        return new AlertMessage(job, 1, 1, "job " + job, "content of job " + job);
+    }
+
+    /**
+     * Records the sent titles, the first send waits until released if blocking.
+     */
+    private static class RecordingAlert implements Alert {
+
+        private final List<String> titles = new CopyOnWriteArrayList<>();
+        private final CountDownLatch sending = new CountDownLatch(1);
+        private final CountDownLatch release = new CountDownLatch(1);
+        private final Semaphore sent = new Semaphore(0);
+        private final boolean blockFirst;
+
+        private RecordingAlert(boolean blockFirst) {
+            this.blockFirst = blockFirst;
+        }
+
+        @Override
+        public Alert setConfig(AlertConfig config) {
+            return this;
+        }
+
+        @Override
+        public String getType() {
+            return "Test";
+        }
+
+        @Override
+        public AlertResult send(String title, String content) {
+            sending.countDown();
+            if (blockFirst && titles.isEmpty()) {
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            titles.add(title);
+            sent.release();
+            return new AlertResult(true, "");
+        }
+    }
+}
@@ -0,0 +1,84 @@
+/*
+ *
+ *  Licensed to the Apache Software Foundation (ASF) under one or more
+ *  contributor license agreements.  See the NOTICE file distributed with
+ *  this work for additional information regarding copyright ownership.
+ *  The ASF licenses this file to You under the Apache License, Version 2.0
+ *  (the "License"); you may not use this file except in compliance with
+ *  the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+
+package org.dinky.alert.dispatch;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class TokenBucketTest {
+
+    private final AtomicLong now = new AtomicLong();
+
+    @Test
+    public void burstTest() {
+        TokenBucket bucket = new TokenBucket(60, 3, now::get);
+        for (int i = 0; i < 3; i++) {
+            Assert.assertEquals(0, bucket.tryAcquire());
+        }
+        // One token a second
+        long wait = bucket.tryAcquire();
+        Assert.assertTrue(wait > TimeUnit.MILLISECONDS.toNanos(999));
+        Assert.assertTrue(wait <= TimeUnit.MILLISECONDS.toNanos(1001));
+    }
+
+    @Test
+    public void refillTest() {
+        TokenBucket bucket = new TokenBucket(60, 1, now::get);
+        Assert.assertEquals(0, bucket.tryAcquire());
+        long wait = bucket.tryAcquire();
+
+        now.addAndGet(wait / 2);
+        long halfWait = bucket.tryAcquire();
+        Assert.assertTrue(halfWait > 0);
+        Assert.assertTrue(halfWait < wait);
+
+        now.addAndGet(halfWait);
+        Assert.assertEquals(0, bucket.tryAcquire());
+    }
+
+    @Test
+    public void refillUpToBurstTest() {
+        TokenBucket bucket = new TokenBucket(60, 3, now::get);
+        for (int i = 0; i < 3; i++) {
+            bucket.tryAcquire();
+        }
+        now.addAndGet(TimeUnit.HOURS.toNanos(1));
+        for (int i = 0; i < 3; i++) {
+            Assert.assertEquals(0, bucket.tryAcquire());
+        }
+        Assert.assertTrue(bucket.tryAcquire() > 0);
+    }
+
+    @Test
+    public void emptyBucketTakesNoTokenTest() {
+        TokenBucket bucket = new TokenBucket(60, 1, now::get);
+        bucket.tryAcquire();
+        // The refused calls do not take a token, the next one is still due after one second
+        long wait = bucket.tryAcquire();
+        for (int i = 0; i < 10; i++) {
+            Assert.assertEquals(wait, bucket.tryAcquire());
+        }
+        now.addAndGet(wait);
+        Assert.assertEquals(0, bucket.tryAcquire());
+    }
+}
@@ -30,8 +30,6 @@ import org.dinky.utils.JsonUtils;
 import org.apache.http.HttpEntity;
 import org.apache.http.client.methods.CloseableHttpResponse;
 import org.apache.http.client.methods.HttpGet;
-import org.apache.http.impl.client.CloseableHttpClient;
-import org.apache.http.impl.client.HttpClients;
 import org.apache.http.util.EntityUtils;
 
 import java.io.IOException;
@@ -118,19 +116,17 @@ public class WeChatSender {
     private String getToken() {
         try {
             String resp;
-            try (CloseableHttpClient httpClient = HttpClients.createDefault()) {
-                HttpGet httpGet = new HttpGet(weChatTokenUrlReplace);
-                try (CloseableHttpResponse response = httpClient.execute(httpGet)) {
-                    HttpEntity entity = response.getEntity();
-                    resp = EntityUtils.toString(entity, WeChatConstants.CHARSET);
-                    EntityUtils.consume(entity);
-                }
-                HashMap<String, Object> map = JsonUtils.parseObject(resp, HashMap.class);
-                if (map != null && null != map.get(WeChatConstants.ACCESS_TOKEN)) {
-                    return map.get(WeChatConstants.ACCESS_TOKEN).toString();
-                } else {
-                    return null;
-                }
+            HttpGet httpGet = new HttpGet(weChatTokenUrlReplace);
+            try (CloseableHttpResponse response = HttpUtils.getHttpClient().execute(httpGet)) {
+                HttpEntity entity = response.getEntity();
+                resp = EntityUtils.toString(entity, WeChatConstants.CHARSET);
+                EntityUtils.consume(entity);
+            }
+            HashMap<String, Object> map = JsonUtils.parseObject(resp, HashMap.class);
+            if (map != null && null != map.get(WeChatConstants.ACCESS_TOKEN)) {
+                return map.get(WeChatConstants.ACCESS_TOKEN).toString();
+            } else {
+                return null;
             }
         } catch (IOException e) {
             logger.error("we chat alert get token error{}", e.getMessage());
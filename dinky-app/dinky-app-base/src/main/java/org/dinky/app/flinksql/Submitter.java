@@ -22,6 +22,7 @@ package org.dinky.app.flinksql;
 import org.dinky.app.db.DBUtil;
 import org.dinky.app.model.StatementParam;
 import org.dinky.app.model.SysConfig;
+import org.dinky.app.util.DependencyFetcher;
 import org.dinky.app.util.FlinkAppUtil;
 import org.dinky.assertion.Asserts;
 import org.dinky.classloader.DinkyClassLoader;
@@ -30,6 +31,7 @@ import org.dinky.constant.FlinkSQLConstant;
 import org.dinky.data.app.AppParamConfig;
 import org.dinky.data.app.AppTask;
 import org.dinky.data.enums.GatewayType;
+import org.dinky.data.model.DependencyManifest;
 import org.dinky.data.model.SystemConfiguration;
 import org.dinky.executor.Executor;
 import org.dinky.executor.ExecutorConfig;
@@ -175,13 +177,16 @@ public class Submitter {
 
         if (GatewayType.get(type).isKubernetesApplicationMode()) {
             try {
-                String httpJar = dinkyAddr + "/download/downloadDepJar/" + taskId;
-                log.info("下载依赖 http-url为：{}", httpJar);
                 String flinkHome = System.getenv("FLINK_HOME");
                 String usrlib = flinkHome + "/usrlib";
                 FileUtils.forceMkdir(new File(usrlib));
-                String depZip = flinkHome + "/dep.zip";
                 String depPath = flinkHome + "/dep";
+                if (fetchDep(dinkyAddr, taskId, usrlib, depPath + "/py/")) {
+                    return;
+                }
+                String httpJar = dinkyAddr + "/download/downloadDepJar/" + taskId;
+                log.info("下载依赖 http-url为：{}", httpJar);
+                String depZip = flinkHome + "/dep.zip";
                 downloadFile(httpJar, depZip);
                 if (FileUtil.exist(depPath)) {
                     ZipUtils.unzip(depZip, depPath);
@@ -191,28 +196,9 @@ public class Submitter {
                         FileUtil.listFileNames(depPath + "/jar").forEach(f -> {
                             FileUtil.move(FileUtil.file(depPath + "/jar/" + f), FileUtil.file(usrlib + "/" + f), true);
                         });
-                        if (FileUtil.isDirectory(usrlib)) {
-                            URL[] jarUrls = FileUtil.listFileNames(usrlib).stream()
-                                    .map(f -> URLUtil.getURL(FileUtil.file(usrlib, f)))
-                                    .toArray(URL[]::new);
-                            addURLs(jarUrls);
-                            executor.getCustomTableEnvironment()
-                                    .addJar(FileUtil.file(usrlib).listFiles());
-                        }
-                    }
-                    if (FileUtil.isDirectory(depPath + "/py/")) {
-                        URL[] pyUrls = FileUtil.listFileNames(depPath + "/py/").stream()
-                                .map(f -> URLUtil.getURL(FileUtil.file(depPath + "/py/", f)))
-                                .toArray(URL[]::new);
-                        if (ArrayUtil.isNotEmpty(pyUrls)) {
-                            executor.getCustomTableEnvironment()
-                                    .addConfiguration(
-                                            PythonOptions.PYTHON_FILES,
-                                            Arrays.stream(pyUrls)
-                                                    .map(URL::toString)
-                                                    .collect(Collectors.joining(",")));
-                        }
+                        registerJars(usrlib);
                     }
+                    registerPythonFiles(depPath + "/py/");
                 }
             } catch (IOException e) {
                 throw new RuntimeException(e);
@@ -220,6 +206,65 @@ public class Submitter {
         }
     }
 
+    /**
+     * Fetch the dependencies by their digest, only the ones missing in the local cache are downloaded. The jars and the
+     * python files are registered only when the manifest has some, so an empty manifest leaves usrlib as it is.
+     *
+     * @return false if dinky does not serve the dependency manifest, the dependencies are then downloaded as a zip
+     */
+    private static boolean fetchDep(String dinkyAddr, Integer taskId, String usrlib, String pyPath) throws IOException {
+        DependencyFetcher fetcher = new DependencyFetcher(dinkyAddr, taskId);
+        DependencyManifest manifest;
+        try {
+            manifest = fetcher.getManifest();
+        } catch (Exception e) {
+            log.warn("Get the dependency manifest failed, download the dependency zip instead", e);
+            return false;
+        }
+        List<File> files = fetcher.fetch(manifest, new File(usrlib), new File(pyPath));
+        if (files.isEmpty()) {
+            log.info("The task has no dependency to fetch");
+            return true;
+        }
+        log.info(
+                "fetch dep success, include :{}",
+                files.stream().map(File::getName).collect(Collectors.joining(",")));
+        if (manifest.hasArtifacts(DependencyManifest.TYPE_JAR)) {
+            registerJars(usrlib);
+        }
+        if (manifest.hasArtifacts(DependencyManifest.TYPE_PYTHON)) {
+            registerPythonFiles(pyPath);
+        }
+        return true;
+    }
+
+    private static void registerJars(String usrlib) {
+        if (FileUtil.isDirectory(usrlib)) {
+            URL[] jarUrls = FileUtil.listFileNames(usrlib).stream()
+                    .map(f -> URLUtil.getURL(FileUtil.file(usrlib, f)))
+                    .toArray(URL[]::new);
+            if (ArrayUtil.isNotEmpty(jarUrls)) {
+                addURLs(jarUrls);
+                executor.getCustomTableEnvironment()
+                        .addJar(FileUtil.file(usrlib).listFiles());
+            }
+        }
+    }
+
+    private static void registerPythonFiles(String pyPath) {
+        if (FileUtil.isDirectory(pyPath)) {
+            URL[] pyUrls = FileUtil.listFileNames(pyPath).stream()
+                    .map(f -> URLUtil.getURL(FileUtil.file(pyPath, f)))
+                    .toArray(URL[]::new);
+            if (ArrayUtil.isNotEmpty(pyUrls)) {
+                executor.getCustomTableEnvironment()
+                        .addConfiguration(
+                                PythonOptions.PYTHON_FILES,
+                                Arrays.stream(pyUrls).map(URL::toString).collect(Collectors.joining(",")));
+            }
+        }
+    }
+
     private static void addURLs(URL[] jarUrls) {
         Thread.currentThread().setContextClassLoader(new DinkyClassLoader(new URL[] {}));
         URLClassLoader urlClassLoader = (URLClassLoader) Thread.currentThread().getContextClassLoader();
@@ -0,0 +1,203 @@
+/*
+ *
+ *  Licensed to the Apache Software Foundation (ASF) under one or more
+ *  contributor license agreements.  See the NOTICE file distributed with
+ *  this work for additional information regarding copyright ownership.
+ *  The ASF licenses this file to You under the Apache License, Version 2.0
+ *  (the "License"); you may not use this file except in compliance with
+ *  the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+
+package org.dinky.app.util;
+
+import org.dinky.data.model.DependencyManifest;
+import org.dinky.utils.JsonUtils;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import com.fasterxml.jackson.databind.JsonNode;
+
+import cn.hutool.core.io.FileUtil;
+import cn.hutool.crypto.digest.DigestUtil;
+import cn.hutool.http.HttpUtil;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Fetches the dependencies of a task by their digest into a local cache directory, only the artifacts that are not
+ * cached yet are downloaded and an interrupted download is resumed with a range request. A cached artifact is checked
+ * against its digest before it is used. Mount the cache directory
+ * on a volume to keep it across pod restarts, it can be set with the {@code DINKY_DEP_CACHE_DIR} environment
+ * variable and defaults to {@code $FLINK_HOME/dep-cache}.
+ */
+@Slf4j
+public class DependencyFetcher {
+
+    private static final int PARALLELISM = 4;
+    private static final int MAX_ATTEMPTS = 3;
+    private static final int TIMEOUT = 60 * 1000;
+
+    private final String dinkyAddr;
+    private final Integer taskId;
+    private final File cacheDir;
+
+    public DependencyFetcher(String dinkyAddr, Integer taskId) {
+        this(dinkyAddr, taskId, getCacheDir());
+    }
+
+    DependencyFetcher(String dinkyAddr, Integer taskId, File cacheDir) {
+        this.dinkyAddr = dinkyAddr;
+        this.taskId = taskId;
+        this.cacheDir = FileUtil.mkdir(cacheDir);
+    }
+
+    private static File getCacheDir() {
+        String cachePath = System.getenv("DINKY_DEP_CACHE_DIR");
+        return new File(
+                cachePath == null || cachePath.isEmpty() ? System.getenv("FLINK_HOME") + "/dep-cache" : cachePath);
+    }
+
+    public DependencyManifest getManifest() {
+        String url = dinkyAddr + "/download/depManifest/" + taskId;
+        JsonNode data = JsonUtils.parseToJsonNode(HttpUtil.get(url, TIMEOUT)).get("data");
+        if (data == null || data.isNull()) {
+            throw new IllegalStateException("No dependency manifest in the response of " + url);
+        }
+        return JsonUtils.convertValue(data, DependencyManifest.class);
+    }
+
+    /**
+     * Fetch the artifacts of the manifest and copy them to the target directory of their type.
+     *
+     * @return the copied files
+     */
+    public List<File> fetch(DependencyManifest manifest, File jarDir, File pyDir) throws IOException {
+        List<DependencyManifest.Artifact> artifacts = manifest.getArtifacts();
+        if (artifacts == null || artifacts.isEmpty()) {
+            return new ArrayList<>();
+        }
+        ExecutorService executor = Executors.newFixedThreadPool(Math.min(PARALLELISM, artifacts.size()));
+        try {
+            List<Future<File>> futures = new ArrayList<>(artifacts.size());
+            for (DependencyManifest.Artifact artifact : artifacts) {
+                futures.add(executor.submit(() -> fetch(artifact)));
+            }
+            List<File> files = new ArrayList<>(artifacts.size());
+            for (int i = 0; i < artifacts.size(); i++) {
+                DependencyManifest.Artifact artifact = artifacts.get(i);
+                File target = new File(
+                        DependencyManifest.TYPE_PYTHON.equals(artifact.getType()) ? pyDir : jarDir, artifact.getName());
+                FileUtil.mkParentDirs(target);
+                FileUtil.copyFile(futures.get(i).get(), target, StandardCopyOption.REPLACE_EXISTING);
+                files.add(target);
+            }
+            return files;
+        } catch (ExecutionException e) {
+            throw e.getCause() instanceof IOException ? (IOException) e.getCause() : new IOException(e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException(e);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private File fetch(DependencyManifest.Artifact artifact) throws IOException {
+        String digest = artifact.getDigest();
+        if (digest == null || !digest.matches("[0-9a-f]{64}")) {
+            throw new IOException("Invalid digest of dependency " + artifact.getName() + ": " + digest);
+        }
+        File cached = new File(cacheDir, digest);
+        if (cached.isFile()) {
+            // The cache may be on a shared volume, a corrupted or truncated file is downloaded again
+            if (cached.length() == artifact.getSize() && digest.equals(DigestUtil.sha256Hex(cached))) {
+                log.info("Dependency {} is cached as {}", artifact.getName(), digest);
+                return cached;
+            }
+            log.warn(
+                    "The cached dependency {} does not match its digest {}, download it again",
+                    artifact.getName(),
+                    digest);
+            FileUtil.del(cached);
+        }
+        File part = new File(cacheDir, digest + ".part");
+        for (int attempt = 1; ; attempt++) {
+            try {
+                download(digest, part);
+                String actual = DigestUtil.sha256Hex(part);
+                if (!digest.equals(actual)) {
+                    FileUtil.del(part);
+                    throw new IOException(String.format(
+                            "Digest mismatch of dependency %s, expected %s but was %s",
+                            artifact.getName(), digest, actual));
+                }
+                Files.move(part.toPath(), cached.toPath(), StandardCopyOption.REPLACE_EXISTING);
+                log.info("Downloaded dependency {} ({} bytes)", artifact.getName(), cached.length());
+                return cached;
+            } catch (IOException e) {
+                if (attempt >= MAX_ATTEMPTS) {
+                    throw e;
+                }
+                log.warn("Download dependency {} failed, retry {}/{}", artifact.getName(), attempt, MAX_ATTEMPTS, e);
+            }
+        }
+    }
+
+    /** Download the artifact to the part file, resuming from the bytes it already has */
+    private void download(String digest, File part) throws IOException {
+        long offset = part.isFile() ? part.length() : 0;
+        HttpURLConnection connection = (HttpURLConnection)
+                new URL(dinkyAddr + "/download/depArtifact/" + taskId + "/" + digest).openConnection();
+        connection.setConnectTimeout(TIMEOUT);
+        connection.setReadTimeout(TIMEOUT);
+        if (offset > 0) {
+            connection.setRequestProperty("Range", "bytes=" + offset + "-");
+        }
+        try {
+            int code = connection.getResponseCode();
+            if (code == HttpURLConnection.HTTP_PARTIAL) {
+                log.info("Resume the download of dependency {} from {} bytes", digest, offset);
+            } else if (code == HttpURLConnection.HTTP_OK) {
+                offset = 0;
+            } else if (code == 416) {
+                // The part file is already complete, or larger than the artifact
+                FileUtil.del(part);
+                throw new IOException("Invalid range of the partial download of dependency " + digest);
+            } else {
+                throw new IOException("Download dependency " + digest + " failed, http status " + code);
+            }
+            try (InputStream in = connection.getInputStream();
+                    OutputStream out = new FileOutputStream(part, offset > 0)) {
+                byte[] buffer = new byte[64 * 1024];
+                int n;
+                while ((n = in.read(buffer)) != -1) {
+                    out.write(buffer, 0, n);
+                }
+            }
+        } finally {
+            connection.disconnect();
+        }
+    }
+}
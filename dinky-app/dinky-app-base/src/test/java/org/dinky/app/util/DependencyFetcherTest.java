@@ -0,0 +1,190 @@
+/*
+ *
+ *  Licensed to the Apache Software Foundation (ASF) under one or more
+ *  contributor license agreements.  See the NOTICE file distributed with
+ *  this work for additional information regarding copyright ownership.
+ *  The ASF licenses this file to You under the Apache License, Version 2.0
+ *  (the "License"); you may not use this file except in compliance with
+ *  the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+
+package org.dinky.app.util;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.dinky.data.model.DependencyManifest;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import cn.hutool.crypto.digest.DigestUtil;
+
+class DependencyFetcherTest {
+
+    private static final byte[] CONTENT = content();
+    private static final String DIGEST = DigestUtil.sha256Hex(CONTENT);
+
+    @TempDir
+    Path dir;
+
+    private HttpServer server;
+    private File cacheDir;
+    private File jarDir;
+    private File pyDir;
+
+    /** The range header of each artifact request, or "" without one */
+    private final List<String> ranges = new CopyOnWriteArrayList<>();
+
+    private volatile byte[] served = CONTENT;
+    private volatile String manifest;
+
+    @BeforeEach
+    void startServer() throws IOException {
+        cacheDir = Files.createDirectories(dir.resolve("cache")).toFile();
+        jarDir = dir.resolve("usrlib").toFile();
+        pyDir = dir.resolve("py").toFile();
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/download/depArtifact/1/", this::serveArtifact);
+        server.createContext("/download/depManifest/1", exchange -> {
+            if (manifest == null) {
+                send(exchange, 404, new byte[0]);
+            } else {
+                send(exchange, 200, manifest.getBytes(StandardCharsets.UTF_8));
+            }
+        });
+        server.start();
+    }
+
+    @AfterEach
+    void stopServer() {
+        server.stop(0);
+    }
+
+    @Test
+    void resumeFromThePartFile() throws IOException {
+        Files.write(new File(cacheDir, DIGEST + ".part").toPath(), Arrays.copyOf(CONTENT, 1000));
+
+        List<File> files = fetcher().fetch(manifest(DependencyManifest.TYPE_JAR), jarDir, pyDir);
+
+        assertEquals(Collections.singletonList("bytes=1000-"), ranges);
+        assertEquals(Collections.singletonList(new File(jarDir, "udf.jar")), files);
+        assertArrayEquals(CONTENT, Files.readAllBytes(files.get(0).toPath()));
+        assertArrayEquals(CONTENT, Files.readAllBytes(new File(cacheDir, DIGEST).toPath()));
+        assertFalse(new File(cacheDir, DIGEST + ".part").exists());
+    }
+
+    @Test
+    void reuseTheCachedArtifact() throws IOException {
+        Files.write(new File(cacheDir, DIGEST).toPath(), CONTENT);
+
+        List<File> files = fetcher().fetch(manifest(DependencyManifest.TYPE_PYTHON), jarDir, pyDir);
+
+        assertTrue(ranges.isEmpty());
+        assertArrayEquals(CONTENT, Files.readAllBytes(new File(pyDir, "udf.jar").toPath()));
+        assertEquals(1, files.size());
+    }
+
+    @Test
+    void downloadTheCorruptedCachedArtifactAgain() throws IOException {
+        byte[] corrupted = CONTENT.clone();
+        corrupted[10]++;
+        Files.write(new File(cacheDir, DIGEST).toPath(), corrupted);
+
+        List<File> files = fetcher().fetch(manifest(DependencyManifest.TYPE_JAR), jarDir, pyDir);
+
+        assertEquals(Collections.singletonList(""), ranges);
+        assertArrayEquals(CONTENT, Files.readAllBytes(files.get(0).toPath()));
+    }
+
+    @Test
+    void failOnDigestMismatch() {
+        served = "something else".getBytes(StandardCharsets.UTF_8);
+
+        IOException e = assertThrows(
+                IOException.class, () -> fetcher().fetch(manifest(DependencyManifest.TYPE_JAR), jarDir, pyDir));
+
+        assertTrue(e.getMessage().startsWith("Digest mismatch"));
+        assertEquals(3, ranges.size());
+        assertFalse(new File(cacheDir, DIGEST).exists());
+    }
+
+    @Test
+    void getTheServedManifest() {
+        manifest = "{\"code\":0,\"data\":{\"artifacts\":[{\"name\":\"udf.jar\",\"type\":\"jar\",\"digest\":\"" + DIGEST
+                + "\",\"size\":" + CONTENT.length + "}]}}";
+
+        assertEquals(manifest(DependencyManifest.TYPE_JAR), fetcher().getManifest());
+    }
+
+    /** The submitter downloads the dependency zip when the manifest cannot be got */
+    @Test
+    void failWhenTheManifestIsNotServed() {
+        assertThrows(RuntimeException.class, () -> fetcher().getManifest());
+
+        manifest = "{\"code\":0,\"data\":null}";
+        assertThrows(IllegalStateException.class, () -> fetcher().getManifest());
+    }
+
+    private DependencyFetcher fetcher() {
+        return new DependencyFetcher("http://127.0.0.1:" + server.getAddress().getPort(), 1, cacheDir);
+    }
+
+    private static DependencyManifest manifest(String type) {
+        DependencyManifest manifest = new DependencyManifest();
+        manifest.getArtifacts().add(new DependencyManifest.Artifact("udf.jar", type, DIGEST, CONTENT.length));
+        return manifest;
+    }
+
+    private void serveArtifact(HttpExchange exchange) throws IOException {
+        String range = exchange.getRequestHeaders().getFirst("Range");
+        ranges.add(range == null ? "" : range);
+        byte[] body = served;
+        if (range == null) {
+            send(exchange, 200, body);
+            return;
+        }
+        int offset = Integer.parseInt(range.substring("bytes=".length(), range.length() - 1));
+        send(exchange, 206, Arrays.copyOfRange(body, offset, body.length));
+    }
+
+    private static void send(HttpExchange exchange, int code, byte[] body) throws IOException {
+        exchange.sendResponseHeaders(code, body.length == 0 ? -1 : body.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(body);
+        }
+    }
+
+    private static byte[] content() {
+        byte[] content = new byte[4096];
+        for (int i = 0; i < content.length; i++) {
+            content[i] = (byte) (i * 31);
+        }
+        return content;
+    }
+}
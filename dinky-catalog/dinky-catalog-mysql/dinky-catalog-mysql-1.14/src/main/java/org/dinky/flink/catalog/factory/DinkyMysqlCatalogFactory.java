@@ -20,6 +20,7 @@
 package org.dinky.flink.catalog.factory;
 
 import static org.apache.flink.table.factories.FactoryUtil.PROPERTY_VERSION;
+import static org.dinky.flink.catalog.factory.DinkyMysqlCatalogFactoryOptions.CACHE_TTL;
 import static org.dinky.flink.catalog.factory.DinkyMysqlCatalogFactoryOptions.PASSWORD;
 import static org.dinky.flink.catalog.factory.DinkyMysqlCatalogFactoryOptions.URL;
 import static org.dinky.flink.catalog.factory.DinkyMysqlCatalogFactoryOptions.USERNAME;
@@ -54,6 +55,7 @@ public class DinkyMysqlCatalogFactory implements CatalogFactory {
         options.add(USERNAME);
         options.add(PASSWORD);
         options.add(URL);
+        options.add(CACHE_TTL);
         options.add(PROPERTY_VERSION);
         return options;
     }
@@ -67,6 +69,7 @@ public class DinkyMysqlCatalogFactory implements CatalogFactory {
                 context.getName(),
                 helper.getOptions().get(URL),
                 helper.getOptions().get(USERNAME),
-                helper.getOptions().get(PASSWORD));
+                helper.getOptions().get(PASSWORD),
+                helper.getOptions().get(CACHE_TTL));
     }
 }
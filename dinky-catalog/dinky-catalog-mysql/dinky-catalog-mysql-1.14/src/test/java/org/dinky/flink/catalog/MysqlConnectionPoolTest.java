@@ -0,0 +1,234 @@
+/*
+ *
+ *  Licensed to the Apache Software Foundation (ASF) under one or more
+ *  contributor license agreements.  See the NOTICE file distributed with
+ *  this work for additional information regarding copyright ownership.
+ *  The ASF licenses this file to You under the Apache License, Version 2.0
+ *  (the "License"); you may not use this file except in compliance with
+ *  the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+
+package org.dinky.flink.catalog;
+
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.Driver;
+import java.sql.DriverManager;
+import java.sql.DriverPropertyInfo;
+import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.logging.Logger;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+public class MysqlConnectionPoolTest {
+
+    private static final String URL = "jdbc:dinky-pool-test:catalog";
+
+    /** The physical connections opened by the test driver */
+    private static final List<TestConnection> OPENED = new CopyOnWriteArrayList<>();
+
+    @BeforeClass
+    public static void registerDriver() throws SQLException {
+        DriverManager.registerDriver(new TestDriver());
+    }
+
+    @After
+    public void clear() {
+        OPENED.clear();
+    }
+
+    @Test
+    public void borrowAndReturnTest() throws SQLException {
+        try (MysqlConnectionPool pool = new MysqlConnectionPool(URL, "user", "pwd", 2, 4, 1000)) {
+            Connection connection = pool.borrow(false);
+            connection.setAutoCommit(false);
+            connection.close();
+            connection.close();
+            Assert.assertTrue(connection.isClosed());
+            Assert.assertThrows(SQLException.class, connection::getAutoCommit);
+            Assert.assertEquals(1, pool.getIdleCount());
+            // The open transaction is rolled back before the connection is given back
+            Assert.assertTrue(OPENED.get(0).rolledBack);
+            Assert.assertTrue(OPENED.get(0).autoCommit);
+
+            try (Connection reused = pool.borrow(false)) {
+                Assert.assertTrue(reused.getAutoCommit());
+                Assert.assertEquals(0, pool.getIdleCount());
+            }
+            Assert.assertEquals(1, OPENED.size());
+            Assert.assertEquals(1, pool.getTotalCount());
+        }
+        Assert.assertTrue(OPENED.get(0).closed);
+    }
+
+    @Test
+    public void keepMaxIdleTest() throws SQLException {
+        try (MysqlConnectionPool pool = new MysqlConnectionPool(URL, "user", "pwd", 2, 4, 1000)) {
+            Connection first = pool.borrow(false);
+            Connection second = pool.borrow(false);
+            Connection third = pool.borrow(false);
+            first.close();
+            second.close();
+            third.close();
+            Assert.assertEquals(2, pool.getIdleCount());
+            Assert.assertEquals(2, pool.getTotalCount());
+            Assert.assertTrue(OPENED.get(2).closed);
+        }
+    }
+
+    @Test
+    public void discardInvalidTest() throws SQLException {
+        try (MysqlConnectionPool pool = new MysqlConnectionPool(URL, "user", "pwd", 2, 4, 1000)) {
+            pool.borrow(false).close();
+            OPENED.get(0).valid = false;
+            try (Connection connection = pool.borrow(true)) {
+                Assert.assertEquals(2, OPENED.size());
+                Assert.assertTrue(OPENED.get(0).closed);
+                Assert.assertEquals(1, pool.getTotalCount());
+            }
+        }
+    }
+
+    @Test
+    public void waitForReturnedConnectionTest() throws Exception {
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try (MysqlConnectionPool pool = new MysqlConnectionPool(URL, "user", "pwd", 2, 2, 10_000)) {
+            Connection first = pool.borrow(false);
+            pool.borrow(false);
+            Future<Connection> waiting = executor.submit(() -> pool.borrow(false));
+            Assert.assertThrows(TimeoutException.class, () -> waiting.get(200, TimeUnit.MILLISECONDS));
+
+            first.close();
+            waiting.get(10, TimeUnit.SECONDS).close();
+            Assert.assertEquals(2, OPENED.size());
+            Assert.assertEquals(2, pool.getTotalCount());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void waitTimeoutTest() throws SQLException {
+        try (MysqlConnectionPool pool = new MysqlConnectionPool(URL, "user", "pwd", 1, 1, 100)) {
+            Connection connection = pool.borrow(false);
+            long start = System.nanoTime();
+            SQLException e = Assert.assertThrows(SQLException.class, () -> pool.borrow(false));
+            Assert.assertTrue(e.getMessage().startsWith("Timeout"));
+            Assert.assertTrue(System.nanoTime() - start >= TimeUnit.MILLISECONDS.toNanos(100));
+
+            // A discarded connection frees its slot
+            OPENED.get(0).closed = true;
+            connection.close();
+            pool.borrow(false).close();
+            Assert.assertEquals(2, OPENED.size());
+        }
+    }
+
+    @Test
+    public void failedOpenFreesTheSlotTest() throws SQLException {
+        try (MysqlConnectionPool pool = new MysqlConnectionPool(URL + "-broken", "user", "pwd", 1, 1, 100)) {
+            Assert.assertThrows(SQLException.class, () -> pool.borrow(false));
+            Assert.assertEquals(0, pool.getTotalCount());
+        }
+    }
+
+    private static final class TestConnection {
+
+        private volatile boolean closed = false;
+        private volatile boolean valid = true;
+        private volatile boolean autoCommit = true;
+        private volatile boolean rolledBack = false;
+
+        private Connection create() {
+            return (Connection) Proxy.newProxyInstance(
+                    Connection.class.getClassLoader(), new Class<?>[] {Connection.class}, (proxy, method, args) -> {
+                        switch (method.getName()) {
+                            case "close":
+                                closed = true;
+                                return null;
+                            case "isClosed":
+                                return closed;
+                            case "isValid":
+                                return valid;
+                            case "getAutoCommit":
+                                return autoCommit;
+                            case "setAutoCommit":
+                                autoCommit = (Boolean) args[0];
+                                return null;
+                            case "rollback":
+                                rolledBack = true;
+                                return null;
+                            default:
+                                throw new UnsupportedOperationException(method.getName());
+                        }
+                    });
+        }
+    }
+
+    private static final class TestDriver implements Driver {
+
+        @Override
+        public Connection connect(String url, Properties info) throws SQLException {
+            if (!acceptsURL(url)) {
+                return null;
+            }
+            if (url.endsWith("-broken")) {
+                throw new SQLException("Connection refused");
+            }
+            TestConnection connection = new TestConnection();
+            OPENED.add(connection);
+            return connection.create();
+        }
+
+        @Override
+        public boolean acceptsURL(String url) {
+            return url.startsWith(URL);
+        }
+
+        @Override
+        public DriverPropertyInfo[] getPropertyInfo(String url, Properties info) {
+            return new DriverPropertyInfo[0];
+        }
+
+        @Override
+        public int getMajorVersion() {
+            return 1;
+        }
+
+        @Override
+        public int getMinorVersion() {
+            return 0;
+        }
+
+        @Override
+        public boolean jdbcCompliant() {
+            return false;
+        }
+
+        @Override
+        public Logger getParentLogger() throws SQLFeatureNotSupportedException {
+            throw new SQLFeatureNotSupportedException();
+        }
+    }
+}
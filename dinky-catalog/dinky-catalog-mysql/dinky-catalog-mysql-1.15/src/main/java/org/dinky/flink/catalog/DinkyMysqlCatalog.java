@@ -22,6 +22,10 @@ package org.dinky.flink.catalog;
 import static org.apache.flink.util.Preconditions.checkArgument;
 import static org.apache.flink.util.Preconditions.checkNotNull;
 
+import org.dinky.flink.catalog.MysqlCatalogMetadataCache.ColumnMetadata;
+import org.dinky.flink.catalog.MysqlCatalogMetadataCache.DatabaseMetadata;
+import org.dinky.flink.catalog.MysqlCatalogMetadataCache.FunctionMetadata;
+import org.dinky.flink.catalog.MysqlCatalogMetadataCache.TableMetadata;
 import org.dinky.flink.catalog.factory.DinkyMysqlCatalogFactoryOptions;
 
 import org.apache.flink.table.api.Schema;
@@ -60,11 +64,11 @@ import org.apache.flink.table.types.DataType;
 import org.apache.flink.util.StringUtils;
 
 import java.sql.Connection;
-import java.sql.DriverManager;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Statement;
+import java.time.Duration;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
@@ -134,6 +138,21 @@ public class DinkyMysqlCatalog extends AbstractCatalog {
     /** 默认database */
     private static final String defaultDatabase = "default_database";
 
+    /** 连接池中最多保留的空闲连接数 */
+    private static final int MAX_IDLE_CONNECTIONS = 4;
+
+    /** 连接池中最多打开的连接数 */
+    private static final int MAX_TOTAL_CONNECTIONS = 8;
+
+    /** 连接池中的连接都在使用时，获取连接最多等待的毫秒数 */
+    private static final long MAX_WAIT_MILLIS = 30_000;
+
+    /** 连接池 */
+    private volatile MysqlConnectionPool connectionPool;
+
+    /** 元数据缓存 */
+    private final MysqlCatalogMetadataCache metadataCache;
+
     /**
      * 数据库用户名
      *
@@ -162,17 +181,27 @@ public class DinkyMysqlCatalog extends AbstractCatalog {
     }
 
     public DinkyMysqlCatalog(String name, String url, String user, String pwd) {
+        this(name, url, user, pwd, DinkyMysqlCatalogFactoryOptions.CACHE_TTL.defaultValue());
+    }
+
+    /**
+     * @param cacheTtl 元数据缓存的有效期，为 0 时不缓存
+     */
+    public DinkyMysqlCatalog(String name, String url, String user, String pwd, Duration cacheTtl) {
         super(name, defaultDatabase);
         this.url = url;
         this.user = user;
         this.pwd = pwd;
+        this.connectionPool = newConnectionPool();
+        this.metadataCache = new MysqlCatalogMetadataCache(cacheTtl.toMillis());
     }
 
     public DinkyMysqlCatalog(String name) {
-        super(name, defaultDatabase);
-        this.url = DinkyMysqlCatalogFactoryOptions.URL.defaultValue();
-        this.user = DinkyMysqlCatalogFactoryOptions.USERNAME.defaultValue();
-        this.pwd = DinkyMysqlCatalogFactoryOptions.PASSWORD.defaultValue();
+        this(
+                name,
+                DinkyMysqlCatalogFactoryOptions.URL.defaultValue(),
+                DinkyMysqlCatalogFactoryOptions.USERNAME.defaultValue(),
+                DinkyMysqlCatalogFactoryOptions.PASSWORD.defaultValue());
     }
 
     @Override
@@ -191,51 +220,141 @@ public class DinkyMysqlCatalog extends AbstractCatalog {
 
     @Override
     public void close() throws CatalogException {
-        if (connection != null) {
-            try {
-                connection.close();
-                connection = null;
-            } catch (SQLException e) {
-                sqlExceptionHappened = true;
-                throw new CatalogException("Fail to close connection.", e);
-            }
-        }
+        // 关闭后再次使用时重新建立连接
+        MysqlConnectionPool pool = connectionPool;
+        connectionPool = newConnectionPool();
+        pool.close();
+        metadataCache.invalidateAll();
     }
 
-    private Connection connection;
+    private MysqlConnectionPool newConnectionPool() {
+        return new MysqlConnectionPool(url, user, pwd, MAX_IDLE_CONNECTIONS, MAX_TOTAL_CONNECTIONS, MAX_WAIT_MILLIS);
+    }
 
+    /**
+     * 从连接池中获取连接，使用完毕后需要关闭，关闭时连接回到连接池。
+     */
     protected Connection getConnection() throws CatalogException {
         try {
-            // todo: 包装一个方法用于获取连接，方便后续改造使用其他的连接生成。
-            // Class.forName(MYSQL_DRIVER);
-            if (connection == null) {
-                connection = DriverManager.getConnection(url, user, pwd);
+            // 发生过SQL异常时，校验连接是否有效
+            boolean validate = sqlExceptionHappened;
+            sqlExceptionHappened = false;
+            return connectionPool.borrow(validate);
+        } catch (Exception e) {
+            throw new CatalogException("Fail to get connection.", e);
+        }
+    }
+
+    /**
+     * 获取库的元数据，包括库的属性、所有表及其属性和字段、所有函数，未缓存时一次加载整个库。
+     *
+     * @return 库的元数据，库不存在时返回 null
+     */
+    private DatabaseMetadata getDatabaseMetadata(String databaseName) throws CatalogException {
+        return metadataCache.getDatabase(databaseName, this::loadDatabaseMetadata);
+    }
+
+    private DatabaseMetadata loadDatabaseMetadata(String databaseName) throws CatalogException {
+        try (Connection conn = getConnection()) {
+            String dbSql = "SELECT d.id, d.description, p.`key`, p.`value` FROM metadata_database d"
+                    + " LEFT JOIN metadata_database_property p ON p.database_id = d.id"
+                    + " where d.database_name=?";
+            DatabaseMetadata database = null;
+            try (PreparedStatement ps = conn.prepareStatement(dbSql)) {
+                ps.setString(1, databaseName);
+                ResultSet rs = ps.executeQuery();
+                while (rs.next()) {
+                    int id = rs.getInt("id");
+                    if (database == null) {
+                        database = new DatabaseMetadata(id, rs.getString("description"), new HashMap<>());
+                    } else if (database.id != id) {
+                        throw new CatalogException("存在多个同名database: " + databaseName);
+                    }
+                    String key = rs.getString("key");
+                    if (key != null) {
+                        database.properties.put(key, rs.getString("value"));
+                    }
+                }
+            }
+            if (database == null) {
+                return null;
             }
-            if (sqlExceptionHappened) {
-                sqlExceptionHappened = false;
-                if (!connection.isValid(10)) {
-                    connection.close();
+
+            // 表及其属性
+            String tableSql = "SELECT t.id, t.table_name, t.table_type, t.description, p.`key`, p.`value`"
+                    + " FROM metadata_table t LEFT JOIN metadata_table_property p ON p.table_id = t.id"
+                    + " where t.database_id=? ORDER BY t.id";
+            Map<Integer, TableMetadata> tables = new HashMap<>();
+            try (PreparedStatement ps = conn.prepareStatement(tableSql)) {
+                ps.setInt(1, database.id);
+                ResultSet rs = ps.executeQuery();
+                while (rs.next()) {
+                    int id = rs.getInt("id");
+                    TableMetadata table = tables.get(id);
+                    if (table == null) {
+                        table = new TableMetadata(
+                                id,
+                                rs.getString("table_name"),
+                                rs.getString("table_type"),
+                                rs.getString("description"));
+                        tables.put(id, table);
+                        database.tables.put(table.name, table);
+                    }
+                    String key = rs.getString("key");
+                    if (key != null) {
+                        table.properties.put(key, rs.getString("value"));
+                    }
                 }
-                if (connection.isClosed()) {
-                    connection = null;
-                    return getConnection();
+            }
+
+            // 字段，只有 view 保存了字段
+            String colSql = "SELECT c.table_id, c.column_name, c.data_type, c.description FROM metadata_column c"
+                    + " JOIN metadata_table t ON c.table_id = t.id"
+                    + " where t.database_id=? ORDER BY c.table_id, c.column_name";
+            try (PreparedStatement ps = conn.prepareStatement(colSql)) {
+                ps.setInt(1, database.id);
+                ResultSet rs = ps.executeQuery();
+                while (rs.next()) {
+                    TableMetadata table = tables.get(rs.getInt("table_id"));
+                    if (table != null) {
+                        table.columns.add(new ColumnMetadata(
+                                rs.getString("column_name"), rs.getString("data_type"), rs.getString("description")));
+                    }
                 }
-                connection = null;
-                return getConnection();
             }
 
-            return connection;
-        } catch (Exception e) {
-            throw new CatalogException("Fail to get connection.", e);
+            // 函数
+            String funcSql = "SELECT id, function_name, class_name, function_language FROM metadata_function"
+                    + " where database_id=?";
+            try (PreparedStatement ps = conn.prepareStatement(funcSql)) {
+                ps.setInt(1, database.id);
+                ResultSet rs = ps.executeQuery();
+                while (rs.next()) {
+                    FunctionMetadata function = new FunctionMetadata(
+                            rs.getInt("id"),
+                            rs.getString("function_name"),
+                            rs.getString("class_name"),
+                            rs.getString("function_language"));
+                    database.functions.put(function.name, function);
+                }
+            }
+            return database;
+        } catch (SQLException e) {
+            sqlExceptionHappened = true;
+            throw new CatalogException(String.format("获取 database 信息失败：%s.%s", getName(), databaseName), e);
         }
     }
 
     @Override
     public List<String> listDatabases() throws CatalogException {
+        return new ArrayList<>(metadataCache.getDatabaseNames(this::loadDatabaseNames));
+    }
+
+    private List<String> loadDatabaseNames() throws CatalogException {
         List<String> myDatabases = new ArrayList<>();
         String querySql = "SELECT database_name FROM metadata_database";
-        Connection conn = getConnection();
-        try (PreparedStatement ps = conn.prepareStatement(querySql)) {
+        try (Connection conn = getConnection();
+                PreparedStatement ps = conn.prepareStatement(querySql)) {
 
             ResultSet rs = ps.executeQuery();
             while (rs.next()) {
@@ -251,39 +370,11 @@ public class DinkyMysqlCatalog extends AbstractCatalog {
 
     @Override
     public CatalogDatabase getDatabase(String databaseName) throws DatabaseNotExistException, CatalogException {
-        String querySql = "SELECT id, database_name,description " + " FROM metadata_database where database_name=?";
-        Connection conn = getConnection();
-        try (PreparedStatement ps = conn.prepareStatement(querySql)) {
-            ps.setString(1, databaseName);
-            ResultSet rs = ps.executeQuery();
-
-            if (rs.next()) {
-                int id = rs.getInt("id");
-                String description = rs.getString("description");
-
-                Map<String, String> map = new HashMap<>();
-
-                String sql = "select `key`,`value` " + "from metadata_database_property " + "where database_id=? ";
-                try (PreparedStatement pStat = conn.prepareStatement(sql)) {
-                    pStat.setInt(1, id);
-                    ResultSet prs = pStat.executeQuery();
-                    while (prs.next()) {
-                        map.put(prs.getString("key"), prs.getString("value"));
-                    }
-                } catch (SQLException e) {
-                    sqlExceptionHappened = true;
-                    throw new CatalogException(
-                            String.format("Failed get database properties in catalog %s", getName()), e);
-                }
-
-                return new CatalogDatabaseImpl(map, description);
-            } else {
-                throw new DatabaseNotExistException(getName(), databaseName);
-            }
-        } catch (SQLException e) {
-            sqlExceptionHappened = true;
-            throw new CatalogException(String.format("Failed get database in catalog %s", getName()), e);
+        DatabaseMetadata database = getDatabaseMetadata(databaseName);
+        if (database == null) {
+            throw new DatabaseNotExistException(getName(), databaseName);
         }
+        return new CatalogDatabaseImpl(new HashMap<>(database.properties), database.description);
     }
 
     @Override
@@ -292,26 +383,8 @@ public class DinkyMysqlCatalog extends AbstractCatalog {
     }
 
     private Integer getDatabaseId(String databaseName) throws CatalogException {
-        String querySql = "select id from metadata_database where database_name=?";
-        Connection conn = getConnection();
-        try (PreparedStatement ps = conn.prepareStatement(querySql)) {
-            ps.setString(1, databaseName);
-            ResultSet rs = ps.executeQuery();
-            boolean multiDB = false;
-            Integer id = null;
-            while (rs.next()) {
-                if (!multiDB) {
-                    id = rs.getInt(1);
-                    multiDB = true;
-                } else {
-                    throw new CatalogException("存在多个同名database: " + databaseName);
-                }
-            }
-            return id;
-        } catch (SQLException e) {
-            sqlExceptionHappened = true;
-            throw new CatalogException(String.format("获取 database 信息失败：%s.%s", getName(), databaseName), e);
-        }
+        DatabaseMetadata database = getDatabaseMetadata(databaseName);
+        return database == null ? null : database.id;
     }
 
     @Override
@@ -326,11 +399,11 @@ public class DinkyMysqlCatalog extends AbstractCatalog {
             }
         } else {
             // 在这里实现创建库的代码
-            Connection conn = getConnection();
             // 启动事务
             String insertSql = "insert into metadata_database(database_name, description) values(?, ?)";
 
-            try (PreparedStatement stat = conn.prepareStatement(insertSql, Statement.RETURN_GENERATED_KEYS)) {
+            try (Connection conn = getConnection();
+                    PreparedStatement stat = conn.prepareStatement(insertSql, Statement.RETURN_GENERATED_KEYS)) {
                 conn.setAutoCommit(false);
                 stat.setString(1, databaseName);
                 stat.setString(2, db.getComment());
@@ -342,20 +415,23 @@ public class DinkyMysqlCatalog extends AbstractCatalog {
                     int id = idRs.getInt(1);
                     String propInsertSql =
                             "insert into metadata_database_property(database_id, " + "`key`,`value`) values (?,?,?)";
-                    PreparedStatement pstat = conn.prepareStatement(propInsertSql);
-                    for (Map.Entry<String, String> entry : db.getProperties().entrySet()) {
-                        pstat.setInt(1, id);
-                        pstat.setString(2, entry.getKey());
-                        pstat.setString(3, entry.getValue());
-                        pstat.addBatch();
+                    try (PreparedStatement pstat = conn.prepareStatement(propInsertSql)) {
+                        for (Map.Entry<String, String> entry :
+                                db.getProperties().entrySet()) {
+                            pstat.setInt(1, id);
+                            pstat.setString(2, entry.getKey());
+                            pstat.setString(3, entry.getValue());
+                            pstat.addBatch();
+                        }
+                        pstat.executeBatch();
                     }
-                    pstat.executeBatch();
-                    pstat.close();
                 }
                 conn.commit();
             } catch (SQLException e) {
                 sqlExceptionHappened = true;
                 logger.error("创建 database 信息失败：", e);
+            } finally {
+                metadataCache.invalidate(databaseName);
             }
         }
     }
@@ -374,40 +450,41 @@ public class DinkyMysqlCatalog extends AbstractCatalog {
             }
             return;
         }
-        Connection conn = getConnection();
-        try {
-            conn.setAutoCommit(false);
-            // 查询是否有表
-            List<String> tables = listTables(name);
-            if (tables.size() > 0) {
-                if (!cascade) {
-                    // 有表，不做级联删除。
-                    throw new DatabaseNotEmptyException(getName(), name);
-                }
-                // 做级联删除
-                for (String table : tables) {
-                    try {
-                        dropTable(new ObjectPath(name, table), true);
-                    } catch (TableNotExistException t) {
-                        logger.warn("表{}不存在", name + "." + table);
-                    }
+        // 查询是否有表
+        List<String> tables = listTables(name);
+        if (tables.size() > 0) {
+            if (!cascade) {
+                // 有表，不做级联删除。
+                throw new DatabaseNotEmptyException(getName(), name);
+            }
+            // 做级联删除
+            for (String table : tables) {
+                try {
+                    dropTable(new ObjectPath(name, table), true);
+                } catch (TableNotExistException t) {
+                    logger.warn("表{}不存在", name + "." + table);
                 }
             }
+        }
+        try (Connection conn = getConnection()) {
+            conn.setAutoCommit(false);
             // todo: 现在是真实删除，后续设计是否做记录保留。
             String deletePropSql = "delete from metadata_database_property where database_id=?";
-            PreparedStatement dStat = conn.prepareStatement(deletePropSql);
-            dStat.setInt(1, id);
-            dStat.executeUpdate();
-            dStat.close();
+            try (PreparedStatement dStat = conn.prepareStatement(deletePropSql)) {
+                dStat.setInt(1, id);
+                dStat.executeUpdate();
+            }
             String deleteDbSql = "delete from metadata_database where id=?";
-            dStat = conn.prepareStatement(deleteDbSql);
-            dStat.setInt(1, id);
-            dStat.executeUpdate();
-            dStat.close();
+            try (PreparedStatement dStat = conn.prepareStatement(deleteDbSql)) {
+                dStat.setInt(1, id);
+                dStat.executeUpdate();
+            }
             conn.commit();
         } catch (SQLException e) {
             sqlExceptionHappened = true;
             throw new CatalogException("删除 database 信息失败：", e);
+        } finally {
+            metadataCache.invalidate(name);
         }
     }
 
@@ -425,35 +502,37 @@ public class DinkyMysqlCatalog extends AbstractCatalog {
             }
             return;
         }
-        Connection conn = getConnection();
-        try {
+        try (Connection conn = getConnection()) {
             conn.setAutoCommit(false);
             // 1、名称不能改，类型不能改。只能改备注
             String updateCommentSql = "update metadata_database set description=? where id=?";
-            PreparedStatement uState = conn.prepareStatement(updateCommentSql);
-            uState.setString(1, newDb.getComment());
-            uState.setInt(2, id);
-            uState.executeUpdate();
-            uState.close();
+            try (PreparedStatement uState = conn.prepareStatement(updateCommentSql)) {
+                uState.setString(1, newDb.getComment());
+                uState.setInt(2, id);
+                uState.executeUpdate();
+            }
             if (newDb.getProperties() != null && newDb.getProperties().size() > 0) {
                 String upsertSql = "insert  into metadata_database_property (database_id, `key`,`value`) \n"
                         + "values (?,?,?)\n"
                         + "on duplicate key update `value` =?, update_time = sysdate()\n";
-                PreparedStatement pstat = conn.prepareStatement(upsertSql);
-                for (Map.Entry<String, String> entry : newDb.getProperties().entrySet()) {
-                    pstat.setInt(1, id);
-                    pstat.setString(2, entry.getKey());
-                    pstat.setString(3, entry.getValue());
-                    pstat.setString(4, entry.getValue());
-                    pstat.addBatch();
-                }
+                try (PreparedStatement pstat = conn.prepareStatement(upsertSql)) {
+                    for (Map.Entry<String, String> entry : newDb.getProperties().entrySet()) {
+                        pstat.setInt(1, id);
+                        pstat.setString(2, entry.getKey());
+                        pstat.setString(3, entry.getValue());
+                        pstat.setString(4, entry.getValue());
+                        pstat.addBatch();
+                    }
 
-                pstat.executeBatch();
+                    pstat.executeBatch();
+                }
             }
             conn.commit();
         } catch (SQLException e) {
             sqlExceptionHappened = true;
             throw new CatalogException("修改 database 信息失败：", e);
+        } finally {
+            metadataCache.invalidate(name);
         }
     }
 
@@ -469,125 +548,60 @@ public class DinkyMysqlCatalog extends AbstractCatalog {
 
     protected List<String> listTablesViews(String databaseName, String tableType)
             throws DatabaseNotExistException, CatalogException {
-        Integer databaseId = getDatabaseId(databaseName);
-        if (null == databaseId) {
+        DatabaseMetadata database = getDatabaseMetadata(databaseName);
+        if (null == database) {
             throw new DatabaseNotExistException(getName(), databaseName);
         }
 
-        // get all schemas
         // 要给出table 或 view
-        String querySql = "SELECT table_name FROM metadata_table where table_type=? and database_id = ?";
-        Connection conn = getConnection();
-        try (PreparedStatement ps = conn.prepareStatement(querySql)) {
-            ps.setString(1, tableType);
-            ps.setInt(2, databaseId);
-            ResultSet rs = ps.executeQuery();
-
-            List<String> tables = new ArrayList<>();
-
-            while (rs.next()) {
-                String table = rs.getString(1);
-                tables.add(table);
-            }
-            return tables;
-        } catch (Exception e) {
-            throw new CatalogException(String.format("Failed listing %s in catalog %s", tableType, getName()), e);
-        }
+        return database.getTableNames(tableType);
     }
 
     @Override
     public CatalogBaseTable getTable(ObjectPath tablePath) throws TableNotExistException, CatalogException {
-        // 还是分步骤来
-        // 1、先取出表 这可能是view也可能是table
-        // 2、取出列
-        // 3、取出属性
-        Integer id = getTableId(tablePath);
+        // 表、列、属性都在库的元数据中
+        TableMetadata table = getTableMetadata(tablePath);
 
-        if (id == null) {
+        if (table == null) {
             throw new TableNotExistException(getName(), tablePath);
         }
 
-        Connection conn = getConnection();
-        try {
-            String queryTable =
-                    "SELECT table_name " + " ,description, table_type " + " FROM metadata_table " + " where  id=?";
-            PreparedStatement ps = conn.prepareStatement(queryTable);
-            ps.setInt(1, id);
-            ResultSet rs = ps.executeQuery();
-            String description;
-            String tableType;
-            if (rs.next()) {
-                description = rs.getString("description");
-                tableType = rs.getString("table_type");
-                ps.close();
-            } else {
-                ps.close();
-                throw new TableNotExistException(getName(), tablePath);
-            }
-            if (tableType.equals(ObjectType.TABLE)) {
-                // 这个是 table
-                String propSql = "SELECT `key`, `value` from metadata_table_property " + "WHERE table_id=?";
-                PreparedStatement pState = conn.prepareStatement(propSql);
-                pState.setInt(1, id);
-                ResultSet prs = pState.executeQuery();
-                Map<String, String> props = new HashMap<>();
-                while (prs.next()) {
-                    String key = prs.getString("key");
-                    String value = prs.getString("value");
-                    props.put(key, value);
-                }
-                pState.close();
-                props.put(COMMENT, description);
-                return CatalogTable.fromProperties(props);
-            } else if (tableType.equals(ObjectType.VIEW)) {
-                // 1、从库中取出table信息。（前面已做）
-                // 2、取出字段。
-                String colSql = "SELECT column_name, column_type, data_type, description "
-                        + " FROM metadata_column WHERE "
-                        + " table_id=?";
-                PreparedStatement cStat = conn.prepareStatement(colSql);
-                cStat.setInt(1, id);
-                ResultSet crs = cStat.executeQuery();
-
-                Schema.Builder builder = Schema.newBuilder();
-                while (crs.next()) {
-                    String colName = crs.getString("column_name");
-                    String dataType = crs.getString("data_type");
-
-                    builder.column(colName, dataType);
-                    String cDesc = crs.getString("description");
-                    if (null != cDesc && cDesc.length() > 0) {
-                        builder.withComment(cDesc);
-                    }
+        String description = table.description;
+        String tableType = table.type;
+        if (tableType.equals(ObjectType.TABLE)) {
+            // 这个是 table
+            Map<String, String> props = new HashMap<>(table.properties);
+            props.put(COMMENT, description);
+            return CatalogTable.fromProperties(props);
+        } else if (tableType.equals(ObjectType.VIEW)) {
+            // 1、取出字段。
+            Schema.Builder builder = Schema.newBuilder();
+            for (ColumnMetadata column : table.columns) {
+                builder.column(column.name, column.dataType);
+                String cDesc = column.description;
+                if (null != cDesc && cDesc.length() > 0) {
+                    builder.withComment(cDesc);
                 }
-                cStat.close();
-                // 3、取出query
-                String qSql = "SELECT `key`, value FROM metadata_table_property" + " WHERE table_id=? ";
-                PreparedStatement qStat = conn.prepareStatement(qSql);
-                qStat.setInt(1, id);
-                ResultSet qrs = qStat.executeQuery();
-                String originalQuery = "";
-                String expandedQuery = "";
-                Map<String, String> options = new HashMap<>();
-                while (qrs.next()) {
-                    String key = qrs.getString("key");
-                    String value = qrs.getString("value");
-                    if ("OriginalQuery".equals(key)) {
-                        originalQuery = value;
-                    } else if ("ExpandedQuery".equals(key)) {
-                        expandedQuery = value;
-                    } else {
-                        options.put(key, value);
-                    }
+            }
+            // 2、取出query
+            String originalQuery = "";
+            String expandedQuery = "";
+            Map<String, String> options = new HashMap<>();
+            for (Map.Entry<String, String> entry : table.properties.entrySet()) {
+                String key = entry.getKey();
+                String value = entry.getValue();
+                if ("OriginalQuery".equals(key)) {
+                    originalQuery = value;
+                } else if ("ExpandedQuery".equals(key)) {
+                    expandedQuery = value;
+                } else {
+                    options.put(key, value);
                 }
-                // 合成view
-                return CatalogView.of(builder.build(), description, originalQuery, expandedQuery, options);
-            } else {
-                throw new CatalogException("不支持的数据类型。" + tableType);
             }
-        } catch (SQLException e) {
-            sqlExceptionHappened = true;
-            throw new CatalogException("获取 表信息失败。", e);
+            // 合成view
+            return CatalogView.of(builder.build(), description, originalQuery, expandedQuery, options);
+        } else {
+            throw new CatalogException("不支持的数据类型。" + tableType);
         }
     }
 
@@ -598,26 +612,13 @@ public class DinkyMysqlCatalog extends AbstractCatalog {
     }
 
     private Integer getTableId(ObjectPath tablePath) {
-        Integer dbId = getDatabaseId(tablePath.getDatabaseName());
-        if (dbId == null) {
-            return null;
-        }
-        // 获取id
-        String getIdSql = "select id from metadata_table " + " where table_name=? and database_id=?";
-        Connection conn = getConnection();
-        try (PreparedStatement gStat = conn.prepareStatement(getIdSql)) {
-            gStat.setString(1, tablePath.getObjectName());
-            gStat.setInt(2, dbId);
-            ResultSet rs = gStat.executeQuery();
-            if (rs.next()) {
-                return rs.getInt(1);
-            }
-        } catch (SQLException e) {
-            sqlExceptionHappened = true;
-            logger.error("get table fail", e);
-            throw new CatalogException("get table fail.", e);
-        }
-        return null;
+        TableMetadata table = getTableMetadata(tablePath);
+        return table == null ? null : table.id;
+    }
+
+    private TableMetadata getTableMetadata(ObjectPath tablePath) {
+        DatabaseMetadata database = getDatabaseMetadata(tablePath.getDatabaseName());
+        return database == null ? null : database.tables.get(tablePath.getObjectName());
     }
 
     @Override
@@ -628,30 +629,31 @@ public class DinkyMysqlCatalog extends AbstractCatalog {
         if (id == null) {
             throw new TableNotExistException(getName(), tablePath);
         }
-        Connection conn = getConnection();
-        try {
+        try (Connection conn = getConnection()) {
             // todo: 现在是真实删除，后续设计是否做记录保留。
             conn.setAutoCommit(false);
             String deletePropSql = "delete from metadata_table_property " + " where table_id=?";
-            PreparedStatement dStat = conn.prepareStatement(deletePropSql);
-            dStat.setInt(1, id);
-            dStat.executeUpdate();
-            dStat.close();
+            try (PreparedStatement dStat = conn.prepareStatement(deletePropSql)) {
+                dStat.setInt(1, id);
+                dStat.executeUpdate();
+            }
             String deleteColSql = "delete from metadata_column " + " where table_id=?";
-            dStat = conn.prepareStatement(deleteColSql);
-            dStat.setInt(1, id);
-            dStat.executeUpdate();
-            dStat.close();
+            try (PreparedStatement dStat = conn.prepareStatement(deleteColSql)) {
+                dStat.setInt(1, id);
+                dStat.executeUpdate();
+            }
             String deleteDbSql = "delete from metadata_table " + " where id=?";
-            dStat = conn.prepareStatement(deleteDbSql);
-            dStat.setInt(1, id);
-            dStat.executeUpdate();
-            dStat.close();
+            try (PreparedStatement dStat = conn.prepareStatement(deleteDbSql)) {
+                dStat.setInt(1, id);
+                dStat.executeUpdate();
+            }
             conn.commit();
         } catch (SQLException e) {
             sqlExceptionHappened = true;
             logger.error("drop table fail", e);
             throw new CatalogException("drop table fail.", e);
+        } finally {
+            metadataCache.invalidate(tablePath.getDatabaseName());
         }
     }
 
@@ -668,14 +670,16 @@ public class DinkyMysqlCatalog extends AbstractCatalog {
             throw new TableAlreadyExistException(getName(), newPath);
         }
         String updateSql = "UPDATE metadata_table SET table_name=? WHERE id=?";
-        Connection conn = getConnection();
-        try (PreparedStatement ps = conn.prepareStatement(updateSql)) {
+        try (Connection conn = getConnection();
+                PreparedStatement ps = conn.prepareStatement(updateSql)) {
             ps.setString(1, newTableName);
             ps.setInt(2, id);
             ps.executeUpdate();
         } catch (SQLException ex) {
             sqlExceptionHappened = true;
             throw new CatalogException("修改表名失败", ex);
+        } finally {
+            metadataCache.invalidate(tablePath.getDatabaseName());
         }
     }
 
@@ -699,8 +703,7 @@ public class DinkyMysqlCatalog extends AbstractCatalog {
         if (!(table instanceof ResolvedCatalogBaseTable)) {
             throw new UnsupportedOperationException("暂时不支持输入非 ResolvedCatalogBaseTable 类型的表");
         }
-        Connection conn = getConnection();
-        try {
+        try (Connection conn = getConnection()) {
             conn.setAutoCommit(false);
             // 首先插入表信息
             CatalogBaseTable.TableKind kind = table.getTableKind();
@@ -711,34 +714,34 @@ public class DinkyMysqlCatalog extends AbstractCatalog {
                     + " database_id,"
                     + " description)"
                     + " values(?,?,?,?)";
-            PreparedStatement iStat = conn.prepareStatement(insertSql, Statement.RETURN_GENERATED_KEYS);
-            iStat.setString(1, tablePath.getObjectName());
-            iStat.setString(2, kind.toString());
-            iStat.setInt(3, dbId);
-            iStat.setString(4, table.getComment());
-            iStat.executeUpdate();
-            ResultSet idRs = iStat.getGeneratedKeys();
-            if (!idRs.next()) {
-                iStat.close();
-                throw new CatalogException("插入元数据表信息失败");
+            int id;
+            try (PreparedStatement iStat = conn.prepareStatement(insertSql, Statement.RETURN_GENERATED_KEYS)) {
+                iStat.setString(1, tablePath.getObjectName());
+                iStat.setString(2, kind.toString());
+                iStat.setInt(3, dbId);
+                iStat.setString(4, table.getComment());
+                iStat.executeUpdate();
+                ResultSet idRs = iStat.getGeneratedKeys();
+                if (!idRs.next()) {
+                    throw new CatalogException("插入元数据表信息失败");
+                }
+                id = idRs.getInt(1);
             }
-            int id = idRs.getInt(1);
-            iStat.close();
             // 插入属性和列
             if (table instanceof ResolvedCatalogTable) {
                 // table 就可以直接拿properties了。
                 Map<String, String> props = ((ResolvedCatalogTable) table).toProperties();
                 String propInsertSql =
                         "insert into metadata_table_property(table_id," + "`key`,`value`) values (?,?,?)";
-                PreparedStatement pStat = conn.prepareStatement(propInsertSql);
-                for (Map.Entry<String, String> entry : props.entrySet()) {
-                    pStat.setInt(1, id);
-                    pStat.setString(2, entry.getKey());
-                    pStat.setString(3, entry.getValue());
-                    pStat.addBatch();
+                try (PreparedStatement pStat = conn.prepareStatement(propInsertSql)) {
+                    for (Map.Entry<String, String> entry : props.entrySet()) {
+                        pStat.setInt(1, id);
+                        pStat.setString(2, entry.getKey());
+                        pStat.setString(3, entry.getValue());
+                        pStat.addBatch();
+                    }
+                    pStat.executeBatch();
                 }
-                pStat.executeBatch();
-                pStat.close();
             } else {
                 // view，咱先假定它只有物理字段
                 // view 还需要保存：query，expanded query
@@ -753,34 +756,34 @@ public class DinkyMysqlCatalog extends AbstractCatalog {
                             + " , table_id"
                             + " , `primary`) "
                             + " values(?,?,?,?,?,?,?)";
-                    PreparedStatement colIStat = conn.prepareStatement(colInsertSql);
-                    for (Schema.UnresolvedColumn col : cols) {
-                        if (col instanceof Schema.UnresolvedPhysicalColumn) {
-                            Schema.UnresolvedPhysicalColumn pCol = (Schema.UnresolvedPhysicalColumn) col;
-                            if (!(pCol.getDataType() instanceof DataType)) {
-                                throw new UnsupportedOperationException(String.format(
-                                        "类型识别失败，该列不是有效类型：%s.%s.%s : %s",
-                                        tablePath.getDatabaseName(),
-                                        tablePath.getObjectName(),
-                                        pCol.getName(),
-                                        pCol.getDataType()));
+                    try (PreparedStatement colIStat = conn.prepareStatement(colInsertSql)) {
+                        for (Schema.UnresolvedColumn col : cols) {
+                            if (col instanceof Schema.UnresolvedPhysicalColumn) {
+                                Schema.UnresolvedPhysicalColumn pCol = (Schema.UnresolvedPhysicalColumn) col;
+                                if (!(pCol.getDataType() instanceof DataType)) {
+                                    throw new UnsupportedOperationException(String.format(
+                                            "类型识别失败，该列不是有效类型：%s.%s.%s : %s",
+                                            tablePath.getDatabaseName(),
+                                            tablePath.getObjectName(),
+                                            pCol.getName(),
+                                            pCol.getDataType()));
+                                }
+                                DataType dataType = (DataType) pCol.getDataType();
+
+                                colIStat.setString(1, pCol.getName());
+                                colIStat.setString(2, ColumnType.PHYSICAL);
+                                colIStat.setString(3, dataType.getLogicalType().asSerializableString());
+                                colIStat.setObject(4, null);
+                                colIStat.setString(5, pCol.getComment().orElse(""));
+                                colIStat.setInt(6, id);
+                                colIStat.setObject(7, null); // view没有主键
+                                colIStat.addBatch();
+                            } else {
+                                throw new UnsupportedOperationException("暂时认为view 不会出现 非物理字段");
                             }
-                            DataType dataType = (DataType) pCol.getDataType();
-
-                            colIStat.setString(1, pCol.getName());
-                            colIStat.setString(2, ColumnType.PHYSICAL);
-                            colIStat.setString(3, dataType.getLogicalType().asSerializableString());
-                            colIStat.setObject(4, null);
-                            colIStat.setString(5, pCol.getComment().orElse(""));
-                            colIStat.setInt(6, id);
-                            colIStat.setObject(7, null); // view没有主键
-                            colIStat.addBatch();
-                        } else {
-                            throw new UnsupportedOperationException("暂时认为view 不会出现 非物理字段");
                         }
+                        colIStat.executeBatch();
                     }
-                    colIStat.executeBatch();
-                    colIStat.close();
 
                     // 写 query等信息到数据库
                     Map<String, String> option = view.getOptions();
@@ -791,15 +794,15 @@ public class DinkyMysqlCatalog extends AbstractCatalog {
                     option.put("ExpandedQuery", view.getExpandedQuery());
                     String propInsertSql =
                             "insert into metadata_table_property(table_id," + "`key`,`value`) values (?,?,?)";
-                    PreparedStatement pStat = conn.prepareStatement(propInsertSql);
-                    for (Map.Entry<String, String> entry : option.entrySet()) {
-                        pStat.setInt(1, id);
-                        pStat.setString(2, entry.getKey());
-                        pStat.setString(3, entry.getValue());
-                        pStat.addBatch();
+                    try (PreparedStatement pStat = conn.prepareStatement(propInsertSql)) {
+                        for (Map.Entry<String, String> entry : option.entrySet()) {
+                            pStat.setInt(1, id);
+                            pStat.setString(2, entry.getKey());
+                            pStat.setString(3, entry.getValue());
+                            pStat.addBatch();
+                        }
+                        pStat.executeBatch();
                     }
-                    pStat.executeBatch();
-                    pStat.close();
                 }
             }
             conn.commit();
@@ -807,6 +810,8 @@ public class DinkyMysqlCatalog extends AbstractCatalog {
             sqlExceptionHappened = true;
             logger.error("插入数据库失败", ex);
             throw new CatalogException("插入数据库失败", ex);
+        } finally {
+            metadataCache.invalidate(tablePath.getDatabaseName());
         }
     }
 
@@ -824,8 +829,8 @@ public class DinkyMysqlCatalog extends AbstractCatalog {
             String updateSql = "INSERT INTO metadata_table_property(table_id,"
                     + "`key`,`value`) values (?,?,?) "
                     + "on duplicate key update `value` =?, update_time = sysdate()";
-            Connection conn = getConnection();
-            try (PreparedStatement ps = conn.prepareStatement(updateSql)) {
+            try (Connection conn = getConnection();
+                    PreparedStatement ps = conn.prepareStatement(updateSql)) {
                 for (Map.Entry<String, String> entry : opts.entrySet()) {
                     ps.setInt(1, id);
                     ps.setString(2, entry.getKey());
@@ -837,6 +842,8 @@ public class DinkyMysqlCatalog extends AbstractCatalog {
             } catch (SQLException ex) {
                 sqlExceptionHappened = true;
                 throw new CatalogException("修改表名失败", ex);
+            } finally {
+                metadataCache.invalidate(tablePath.getDatabaseName());
             }
         }
     }
@@ -910,53 +917,24 @@ public class DinkyMysqlCatalog extends AbstractCatalog {
     /** *********************Functions********************* */
     @Override
     public List<String> listFunctions(String dbName) throws DatabaseNotExistException, CatalogException {
-        Integer dbId = getDatabaseId(dbName);
-        if (null == dbId) {
+        DatabaseMetadata database = getDatabaseMetadata(dbName);
+        if (null == database) {
             throw new DatabaseNotExistException(getName(), dbName);
         }
-        String querySql = "SELECT function_name from metadata_function " + " WHERE database_id=?";
-
-        Connection conn = getConnection();
-        try (PreparedStatement gStat = conn.prepareStatement(querySql)) {
-            gStat.setInt(1, dbId);
-            ResultSet rs = gStat.executeQuery();
-            List<String> functions = new ArrayList<>();
-            while (rs.next()) {
-                String n = rs.getString("function_name");
-                functions.add(n);
-            }
-            return functions;
-        } catch (SQLException e) {
-            sqlExceptionHappened = true;
-            throw new CatalogException("获取 UDF 列表失败");
+        List<String> functions = new ArrayList<>();
+        for (FunctionMetadata function : database.functions.values()) {
+            functions.add(function.name);
         }
+        return functions;
     }
 
     @Override
     public CatalogFunction getFunction(ObjectPath functionPath) throws FunctionNotExistException, CatalogException {
-        Integer id = getFunctionId(functionPath);
-        if (null == id) {
+        FunctionMetadata function = getFunctionMetadata(functionPath);
+        if (null == function) {
             throw new FunctionNotExistException(getName(), functionPath);
         }
-
-        String querySql = "SELECT class_name,function_language from metadata_function " + " WHERE id=?";
-        Connection conn = getConnection();
-        try (PreparedStatement gStat = conn.prepareStatement(querySql)) {
-            gStat.setInt(1, id);
-            ResultSet rs = gStat.executeQuery();
-            if (rs.next()) {
-                String className = rs.getString("class_name");
-                String language = rs.getString("function_language");
-                CatalogFunctionImpl func = new CatalogFunctionImpl(className, FunctionLanguage.valueOf(language));
-                return func;
-            } else {
-                throw new FunctionNotExistException(getName(), functionPath);
-            }
-        } catch (SQLException e) {
-            sqlExceptionHappened = true;
-            throw new CatalogException(
-                    "获取 UDF 失败：" + functionPath.getDatabaseName() + "." + functionPath.getObjectName());
-        }
+        return new CatalogFunctionImpl(function.className, FunctionLanguage.valueOf(function.language));
     }
 
     @Override
@@ -966,27 +944,13 @@ public class DinkyMysqlCatalog extends AbstractCatalog {
     }
 
     private Integer getFunctionId(ObjectPath functionPath) {
-        Integer dbId = getDatabaseId(functionPath.getDatabaseName());
-        if (dbId == null) {
-            return null;
-        }
-        // 获取id
-        String getIdSql = "select id from metadata_function " + " where function_name=? and database_id=?";
-        Connection conn = getConnection();
-        try (PreparedStatement gStat = conn.prepareStatement(getIdSql)) {
-            gStat.setString(1, functionPath.getObjectName());
-            gStat.setInt(2, dbId);
-            ResultSet rs = gStat.executeQuery();
-            if (rs.next()) {
-                int id = rs.getInt(1);
-                return id;
-            }
-        } catch (SQLException e) {
-            sqlExceptionHappened = true;
-            logger.error("get function fail", e);
-            throw new CatalogException("get function fail.", e);
-        }
-        return null;
+        FunctionMetadata function = getFunctionMetadata(functionPath);
+        return function == null ? null : function.id;
+    }
+
+    private FunctionMetadata getFunctionMetadata(ObjectPath functionPath) {
+        DatabaseMetadata database = getDatabaseMetadata(functionPath.getDatabaseName());
+        return database == null ? null : database.functions.get(functionPath.getObjectName());
     }
 
     @Override
@@ -1002,11 +966,11 @@ public class DinkyMysqlCatalog extends AbstractCatalog {
             }
         }
 
-        Connection conn = getConnection();
         String insertSql = "Insert into metadata_function "
                 + "(function_name,class_name,database_id,function_language) "
                 + " values (?,?,?,?)";
-        try (PreparedStatement ps = conn.prepareStatement(insertSql)) {
+        try (Connection conn = getConnection();
+                PreparedStatement ps = conn.prepareStatement(insertSql)) {
             ps.setString(1, functionPath.getObjectName());
             ps.setString(2, function.getClassName());
             ps.setInt(3, dbId);
@@ -1015,6 +979,8 @@ public class DinkyMysqlCatalog extends AbstractCatalog {
         } catch (SQLException e) {
             sqlExceptionHappened = true;
             throw new CatalogException("创建 函数 失败", e);
+        } finally {
+            metadataCache.invalidate(functionPath.getDatabaseName());
         }
     }
 
@@ -1029,9 +995,9 @@ public class DinkyMysqlCatalog extends AbstractCatalog {
             return;
         }
 
-        Connection conn = getConnection();
         String insertSql = "update metadata_function " + "set (class_name =?, function_language=?) " + " where id=?";
-        try (PreparedStatement ps = conn.prepareStatement(insertSql)) {
+        try (Connection conn = getConnection();
+                PreparedStatement ps = conn.prepareStatement(insertSql)) {
             ps.setString(1, newFunction.getClassName());
             ps.setString(2, newFunction.getFunctionLanguage().toString());
             ps.setInt(3, id);
@@ -1039,6 +1005,8 @@ public class DinkyMysqlCatalog extends AbstractCatalog {
         } catch (SQLException e) {
             sqlExceptionHappened = true;
             throw new CatalogException("修改 函数 失败", e);
+        } finally {
+            metadataCache.invalidate(functionPath.getDatabaseName());
         }
     }
 
@@ -1053,14 +1021,16 @@ public class DinkyMysqlCatalog extends AbstractCatalog {
             return;
         }
 
-        Connection conn = getConnection();
         String insertSql = "delete from metadata_function " + " where id=?";
-        try (PreparedStatement ps = conn.prepareStatement(insertSql)) {
+        try (Connection conn = getConnection();
+                PreparedStatement ps = conn.prepareStatement(insertSql)) {
             ps.setInt(1, id);
             ps.executeUpdate();
         } catch (SQLException e) {
             sqlExceptionHappened = true;
             throw new CatalogException("删除 函数 失败", e);
+        } finally {
+            metadataCache.invalidate(functionPath.getDatabaseName());
         }
     }
 
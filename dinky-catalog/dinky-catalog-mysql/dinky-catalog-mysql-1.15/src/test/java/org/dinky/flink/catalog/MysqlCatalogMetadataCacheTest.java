@@ -0,0 +1,101 @@
+/*
+ *
+ *  Licensed to the Apache Software Foundation (ASF) under one or more
+ *  contributor license agreements.  See the NOTICE file distributed with
+ *  this work for additional information regarding copyright ownership.
+ *  The ASF licenses this file to You under the Apache License, Version 2.0
+ *  (the "License"); you may not use this file except in compliance with
+ *  the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+
+package org.dinky.flink.catalog;
+
+import org.dinky.flink.catalog.MysqlCatalogMetadataCache.DatabaseMetadata;
+
+import java.util.Collections;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class MysqlCatalogMetadataCacheTest {
+
+    private final AtomicLong now = new AtomicLong();
+    private final AtomicInteger loads = new AtomicInteger();
+
+    private DatabaseMetadata load(String databaseName) {
+        loads.incrementAndGet();
+        return new DatabaseMetadata(1, databaseName, Collections.emptyMap());
+    }
+
+    @Test
+    public void expireAfterTtlTest() {
+        MysqlCatalogMetadataCache cache = new MysqlCatalogMetadataCache(1000, now::get);
+        DatabaseMetadata database = cache.getDatabase("db", this::load);
+        // The names are case insensitive
+        Assert.assertSame(database, cache.getDatabase("DB", this::load));
+        now.addAndGet(999);
+        Assert.assertSame(database, cache.getDatabase("db", this::load));
+        Assert.assertEquals(1, loads.get());
+
+        now.addAndGet(1);
+        Assert.assertNotSame(database, cache.getDatabase("db", this::load));
+        Assert.assertEquals(2, loads.get());
+    }
+
+    @Test
+    public void zeroTtlDisablesTheCacheTest() {
+        MysqlCatalogMetadataCache cache = new MysqlCatalogMetadataCache(0, now::get);
+        cache.getDatabase("db", this::load);
+        cache.getDatabase("db", this::load);
+        Assert.assertEquals(2, loads.get());
+    }
+
+    @Test
+    public void invalidateOnDdlTest() {
+        MysqlCatalogMetadataCache cache = new MysqlCatalogMetadataCache(1000, now::get);
+        cache.getDatabase("db", this::load);
+        cache.getDatabase("other", this::load);
+        AtomicInteger nameLoads = new AtomicInteger();
+        cache.getDatabaseNames(() -> {
+            nameLoads.incrementAndGet();
+            return Collections.singletonList("db");
+        });
+
+        cache.invalidate("DB");
+        cache.getDatabase("db", this::load);
+        cache.getDatabase("other", this::load);
+        Assert.assertEquals(3, loads.get());
+        cache.getDatabaseNames(() -> {
+            nameLoads.incrementAndGet();
+            return Collections.singletonList("db");
+        });
+        Assert.assertEquals(2, nameLoads.get());
+
+        cache.invalidateAll();
+        cache.getDatabase("other", this::load);
+        Assert.assertEquals(4, loads.get());
+    }
+
+    @Test
+    public void dropLoadOverlappingDdlTest() {
+        MysqlCatalogMetadataCache cache = new MysqlCatalogMetadataCache(1000, now::get);
+        // A DDL runs while the database is loaded, the loaded metadata may be from before it
+        DatabaseMetadata stale = cache.getDatabase("db", databaseName -> {
+            cache.invalidate(databaseName);
+            return load(databaseName);
+        });
+        Assert.assertNotSame(stale, cache.getDatabase("db", this::load));
+        Assert.assertEquals(2, loads.get());
+    }
+}
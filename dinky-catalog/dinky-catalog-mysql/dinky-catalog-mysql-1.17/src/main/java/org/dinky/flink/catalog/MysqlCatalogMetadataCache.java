@@ -0,0 +1,186 @@
+/*
+ *
+ *  Licensed to the Apache Software Foundation (ASF) under one or more
+ *  contributor license agreements.  See the NOTICE file distributed with
+ *  this work for additional information regarding copyright ownership.
+ *  The ASF licenses this file to You under the Apache License, Version 2.0
+ *  (the "License"); you may not use this file except in compliance with
+ *  the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+
+package org.dinky.flink.catalog;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+
+/**
+ * Read through cache of the catalog metadata. A database is cached whole, with its tables, their options and
+ * columns, and its functions, so the lookups of one statement are served by the load of its databases. The entries
+ * expire after the ttl and are dropped by the DDL of the catalog; an entry loaded while a DDL ran is not kept, so a
+ * load never brings back the metadata from before the DDL.
+ */
+class MysqlCatalogMetadataCache {
+
+    private final long ttlMillis;
+    private final LongSupplier clock;
+
+    /** Increased by every invalidation */
+    private final AtomicLong version = new AtomicLong();
+
+    /** lower case database name -> the database, or an empty entry when it does not exist */
+    private final Map<String, Entry<DatabaseMetadata>> databases = new ConcurrentHashMap<>();
+
+    private volatile Entry<List<String>> databaseNames;
+
+    MysqlCatalogMetadataCache(long ttlMillis) {
+        this(ttlMillis, System::currentTimeMillis);
+    }
+
+    MysqlCatalogMetadataCache(long ttlMillis, LongSupplier clock) {
+        this.ttlMillis = ttlMillis;
+        this.clock = clock;
+    }
+
+    List<String> getDatabaseNames(Supplier<List<String>> loader) {
+        Entry<List<String>> entry = databaseNames;
+        if (entry != null && clock.getAsLong() < entry.expireTime) {
+            return entry.value;
+        }
+        long loadVersion = version.get();
+        List<String> names = Collections.unmodifiableList(loader.get());
+        if (ttlMillis > 0 && version.get() == loadVersion) {
+            databaseNames = new Entry<>(names, clock.getAsLong() + ttlMillis);
+        }
+        return names;
+    }
+
+    /**
+     * @return the database, or null if it does not exist
+     */
+    DatabaseMetadata getDatabase(String databaseName, Function<String, DatabaseMetadata> loader) {
+        String key = databaseName.toLowerCase(Locale.ROOT);
+        Entry<DatabaseMetadata> entry = databases.get(key);
+        if (entry != null && clock.getAsLong() < entry.expireTime) {
+            return entry.value;
+        }
+        long loadVersion = version.get();
+        DatabaseMetadata database = loader.apply(databaseName);
+        if (ttlMillis > 0 && version.get() == loadVersion) {
+            databases.put(key, new Entry<>(database, clock.getAsLong() + ttlMillis));
+        }
+        return database;
+    }
+
+    void invalidate(String databaseName) {
+        version.incrementAndGet();
+        databases.remove(databaseName.toLowerCase(Locale.ROOT));
+        databaseNames = null;
+    }
+
+    void invalidateAll() {
+        version.incrementAndGet();
+        databases.clear();
+        databaseNames = null;
+    }
+
+    private static final class Entry<V> {
+
+        private final V value;
+        private final long expireTime;
+
+        private Entry(V value, long expireTime) {
+            this.value = value;
+            this.expireTime = expireTime;
+        }
+    }
+
+    /** A database with all its tables and functions, the names are case insensitive as in the metadata database */
+    static final class DatabaseMetadata {
+
+        final int id;
+        final String description;
+        final Map<String, String> properties;
+        final Map<String, TableMetadata> tables = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+        final Map<String, FunctionMetadata> functions = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+
+        DatabaseMetadata(int id, String description, Map<String, String> properties) {
+            this.id = id;
+            this.description = description;
+            this.properties = properties;
+        }
+
+        List<String> getTableNames(String tableType) {
+            List<String> names = new ArrayList<>();
+            for (TableMetadata table : tables.values()) {
+                if (tableType.equals(table.type)) {
+                    names.add(table.name);
+                }
+            }
+            return names;
+        }
+    }
+
+    static final class TableMetadata {
+
+        final int id;
+        final String name;
+        final String type;
+        final String description;
+        final Map<String, String> properties = new HashMap<>();
+        final List<ColumnMetadata> columns = new ArrayList<>();
+
+        TableMetadata(int id, String name, String type, String description) {
+            this.id = id;
+            this.name = name;
+            this.type = type;
+            this.description = description;
+        }
+    }
+
+    static final class ColumnMetadata {
+
+        final String name;
+        final String dataType;
+        final String description;
+
+        ColumnMetadata(String name, String dataType, String description) {
+            this.name = name;
+            this.dataType = dataType;
+            this.description = description;
+        }
+    }
+
+    static final class FunctionMetadata {
+
+        final int id;
+        final String name;
+        final String className;
+        final String language;
+
+        FunctionMetadata(int id, String name, String className, String language) {
+            this.id = id;
+            this.name = name;
+            this.className = className;
+            this.language = language;
+        }
+    }
+}
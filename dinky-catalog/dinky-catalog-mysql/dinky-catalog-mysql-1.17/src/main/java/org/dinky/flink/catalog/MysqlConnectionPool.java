@@ -0,0 +1,245 @@
+/*
+ *
+ *  Licensed to the Apache Software Foundation (ASF) under one or more
+ *  contributor license agreements.  See the NOTICE file distributed with
+ *  this work for additional information regarding copyright ownership.
+ *  The ASF licenses this file to You under the Apache License, Version 2.0
+ *  (the "License"); you may not use this file except in compliance with
+ *  the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+
+package org.dinky.flink.catalog;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.util.ArrayDeque;
+import java.util.Deque;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * A small pool of the connections to the metadata database. A connection is borrowed for one catalog call and goes
+ * back to the pool when it is closed, with its open transaction rolled back. A borrow opens a new connection when none
+ * is idle, at most {@code maxTotal} connections are open and a borrow waits up to {@code maxWaitMillis} for one of them
+ * to come back. At most {@code maxIdle} connections are kept.
+ */
+class MysqlConnectionPool implements AutoCloseable {
+
+    private static final Logger logger = LoggerFactory.getLogger(MysqlConnectionPool.class);
+
+    /** A connection idle for longer is validated before it is borrowed */
+    private static final long VALIDATE_IDLE_MILLIS = 30_000;
+
+    private static final int VALIDATE_TIMEOUT_SECONDS = 5;
+
+    private final String url;
+    private final String user;
+    private final String pwd;
+    private final int maxIdle;
+    private final int maxTotal;
+    private final long maxWaitMillis;
+
+    /** The most recently returned connection first */
+    private final Deque<IdleConnection> idle = new ArrayDeque<>();
+
+    /** The open connections, borrowed, idle or being opened */
+    private int total = 0;
+
+    private boolean closed = false;
+
+    MysqlConnectionPool(String url, String user, String pwd, int maxIdle, int maxTotal, long maxWaitMillis) {
+        this.url = url;
+        this.user = user;
+        this.pwd = pwd;
+        this.maxTotal = Math.max(1, maxTotal);
+        this.maxIdle = Math.min(maxIdle, this.maxTotal);
+        this.maxWaitMillis = maxWaitMillis;
+    }
+
+    /**
+     * @param validate validate an idle connection before it is borrowed, whenever it was used last
+     */
+    Connection borrow(boolean validate) throws SQLException {
+        while (true) {
+            IdleConnection candidate = take();
+            if (candidate == null) {
+                return wrap(open());
+            }
+            boolean stale = System.currentTimeMillis() - candidate.lastUsed > VALIDATE_IDLE_MILLIS;
+            if ((validate || stale) && !isValid(candidate.connection)) {
+                discard(candidate.connection);
+                continue;
+            }
+            return wrap(candidate.connection);
+        }
+    }
+
+    @Override
+    public void close() {
+        synchronized (this) {
+            closed = true;
+            idle.forEach(candidate -> closeQuietly(candidate.connection));
+            total -= idle.size();
+            idle.clear();
+            notifyAll();
+        }
+    }
+
+    /**
+     * @return an idle connection, or null when a new one may be opened
+     */
+    private synchronized IdleConnection take() throws SQLException {
+        long deadline = System.currentTimeMillis() + maxWaitMillis;
+        while (true) {
+            if (closed) {
+                throw new SQLException("The connection pool of the catalog is closed");
+            }
+            if (!idle.isEmpty()) {
+                return idle.pollFirst();
+            }
+            if (total < maxTotal) {
+                total++;
+                return null;
+            }
+            long waitMillis = deadline - System.currentTimeMillis();
+            if (waitMillis <= 0) {
+                throw new SQLException(String.format(
+                        "Timeout waiting %d ms for a catalog connection, all the %d connections are in use",
+                        maxWaitMillis, maxTotal));
+            }
+            try {
+                wait(waitMillis);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new SQLException("Interrupted while waiting for a catalog connection", e);
+            }
+        }
+    }
+
+    private Connection open() throws SQLException {
+        try {
+            return DriverManager.getConnection(url, user, pwd);
+        } catch (SQLException | RuntimeException e) {
+            synchronized (this) {
+                total--;
+                notifyAll();
+            }
+            throw e;
+        }
+    }
+
+    /** Close a connection of the pool, a waiting borrow may open a new one */
+    private void discard(Connection connection) {
+        closeQuietly(connection);
+        synchronized (this) {
+            total--;
+            notifyAll();
+        }
+    }
+
+    synchronized int getTotalCount() {
+        return total;
+    }
+
+    synchronized int getIdleCount() {
+        return idle.size();
+    }
+
+    private void release(Connection connection) {
+        try {
+            if (connection.isClosed()) {
+                discard(connection);
+                return;
+            }
+            if (!connection.getAutoCommit()) {
+                connection.rollback();
+                connection.setAutoCommit(true);
+            }
+        } catch (SQLException e) {
+            logger.warn("Reset the catalog connection failed, it is closed", e);
+            discard(connection);
+            return;
+        }
+        synchronized (this) {
+            if (!closed && idle.size() < maxIdle) {
+                idle.addFirst(new IdleConnection(connection, System.currentTimeMillis()));
+                notify();
+                return;
+            }
+        }
+        discard(connection);
+    }
+
+    /** A proxy of the connection, closing it gives the connection back to the pool */
+    private Connection wrap(Connection connection) {
+        boolean[] released = {false};
+        return (Connection) Proxy.newProxyInstance(
+                Connection.class.getClassLoader(), new Class<?>[] {Connection.class}, (proxy, method, args) -> {
+                    switch (method.getName()) {
+                        case "close":
+                            if (!released[0]) {
+                                released[0] = true;
+                                release(connection);
+                            }
+                            return null;
+                        case "isClosed":
+                            return released[0] || connection.isClosed();
+                        case "equals":
+                            return proxy == args[0];
+                        case "hashCode":
+                            return System.identityHashCode(proxy);
+                        case "toString":
+                            return "Pooled " + connection;
+                        default:
+                            if (released[0]) {
+                                throw new SQLException("The connection is already given back to the pool");
+                            }
+                            try {
+                                return method.invoke(connection, args);
+                            } catch (InvocationTargetException e) {
+                                throw e.getTargetException();
+                            }
+                    }
+                });
+    }
+
+    private static boolean isValid(Connection connection) {
+        try {
+            return connection.isValid(VALIDATE_TIMEOUT_SECONDS);
+        } catch (SQLException e) {
+            return false;
+        }
+    }
+
+    private static void closeQuietly(Connection connection) {
+        try {
+            connection.close();
+        } catch (SQLException e) {
+            logger.debug("Close the catalog connection failed", e);
+        }
+    }
+
+    private static final class IdleConnection {
+
+        private final Connection connection;
+        private final long lastUsed;
+
+        private IdleConnection(Connection connection, long lastUsed) {
+            this.connection = connection;
+            this.lastUsed = lastUsed;
+        }
+    }
+}
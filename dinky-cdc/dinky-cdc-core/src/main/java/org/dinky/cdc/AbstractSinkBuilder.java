@@ -28,7 +28,6 @@ import org.dinky.data.model.Table;
 import org.dinky.executor.CustomTableEnvironment;
 import org.dinky.utils.JsonUtils;
 
-import org.apache.flink.api.common.functions.FilterFunction;
 import org.apache.flink.api.common.functions.FlatMapFunction;
 import org.apache.flink.api.common.functions.MapFunction;
 import org.apache.flink.shaded.jackson2.com.fasterxml.jackson.databind.ObjectMapper;
@@ -59,15 +58,16 @@ import org.apache.flink.types.RowKind;
 import org.apache.flink.util.Collector;
 import org.apache.flink.util.OutputTag;
 
+import java.io.Serializable;
 import java.math.BigDecimal;
 import java.time.Instant;
 import java.time.ZoneId;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.Optional;
 import java.util.Properties;
 import java.util.stream.Collectors;
 
@@ -136,25 +136,25 @@ public abstract class AbstractSinkBuilder implements SinkBuilder {
                 .returns(Map.class);
     }
 
-    protected SingleOutputStreamOperator<Map> shunt(
-            SingleOutputStreamOperator<Map> mapOperator, Table table, String schemaFieldName) {
-        final String tableName = table.getName();
-        final String schemaName = table.getSchema();
-        return mapOperator.filter((FilterFunction<Map>) value -> {
-            LinkedHashMap source = (LinkedHashMap) value.get("source");
-            return tableName.equals(source.get("table").toString())
-                    && schemaName.equals(source.get(schemaFieldName).toString());
-        });
+    /**
+     * Route the records to a side output per table in one pass, see {@link TableRouteFunction}.
+     */
+    protected SingleOutputStreamOperator<Map> route(
+            SingleOutputStreamOperator<Map> mapOperator, Map<Table, OutputTag<Map>> tagMap, String schemaFieldName) {
+        return mapOperator
+                .process(TableRouteFunction.of(tagMap, schemaFieldName))
+                .returns(Map.class)
+                .name("TableRoute");
     }
 
-    protected DataStream<Map> shunt(SingleOutputStreamOperator<Map> processOperator, Table table, OutputTag<Map> tag) {
+    protected <T> DataStream<T> shunt(SingleOutputStreamOperator<?> processOperator, Table table, OutputTag<T> tag) {
         processOperator.forward();
         return processOperator.getSideOutput(tag).forward();
     }
 
     @SuppressWarnings("rawtypes")
     protected DataStream<RowData> buildRowData(
-            SingleOutputStreamOperator<Map> filterOperator,
+            DataStream<Map> filterOperator,
             List<String> columnNameList,
             List<LogicalType> columnTypeList,
             String schemaTableName) {
@@ -166,19 +166,20 @@ public abstract class AbstractSinkBuilder implements SinkBuilder {
     @SuppressWarnings("rawtypes")
     protected FlatMapFunction<Map, RowData> sinkRowDataFunction(
             List<String> columnNameList, List<LogicalType> columnTypeList, String schemaTableName) {
+        final RowConverter converter = new RowConverter(columnNameList, columnTypeList);
         return (value, out) -> {
             try {
                 switch (value.get("op").toString()) {
                     case "r":
                     case "c":
-                        rowDataCollect(columnNameList, columnTypeList, out, RowKind.INSERT, value);
+                        rowDataCollect(converter, out, RowKind.INSERT, value);
                         break;
                     case "d":
-                        rowDataCollect(columnNameList, columnTypeList, out, RowKind.DELETE, value);
+                        rowDataCollect(converter, out, RowKind.DELETE, value);
                         break;
                     case "u":
-                        rowDataCollect(columnNameList, columnTypeList, out, RowKind.UPDATE_BEFORE, value);
-                        rowDataCollect(columnNameList, columnTypeList, out, RowKind.UPDATE_AFTER, value);
+                        rowDataCollect(converter, out, RowKind.UPDATE_BEFORE, value);
+                        rowDataCollect(converter, out, RowKind.UPDATE_AFTER, value);
                         break;
                     default:
                 }
@@ -194,26 +195,15 @@ public abstract class AbstractSinkBuilder implements SinkBuilder {
     }
 
     @SuppressWarnings("rawtypes")
-    protected void rowDataCollect(
-            List<String> columnNameList,
-            List<LogicalType> columnTypeList,
-            Collector<RowData> out,
-            RowKind rowKind,
-            Map value) {
-        GenericRowData genericRowData = new GenericRowData(rowKind, columnNameList.size());
-        for (int i = 0; i < columnNameList.size(); i++) {
-            genericRowData.setField(
-                    i, buildRowDataValues(value, rowKind, columnNameList.get(i), columnTypeList.get(i)));
+    protected void rowDataCollect(RowConverter converter, Collector<RowData> out, RowKind rowKind, Map value) {
+        Map data = getOriginRowData(rowKind, value);
+        GenericRowData genericRowData = new GenericRowData(rowKind, converter.size());
+        for (int i = 0; i < converter.size(); i++) {
+            genericRowData.setField(i, converter.convert(i, data));
         }
         out.collect(genericRowData);
     }
 
-    @SuppressWarnings("rawtypes")
-    protected Object buildRowDataValues(Map value, RowKind rowKind, String columnName, LogicalType columnType) {
-        Map data = getOriginRowData(rowKind, value);
-        return convertValue(data.get(columnName), columnType);
-    }
-
     @SuppressWarnings("rawtypes")
     protected Map getOriginRowData(RowKind rowKind, Map value) {
         switch (rowKind) {
@@ -277,22 +267,34 @@ public abstract class AbstractSinkBuilder implements SinkBuilder {
         final String schemaFieldName = config.getSchemaFieldName();
 
         if (Asserts.isNotNullCollection(schemaList)) {
-            SingleOutputStreamOperator<Map> mapOperator = deserialize(dataStreamSource);
+            Map<Table, OutputTag<RowData>> tagMap = new LinkedHashMap<>();
+            Map<Table, RowConverter> converterMap = new HashMap<>();
+            Map<Table, List<String>> columnNameMap = new HashMap<>();
+            Map<Table, List<LogicalType>> columnTypeMap = new HashMap<>();
             for (Schema schema : schemaList) {
                 for (Table table : schema.getTables()) {
-                    SingleOutputStreamOperator<Map> filterOperator = shunt(mapOperator, table, schemaFieldName);
-
                     List<String> columnNameList = new ArrayList<>();
                     List<LogicalType> columnTypeList = new ArrayList<>();
-
                     buildColumn(columnNameList, columnTypeList, table.getColumns());
-
-                    DataStream<RowData> rowDataDataStream =
-                            buildRowData(filterOperator, columnNameList, columnTypeList, table.getSchemaTableName());
-
-                    addSink(env, rowDataDataStream, table, columnNameList, columnTypeList);
+                    tagMap.put(table, RowDataRouteFunction.createTag(table));
+                    converterMap.put(table, new RowConverter(columnNameList, columnTypeList));
+                    columnNameMap.put(table, columnNameList);
+                    columnTypeMap.put(table, columnTypeList);
                 }
             }
+            // The records are parsed once, into the rows of their table
+            SingleOutputStreamOperator<RowData> routeOperator = dataStreamSource
+                    .process(new RowDataRouteFunction(tagMap, converterMap, schemaFieldName))
+                    .returns(RowData.class)
+                    .name("TableRoute");
+            tagMap.forEach((table, tag) -> {
+                addSink(
+                        env,
+                        shunt(routeOperator, table, tag),
+                        table,
+                        columnNameMap.get(table),
+                        columnTypeMap.get(table));
+            });
         }
         return dataStreamSource;
     }
@@ -356,112 +358,168 @@ public abstract class AbstractSinkBuilder implements SinkBuilder {
         if (value == null) {
             return null;
         }
+        return createConverter(logicalType).convert(value);
+    }
 
+    /**
+     * The converter of the values of a logical type, the first one of the {@link #typeConverterList} that handles the
+     * type. The values of a type no converter handles are kept as they are.
+     */
+    protected ValueConverter createConverter(LogicalType logicalType) {
         for (ConvertType convertType : typeConverterList) {
-            Optional<Object> result = convertType.convert(value, logicalType);
-            if (result.isPresent()) {
-                return result.get();
+            ValueConverter converter = convertType.create(logicalType);
+            if (converter != null) {
+                return converter;
             }
         }
-        return value;
+        return KEEP_VALUE;
     }
 
-    protected Optional<Object> convertVarBinaryType(Object value, LogicalType logicalType) {
-        if (logicalType instanceof VarBinaryType) {
-            // VARBINARY AND BINARY is converted to String with encoding base64 in FlinkCDC.
-            if (value instanceof String) {
-                return Optional.of(DatatypeConverter.parseBase64Binary(value.toString()));
+    /**
+     * Converts the columns of the change records of one table. The converter of each column is resolved from its
+     * logical type when the table is set up, only the columns of the table are read from the records.
+     */
+    protected class RowConverter implements Serializable {
+
+        private static final long serialVersionUID = 1L;
+
+        private final String[] columnNames;
+
+        /** column index -> converter */
+        private final ValueConverter[] converters;
+
+        public RowConverter(List<String> columnNameList, List<LogicalType> columnTypeList) {
+            this.columnNames = columnNameList.toArray(new String[0]);
+            this.converters = new ValueConverter[columnNames.length];
+            for (int i = 0; i < converters.length; i++) {
+                converters[i] = createConverter(columnTypeList.get(i));
             }
+        }
 
-            return Optional.of(value);
+        public int size() {
+            return columnNames.length;
         }
-        return Optional.empty();
-    }
 
-    protected Optional<Object> convertBigIntType(Object value, LogicalType logicalType) {
-        if (logicalType instanceof BigIntType) {
-            if (value instanceof Integer) {
-                return Optional.of(((Integer) value).longValue());
-            }
+        public String[] getColumnNames() {
+            return columnNames;
+        }
 
-            return Optional.of(value);
+        @SuppressWarnings("rawtypes")
+        public Object convert(int index, Map data) {
+            Object value = data.get(columnNames[index]);
+            return value == null ? null : converters[index].convert(value);
         }
-        return Optional.empty();
-    }
 
-    protected Optional<Object> convertFloatType(Object value, LogicalType logicalType) {
-        if (logicalType instanceof FloatType) {
-            if (value instanceof Float) {
-                return Optional.of(value);
+        /**
+         * @param values the values read from a record
+         * @param valueIndexes column index -> index of its value in the values
+         */
+        public GenericRowData toRow(RowKind rowKind, Object[] values, int[] valueIndexes) {
+            GenericRowData genericRowData = new GenericRowData(rowKind, columnNames.length);
+            for (int i = 0; i < columnNames.length; i++) {
+                Object value = values[valueIndexes[i]];
+                genericRowData.setField(i, value == null ? null : converters[i].convert(value));
             }
+            return genericRowData;
+        }
+    }
 
-            if (value instanceof Double) {
-                return Optional.of(((Double) value).floatValue());
-            }
+    protected ValueConverter convertVarBinaryType(LogicalType logicalType) {
+        if (logicalType instanceof VarBinaryType) {
+            // VARBINARY AND BINARY is converted to String with encoding base64 in FlinkCDC.
+            return value -> value instanceof String ? DatatypeConverter.parseBase64Binary((String) value) : value;
+        }
+        return null;
+    }
+
+    protected ValueConverter convertBigIntType(LogicalType logicalType) {
+        if (logicalType instanceof BigIntType) {
+            return value -> value instanceof Integer ? (Object) ((Integer) value).longValue() : value;
+        }
+        return null;
+    }
 
-            return Optional.of(Float.parseFloat(value.toString()));
+    protected ValueConverter convertFloatType(LogicalType logicalType) {
+        if (logicalType instanceof FloatType) {
+            return value -> {
+                if (value instanceof Float) {
+                    return value;
+                }
+                if (value instanceof Double) {
+                    return ((Double) value).floatValue();
+                }
+                return Float.parseFloat(value.toString());
+            };
         }
-        return Optional.empty();
+        return null;
     }
 
-    protected Optional<Object> convertDecimalType(Object value, LogicalType logicalType) {
+    protected ValueConverter convertDecimalType(LogicalType logicalType) {
         if (logicalType instanceof DecimalType) {
-            final DecimalType decimalType = (DecimalType) logicalType;
-            return Optional.ofNullable(DecimalData.fromBigDecimal(
-                    new BigDecimal((String) value), decimalType.getPrecision(), decimalType.getScale()));
+            final int precision = ((DecimalType) logicalType).getPrecision();
+            final int scale = ((DecimalType) logicalType).getScale();
+            return value -> DecimalData.fromBigDecimal(new BigDecimal((String) value), precision, scale);
         }
-        return Optional.empty();
+        return null;
     }
 
-    protected Optional<Object> convertTimestampType(Object value, LogicalType logicalType) {
+    protected ValueConverter convertTimestampType(LogicalType logicalType) {
         if (logicalType instanceof TimestampType) {
-            if (value instanceof Integer) {
-                return Optional.of(Instant.ofEpochMilli(((Integer) value).longValue())
-                        .atZone(sinkTimeZone)
-                        .toLocalDateTime());
-            } else if (value instanceof String) {
-                return Optional.of(
-                        Instant.parse((String) value).atZone(sinkTimeZone).toLocalDateTime());
-            } else {
-                TimestampType logicalType1 = (TimestampType) logicalType;
-                if (logicalType1.getPrecision() == 3) {
-                    return Optional.of(Instant.ofEpochMilli((long) value)
-                            .atZone(sinkTimeZone)
-                            .toLocalDateTime());
-                } else if (logicalType1.getPrecision() > 3) {
-                    return Optional.of(
-                            Instant.ofEpochMilli(((long) value) / (long) Math.pow(10, logicalType1.getPrecision() - 3))
-                                    .atZone(sinkTimeZone)
-                                    .toLocalDateTime());
+            final ZoneId zoneId = sinkTimeZone;
+            final int precision = ((TimestampType) logicalType).getPrecision();
+            return value -> {
+                if (value instanceof Integer) {
+                    return Instant.ofEpochMilli(((Integer) value).longValue())
+                            .atZone(zoneId)
+                            .toLocalDateTime();
+                } else if (value instanceof String) {
+                    return Instant.parse((String) value).atZone(zoneId).toLocalDateTime();
+                } else if (precision == 3) {
+                    return Instant.ofEpochMilli((long) value).atZone(zoneId).toLocalDateTime();
+                } else if (precision > 3) {
+                    return Instant.ofEpochMilli(((long) value) / (long) Math.pow(10, precision - 3))
+                            .atZone(zoneId)
+                            .toLocalDateTime();
                 }
-                return Optional.of(Instant.ofEpochSecond(((long) value))
-                        .atZone(sinkTimeZone)
-                        .toLocalDateTime());
-            }
+                return Instant.ofEpochSecond((long) value).atZone(zoneId).toLocalDateTime();
+            };
         }
-        return Optional.empty();
+        return null;
     }
 
-    protected Optional<Object> convertDateType(Object target, LogicalType logicalType) {
+    protected ValueConverter convertDateType(LogicalType logicalType) {
         if (logicalType instanceof DateType) {
-            return Optional.of(StringData.fromString(Instant.ofEpochMilli((long) target)
+            return value -> StringData.fromString(Instant.ofEpochMilli((long) value)
                     .atZone(ZoneId.systemDefault())
                     .toLocalDate()
-                    .toString()));
+                    .toString());
         }
-        return Optional.empty();
+        return null;
     }
 
-    protected Optional<Object> convertVarCharType(Object target, LogicalType logicalType) {
+    protected ValueConverter convertVarCharType(LogicalType logicalType) {
         if (logicalType instanceof VarCharType) {
-            return Optional.of(StringData.fromString((String) target));
+            return value -> StringData.fromString((String) value);
         }
-        return Optional.empty();
+        return null;
+    }
+
+    private static final ValueConverter KEEP_VALUE = value -> value;
+
+    /**
+     * Creates the converter of the values of a logical type, null if it does not handle the type.
+     */
+    @FunctionalInterface
+    public interface ConvertType extends Serializable {
+        ValueConverter create(LogicalType logicalType);
     }
 
+    /**
+     * Converts a non null value of a column.
+     */
     @FunctionalInterface
-    public interface ConvertType {
-        Optional<Object> convert(Object target, LogicalType logicalType);
+    public interface ValueConverter extends Serializable {
+        Object convert(Object value);
     }
 
     @Override
@@ -0,0 +1,213 @@
+/*
+ *
+ *  Licensed to the Apache Software Foundation (ASF) under one or more
+ *  contributor license agreements.  See the NOTICE file distributed with
+ *  this work for additional information regarding copyright ownership.
+ *  The ASF licenses this file to You under the Apache License, Version 2.0
+ *  (the "License"); you may not use this file except in compliance with
+ *  the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+
+package org.dinky.cdc;
+
+import org.dinky.data.model.Table;
+
+import org.apache.flink.api.common.typeinfo.TypeInformation;
+import org.apache.flink.shaded.jackson2.com.fasterxml.jackson.core.JsonParser;
+import org.apache.flink.shaded.jackson2.com.fasterxml.jackson.core.JsonToken;
+import org.apache.flink.shaded.jackson2.com.fasterxml.jackson.databind.ObjectMapper;
+import org.apache.flink.streaming.api.functions.ProcessFunction;
+import org.apache.flink.table.data.RowData;
+import org.apache.flink.types.RowKind;
+import org.apache.flink.util.Collector;
+import org.apache.flink.util.OutputTag;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.BiConsumer;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Parses the raw change records of all the captured tables into the rows of their table in one pass of a streaming
+ * parser, and routes the rows to the side output of their table as {@link TableRouteFunction} does.
+ *
+ * <p>The images of a record come before its source, so the values of the images are read before the table is
+ * known: only the values of the columns of the routed tables are read, the other fields are skipped without being
+ * materialized. They are converted by the {@link AbstractSinkBuilder.RowConverter} of the table once its source is
+ * read. The records of the tables without a tag are dropped.
+ */
+@SuppressWarnings("rawtypes")
+public class RowDataRouteFunction extends ProcessFunction<String, RowData> {
+
+    private static final long serialVersionUID = 1L;
+
+    private static final Logger logger = LoggerFactory.getLogger(RowDataRouteFunction.class);
+
+    /** Only its lookup of the tags is used */
+    private final TableRouteFunction<RowData> router;
+
+    /** tag id -> converter of the table */
+    private final Map<String, AbstractSinkBuilder.RowConverter> converters = new HashMap<>();
+
+    /** column name -> index of its value, for the columns of all the tables */
+    private final Map<String, Integer> valueIndexes = new HashMap<>();
+
+    /** tag id -> column index of the table -> index of its value */
+    private final Map<String, int[]> tableValueIndexes = new HashMap<>();
+
+    private transient ObjectMapper objectMapper;
+    private transient Object[] beforeValues;
+    private transient Object[] afterValues;
+
+    public RowDataRouteFunction(
+            Map<Table, OutputTag<RowData>> tagMap,
+            Map<Table, AbstractSinkBuilder.RowConverter> converterMap,
+            String schemaFieldName) {
+        this.router = new TableRouteFunction<>(tagMap, schemaFieldName, null);
+        tagMap.forEach((table, tag) -> {
+            AbstractSinkBuilder.RowConverter converter = converterMap.get(table);
+            String[] columnNames = converter.getColumnNames();
+            int[] indexes = new int[columnNames.length];
+            for (int i = 0; i < columnNames.length; i++) {
+                indexes[i] = valueIndexes.computeIfAbsent(columnNames[i], k -> valueIndexes.size());
+            }
+            converters.put(tag.getId(), converter);
+            tableValueIndexes.put(tag.getId(), indexes);
+        });
+    }
+
+    /**
+     * A tag whose id is the schema and table name, so two tables never share a side output.
+     */
+    public static OutputTag<RowData> createTag(Table table) {
+        return new OutputTag<>(table.getSchemaTableName(), TypeInformation.of(RowData.class));
+    }
+
+    @Override
+    public void processElement(String value, Context ctx, Collector<RowData> out) throws Exception {
+        route(value, ctx::output);
+    }
+
+    /**
+     * Parse a record and pass its rows with the tag of their table to the output.
+     */
+    public void route(String value, BiConsumer<OutputTag<RowData>, RowData> output) throws IOException {
+        if (objectMapper == null) {
+            objectMapper = new ObjectMapper();
+            beforeValues = new Object[valueIndexes.size()];
+            afterValues = new Object[valueIndexes.size()];
+        }
+        Arrays.fill(beforeValues, null);
+        Arrays.fill(afterValues, null);
+        String op = null;
+        Map source = null;
+        boolean before = false;
+        boolean after = false;
+        try (JsonParser parser = objectMapper.getFactory().createParser(value)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                return;
+            }
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.getCurrentName();
+                JsonToken token = parser.nextToken();
+                if ("op".equals(field)) {
+                    op = token == JsonToken.VALUE_NULL ? null : parser.getText();
+                } else if ("source".equals(field) && token == JsonToken.START_OBJECT) {
+                    source = objectMapper.readValue(parser, Map.class);
+                } else if ("before".equals(field)) {
+                    before = readImage(parser, token, beforeValues);
+                } else if ("after".equals(field)) {
+                    after = readImage(parser, token, afterValues);
+                } else {
+                    parser.skipChildren();
+                }
+            }
+        }
+        OutputTag<RowData> tag = source == null ? null : router.route(Collections.singletonMap("source", source));
+        if (tag == null || op == null) {
+            return;
+        }
+        try {
+            switch (op) {
+                case "r":
+                case "c":
+                    output.accept(tag, toRow(tag, RowKind.INSERT, after, afterValues));
+                    break;
+                case "d":
+                    output.accept(tag, toRow(tag, RowKind.DELETE, before, beforeValues));
+                    break;
+                case "u":
+                    output.accept(tag, toRow(tag, RowKind.UPDATE_BEFORE, before, beforeValues));
+                    output.accept(tag, toRow(tag, RowKind.UPDATE_AFTER, after, afterValues));
+                    break;
+                default:
+            }
+        } catch (RuntimeException e) {
+            logger.error("SchemaTable: {} - Row: {} - Exception: {}", tag.getId(), value, e.toString());
+            throw e;
+        }
+    }
+
+    private RowData toRow(OutputTag<RowData> tag, RowKind rowKind, boolean present, Object[] values) {
+        if (!present) {
+            throw new IllegalArgumentException("The change record has no image for " + rowKind);
+        }
+        return converters.get(tag.getId()).toRow(rowKind, values, tableValueIndexes.get(tag.getId()));
+    }
+
+    /**
+     * @return false if the image is null
+     */
+    private boolean readImage(JsonParser parser, JsonToken token, Object[] values) throws IOException {
+        if (token != JsonToken.START_OBJECT) {
+            parser.skipChildren();
+            return false;
+        }
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            Integer index = valueIndexes.get(parser.getCurrentName());
+            JsonToken valueToken = parser.nextToken();
+            if (index == null) {
+                parser.skipChildren();
+            } else {
+                values[index] = readValue(parser, valueToken);
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Reads a value as the values of the {@link Map} of a record deserialized by the object mapper.
+     */
+    private Object readValue(JsonParser parser, JsonToken token) throws IOException {
+        switch (token) {
+            case VALUE_NULL:
+                return null;
+            case VALUE_STRING:
+                return parser.getText();
+            case VALUE_NUMBER_INT:
+                return parser.getNumberValue();
+            case VALUE_NUMBER_FLOAT:
+                return parser.getDoubleValue();
+            case VALUE_TRUE:
+                return Boolean.TRUE;
+            case VALUE_FALSE:
+                return Boolean.FALSE;
+            default:
+                return objectMapper.readValue(parser, Object.class);
+        }
+    }
+}
@@ -0,0 +1,139 @@
+/*
+ *
+ *  Licensed to the Apache Software Foundation (ASF) under one or more
+ *  contributor license agreements.  See the NOTICE file distributed with
+ *  this work for additional information regarding copyright ownership.
+ *  The ASF licenses this file to You under the Apache License, Version 2.0
+ *  (the "License"); you may not use this file except in compliance with
+ *  the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+
+package org.dinky.cdc;
+
+import org.dinky.data.model.Table;
+
+import org.apache.flink.api.common.functions.MapFunction;
+import org.apache.flink.api.common.typeinfo.TypeInformation;
+import org.apache.flink.streaming.api.functions.ProcessFunction;
+import org.apache.flink.util.Collector;
+import org.apache.flink.util.OutputTag;
+
+import java.io.Serializable;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Routes the change records of all the captured tables in one pass: the schema and the table of the source of a
+ * record are looked up once in a hash of schema -> table -> output tag, and the record goes to the side output of
+ * its table. The records of the tables without a tag go to the main output.
+ *
+ * <p>When the records are not routed by the names of their source, e.g. the shards of a table, the name of the table
+ * of a record is resolved by a {@link TableNameResolver} instead, see {@link #byName}.
+ *
+ * @param <T> type of the routed records
+ */
+@SuppressWarnings("rawtypes")
+public class TableRouteFunction<T> extends ProcessFunction<Map, T> {
+
+    private static final long serialVersionUID = 1L;
+
+    private final String schemaFieldName;
+
+    /** schema name -> table name -> output tag */
+    private final Map<String, Map<String, OutputTag<T>>> routes = new HashMap<>();
+
+    /** resolved table name -> output tag, only used with a resolver */
+    private final Map<String, OutputTag<T>> namedRoutes = new HashMap<>();
+
+    private final TableNameResolver resolver;
+
+    private final MapFunction<Map, T> converter;
+
+    /**
+     * @param tagMap the output tag of each table
+     * @param schemaFieldName the field of the source holding the schema, e.g. db or schema
+     * @param converter converts the records before they are emitted
+     */
+    public TableRouteFunction(Map<Table, OutputTag<T>> tagMap, String schemaFieldName, MapFunction<Map, T> converter) {
+        this.schemaFieldName = schemaFieldName;
+        this.resolver = null;
+        this.converter = converter;
+        tagMap.forEach((table, tag) ->
+                routes.computeIfAbsent(table.getSchema(), k -> new HashMap<>()).put(table.getName(), tag));
+    }
+
+    private TableRouteFunction(
+            Map<String, OutputTag<T>> namedTagMap, TableNameResolver resolver, MapFunction<Map, T> converter) {
+        this.schemaFieldName = null;
+        this.resolver = resolver;
+        this.converter = converter;
+        namedRoutes.putAll(namedTagMap);
+    }
+
+    public static TableRouteFunction<Map> of(Map<Table, OutputTag<Map>> tagMap, String schemaFieldName) {
+        return new TableRouteFunction<>(tagMap, schemaFieldName, value -> value);
+    }
+
+    /**
+     * @param namedTagMap the output tag of each table, by the name the resolver gives to its records
+     * @param resolver resolves the name of the table of a record from its source
+     */
+    public static TableRouteFunction<Map> byName(Map<String, OutputTag<Map>> namedTagMap, TableNameResolver resolver) {
+        return new TableRouteFunction<>(namedTagMap, resolver, value -> value);
+    }
+
+    /**
+     * A tag whose id is the schema and table name, so two tables never share a side output.
+     */
+    public static OutputTag<Map> createTag(Table table) {
+        return new OutputTag<>(table.getSchemaTableName(), TypeInformation.of(Map.class));
+    }
+
+    @Override
+    public void processElement(Map value, Context ctx, Collector<T> out) throws Exception {
+        OutputTag<T> tag = route(value);
+        if (tag == null) {
+            out.collect(converter.map(value));
+        } else {
+            ctx.output(tag, converter.map(value));
+        }
+    }
+
+    /**
+     * @return the output tag of the table of the record, or null if the table is not routed
+     */
+    public OutputTag<T> route(Map value) {
+        Object source = value.get("source");
+        if (!(source instanceof Map)) {
+            return null;
+        }
+        if (resolver != null) {
+            return namedRoutes.get(resolver.resolve((Map) source));
+        }
+        Object schemaName = ((Map) source).get(schemaFieldName);
+        Map<String, OutputTag<T>> tables = routes.get(schemaName == null ? null : schemaName.toString());
+        if (tables == null) {
+            return null;
+        }
+        Object tableName = ((Map) source).get("table");
+        return tableName == null ? null : tables.get(tableName.toString());
+    }
+
+    /**
+     * Resolves the name of the table of a record from the source of the record, null if it can not be resolved.
+     */
+    @FunctionalInterface
+    public interface TableNameResolver extends Serializable {
+
+        String resolve(Map source);
+    }
+}
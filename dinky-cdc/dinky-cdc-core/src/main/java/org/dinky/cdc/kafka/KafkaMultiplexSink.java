@@ -0,0 +1,104 @@
+/*
+ *
+ *  Licensed to the Apache Software Foundation (ASF) under one or more
+ *  contributor license agreements.  See the NOTICE file distributed with
+ *  this work for additional information regarding copyright ownership.
+ *  The ASF licenses this file to You under the Apache License, Version 2.0
+ *  (the "License"); you may not use this file except in compliance with
+ *  the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+
+package org.dinky.cdc.kafka;
+
+import org.dinky.assertion.Asserts;
+import org.dinky.data.model.FlinkCDCConfig;
+import org.dinky.data.model.Schema;
+import org.dinky.data.model.Table;
+
+import org.apache.flink.api.common.typeinfo.Types;
+import org.apache.flink.connector.base.DeliveryGuarantee;
+import org.apache.flink.connector.kafka.sink.KafkaSink;
+import org.apache.flink.connector.kafka.sink.KafkaSinkBuilder;
+import org.apache.flink.streaming.api.datastream.DataStream;
+import org.apache.flink.streaming.api.environment.StreamExecutionEnvironment;
+import org.apache.kafka.clients.producer.ProducerConfig;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.function.Function;
+
+/**
+ * Writes all the tables with one producer per subtask, the topic is picked per record. The records are keyed by their
+ * table and primary key, so the changes of a row are written in order; the records of a table without primary key are
+ * spread over the writers. The linger and the batch size of the producer default to {@link #DEFAULT_LINGER_MS} and
+ * {@link #DEFAULT_BATCH_SIZE} and can be set with {@code sink.properties.linger.ms} and
+ * {@code sink.properties.batch.size}.
+ */
+public final class KafkaMultiplexSink {
+
+    public static final String MULTIPLEX = "multiplex";
+    public static final String DEFAULT_LINGER_MS = "20";
+    public static final String DEFAULT_BATCH_SIZE = "131072";
+    public static final String TRANSACTIONAL_ID = "transactional.id";
+
+    private KafkaMultiplexSink() {}
+
+    /**
+     * @return whether the sink is configured with {@code sink.multiplex = true}
+     */
+    public static boolean isEnabled(FlinkCDCConfig config) {
+        return Asserts.isEqualsIgnoreCase(config.getSink().get(MULTIPLEX), "true");
+    }
+
+    /**
+     * @param records the deserialized change records of the source
+     * @param topicName the topic of each table
+     */
+    @SuppressWarnings("rawtypes")
+    public static void sinkTo(
+            FlinkCDCConfig config,
+            StreamExecutionEnvironment env,
+            DataStream<Map> records,
+            Function<Table, String> topicName,
+            Properties kafkaProducerConfig) {
+        final List<Schema> schemaList = config.getSchemaList();
+        if (Asserts.isNullCollection(schemaList)) {
+            return;
+        }
+        Map<Table, String> topicMap = new HashMap<>();
+        for (Schema schema : schemaList) {
+            for (Table table : schema.getTables()) {
+                topicMap.put(table, topicName.apply(table));
+            }
+        }
+        TableTopicSerializationSchema serializationSchema =
+                new TableTopicSerializationSchema(topicMap, config.getSchemaFieldName(), env.getParallelism());
+        kafkaProducerConfig.putIfAbsent(ProducerConfig.LINGER_MS_CONFIG, DEFAULT_LINGER_MS);
+        kafkaProducerConfig.putIfAbsent(ProducerConfig.BATCH_SIZE_CONFIG, DEFAULT_BATCH_SIZE);
+        KafkaSinkBuilder<Map> kafkaSinkBuilder = KafkaSink.<Map>builder()
+                .setBootstrapServers(config.getSink().get("brokers"))
+                .setRecordSerializer(serializationSchema)
+                .setDeliverGuarantee(
+                        DeliveryGuarantee.valueOf(env.getCheckpointingMode().name()))
+                .setKafkaProducerConfig(kafkaProducerConfig);
+        if (Asserts.isNotNullString(kafkaProducerConfig.getProperty(TRANSACTIONAL_ID))) {
+            kafkaSinkBuilder.setTransactionalIdPrefix(kafkaProducerConfig.getProperty(TRANSACTIONAL_ID));
+        }
+        records.filter(serializationSchema::accepts)
+                .name("TableFilter")
+                .keyBy(serializationSchema::getPartitionKey, Types.STRING)
+                .sinkTo(kafkaSinkBuilder.build())
+                .name("KafkaMultiplexSink");
+    }
+}
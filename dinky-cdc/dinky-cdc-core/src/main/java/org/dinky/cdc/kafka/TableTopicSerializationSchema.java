@@ -0,0 +1,170 @@
+/*
+ *
+ *  Licensed to the Apache Software Foundation (ASF) under one or more
+ *  contributor license agreements.  See the NOTICE file distributed with
+ *  this work for additional information regarding copyright ownership.
+ *  The ASF licenses this file to You under the Apache License, Version 2.0
+ *  (the "License"); you may not use this file except in compliance with
+ *  the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+
+package org.dinky.cdc.kafka;
+
+import org.dinky.data.model.Column;
+import org.dinky.data.model.Table;
+
+import org.apache.flink.api.common.serialization.SerializationSchema;
+import org.apache.flink.connector.kafka.sink.KafkaRecordSerializationSchema;
+import org.apache.flink.shaded.jackson2.com.fasterxml.jackson.core.JsonProcessingException;
+import org.apache.flink.shaded.jackson2.com.fasterxml.jackson.databind.ObjectMapper;
+import org.apache.kafka.clients.producer.ProducerRecord;
+
+import java.io.Serializable;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Writes the change records of all the captured tables with one producer, the topic of a record is looked up from
+ * the schema and the table of its source. The key of a record is its primary key as json, e.g. {@code {"id":1}}, so
+ * the changes of a row stay in order in one partition; the records of a table without primary key have no key.
+ */
+@SuppressWarnings("rawtypes")
+public class TableTopicSerializationSchema implements KafkaRecordSerializationSchema<Map> {
+
+    private static final long serialVersionUID = 1L;
+
+    private final String schemaFieldName;
+
+    private final int saltBuckets;
+
+    /** schema name -> table name -> route */
+    private final Map<String, Map<String, Route>> routes = new HashMap<>();
+
+    private transient ObjectMapper objectMapper;
+
+    /**
+     * @param topicMap the topic of each table
+     * @param schemaFieldName the field of the source holding the schema, e.g. db or schema
+     * @param saltBuckets the number of partition keys the records of a table without primary key are spread over
+     */
+    public TableTopicSerializationSchema(Map<Table, String> topicMap, String schemaFieldName, int saltBuckets) {
+        this.schemaFieldName = schemaFieldName;
+        this.saltBuckets = Math.max(1, saltBuckets);
+        topicMap.forEach((table, topic) -> routes.computeIfAbsent(table.getSchema(), k -> new HashMap<>())
+                .put(table.getName(), new Route(topic, getPrimaryKeys(table))));
+    }
+
+    @Override
+    public void open(SerializationSchema.InitializationContext context, KafkaSinkContext sinkContext) {
+        objectMapper = new ObjectMapper();
+    }
+
+    @Override
+    public ProducerRecord<byte[], byte[]> serialize(Map element, KafkaSinkContext context, Long timestamp) {
+        Route route = route(element);
+        String key = getKey(route, element);
+        try {
+            return new ProducerRecord<>(
+                    route.topic,
+                    key == null ? null : key.getBytes(StandardCharsets.UTF_8),
+                    getObjectMapper().writeValueAsBytes(element));
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Could not serialize record: " + element, e);
+        }
+    }
+
+    /**
+     * @return whether the table of the record is captured
+     */
+    public boolean accepts(Map element) {
+        return route(element) != null;
+    }
+
+    /**
+     * @return the topic and the key of the record, the records of a row always go to the same writer. A table without
+     *     primary key is spread over the writers by a salt hashed from the row, bounded by the salt buckets.
+     */
+    public String getPartitionKey(Map element) {
+        Route route = route(element);
+        String key = getKey(route, element);
+        if (key != null) {
+            return route.topic + key;
+        }
+        Map data = getData(element);
+        int salt = data == null ? 0 : Math.floorMod(data.hashCode(), saltBuckets);
+        return route.topic + "#" + salt;
+    }
+
+    private Route route(Map element) {
+        Map source = (Map) element.get("source");
+        if (source == null) {
+            return null;
+        }
+        Map<String, Route> tables = routes.get(String.valueOf(source.get(schemaFieldName)));
+        return tables == null ? null : tables.get(String.valueOf(source.get("table")));
+    }
+
+    private String getKey(Route route, Map element) {
+        if (route.primaryKeys.length == 0) {
+            return null;
+        }
+        Map data = getData(element);
+        if (data == null) {
+            return null;
+        }
+        Map<String, Object> key = new LinkedHashMap<>();
+        for (String primaryKey : route.primaryKeys) {
+            key.put(primaryKey, data.get(primaryKey));
+        }
+        try {
+            return getObjectMapper().writeValueAsString(key);
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Could not serialize key: " + key, e);
+        }
+    }
+
+    private static Map getData(Map element) {
+        return (Map) ("d".equals(element.get("op")) ? element.get("before") : element.get("after"));
+    }
+
+    private ObjectMapper getObjectMapper() {
+        if (objectMapper == null) {
+            objectMapper = new ObjectMapper();
+        }
+        return objectMapper;
+    }
+
+    private static String[] getPrimaryKeys(Table table) {
+        if (table.getColumns() == null) {
+            return new String[0];
+        }
+        return table.getColumns().stream()
+                .filter(Column::isKeyFlag)
+                .map(Column::getName)
+                .toArray(String[]::new);
+    }
+
+    private static class Route implements Serializable {
+
+        private static final long serialVersionUID = 1L;
+
+        private final String topic;
+        private final String[] primaryKeys;
+
+        private Route(String topic, String[] primaryKeys) {
+            this.topic = topic;
+            this.primaryKeys = primaryKeys;
+        }
+    }
+}
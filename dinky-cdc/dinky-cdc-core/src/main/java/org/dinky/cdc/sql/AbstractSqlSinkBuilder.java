@@ -22,6 +22,7 @@ package org.dinky.cdc.sql;
 import org.dinky.assertion.Asserts;
 import org.dinky.cdc.AbstractSinkBuilder;
 import org.dinky.cdc.CDCBuilder;
+import org.dinky.cdc.TableRouteFunction;
 import org.dinky.data.model.FlinkCDCConfig;
 import org.dinky.data.model.Schema;
 import org.dinky.data.model.Table;
@@ -38,7 +39,6 @@ import org.apache.flink.streaming.api.datastream.DataStream;
 import org.apache.flink.streaming.api.datastream.DataStreamSource;
 import org.apache.flink.streaming.api.datastream.SingleOutputStreamOperator;
 import org.apache.flink.streaming.api.environment.StreamExecutionEnvironment;
-import org.apache.flink.streaming.api.functions.ProcessFunction;
 import org.apache.flink.table.types.logical.DecimalType;
 import org.apache.flink.table.types.logical.LogicalType;
 import org.apache.flink.table.types.utils.TypeConversions;
@@ -55,7 +55,6 @@ import java.util.HashMap;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.Optional;
 import java.util.stream.Collectors;
 
 public abstract class AbstractSqlSinkBuilder extends AbstractSinkBuilder implements Serializable {
@@ -70,20 +69,20 @@ public abstract class AbstractSqlSinkBuilder extends AbstractSinkBuilder impleme
     @SuppressWarnings("rawtypes")
     protected FlatMapFunction<Map, Row> sqlSinkRowFunction(
             List<String> columnNameList, List<LogicalType> columnTypeList, String schemaTableName) {
+        final RowConverter converter = new RowConverter(columnNameList, columnTypeList);
         return (value, out) -> {
             try {
                 switch (value.get("op").toString()) {
                     case "r":
                     case "c":
-                        rowCollect(columnNameList, columnTypeList, out, RowKind.INSERT, (Map) value.get("after"));
+                        rowCollect(converter, out, RowKind.INSERT, (Map) value.get("after"));
                         break;
                     case "d":
-                        rowCollect(columnNameList, columnTypeList, out, RowKind.DELETE, (Map) value.get("before"));
+                        rowCollect(converter, out, RowKind.DELETE, (Map) value.get("before"));
                         break;
                     case "u":
-                        rowCollect(
-                                columnNameList, columnTypeList, out, RowKind.UPDATE_BEFORE, (Map) value.get("before"));
-                        rowCollect(columnNameList, columnTypeList, out, RowKind.UPDATE_AFTER, (Map) value.get("after"));
+                        rowCollect(converter, out, RowKind.UPDATE_BEFORE, (Map) value.get("before"));
+                        rowCollect(converter, out, RowKind.UPDATE_AFTER, (Map) value.get("after"));
                         break;
                     default:
                 }
@@ -99,15 +98,10 @@ public abstract class AbstractSqlSinkBuilder extends AbstractSinkBuilder impleme
     }
 
     @SuppressWarnings("rawtypes")
-    private void rowCollect(
-            List<String> columnNameList,
-            List<LogicalType> columnTypeList,
-            Collector<Row> out,
-            RowKind rowKind,
-            Map value) {
-        Row row = Row.withPositions(rowKind, columnNameList.size());
-        for (int i = 0; i < columnNameList.size(); i++) {
-            row.setField(i, convertValue(value.get(columnNameList.get(i)), columnTypeList.get(i)));
+    private void rowCollect(RowConverter converter, Collector<Row> out, RowKind rowKind, Map value) {
+        Row row = Row.withPositions(rowKind, converter.size());
+        for (int i = 0; i < converter.size(); i++) {
+            row.setField(i, converter.convert(i, value));
         }
         out.collect(row);
     }
@@ -127,11 +121,11 @@ public abstract class AbstractSqlSinkBuilder extends AbstractSinkBuilder impleme
     }
 
     @Override
-    protected Optional<Object> convertDecimalType(Object value, LogicalType logicalType) {
+    protected ValueConverter convertDecimalType(LogicalType logicalType) {
         if (logicalType instanceof DecimalType) {
-            return Optional.of(new BigDecimal(String.valueOf(value)));
+            return value -> new BigDecimal(String.valueOf(value));
         }
-        return Optional.empty();
+        return null;
     }
 
     @SuppressWarnings("rawtypes")
@@ -169,20 +163,18 @@ public abstract class AbstractSqlSinkBuilder extends AbstractSinkBuilder impleme
                 dataStreamSource.map(x -> objectMapper.readValue(x, Map.class)).returns(Map.class);
         Map<String, String> split = config.getSplit();
         partitionByTableAndPrimarykey(mapOperator, tableMap);
-        return mapOperator.process(new ProcessFunction<Map, Map>() {
-            @Override
-            public void processElement(Map map, ProcessFunction<Map, Map>.Context ctx, Collector<Map> out) {
-                LinkedHashMap source = (LinkedHashMap) map.get("source");
-                try {
-                    String tableName = createTableName(source, schemaFieldName, split);
-                    OutputTag<Map> outputTag = tagMap.get(tableMap.get(tableName));
-                    ctx.output(outputTag, map);
-                } catch (Exception e) {
-                    logger.error(e.getMessage(), e);
-                    out.collect(map);
-                }
-            }
-        });
+        Map<String, OutputTag<Map>> namedTagMap = new HashMap<>();
+        tableMap.forEach((tableName, table) -> namedTagMap.put(tableName, tagMap.get(table)));
+        return mapOperator
+                .process(TableRouteFunction.byName(namedTagMap, source -> {
+                    try {
+                        return createTableName((LinkedHashMap) source, schemaFieldName, split);
+                    } catch (Exception e) {
+                        logger.error(e.getMessage(), e);
+                        return null;
+                    }
+                }))
+                .name("TableRoute");
     }
 
     protected abstract void addTableSink(
@@ -222,9 +214,7 @@ public abstract class AbstractSqlSinkBuilder extends AbstractSinkBuilder impleme
         Map<String, Table> tableMap = new HashMap<>();
         for (Schema schema : schemaList) {
             for (Table table : schema.getTables()) {
-                String sinkTableName = getSinkTableName(table);
-                OutputTag<Map> outputTag = new OutputTag<Map>(sinkTableName) {};
-                tagMap.put(table, outputTag);
+                tagMap.put(table, TableRouteFunction.createTag(table));
                 tableMap.put(table.getSchemaTableName(), table);
             }
         }
@@ -24,6 +24,7 @@ import org.dinky.cdc.utils.FlinkStatementUtil;
 import org.dinky.data.model.FlinkCDCConfig;
 import org.dinky.data.model.Table;
 import org.dinky.executor.CustomTableEnvironment;
+import org.dinky.utils.SplitResolver;
 import org.dinky.utils.SplitUtil;
 
 import org.apache.commons.collections.CollectionUtils;
@@ -38,17 +39,20 @@ import org.apache.flink.types.Row;
 import java.io.Serializable;
 import java.time.Instant;
 import java.time.LocalDate;
+import java.time.ZoneId;
 import java.util.Arrays;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.Optional;
 
 public class SQLSinkBuilder extends AbstractSqlSinkBuilder implements Serializable {
 
     public static final String KEY_WORD = "sql";
     private static final long serialVersionUID = -3699685106324048226L;
 
+    /** Resolves the logical names of the sharded tables, created on the first record */
+    private SplitResolver splitResolver;
+
     public SQLSinkBuilder() {}
 
     private SQLSinkBuilder(FlinkCDCConfig config) {
@@ -132,54 +136,53 @@ public class SQLSinkBuilder extends AbstractSqlSinkBuilder implements Serializab
 
     @Override
     protected String createTableName(LinkedHashMap source, String schemaFieldName, Map<String, String> split) {
-        return SplitUtil.getReValue(source.get(schemaFieldName).toString(), split)
+        if (splitResolver == null) {
+            splitResolver = SplitUtil.getResolver(split);
+        }
+        return splitResolver.getReValue(source.get(schemaFieldName).toString())
                 + "."
-                + SplitUtil.getReValue(source.get("table").toString(), split);
+                + splitResolver.getReValue(source.get("table").toString());
     }
 
     @Override
-    protected Optional<Object> convertDateType(Object value, LogicalType logicalType) {
+    protected ValueConverter convertDateType(LogicalType logicalType) {
         if (logicalType instanceof DateType) {
-            if (value instanceof Integer) {
-                return Optional.of(LocalDate.ofEpochDay((Integer) value));
-            }
-            if (value instanceof Long) {
-                return Optional.of(
-                        Instant.ofEpochMilli((long) value).atZone(sinkTimeZone).toLocalDate());
-            }
-            return Optional.of(
-                    Instant.parse(value.toString()).atZone(sinkTimeZone).toLocalDate());
+            final ZoneId zoneId = sinkTimeZone;
+            return value -> {
+                if (value instanceof Integer) {
+                    return LocalDate.ofEpochDay((Integer) value);
+                }
+                if (value instanceof Long) {
+                    return Instant.ofEpochMilli((long) value).atZone(zoneId).toLocalDate();
+                }
+                return Instant.parse(value.toString()).atZone(zoneId).toLocalDate();
+            };
         }
-        return Optional.empty();
+        return null;
     }
 
     @Override
-    protected Optional<Object> convertTimestampType(Object value, LogicalType logicalType) {
+    protected ValueConverter convertTimestampType(LogicalType logicalType) {
         if (logicalType instanceof TimestampType) {
-            if (value instanceof Integer) {
-                return Optional.of(Instant.ofEpochMilli(((Integer) value).longValue())
-                        .atZone(sinkTimeZone)
-                        .toLocalDateTime());
-            } else if (value instanceof String) {
-                return Optional.of(
-                        Instant.parse((String) value).atZone(sinkTimeZone).toLocalDateTime());
-            } else {
-                TimestampType logicalType1 = (TimestampType) logicalType;
-                if (logicalType1.getPrecision() == 3) {
-                    return Optional.of(Instant.ofEpochMilli((long) value)
-                            .atZone(sinkTimeZone)
-                            .toLocalDateTime());
-                } else if (logicalType1.getPrecision() > 3) {
-                    return Optional.of(
-                            Instant.ofEpochMilli(((long) value) / (long) Math.pow(10, logicalType1.getPrecision() - 3))
-                                    .atZone(sinkTimeZone)
-                                    .toLocalDateTime());
+            final ZoneId zoneId = sinkTimeZone;
+            final int precision = ((TimestampType) logicalType).getPrecision();
+            return value -> {
+                if (value instanceof Integer) {
+                    return Instant.ofEpochMilli(((Integer) value).longValue())
+                            .atZone(zoneId)
+                            .toLocalDateTime();
+                } else if (value instanceof String) {
+                    return Instant.parse((String) value).atZone(zoneId).toLocalDateTime();
+                } else if (precision == 3) {
+                    return Instant.ofEpochMilli((long) value).atZone(zoneId).toLocalDateTime();
+                } else if (precision > 3) {
+                    return Instant.ofEpochMilli(((long) value) / (long) Math.pow(10, precision - 3))
+                            .atZone(zoneId)
+                            .toLocalDateTime();
                 }
-                return Optional.of(Instant.ofEpochSecond(((long) value))
-                        .atZone(sinkTimeZone)
-                        .toLocalDateTime());
-            }
+                return Instant.ofEpochSecond((long) value).atZone(zoneId).toLocalDateTime();
+            };
         }
-        return Optional.empty();
+        return null;
     }
 }
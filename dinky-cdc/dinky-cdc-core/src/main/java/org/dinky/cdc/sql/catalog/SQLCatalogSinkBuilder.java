@@ -34,10 +34,10 @@ import org.apache.flink.types.Row;
 
 import java.io.Serializable;
 import java.time.Instant;
+import java.time.ZoneId;
 import java.util.Arrays;
 import java.util.LinkedHashMap;
 import java.util.Map;
-import java.util.Optional;
 
 public class SQLCatalogSinkBuilder extends AbstractSqlSinkBuilder implements Serializable {
 
@@ -98,36 +98,37 @@ public class SQLCatalogSinkBuilder extends AbstractSqlSinkBuilder implements Ser
     }
 
     @Override
-    protected Optional<Object> convertDateType(Object value, LogicalType logicalType) {
+    protected ValueConverter convertDateType(LogicalType logicalType) {
         if (logicalType instanceof DateType) {
-            if (value instanceof Integer) {
-                return Optional.of(Instant.ofEpochMilli(((Integer) value).longValue())
-                        .atZone(sinkTimeZone)
-                        .toLocalDate());
-            }
-            return Optional.of(
-                    Instant.ofEpochMilli((long) value).atZone(sinkTimeZone).toLocalDate());
+            final ZoneId zoneId = sinkTimeZone;
+            return value -> {
+                if (value instanceof Integer) {
+                    return Instant.ofEpochMilli(((Integer) value).longValue())
+                            .atZone(zoneId)
+                            .toLocalDate();
+                }
+                return Instant.ofEpochMilli((long) value).atZone(zoneId).toLocalDate();
+            };
         }
-        return Optional.empty();
+        return null;
     }
 
     @Override
-    protected Optional<Object> convertTimestampType(Object value, LogicalType logicalType) {
+    protected ValueConverter convertTimestampType(LogicalType logicalType) {
         if (logicalType instanceof TimestampType) {
-            if (value instanceof Integer) {
-                return Optional.of(Instant.ofEpochMilli(((Integer) value).longValue())
-                        .atZone(sinkTimeZone)
-                        .toLocalDateTime());
-            }
-
-            if (value instanceof String) {
-                return Optional.of(
-                        Instant.parse((String) value).atZone(sinkTimeZone).toLocalDateTime());
-            }
-
-            return Optional.of(
-                    Instant.ofEpochMilli((long) value).atZone(sinkTimeZone).toLocalDateTime());
+            final ZoneId zoneId = sinkTimeZone;
+            return value -> {
+                if (value instanceof Integer) {
+                    return Instant.ofEpochMilli(((Integer) value).longValue())
+                            .atZone(zoneId)
+                            .toLocalDateTime();
+                }
+                if (value instanceof String) {
+                    return Instant.parse((String) value).atZone(zoneId).toLocalDateTime();
+                }
+                return Instant.ofEpochMilli((long) value).atZone(zoneId).toLocalDateTime();
+            };
         }
-        return Optional.empty();
+        return null;
     }
 }
@@ -0,0 +1,316 @@
+/*
+ *
+ *  Licensed to the Apache Software Foundation (ASF) under one or more
+ *  contributor license agreements.  See the NOTICE file distributed with
+ *  this work for additional information regarding copyright ownership.
+ *  The ASF licenses this file to You under the Apache License, Version 2.0
+ *  (the "License"); you may not use this file except in compliance with
+ *  the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+
+package org.dinky.cdc;
+
+import org.dinky.cdc.sql.SQLSinkBuilder;
+import org.dinky.data.model.Table;
+
+import org.apache.flink.shaded.jackson2.com.fasterxml.jackson.databind.ObjectMapper;
+import org.apache.flink.table.data.GenericRowData;
+import org.apache.flink.table.types.logical.BigIntType;
+import org.apache.flink.table.types.logical.DateType;
+import org.apache.flink.table.types.logical.DecimalType;
+import org.apache.flink.table.types.logical.FloatType;
+import org.apache.flink.table.types.logical.IntType;
+import org.apache.flink.table.types.logical.LogicalType;
+import org.apache.flink.table.types.logical.TimestampType;
+import org.apache.flink.table.types.logical.VarBinaryType;
+import org.apache.flink.table.types.logical.VarCharType;
+import org.apache.flink.types.Row;
+import org.apache.flink.types.RowKind;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiFunction;
+
+import javax.xml.bind.DatatypeConverter;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Throughput of the conversion of the change records of a table into rows: the chain of the converters walked for
+ * every value, as the sql sink did before the converters were resolved from the column types, against the
+ * {@link AbstractSinkBuilder.RowConverter}. The raw records are also parsed into rows, through the map of the
+ * whole record as the sink did before, against the single streaming pass of {@link RowDataRouteFunction} which
+ * skips the fields not in the table. It is only compiled with the benchmark profile,
+ * run it with the main method from the test classpath, the records per second are the score.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@SuppressWarnings({"rawtypes", "unchecked"})
+public class RowConverterBenchmark {
+
+    private static final int RECORDS = 4096;
+    private static final ZoneId ZONE = ZoneId.of("UTC");
+
+    private static final List<String> COLUMN_NAMES =
+            Arrays.asList("id", "amount", "name", "price", "ts", "dt", "ratio", "payload", "status", "note");
+    private static final List<LogicalType> COLUMN_TYPES = Arrays.asList(
+            new IntType(),
+            new BigIntType(),
+            new VarCharType(),
+            new DecimalType(10, 2),
+            new TimestampType(3),
+            new DateType(),
+            new FloatType(),
+            new VarBinaryType(),
+            new IntType(),
+            new VarCharType());
+
+    /** The converters of the sql sink, in their order, as they were called for each value */
+    private static final List<BiFunction<Object, LogicalType, Optional<Object>>> CHAIN = Arrays.asList(
+            RowConverterBenchmark::date,
+            RowConverterBenchmark::timestamp,
+            RowConverterBenchmark::floats,
+            RowConverterBenchmark::decimal,
+            RowConverterBenchmark::bigint,
+            RowConverterBenchmark::varbinary);
+
+    private Map[] records;
+    /** The records as the source emits them, with the columns not in the table and the source */
+    private String[] jsonRecords;
+
+    private AbstractSinkBuilder.RowConverter converter;
+    private RowDataRouteFunction router;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Setup
+    public void setup() {
+        converter = new SQLSinkBuilder().new RowConverter(COLUMN_NAMES, COLUMN_TYPES);
+        Table table = Table.build("orders", "app");
+        router = new RowDataRouteFunction(
+                Collections.singletonMap(table, RowDataRouteFunction.createTag(table)),
+                Collections.singletonMap(table, converter),
+                "db");
+
+        Random random = new Random(42);
+        records = new Map[RECORDS];
+        for (int i = 0; i < RECORDS; i++) {
+            byte[] payload = new byte[16];
+            random.nextBytes(payload);
+            LinkedHashMap<String, Object> record = new LinkedHashMap<>();
+            record.put("id", i);
+            record.put("amount", random.nextInt());
+            record.put("name", "name_" + random.nextInt(1000));
+            record.put("price", random.nextInt(100000) / 100 + "." + random.nextInt(100));
+            record.put("ts", 1688946316123L + random.nextInt());
+            record.put("dt", 19000 + random.nextInt(1000));
+            record.put("ratio", random.nextDouble());
+            record.put("payload", Base64.getEncoder().encodeToString(payload));
+            record.put("status", random.nextInt(4));
+            record.put("note", random.nextBoolean() ? null : "note_" + i);
+            records[i] = record;
+        }
+        jsonRecords = new String[RECORDS];
+        try {
+            for (int i = 0; i < RECORDS; i++) {
+                Map<String, Object> after = new LinkedHashMap<>(records[i]);
+                for (int j = 0; j < 10; j++) {
+                    after.put("unused_" + j, "value_" + random.nextInt(1000));
+                }
+                Map<String, Object> source = new LinkedHashMap<>();
+                source.put("db", "app");
+                source.put("table", "orders");
+                Map<String, Object> record = new LinkedHashMap<>();
+                record.put("before", null);
+                record.put("after", after);
+                record.put("source", source);
+                record.put("op", "c");
+                jsonRecords[i] = objectMapper.writeValueAsString(record);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(RECORDS)
+    public void chain(Blackhole blackhole) {
+        for (Map record : records) {
+            Row row = Row.withPositions(RowKind.INSERT, COLUMN_NAMES.size());
+            for (int i = 0; i < COLUMN_NAMES.size(); i++) {
+                Object value = record.get(COLUMN_NAMES.get(i));
+                row.setField(i, value == null ? null : convertValue(value, COLUMN_TYPES.get(i)));
+            }
+            blackhole.consume(row);
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(RECORDS)
+    public void rowConverter(Blackhole blackhole) {
+        for (Map record : records) {
+            Row row = Row.withPositions(RowKind.INSERT, converter.size());
+            for (int i = 0; i < converter.size(); i++) {
+                row.setField(i, converter.convert(i, record));
+            }
+            blackhole.consume(row);
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(RECORDS)
+    public void parseMap(Blackhole blackhole) throws IOException {
+        for (String json : jsonRecords) {
+            Map record = objectMapper.readValue(json, Map.class);
+            Map source = (Map) record.get("source");
+            Map after = (Map) record.get("after");
+            GenericRowData row = new GenericRowData(RowKind.INSERT, converter.size());
+            for (int i = 0; i < converter.size(); i++) {
+                row.setField(i, converter.convert(i, after));
+            }
+            blackhole.consume(source.get("table"));
+            blackhole.consume(row);
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(RECORDS)
+    public void parseStreaming(Blackhole blackhole) throws IOException {
+        for (String json : jsonRecords) {
+            router.route(json, (tag, row) -> blackhole.consume(row));
+        }
+    }
+
+    private static Object convertValue(Object value, LogicalType logicalType) {
+        for (BiFunction<Object, LogicalType, Optional<Object>> convertType : CHAIN) {
+            Optional<Object> result = convertType.apply(value, logicalType);
+            if (result.isPresent()) {
+                return result.get();
+            }
+        }
+        return value;
+    }
+
+    private static Optional<Object> date(Object value, LogicalType logicalType) {
+        if (logicalType instanceof DateType) {
+            if (value instanceof Integer) {
+                return Optional.of(LocalDate.ofEpochDay((Integer) value));
+            }
+            if (value instanceof Long) {
+                return Optional.of(
+                        Instant.ofEpochMilli((long) value).atZone(ZONE).toLocalDate());
+            }
+            return Optional.of(Instant.parse(value.toString()).atZone(ZONE).toLocalDate());
+        }
+        return Optional.empty();
+    }
+
+    private static Optional<Object> timestamp(Object value, LogicalType logicalType) {
+        if (logicalType instanceof TimestampType) {
+            if (value instanceof Integer) {
+                return Optional.of(Instant.ofEpochMilli(((Integer) value).longValue())
+                        .atZone(ZONE)
+                        .toLocalDateTime());
+            } else if (value instanceof String) {
+                return Optional.of(Instant.parse((String) value).atZone(ZONE).toLocalDateTime());
+            }
+            int precision = ((TimestampType) logicalType).getPrecision();
+            if (precision == 3) {
+                return Optional.of(
+                        Instant.ofEpochMilli((long) value).atZone(ZONE).toLocalDateTime());
+            } else if (precision > 3) {
+                return Optional.of(Instant.ofEpochMilli(((long) value) / (long) Math.pow(10, precision - 3))
+                        .atZone(ZONE)
+                        .toLocalDateTime());
+            }
+            return Optional.of(Instant.ofEpochSecond((long) value).atZone(ZONE).toLocalDateTime());
+        }
+        return Optional.empty();
+    }
+
+    private static Optional<Object> floats(Object value, LogicalType logicalType) {
+        if (logicalType instanceof FloatType) {
+            if (value instanceof Float) {
+                return Optional.of(value);
+            }
+            if (value instanceof Double) {
+                return Optional.of(((Double) value).floatValue());
+            }
+            return Optional.of(Float.parseFloat(value.toString()));
+        }
+        return Optional.empty();
+    }
+
+    private static Optional<Object> decimal(Object value, LogicalType logicalType) {
+        if (logicalType instanceof DecimalType) {
+            return Optional.of(new BigDecimal(String.valueOf(value)));
+        }
+        return Optional.empty();
+    }
+
+    private static Optional<Object> bigint(Object value, LogicalType logicalType) {
+        if (logicalType instanceof BigIntType) {
+            if (value instanceof Integer) {
+                return Optional.of(((Integer) value).longValue());
+            }
+            return Optional.of(value);
+        }
+        return Optional.empty();
+    }
+
+    private static Optional<Object> varbinary(Object value, LogicalType logicalType) {
+        if (logicalType instanceof VarBinaryType) {
+            if (value instanceof String) {
+                return Optional.of(DatatypeConverter.parseBase64Binary(value.toString()));
+            }
+            return Optional.of(value);
+        }
+        return Optional.empty();
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                        .include(RowConverterBenchmark.class.getSimpleName())
+                        .build())
+                .run();
+    }
+}
@@ -21,7 +21,26 @@ package org.dinky.cdc;
 
 import org.dinky.cdc.sql.SQLSinkBuilder;
 
+import org.apache.flink.api.common.functions.FlatMapFunction;
+import org.apache.flink.api.common.functions.util.ListCollector;
+import org.apache.flink.table.data.GenericRowData;
+import org.apache.flink.table.data.RowData;
+import org.apache.flink.table.types.logical.BigIntType;
+import org.apache.flink.table.types.logical.DateType;
+import org.apache.flink.table.types.logical.DecimalType;
+import org.apache.flink.table.types.logical.IntType;
 import org.apache.flink.table.types.logical.TimestampType;
+import org.apache.flink.table.types.logical.VarCharType;
+import org.apache.flink.types.RowKind;
+import org.apache.flink.util.Collector;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 
 import org.junit.Assert;
 import org.junit.Test;
@@ -45,4 +64,65 @@ public class SinkBuilderTest {
         Assert.assertEquals(target3, value3.toString());
         Assert.assertEquals(target6, value6.toString());
     }
+
+    @Test
+    @SuppressWarnings({"rawtypes", "unchecked"})
+    public void sinkRowDataFunctionTest() throws Exception {
+        SQLSinkBuilder sqlSinkBuilder = new SQLSinkBuilder();
+        FlatMapFunction<Map, RowData> function = sqlSinkBuilder.sinkRowDataFunction(
+                Arrays.asList("id", "name", "ts"),
+                Arrays.asList(new IntType(), new VarCharType(), new TimestampType(3)),
+                "db.t");
+        List<RowData> rows = new ArrayList<>();
+        Collector<RowData> out = new ListCollector<>(rows);
+
+        Map before = new HashMap();
+        before.put("id", 1);
+        before.put("name", "a");
+        before.put("ts", 1688946316123L);
+        Map after = new HashMap(before);
+        after.put("name", null);
+        Map value = new HashMap();
+        value.put("op", "u");
+        value.put("before", before);
+        value.put("after", after);
+        function.flatMap(value, out);
+        value.put("op", "d");
+        function.flatMap(value, out);
+
+        Assert.assertEquals(3, rows.size());
+        GenericRowData updateAfter = (GenericRowData) rows.get(1);
+        Assert.assertEquals(RowKind.UPDATE_AFTER, updateAfter.getRowKind());
+        Assert.assertEquals(1, updateAfter.getField(0));
+        Assert.assertNull(updateAfter.getField(1));
+        Assert.assertEquals("2023-07-09T23:45:16.123", updateAfter.getField(2).toString());
+        GenericRowData delete = (GenericRowData) rows.get(2);
+        Assert.assertEquals(RowKind.DELETE, delete.getRowKind());
+        Assert.assertEquals("a", delete.getField(1));
+        Assert.assertEquals("2023-07-09T23:45:16.123", delete.getField(2).toString());
+    }
+
+    @Test
+    @SuppressWarnings({"rawtypes", "unchecked"})
+    public void rowConverterTest() {
+        SQLSinkBuilder sqlSinkBuilder = new SQLSinkBuilder();
+        AbstractSinkBuilder.RowConverter converter = sqlSinkBuilder
+        .new RowConverter(
+                Arrays.asList("id", "amount", "name", "price", "dt"),
+                Arrays.asList(
+                        new IntType(), new BigIntType(), new VarCharType(), new DecimalType(10, 2), new DateType()));
+
+        Map value = new HashMap();
+        value.put("id", 1);
+        value.put("amount", 2);
+        value.put("price", "12.30");
+        value.put("dt", 19547);
+
+        Assert.assertEquals(5, converter.size());
+        Assert.assertEquals(1, converter.convert(0, value));
+        Assert.assertEquals(2L, converter.convert(1, value));
+        Assert.assertNull(converter.convert(2, value));
+        Assert.assertEquals(new BigDecimal("12.30"), converter.convert(3, value));
+        Assert.assertEquals(LocalDate.of(2023, 7, 9), converter.convert(4, value));
+    }
 }
@@ -0,0 +1,138 @@
+/*
+ *
+ *  Licensed to the Apache Software Foundation (ASF) under one or more
+ *  contributor license agreements.  See the NOTICE file distributed with
+ *  this work for additional information regarding copyright ownership.
+ *  The ASF licenses this file to You under the Apache License, Version 2.0
+ *  (the "License"); you may not use this file except in compliance with
+ *  the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+
+package org.dinky.cdc;
+
+import org.dinky.data.model.Table;
+
+import org.apache.flink.api.common.functions.FilterFunction;
+import org.apache.flink.util.OutputTag;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Throughput of the routing of the change records to their tables: one filter per table, as the sink builders did
+ * before {@link TableRouteFunction}, against the single pass router. It is only compiled with the benchmark profile,
+ * run it with the main method from the test classpath, the records per second are the score.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@SuppressWarnings({"rawtypes", "unchecked"})
+public class TableRouteFunctionBenchmark {
+
+    private static final int RECORDS = 4096;
+    private static final int SCHEMAS = 10;
+    private static final String SCHEMA_FIELD_NAME = "db";
+
+    @Param({"10", "100", "1000"})
+    public int tables;
+
+    private Map[] records;
+    private List<FilterFunction<Map>> filters;
+    private TableRouteFunction<Map> router;
+
+    @Setup
+    public void setup() {
+        Map<Table, OutputTag<Map>> tagMap = new LinkedHashMap<>();
+        filters = new ArrayList<>(tables);
+        for (int i = 0; i < tables; i++) {
+            Table table = Table.build("table_" + i, "db_" + (i % SCHEMAS));
+            tagMap.put(table, TableRouteFunction.createTag(table));
+            filters.add(shunt(table));
+        }
+        router = TableRouteFunction.of(tagMap, SCHEMA_FIELD_NAME);
+
+        Random random = new Random(42);
+        records = new Map[RECORDS];
+        for (int i = 0; i < RECORDS; i++) {
+            int table = random.nextInt(tables);
+            LinkedHashMap<String, Object> source = new LinkedHashMap<>();
+            source.put(SCHEMA_FIELD_NAME, "db_" + (table % SCHEMAS));
+            source.put("table", "table_" + table);
+            LinkedHashMap<String, Object> record = new LinkedHashMap<>();
+            record.put("source", source);
+            record.put("op", "c");
+            records[i] = record;
+        }
+    }
+
+    /** The filter each table had on the shared stream */
+    private static FilterFunction<Map> shunt(Table table) {
+        final String tableName = table.getName();
+        final String schemaName = table.getSchema();
+        return value -> {
+            LinkedHashMap source = (LinkedHashMap) value.get("source");
+            return tableName.equals(source.get("table").toString())
+                    && schemaName.equals(source.get(SCHEMA_FIELD_NAME).toString());
+        };
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(RECORDS)
+    public void filters(Blackhole blackhole) throws Exception {
+        for (Map record : records) {
+            for (FilterFunction<Map> filter : filters) {
+                if (filter.filter(record)) {
+                    blackhole.consume(record);
+                }
+            }
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(RECORDS)
+    public void router(Blackhole blackhole) {
+        for (Map record : records) {
+            blackhole.consume(router.route(record));
+        }
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                        .include(TableRouteFunctionBenchmark.class.getSimpleName())
+                        .build())
+                .run();
+    }
+}
@@ -0,0 +1,181 @@
+/*
+ *
+ *  Licensed to the Apache Software Foundation (ASF) under one or more
+ *  contributor license agreements.  See the NOTICE file distributed with
+ *  this work for additional information regarding copyright ownership.
+ *  The ASF licenses this file to You under the Apache License, Version 2.0
+ *  (the "License"); you may not use this file except in compliance with
+ *  the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+
+package org.dinky.cdc;
+
+import org.dinky.cdc.sql.SQLSinkBuilder;
+import org.dinky.data.model.Table;
+
+import org.apache.flink.streaming.api.TimerService;
+import org.apache.flink.table.data.GenericRowData;
+import org.apache.flink.table.data.RowData;
+import org.apache.flink.table.types.logical.BigIntType;
+import org.apache.flink.table.types.logical.IntType;
+import org.apache.flink.table.types.logical.VarCharType;
+import org.apache.flink.types.RowKind;
+import org.apache.flink.util.Collector;
+import org.apache.flink.util.OutputTag;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class TableRouteFunctionTest {
+
+    private static Map<String, Object> record(String db, String table) {
+        Map<String, Object> source = new LinkedHashMap<>();
+        source.put("db", db);
+        source.put("table", table);
+        Map<String, Object> record = new LinkedHashMap<>();
+        record.put("source", source);
+        record.put("op", "c");
+        return record;
+    }
+
+    @Test
+    @SuppressWarnings("rawtypes")
+    public void routeTest() throws Exception {
+        Table users = Table.build("users", "app");
+        Table orders = Table.build("orders", "app");
+        Table logUsers = Table.build("users", "log");
+        Map<Table, OutputTag<Map>> tagMap = new LinkedHashMap<>();
+        for (Table table : new Table[] {users, orders, logUsers}) {
+            tagMap.put(table, TableRouteFunction.createTag(table));
+        }
+        TableRouteFunction<Map> function = TableRouteFunction.of(tagMap, "db");
+
+        Map<String, List<Map>> outputs = new HashMap<>();
+        List<Map> unrouted = new ArrayList<>();
+        TableRouteFunction<Map>.Context ctx = function.new Context() {
+
+            @Override
+            public Long timestamp() {
+                return null;
+            }
+
+            @Override
+            public TimerService timerService() {
+                return null;
+            }
+
+            @Override
+            public <X> void output(OutputTag<X> outputTag, X value) {
+                outputs.computeIfAbsent(outputTag.getId(), k -> new ArrayList<>())
+                        .add((Map) value);
+            }
+        };
+        Collector<Map> out = new Collector<Map>() {
+
+            @Override
+            public void collect(Map record) {
+                unrouted.add(record);
+            }
+
+            @Override
+            public void close() {}
+        };
+
+        function.processElement(record("app", "users"), ctx, out);
+        function.processElement(record("app", "orders"), ctx, out);
+        function.processElement(record("log", "users"), ctx, out);
+        function.processElement(record("app", "users"), ctx, out);
+        function.processElement(record("app", "items"), ctx, out);
+        function.processElement(new HashMap<>(), ctx, out);
+
+        Assert.assertEquals(2, outputs.get("app.users").size());
+        Assert.assertEquals(1, outputs.get("app.orders").size());
+        Assert.assertEquals(1, outputs.get("log.users").size());
+        Assert.assertEquals(2, unrouted.size());
+    }
+
+    @Test
+    @SuppressWarnings("rawtypes")
+    public void routeByNameTest() {
+        Table orders = Table.build("orders", "app");
+        Map<String, OutputTag<Map>> namedTagMap = new HashMap<>();
+        namedTagMap.put(orders.getSchemaTableName(), TableRouteFunction.createTag(orders));
+        // The shards of a table are routed to the tag of the table
+        TableRouteFunction<Map> function = TableRouteFunction.byName(
+                namedTagMap,
+                source -> source.get("db").toString().replaceAll("_[0-9]+$", "") + "."
+                        + source.get("table").toString().replaceAll("_[0-9]+$", ""));
+
+        Assert.assertEquals(
+                "app.orders", function.route(record("app_1", "orders_12")).getId());
+        Assert.assertEquals(
+                "app.orders", function.route(record("app", "orders")).getId());
+        Assert.assertNull(function.route(record("app", "users_1")));
+    }
+
+    @Test
+    public void rowDataRouteTest() throws Exception {
+        Table users = Table.build("users", "app");
+        Table orders = Table.build("orders", "app");
+        SQLSinkBuilder builder = new SQLSinkBuilder();
+        Map<Table, OutputTag<RowData>> tagMap = new LinkedHashMap<>();
+        Map<Table, AbstractSinkBuilder.RowConverter> converterMap = new HashMap<>();
+        tagMap.put(users, RowDataRouteFunction.createTag(users));
+        converterMap.put(
+                users,
+                builder.new RowConverter(Arrays.asList("id", "name"), Arrays.asList(new IntType(), new VarCharType())));
+        tagMap.put(orders, RowDataRouteFunction.createTag(orders));
+        converterMap.put(
+                orders,
+                builder
+                .new RowConverter(Arrays.asList("id", "amount"), Arrays.asList(new IntType(), new BigIntType())));
+        RowDataRouteFunction function = new RowDataRouteFunction(tagMap, converterMap, "db");
+
+        List<String> tags = new ArrayList<>();
+        List<RowData> rows = new ArrayList<>();
+        // The images come before the source, the fields not in the table are skipped
+        function.route(
+                "{\"before\":{\"id\":1,\"name\":\"a\",\"tags\":[1,{\"b\":2}]},"
+                        + "\"after\":{\"id\":1,\"name\":null,\"amount\":7},"
+                        + "\"source\":{\"db\":\"app\",\"table\":\"users\"},\"op\":\"u\"}",
+                (tag, row) -> {
+                    tags.add(tag.getId());
+                    rows.add(row);
+                });
+        function.route(
+                "{\"before\":null,\"after\":{\"id\":2,\"name\":\"b\",\"amount\":7},"
+                        + "\"source\":{\"db\":\"app\",\"table\":\"orders\"},\"op\":\"c\"}",
+                (tag, row) -> {
+                    tags.add(tag.getId());
+                    rows.add(row);
+                });
+        function.route(
+                "{\"after\":{\"id\":3},\"source\":{\"db\":\"app\",\"table\":\"items\"},\"op\":\"c\"}",
+                (tag, row) -> Assert.fail("The table is not routed"));
+
+        Assert.assertEquals(Arrays.asList("app.users", "app.users", "app.orders"), tags);
+        Assert.assertEquals(RowKind.UPDATE_BEFORE, rows.get(0).getRowKind());
+        Assert.assertEquals("a", ((GenericRowData) rows.get(0)).getField(1));
+        Assert.assertEquals(RowKind.UPDATE_AFTER, rows.get(1).getRowKind());
+        Assert.assertNull(((GenericRowData) rows.get(1)).getField(1));
+        Assert.assertEquals(RowKind.INSERT, rows.get(2).getRowKind());
+        Assert.assertEquals(2, ((GenericRowData) rows.get(2)).getField(0));
+        Assert.assertEquals(7L, ((GenericRowData) rows.get(2)).getField(1));
+    }
+}
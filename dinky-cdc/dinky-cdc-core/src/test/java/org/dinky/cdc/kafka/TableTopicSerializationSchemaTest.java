@@ -0,0 +1,107 @@
+/*
+ *
+ *  Licensed to the Apache Software Foundation (ASF) under one or more
+ *  contributor license agreements.  See the NOTICE file distributed with
+ *  this work for additional information regarding copyright ownership.
+ *  The ASF licenses this file to You under the Apache License, Version 2.0
+ *  (the "License"); you may not use this file except in compliance with
+ *  the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+
+package org.dinky.cdc.kafka;
+
+import org.dinky.data.model.Column;
+import org.dinky.data.model.Table;
+
+import org.apache.kafka.clients.producer.ProducerRecord;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class TableTopicSerializationSchemaTest {
+
+    private static Map<String, Object> record(String db, String table, String op, Map<String, Object> data) {
+        Map<String, Object> source = new LinkedHashMap<>();
+        source.put("db", db);
+        source.put("table", table);
+        Map<String, Object> record = new LinkedHashMap<>();
+        record.put("source", source);
+        record.put("op", op);
+        record.put("d".equals(op) ? "before" : "after", data);
+        return record;
+    }
+
+    private static Map<String, Object> row(int id, String name) {
+        Map<String, Object> row = new LinkedHashMap<>();
+        row.put("id", id);
+        row.put("name", name);
+        return row;
+    }
+
+    @Test
+    @SuppressWarnings("rawtypes")
+    public void serializeTest() {
+        Table orders = Table.build("orders");
+        orders.setSchema("shop");
+        orders.setColumns(Arrays.asList(
+                Column.builder().name("id").keyFlag(true).build(),
+                Column.builder().name("name").build()));
+        Table logs = Table.build("logs");
+        logs.setSchema("shop");
+        logs.setColumns(Collections.singletonList(Column.builder().name("name").build()));
+        Map<Table, String> topicMap = new HashMap<>();
+        topicMap.put(orders, "shop_orders");
+        topicMap.put(logs, "shop_logs");
+        TableTopicSerializationSchema schema = new TableTopicSerializationSchema(topicMap, "db", 4);
+        schema.open(null, null);
+
+        Map insert = record("shop", "orders", "c", row(1, "a"));
+        ProducerRecord<byte[], byte[]> producerRecord = schema.serialize(insert, null, null);
+        Assert.assertEquals("shop_orders", producerRecord.topic());
+        Assert.assertEquals("{\"id\":1}", new String(producerRecord.key(), StandardCharsets.UTF_8));
+        Assert.assertTrue(new String(producerRecord.value(), StandardCharsets.UTF_8).contains("\"name\":\"a\""));
+
+        // The delete of a row has the key of its insert
+        Map delete = record("shop", "orders", "d", row(1, "a"));
+        Assert.assertArrayEquals(
+                producerRecord.key(), schema.serialize(delete, null, null).key());
+        Assert.assertEquals(schema.getPartitionKey(insert), schema.getPartitionKey(delete));
+        Assert.assertNotEquals(
+                schema.getPartitionKey(insert), schema.getPartitionKey(record("shop", "orders", "c", row(2, "b"))));
+
+        Map log = record("shop", "logs", "c", row(1, "a"));
+        Assert.assertNull(schema.serialize(log, null, null).key());
+        Assert.assertTrue(schema.getPartitionKey(log).startsWith("shop_logs#"));
+        Assert.assertEquals(
+                schema.getPartitionKey(log), schema.getPartitionKey(record("shop", "logs", "c", row(1, "a"))));
+
+        // The rows of a table without primary key are spread over the salt buckets only
+        Set<String> partitionKeys = new HashSet<>();
+        for (int i = 0; i < 100; i++) {
+            partitionKeys.add(schema.getPartitionKey(record("shop", "logs", "c", row(i, "a" + i))));
+        }
+        Assert.assertEquals(4, partitionKeys.size());
+
+        Assert.assertTrue(schema.accepts(insert));
+        Assert.assertFalse(schema.accepts(record("shop", "users", "c", row(1, "a"))));
+        Assert.assertFalse(schema.accepts(record("crm", "orders", "c", row(1, "a"))));
+    }
+}
@@ -23,6 +23,7 @@ import org.dinky.assertion.Asserts;
 import org.dinky.cdc.AbstractSinkBuilder;
 import org.dinky.cdc.CDCBuilder;
 import org.dinky.cdc.SinkBuilder;
+import org.dinky.cdc.TableRouteFunction;
 import org.dinky.data.model.FlinkCDCConfig;
 import org.dinky.data.model.Schema;
 import org.dinky.data.model.Table;
@@ -36,17 +37,13 @@ import org.apache.doris.flink.sink.writer.serializer.JsonDebeziumSchemaSerialize
 import org.apache.flink.streaming.api.datastream.DataStreamSource;
 import org.apache.flink.streaming.api.datastream.SingleOutputStreamOperator;
 import org.apache.flink.streaming.api.environment.StreamExecutionEnvironment;
-import org.apache.flink.streaming.api.functions.ProcessFunction;
-import org.apache.flink.util.Collector;
 import org.apache.flink.util.OutputTag;
 
 import java.io.Serializable;
 import java.util.HashMap;
-import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Properties;
-import java.util.UUID;
 
 public class DorisSchemaEvolutionSinkBuilder extends AbstractSinkBuilder implements Serializable {
 
@@ -93,31 +90,17 @@ public class DorisSchemaEvolutionSinkBuilder extends AbstractSinkBuilder impleme
         final String schemaFieldName = config.getSchemaFieldName();
 
         Map<Table, OutputTag<String>> tagMap = new HashMap<>();
-        Map<String, Table> tableMap = new HashMap<>();
         for (Schema schema : schemaList) {
             for (Table table : schema.getTables()) {
                 OutputTag<String> outputTag = new OutputTag<String>(getSinkTableName(table)) {};
                 tagMap.put(table, outputTag);
-                tableMap.put(table.getSchemaTableName(), table);
             }
         }
 
-        SingleOutputStreamOperator<String> process = mapOperator.process(new ProcessFunction<Map, String>() {
-
-            @Override
-            public void processElement(Map map, Context ctx, Collector<String> out) throws Exception {
-                LinkedHashMap source = (LinkedHashMap) map.get("source");
-                String result = objectMapper.writeValueAsString(map);
-                try {
-                    Table table = tableMap.get(source.get(schemaFieldName).toString()
-                            + "."
-                            + source.get("table").toString());
-                    ctx.output(tagMap.get(table), result);
-                } catch (Exception e) {
-                    out.collect(result);
-                }
-            }
-        });
+        SingleOutputStreamOperator<String> process = mapOperator
+                .process(new TableRouteFunction<>(tagMap, schemaFieldName, objectMapper::writeValueAsString))
+                .returns(String.class)
+                .name("TableRoute");
 
         tagMap.forEach((table, v) -> {
             DorisOptions dorisOptions = DorisOptions.builder()
@@ -150,7 +133,8 @@ public class DorisSchemaEvolutionSinkBuilder extends AbstractSinkBuilder impleme
                         getSinkSchemaName(table),
                         getSinkTableName(table)));
             } else {
-                // flink-cdc-pipeline-connector-doris 3.0.0 以上版本内部已经拼接了 SchemaName + SinkTableName，并且约定 TableLabel 正则表达式如下 --> regex: ^[-_A-Za-z0-9]{1,128}$
+                // flink-cdc-pipeline-connector-doris 3.0.0 以上版本内部已经拼接了 SchemaName + SinkTableName，并且约定 TableLabel
+                // 正则表达式如下 --> regex: ^[-_A-Za-z0-9]{1,128}$
                 executionBuilder.setLabelPrefix("dinky");
             }
 
@@ -160,11 +144,13 @@ public class DorisSchemaEvolutionSinkBuilder extends AbstractSinkBuilder impleme
 
             executionBuilder.setStreamLoadProp(properties).setDeletable(true);
 
-            JsonDebeziumSchemaSerializer.Builder jsonDebeziumSchemaSerializerBuilder = JsonDebeziumSchemaSerializer.builder();
+            JsonDebeziumSchemaSerializer.Builder jsonDebeziumSchemaSerializerBuilder =
+                    JsonDebeziumSchemaSerializer.builder();
 
             // use new schema change
             if (sink.containsKey(DorisSinkOptions.SINK_USE_NEW_SCHEMA_CHANGE.key())) {
-                jsonDebeziumSchemaSerializerBuilder.setNewSchemaChange(Boolean.valueOf(sink.get(DorisSinkOptions.SINK_USE_NEW_SCHEMA_CHANGE.key())));
+                jsonDebeziumSchemaSerializerBuilder.setNewSchemaChange(
+                        Boolean.valueOf(sink.get(DorisSinkOptions.SINK_USE_NEW_SCHEMA_CHANGE.key())));
             }
 
             DorisSink.Builder<String> builder = DorisSink.builder();
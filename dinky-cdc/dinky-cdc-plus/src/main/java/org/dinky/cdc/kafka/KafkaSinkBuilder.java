@@ -23,12 +23,14 @@ import org.dinky.assertion.Asserts;
 import org.dinky.cdc.AbstractSinkBuilder;
 import org.dinky.cdc.CDCBuilder;
 import org.dinky.cdc.SinkBuilder;
+import org.dinky.cdc.TableRouteFunction;
 import org.dinky.data.model.FlinkCDCConfig;
 import org.dinky.data.model.Schema;
 import org.dinky.data.model.Table;
 import org.dinky.executor.CustomTableEnvironment;
 
 import org.apache.flink.api.common.serialization.SimpleStringSchema;
+import org.apache.flink.api.common.typeinfo.Types;
 import org.apache.flink.connector.base.DeliveryGuarantee;
 import org.apache.flink.connector.kafka.sink.KafkaRecordSerializationSchema;
 import org.apache.flink.connector.kafka.sink.KafkaSink;
@@ -36,13 +38,10 @@ import org.apache.flink.shaded.jackson2.com.fasterxml.jackson.databind.ObjectMap
 import org.apache.flink.streaming.api.datastream.DataStreamSource;
 import org.apache.flink.streaming.api.datastream.SingleOutputStreamOperator;
 import org.apache.flink.streaming.api.environment.StreamExecutionEnvironment;
-import org.apache.flink.streaming.api.functions.ProcessFunction;
-import org.apache.flink.util.Collector;
 import org.apache.flink.util.OutputTag;
 
 import java.io.Serializable;
 import java.util.HashMap;
-import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Properties;
@@ -96,9 +95,11 @@ public class KafkaSinkBuilder extends AbstractSinkBuilder implements Serializabl
             }
             KafkaSink<String> kafkaSink = kafkaSinkBuilder.build();
             dataStreamSource.sinkTo(kafkaSink);
+        } else if (KafkaMultiplexSink.isEnabled(config)) {
+            KafkaMultiplexSink.sinkTo(
+                    config, env, deserialize(dataStreamSource), this::getSinkTableName, kafkaProducerConfig);
         } else {
             Map<Table, OutputTag<String>> tagMap = new HashMap<>();
-            Map<String, Table> tableMap = new HashMap<>();
             ObjectMapper objectMapper = new ObjectMapper();
             SingleOutputStreamOperator<Map> mapOperator = dataStreamSource
                     .map(x -> objectMapper.readValue(x, Map.class))
@@ -108,32 +109,12 @@ public class KafkaSinkBuilder extends AbstractSinkBuilder implements Serializabl
             if (Asserts.isNotNullCollection(schemaList)) {
                 for (Schema schema : schemaList) {
                     for (Table table : schema.getTables()) {
-                        String sinkTableName = getSinkTableName(table);
-                        OutputTag<String> outputTag = new OutputTag<String>(sinkTableName) {};
-                        tagMap.put(table, outputTag);
-                        tableMap.put(table.getSchemaTableName(), table);
+                        tagMap.put(table, new OutputTag<>(table.getSchemaTableName(), Types.STRING));
                     }
                 }
-                SingleOutputStreamOperator<String> process = mapOperator.process(new ProcessFunction<Map, String>() {
-
-                    @Override
-                    public void processElement(Map map, ProcessFunction<Map, String>.Context ctx, Collector<String> out)
-                            throws Exception {
-                        LinkedHashMap source = (LinkedHashMap) map.get("source");
-                        try {
-                            String result = objectMapper.writeValueAsString(map);
-                            Table table =
-                                    tableMap.get(source.get(schemaFieldName).toString()
-                                            + "."
-                                            + source.get("table").toString());
-                            OutputTag<String> outputTag = tagMap.get(table);
-                            ctx.output(outputTag, result);
-                        } catch (Exception e) {
-                            out.collect(objectMapper.writeValueAsString(map));
-                        }
-                    }
-                });
-
+                SingleOutputStreamOperator<String> process = mapOperator
+                        .process(new TableRouteFunction<>(tagMap, schemaFieldName, objectMapper::writeValueAsString))
+                        .name("TableRoute");
                 tagMap.forEach((k, v) -> {
                     String topic = getSinkTableName(k);
                     org.apache.flink.connector.kafka.sink.KafkaSinkBuilder<String> kafkaSinkBuilder =
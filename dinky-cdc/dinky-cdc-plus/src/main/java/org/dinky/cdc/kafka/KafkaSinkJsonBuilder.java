@@ -23,15 +23,16 @@ import org.dinky.assertion.Asserts;
 import org.dinky.cdc.AbstractSinkBuilder;
 import org.dinky.cdc.CDCBuilder;
 import org.dinky.cdc.SinkBuilder;
+import org.dinky.cdc.TableRouteFunction;
 import org.dinky.data.model.FlinkCDCConfig;
 import org.dinky.data.model.Schema;
 import org.dinky.data.model.Table;
 import org.dinky.executor.CustomTableEnvironment;
 import org.dinky.utils.ObjectConvertUtil;
 
-import org.apache.flink.api.common.functions.FilterFunction;
 import org.apache.flink.api.common.functions.MapFunction;
 import org.apache.flink.api.common.serialization.SimpleStringSchema;
+import org.apache.flink.streaming.api.datastream.DataStream;
 import org.apache.flink.streaming.api.datastream.DataStreamSource;
 import org.apache.flink.streaming.api.datastream.SingleOutputStreamOperator;
 import org.apache.flink.streaming.api.environment.StreamExecutionEnvironment;
@@ -39,6 +40,7 @@ import org.apache.flink.streaming.api.functions.ProcessFunction;
 import org.apache.flink.streaming.connectors.kafka.FlinkKafkaProducer;
 import org.apache.flink.table.types.logical.LogicalType;
 import org.apache.flink.util.Collector;
+import org.apache.flink.util.OutputTag;
 
 import java.io.Serializable;
 import java.time.LocalDateTime;
@@ -90,15 +92,18 @@ public class KafkaSinkJsonBuilder extends AbstractSinkBuilder implements Seriali
                 return dataStreamSource;
             }
 
+            Map<Table, OutputTag<Map>> tagMap = new LinkedHashMap<>();
+            for (Schema schema : schemaList) {
+                for (Table table : schema.getTables()) {
+                    tagMap.put(table, TableRouteFunction.createTag(table));
+                }
+            }
+            SingleOutputStreamOperator<Map> routeOperator = route(mapOperator, tagMap, schemaFieldName);
             for (Schema schema : schemaList) {
                 for (Table table : schema.getTables()) {
                     final String tableName = table.getName();
                     final String schemaName = table.getSchema();
-                    SingleOutputStreamOperator<Map> filterOperator = mapOperator.filter((FilterFunction<Map>) value -> {
-                        LinkedHashMap source = (LinkedHashMap) value.get("source");
-                        return tableName.equals(source.get("table").toString())
-                                && schemaName.equals(source.get(schemaFieldName).toString());
-                    });
+                    DataStream<Map> filterOperator = routeOperator.getSideOutput(tagMap.get(table));
                     String topic = getSinkTableName(table);
                     if (Asserts.isNotNullString(config.getSink().get("topic"))) {
                         topic = config.getSink().get("topic");
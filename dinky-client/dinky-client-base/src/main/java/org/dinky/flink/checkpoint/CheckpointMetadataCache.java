@@ -0,0 +1,115 @@
+/*
+ *
+ *  Licensed to the Apache Software Foundation (ASF) under one or more
+ *  contributor license agreements.  See the NOTICE file distributed with
+ *  this work for additional information regarding copyright ownership.
+ *  The ASF licenses this file to You under the Apache License, Version 2.0
+ *  (the "License"); you may not use this file except in compliance with
+ *  the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+
+package org.dinky.flink.checkpoint;
+
+import org.dinky.data.model.CheckPointStateInfo;
+
+import org.apache.flink.runtime.checkpoint.metadata.CheckpointMetadata;
+import org.apache.flink.state.api.runtime.SavepointLoader;
+
+import java.io.IOException;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * The parsed metadata of the recently read checkpoints, and the states of their operators with their entry counts and
+ * the indexes of their keyed states. A completed checkpoint
+ * never changes, so the least recently read checkpoints are evicted but nothing expires. The number of checkpoints
+ * kept can be set with the system property {@code dinky.checkpoint.cache-size}.
+ */
+final class CheckpointMetadataCache {
+
+    private static final int MAX_SIZE = Integer.getInteger("dinky.checkpoint.cache-size", 16);
+
+    private static final Map<String, CachedCheckpoint> CACHE =
+            new LinkedHashMap<String, CachedCheckpoint>(16, 0.75f, true) {
+
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, CachedCheckpoint> eldest) {
+                    return size() > MAX_SIZE;
+                }
+            };
+
+    private CheckpointMetadataCache() {}
+
+    static CachedCheckpoint get(String path) throws IOException {
+        String key = path.trim().replaceAll("/+$", "");
+        synchronized (CACHE) {
+            CachedCheckpoint cached = CACHE.get(key);
+            if (cached != null) {
+                return cached;
+            }
+        }
+        // Load outside of the lock, a slow file system should not block the reads of the other checkpoints
+        CachedCheckpoint loaded = new CachedCheckpoint(SavepointLoader.loadSavepointMetadata(path));
+        synchronized (CACHE) {
+            CachedCheckpoint cached = CACHE.putIfAbsent(key, loaded);
+            return cached == null ? loaded : cached;
+        }
+    }
+
+    static final class CachedCheckpoint {
+        private final CheckpointMetadata metadata;
+
+        /** operator id -> states of the operator */
+        private final Map<String, List<CheckPointStateInfo>> states = new ConcurrentHashMap<>();
+
+        /** operator id, state name and subtask -> number of entries of an operator state */
+        private final Map<String, Long> counts = new ConcurrentHashMap<>();
+
+        /** operator id, state name and subtask -> index of a keyed state */
+        private final Map<String, KeyedStateReader.Index> keyedIndexes = new ConcurrentHashMap<>();
+
+        private CachedCheckpoint(CheckpointMetadata metadata) {
+            this.metadata = metadata;
+        }
+
+        CheckpointMetadata getMetadata() {
+            return metadata;
+        }
+
+        List<CheckPointStateInfo> getStates(String operatorId) {
+            return states.get(operatorId);
+        }
+
+        void putStates(String operatorId, List<CheckPointStateInfo> operatorStates) {
+            states.put(operatorId, Collections.unmodifiableList(operatorStates));
+        }
+
+        Long getCount(String operatorId, String stateName, int subtask) {
+            return counts.get(operatorId + "/" + stateName + "/" + subtask);
+        }
+
+        void putCount(String operatorId, String stateName, int subtask, long count) {
+            counts.put(operatorId + "/" + stateName + "/" + subtask, count);
+        }
+
+        KeyedStateReader.Index getKeyedIndex(String operatorId, String stateName, int subtask) {
+            return keyedIndexes.get(operatorId + "/" + stateName + "/" + subtask);
+        }
+
+        void putKeyedIndex(String operatorId, String stateName, int subtask, KeyedStateReader.Index index) {
+            keyedIndexes.put(operatorId + "/" + stateName + "/" + subtask, index);
+        }
+    }
+}
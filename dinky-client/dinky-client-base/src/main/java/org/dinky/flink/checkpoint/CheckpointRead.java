@@ -20,132 +20,260 @@
 package org.dinky.flink.checkpoint;
 
 import org.dinky.data.model.CheckPointReadTable;
+import org.dinky.data.model.CheckPointStateInfo;
+import org.dinky.data.model.CheckPointStatePage;
 
-import org.apache.flink.api.common.typeutils.TypeSerializer;
-import org.apache.flink.api.common.typeutils.TypeSerializerSnapshot;
-import org.apache.flink.api.java.ExecutionEnvironment;
-import org.apache.flink.core.fs.FSDataInputStream;
-import org.apache.flink.core.memory.DataInputView;
-import org.apache.flink.core.memory.DataInputViewStreamWrapper;
 import org.apache.flink.runtime.checkpoint.OperatorState;
 import org.apache.flink.runtime.checkpoint.OperatorSubtaskState;
-import org.apache.flink.runtime.checkpoint.StateObjectCollection;
 import org.apache.flink.runtime.jobgraph.JobVertexID;
 import org.apache.flink.runtime.jobgraph.OperatorID;
-import org.apache.flink.runtime.state.OperatorBackendSerializationProxy;
-import org.apache.flink.runtime.state.OperatorStateHandle;
-import org.apache.flink.runtime.state.PartitionableListState;
-import org.apache.flink.runtime.state.RegisteredOperatorStateBackendMetaInfo;
-import org.apache.flink.runtime.state.hashmap.HashMapStateBackend;
-import org.apache.flink.runtime.state.metainfo.StateMetaInfoSnapshot;
-import org.apache.flink.state.api.ExistingSavepoint;
-import org.apache.flink.state.api.Savepoint;
-import org.apache.flink.state.api.runtime.metadata.SavepointMetadata;
 
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
 
-import cn.hutool.core.collection.CollUtil;
-import cn.hutool.core.util.ReflectUtil;
-
+/**
+ * Reads the states of an operator in a checkpoint page by page. The state handles of the subtasks are read in
+ * parallel, only the entries of the requested page are deserialized, and the metadata of a checkpoint and the entry
+ * counts of its states are cached by {@link CheckpointMetadataCache}.
+ *
+ * <p>The number of state handles read at the same time can be set with the system property
+ * {@code dinky.checkpoint.read-parallelism}.
+ */
 public class CheckpointRead implements CheckpointReadInterface {
+
+    public static final int MAX_LIMIT = 1000;
+
+    private static final int PARALLELISM = Integer.getInteger(
+            "dinky.checkpoint.read-parallelism",
+            Math.min(16, Runtime.getRuntime().availableProcessors() * 2));
+
+    private static final AtomicInteger THREAD_INDEX = new AtomicInteger(0);
+
+    private static final ThreadPoolExecutor EXECUTOR =
+            new ThreadPoolExecutor(PARALLELISM, PARALLELISM, 60, TimeUnit.SECONDS, new LinkedBlockingQueue<>(), r -> {
+                Thread thread = new Thread(r, "CheckpointRead-" + THREAD_INDEX.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            });
+
+    static {
+        EXECUTOR.allowCoreThreadTimeOut(true);
+    }
+
+    /** Reads the first {@link #MAX_LIMIT} entries of every operator state of the operator */
     @Override
     public Map<String, Map<String, CheckPointReadTable>> readCheckpoint(String path, String operatorId) {
-        ClassLoader restoreClassLoader = Thread.currentThread().getContextClassLoader();
+        Map<String, CheckPointReadTable> tables = new LinkedHashMap<>();
+        for (CheckPointStateInfo state : listStates(path, operatorId)) {
+            if (!CheckPointStateInfo.OPERATOR_STATE.equals(state.getStateType())) {
+                continue;
+            }
+            CheckPointStatePage page = readState(path, operatorId, state.getName(), null, 1, MAX_LIMIT);
+            if (!page.getDatas().isEmpty()) {
+                tables.put(state.getName(), new CheckPointReadTable(page.getHeaders(), page.getDatas()));
+            }
+        }
         Map<String, Map<String, CheckPointReadTable>> result = new LinkedHashMap<>();
-        try {
-            ExistingSavepoint savepoint =
-                    Savepoint.load(ExecutionEnvironment.getExecutionEnvironment(), path, new HashMapStateBackend());
-            List<OperatorState> operatorStateList =
-                    ((SavepointMetadata) ReflectUtil.getFieldValue(savepoint, "metadata")).getExistingOperators();
-            OperatorState existingOperator = operatorStateList.stream()
-                    .filter(operatorState -> operatorState
-                            .getOperatorID()
-                            .equals(OperatorID.fromJobVertexID(JobVertexID.fromHexString(operatorId))))
-                    .findFirst()
-                    .orElseThrow(() -> new IllegalArgumentException("The corresponding operator ID was not found"));
-            Map<Integer, OperatorSubtaskState> subtaskStates = existingOperator.getSubtaskStates();
-            if (CollUtil.isNotEmpty(subtaskStates)) {
-                subtaskStates.forEach((k, v) -> {
-                    StateObjectCollection<OperatorStateHandle> managedOperatorState = v.getManagedOperatorState();
-                    Map<String, CheckPointReadTable> read = readState(restoreClassLoader, managedOperatorState);
-                    result.put("managedOperatorState", read);
-                });
+        result.put(CheckPointStateInfo.OPERATOR_STATE, tables);
+        return result;
+    }
+
+    @Override
+    public List<CheckPointStateInfo> listStates(String path, String operatorId) {
+        CheckpointMetadataCache.CachedCheckpoint checkpoint = getCheckpoint(path);
+        List<CheckPointStateInfo> states = checkpoint.getStates(operatorId);
+        if (states != null) {
+            return states;
+        }
+        ClassLoader restoreClassLoader = Thread.currentThread().getContextClassLoader();
+        OperatorState operatorState = getOperatorState(checkpoint, operatorId);
+        Map<String, String> operatorStates = new LinkedHashMap<>();
+        Map<String, String> keyedStates = new LinkedHashMap<>();
+        KeyedStateReader keyedStateReader = new KeyedStateReader(restoreClassLoader, operatorState.getMaxParallelism());
+        for (OperatorSubtaskState subtaskState : operatorState.getStates()) {
+            OperatorStateReader.collectStates(subtaskState, operatorStates);
+            // The subtasks of an operator have the same keyed states
+            if (keyedStates.isEmpty() && subtaskState.getManagedKeyedState().hasState()) {
+                try {
+                    keyedStateReader.collectStates(subtaskState, keyedStates);
+                } catch (Exception e) {
+                    throw new RuntimeException(e);
+                }
             }
-            return result;
-        } catch (Exception e) {
-            throw new RuntimeException(e);
         }
+        states = new ArrayList<>();
+        for (Map.Entry<String, String> entry : operatorStates.entrySet()) {
+            states.add(new CheckPointStateInfo(entry.getKey(), CheckPointStateInfo.OPERATOR_STATE, entry.getValue()));
+        }
+        for (Map.Entry<String, String> entry : keyedStates.entrySet()) {
+            states.add(new CheckPointStateInfo(entry.getKey(), CheckPointStateInfo.KEYED_STATE, entry.getValue()));
+        }
+        checkpoint.putStates(operatorId, states);
+        return states;
     }
 
-    private static Map<String, CheckPointReadTable> readState(
-            ClassLoader restoreClassLoader, StateObjectCollection<OperatorStateHandle> managedOperatorState) {
-        Map<String, CheckPointReadTable> map = new LinkedHashMap<>();
-        OperatorBackendSerializationProxy backendSerializationProxy =
-                new OperatorBackendSerializationProxy(restoreClassLoader);
-        boolean isRead = false;
-        for (OperatorStateHandle operatorStateHandle : managedOperatorState) {
-            try (FSDataInputStream in =
-                    operatorStateHandle.getDelegateStateHandle().openInputStream()) {
-                if (!isRead) {
-                    backendSerializationProxy.read(new DataInputViewStreamWrapper(in));
-                    isRead = true;
+    @Override
+    public CheckPointStatePage readState(
+            String path, String operatorId, String stateName, Integer subtask, int page, int limit) {
+        if (page < 1 || limit < 1 || limit > MAX_LIMIT) {
+            throw new IllegalArgumentException(
+                    String.format("The page should start from 1 and the limit should be between 1 and %d", MAX_LIMIT));
+        }
+        ClassLoader restoreClassLoader = Thread.currentThread().getContextClassLoader();
+        CheckpointMetadataCache.CachedCheckpoint checkpoint = getCheckpoint(path);
+        OperatorState operatorState = getOperatorState(checkpoint, operatorId);
+        List<Integer> subtasks = operatorState.getSubtaskStates().keySet().stream()
+                .filter(index -> subtask == null || subtask.equals(index))
+                .sorted()
+                .collect(Collectors.toList());
+        CheckPointStateInfo state = listStates(path, operatorId).stream()
+                .filter(info -> info.getName().equals(stateName))
+                .findFirst()
+                .orElseThrow(() -> new IllegalArgumentException("The state " + stateName + " was not found"));
+        boolean keyed = CheckPointStateInfo.KEYED_STATE.equals(state.getStateType());
+        KeyedStateReader keyedStateReader = new KeyedStateReader(restoreClassLoader, operatorState.getMaxParallelism());
+
+        // Count the entries of every subtask, the keyed states are scanned once to be counted and indexed
+        List<Callable<Long>> countTasks = new ArrayList<>(subtasks.size());
+        for (Integer index : subtasks) {
+            OperatorSubtaskState subtaskState = operatorState.getState(index);
+            countTasks.add(() -> {
+                if (keyed) {
+                    return getKeyedIndex(checkpoint, keyedStateReader, subtaskState, operatorId, stateName, index)
+                            .getCount();
+                }
+                Long count = checkpoint.getCount(operatorId, stateName, index);
+                if (count == null) {
+                    count = OperatorStateReader.count(subtaskState, stateName);
+                    checkpoint.putCount(operatorId, stateName, index, count);
                 }
+                return count;
+            });
+        }
+        List<Long> counts = invokeAll(restoreClassLoader, countTasks);
+        long total = counts.stream().mapToLong(Long::longValue).sum();
 
-                operatorStateHandle.getStateNameToPartitionOffsets().forEach((key, value) -> {
-                    try {
-                        List<StateMetaInfoSnapshot> restoredOperatorMetaInfoSnapshots =
-                                backendSerializationProxy.getOperatorStateMetaInfoSnapshots();
-                        for (StateMetaInfoSnapshot stateMetaInfoSnapshot : restoredOperatorMetaInfoSnapshots) {
-                            String name = stateMetaInfoSnapshot.getName();
-                            if (!name.equals(key)) {
-                                continue;
-                            }
-                            TypeSerializerSnapshot<?> valueSerializer = stateMetaInfoSnapshot
-                                    .getSerializerSnapshotsImmutable()
-                                    .get("VALUE_SERIALIZER");
-
-                            PartitionableListState<?> partitionableListState = ReflectUtil.newInstance(
-                                    PartitionableListState.class,
-                                    new RegisteredOperatorStateBackendMetaInfo<>(stateMetaInfoSnapshot));
-                            ;
-                            deserializeOperatorStateValues(partitionableListState, in, value);
-                            // get checkpoint data
-                            CheckpointReadFactory.getTable(partitionableListState)
-                                    .ifPresent(tableVO -> map.put(key, tableVO));
-                            break;
-                        }
-
-                    } catch (Exception e) {
-                        throw new RuntimeException(e);
-                    }
-                });
-            } catch (IOException e) {
-                throw new RuntimeException(e);
+        // Read the slices of the subtasks the page spans
+        List<Callable<CheckPointReadTable>> readTasks = new ArrayList<>();
+        long skip = (long) (page - 1) * limit;
+        int remaining = limit;
+        for (int i = 0; i < subtasks.size() && remaining > 0; i++) {
+            if (skip >= counts.get(i)) {
+                skip -= counts.get(i);
+                continue;
             }
+            int index = subtasks.get(i);
+            OperatorSubtaskState subtaskState = operatorState.getState(index);
+            long subtaskSkip = skip;
+            int subtaskLimit = (int) Math.min(remaining, counts.get(i) - skip);
+            readTasks.add(() -> {
+                if (!keyed) {
+                    return OperatorStateReader.read(
+                            restoreClassLoader, subtaskState, index, stateName, subtaskSkip, subtaskLimit);
+                }
+                List<Object> rows = new ArrayList<>(subtaskLimit);
+                KeyedStateReader.Index keyedIndex =
+                        getKeyedIndex(checkpoint, keyedStateReader, subtaskState, operatorId, stateName, index);
+                keyedStateReader.read(subtaskState, index, stateName, keyedIndex, subtaskSkip, subtaskLimit, rows);
+                return new CheckPointReadTable(KeyedStateReader.headers(state.getKind()), rows);
+            });
+            remaining -= subtaskLimit;
+            skip = 0;
+        }
+
+        Set<String> headers = new LinkedHashSet<>();
+        List<Object> datas = new ArrayList<>(limit);
+        headers.add("subtask");
+        for (CheckPointReadTable table : invokeAll(restoreClassLoader, readTasks)) {
+            headers.addAll(table.getHeaders());
+            datas.addAll(table.getDatas());
         }
-        return map;
+        return CheckPointStatePage.builder()
+                .stateName(stateName)
+                .stateType(state.getStateType())
+                .headers(new ArrayList<>(headers))
+                .datas(datas)
+                .page(page)
+                .limit(limit)
+                .total(total)
+                .build();
     }
 
-    protected static <S> void deserializeOperatorStateValues(
-            PartitionableListState<S> stateListForName,
-            FSDataInputStream in,
-            OperatorStateHandle.StateMetaInfo metaInfo)
+    private static KeyedStateReader.Index getKeyedIndex(
+            CheckpointMetadataCache.CachedCheckpoint checkpoint,
+            KeyedStateReader keyedStateReader,
+            OperatorSubtaskState subtaskState,
+            String operatorId,
+            String stateName,
+            int subtask)
             throws IOException {
+        KeyedStateReader.Index index = checkpoint.getKeyedIndex(operatorId, stateName, subtask);
+        if (index == null) {
+            index = keyedStateReader.index(subtaskState, stateName);
+            checkpoint.putKeyedIndex(operatorId, stateName, subtask, index);
+        }
+        return index;
+    }
 
-        if (null != metaInfo) {
-            long[] offsets = metaInfo.getOffsets();
-            if (null != offsets) {
-                DataInputView div = new DataInputViewStreamWrapper(in);
-                TypeSerializer<S> serializer =
-                        stateListForName.getStateMetaInfo().getPartitionStateSerializer();
-                for (long offset : offsets) {
-                    in.seek(offset);
-                    stateListForName.add(serializer.deserialize(div));
+    private static CheckpointMetadataCache.CachedCheckpoint getCheckpoint(String path) {
+        try {
+            return CheckpointMetadataCache.get(path);
+        } catch (Exception e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    private static OperatorState getOperatorState(
+            CheckpointMetadataCache.CachedCheckpoint checkpoint, String operatorId) {
+        OperatorID id = OperatorID.fromJobVertexID(JobVertexID.fromHexString(operatorId));
+        return checkpoint.getMetadata().getOperatorStates().stream()
+                .filter(operatorState -> operatorState.getOperatorID().equals(id))
+                .findFirst()
+                .orElseThrow(() -> new IllegalArgumentException("The corresponding operator ID was not found"));
+    }
+
+    /** Run the tasks on the executor with the class loader of the caller, the results are in the order of the tasks */
+    private static <T> List<T> invokeAll(ClassLoader classLoader, List<Callable<T>> tasks) {
+        List<Future<T>> futures = new ArrayList<>(tasks.size());
+        for (Callable<T> task : tasks) {
+            futures.add(EXECUTOR.submit(() -> {
+                Thread thread = Thread.currentThread();
+                ClassLoader original = thread.getContextClassLoader();
+                thread.setContextClassLoader(classLoader);
+                try {
+                    return task.call();
+                } finally {
+                    thread.setContextClassLoader(original);
                 }
+            }));
+        }
+        List<T> results = new ArrayList<>(tasks.size());
+        try {
+            for (Future<T> future : futures) {
+                results.add(future.get());
             }
+            return results;
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            throw cause instanceof RuntimeException ? (RuntimeException) cause : new RuntimeException(cause);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException(e);
+        } finally {
+            futures.forEach(future -> future.cancel(true));
         }
     }
 }
@@ -20,7 +20,10 @@
 package org.dinky.flink.checkpoint;
 
 import org.dinky.data.model.CheckPointReadTable;
+import org.dinky.data.model.CheckPointStateInfo;
+import org.dinky.data.model.CheckPointStatePage;
 
+import java.util.List;
 import java.util.Map;
 
 public interface CheckpointReadInterface {
@@ -33,4 +36,28 @@ public interface CheckpointReadInterface {
     default Map<String, Map<String, CheckPointReadTable>> readCheckpoint(String path, String operatorId) {
         throw new UnsupportedOperationException("readCheckpoint not implemented");
     }
+
+    /**
+     * 列出算子在checkpoint中的状态
+     * @param path Checkpoint路径
+     * @param operatorId 执行id
+     * @return the operator states and the keyed states of the operator
+     */
+    default List<CheckPointStateInfo> listStates(String path, String operatorId) {
+        throw new UnsupportedOperationException("listStates not implemented");
+    }
+
+    /**
+     * 分页读取checkpoint中的一个状态
+     * @param path Checkpoint路径
+     * @param operatorId 执行id
+     * @param stateName 状态名
+     * @param subtask only read the state of this subtask, or null to read the state of all the subtasks
+     * @param page page number, starts from 1
+     * @param limit page size
+     */
+    default CheckPointStatePage readState(
+            String path, String operatorId, String stateName, Integer subtask, int page, int limit) {
+        throw new UnsupportedOperationException("readState not implemented");
+    }
 }
@@ -0,0 +1,514 @@
+/*
+ *
+ *  Licensed to the Apache Software Foundation (ASF) under one or more
+ *  contributor license agreements.  See the NOTICE file distributed with
+ *  this work for additional information regarding copyright ownership.
+ *  The ASF licenses this file to You under the Apache License, Version 2.0
+ *  (the "License"); you may not use this file except in compliance with
+ *  the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+
+package org.dinky.flink.checkpoint;
+
+import org.apache.flink.api.common.typeutils.TypeSerializer;
+import org.apache.flink.api.common.typeutils.base.ListSerializer;
+import org.apache.flink.api.common.typeutils.base.MapSerializer;
+import org.apache.flink.api.common.typeutils.base.array.BytePrimitiveArraySerializer;
+import org.apache.flink.api.java.tuple.Tuple2;
+import org.apache.flink.core.fs.FSDataInputStream;
+import org.apache.flink.core.memory.DataInputDeserializer;
+import org.apache.flink.core.memory.DataInputViewStreamWrapper;
+import org.apache.flink.runtime.checkpoint.OperatorSubtaskState;
+import org.apache.flink.runtime.state.CompositeKeySerializationUtils;
+import org.apache.flink.runtime.state.FullSnapshotUtil;
+import org.apache.flink.runtime.state.KeyGroupsSavepointStateHandle;
+import org.apache.flink.runtime.state.KeyGroupsStateHandle;
+import org.apache.flink.runtime.state.KeyedBackendSerializationProxy;
+import org.apache.flink.runtime.state.KeyedStateHandle;
+import org.apache.flink.runtime.state.SnappyStreamCompressionDecorator;
+import org.apache.flink.runtime.state.StreamCompressionDecorator;
+import org.apache.flink.runtime.state.UncompressedStreamCompressionDecorator;
+import org.apache.flink.runtime.state.metainfo.StateMetaInfoSnapshot;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import cn.hutool.json.JSONObject;
+
+/**
+ * Reads the keyed state of a subtask from its full snapshots, that is the savepoints and the checkpoints of the
+ * hashmap state backend or of rocksdb without incremental checkpoints. The entries are streamed key group by key
+ * group. Counting the entries builds an {@link Index} of the first entry of every key group, so a page starts at the
+ * key group of its first entry instead of the first key, only the entries before it in that key group are skipped,
+ * and the reading stops once enough entries are decoded.
+ */
+final class KeyedStateReader {
+
+    static final String PRIORITY_QUEUE = "PRIORITY_QUEUE";
+
+    private final ClassLoader classLoader;
+    private final int keyGroupPrefixBytes;
+
+    KeyedStateReader(ClassLoader classLoader, int maxParallelism) {
+        this.classLoader = classLoader;
+        this.keyGroupPrefixBytes = CompositeKeySerializationUtils.computeRequiredBytesInKeyGroupPrefix(maxParallelism);
+    }
+
+    static List<String> headers(String kind) {
+        List<String> headers = new ArrayList<>();
+        headers.add("subtask");
+        headers.add("key-group");
+        if (!PRIORITY_QUEUE.equals(kind)) {
+            headers.add("key");
+            headers.add("namespace");
+        }
+        if ("MAP".equals(kind)) {
+            headers.add("user-key");
+        }
+        headers.add("value");
+        return headers;
+    }
+
+    /** The kinds of the keyed states of the subtask by state name */
+    void collectStates(OperatorSubtaskState subtaskState, Map<String, String> states) throws IOException {
+        for (KeyedStateHandle handle : subtaskState.getManagedKeyedState()) {
+            try (FSDataInputStream in = checkFullSnapshot(handle).openInputStream()) {
+                KeyedBackendSerializationProxy<?> proxy = new KeyedBackendSerializationProxy<>(classLoader);
+                proxy.read(new DataInputViewStreamWrapper(in));
+                for (StateMetaInfoSnapshot snapshot : proxy.getStateMetaInfoSnapshots()) {
+                    states.putIfAbsent(snapshot.getName(), kindOf(snapshot));
+                }
+            }
+        }
+    }
+
+    /**
+     * Count the entries of a keyed state of the subtask and index the key groups holding them.
+     */
+    Index index(OperatorSubtaskState subtaskState, String stateName) throws IOException {
+        Scan scan = new Scan(-1, 0, -1, null);
+        scan.index = new IndexBuilder();
+        scan(scan, subtaskState, stateName, 0, 0);
+        return scan.index.build(scan.scanned);
+    }
+
+    /**
+     * Read the entries of a keyed state of the subtask, starting at the key group of the first requested entry.
+     *
+     * @param index the index of the state built by {@link #index}
+     * @param skip the number of entries to skip
+     * @param limit the number of entries to decode
+     * @param rows the decoded entries
+     */
+    void read(
+            OperatorSubtaskState subtaskState,
+            int subtask,
+            String stateName,
+            Index index,
+            long skip,
+            int limit,
+            List<Object> rows)
+            throws IOException {
+        int start = index.find(skip);
+        if (start < 0) {
+            return;
+        }
+        Scan scan = new Scan(subtask, skip, limit, rows);
+        scan.scanned = index.firstEntries[start];
+        scan(scan, subtaskState, stateName, index.handles[start], index.positions[start]);
+    }
+
+    /** Scan from the key group at the position of the handle, the handles before it are not opened */
+    private void scan(
+            Scan scan, OperatorSubtaskState subtaskState, String stateName, int firstHandle, int firstPosition)
+            throws IOException {
+        int handleIndex = 0;
+        for (KeyedStateHandle handle : subtaskState.getManagedKeyedState()) {
+            if (handleIndex >= firstHandle) {
+                int position = handleIndex == firstHandle ? firstPosition : 0;
+                if (!scan(scan, checkFullSnapshot(handle), handleIndex, position, stateName)) {
+                    break;
+                }
+            }
+            handleIndex++;
+        }
+    }
+
+    /** @return false once the scan has decoded enough entries */
+    private boolean scan(Scan scan, KeyGroupsStateHandle handle, int handleIndex, int firstPosition, String stateName)
+            throws IOException {
+        try (FSDataInputStream in = handle.openInputStream()) {
+            KeyedBackendSerializationProxy<?> proxy = new KeyedBackendSerializationProxy<>(classLoader);
+            proxy.read(new DataInputViewStreamWrapper(in));
+            List<StateMetaInfoSnapshot> snapshots = proxy.getStateMetaInfoSnapshots();
+            TypeSerializer<?> keySerializer = proxy.getKeySerializerSnapshot().restoreSerializer();
+            StateDecoder[] decoders = new StateDecoder[snapshots.size()];
+            int stateId = -1;
+            for (int i = 0; i < snapshots.size(); i++) {
+                if (snapshots.get(i).getName().equals(stateName)) {
+                    stateId = i;
+                }
+            }
+            if (stateId < 0) {
+                return true;
+            }
+            StreamCompressionDecorator compression = proxy.isUsingKeyGroupCompression()
+                    ? SnappyStreamCompressionDecorator.INSTANCE
+                    : UncompressedStreamCompressionDecorator.INSTANCE;
+            if (isCanonicalFormat(handle, in)) {
+                decoders[stateId] = new StateDecoder(keySerializer, snapshots.get(stateId));
+                return scanCanonical(
+                        scan, handle, handleIndex, firstPosition, in, compression, stateId, decoders[stateId]);
+            }
+            for (int i = 0; i < snapshots.size(); i++) {
+                decoders[i] = new StateDecoder(keySerializer, snapshots.get(i));
+            }
+            return scanHeap(scan, handle, handleIndex, firstPosition, in, compression, stateId, decoders);
+        }
+    }
+
+    /**
+     * The format of savepoints and of the full snapshots of rocksdb: the non-empty key groups, each a compressed
+     * stream of the serialized keys and values ordered by state, a flag in the first byte of a key tells that a new
+     * state or the end of the key group follows.
+     */
+    private boolean scanCanonical(
+            Scan scan,
+            KeyGroupsStateHandle handle,
+            int handleIndex,
+            int firstPosition,
+            FSDataInputStream in,
+            StreamCompressionDecorator compression,
+            int stateId,
+            StateDecoder decoder)
+            throws IOException {
+        int position = -1;
+        for (Tuple2<Integer, Long> keyGroupOffset : handle.getGroupRangeOffsets()) {
+            position++;
+            if (position < firstPosition || keyGroupOffset.f1 == 0L) {
+                continue;
+            }
+            scan.startKeyGroup(handleIndex, position);
+            int keyGroup = keyGroupOffset.f0;
+            in.seek(keyGroupOffset.f1);
+            try (InputStream keyGroupIn = compression.decorateWithCompression(in)) {
+                DataInputViewStreamWrapper view = new DataInputViewStreamWrapper(keyGroupIn);
+                int kvStateId = view.readShort();
+                boolean keyGroupHasMoreKeys = true;
+                while (keyGroupHasMoreKeys) {
+                    byte[] key = BytePrimitiveArraySerializer.INSTANCE.deserialize(view);
+                    byte[] value = BytePrimitiveArraySerializer.INSTANCE.deserialize(view);
+                    boolean metaDataFollows = FullSnapshotUtil.hasMetaDataFollowsFlag(key);
+                    if (metaDataFollows) {
+                        FullSnapshotUtil.clearMetaDataFollowsFlag(key);
+                    }
+                    if (kvStateId == stateId && !scan.accept(keyGroup, () -> decoder.decode(key, value))) {
+                        return false;
+                    }
+                    if (metaDataFollows) {
+                        kvStateId = FullSnapshotUtil.END_OF_KEY_GROUP_MARK & view.readShort();
+                        keyGroupHasMoreKeys = kvStateId != FullSnapshotUtil.END_OF_KEY_GROUP_MARK;
+                    }
+                }
+            }
+        }
+        return true;
+    }
+
+    /**
+     * The format of the checkpoints of the hashmap state backend: every key group, each its id followed by a
+     * compressed stream of the entries of every state in turn. The entries of the states before the requested one
+     * can only be skipped by deserializing them.
+     */
+    private boolean scanHeap(
+            Scan scan,
+            KeyGroupsStateHandle handle,
+            int handleIndex,
+            int firstPosition,
+            FSDataInputStream in,
+            StreamCompressionDecorator compression,
+            int stateId,
+            StateDecoder[] decoders)
+            throws IOException {
+        DataInputViewStreamWrapper rawView = new DataInputViewStreamWrapper(in);
+        int position = -1;
+        for (Tuple2<Integer, Long> keyGroupOffset : handle.getGroupRangeOffsets()) {
+            position++;
+            if (position < firstPosition) {
+                continue;
+            }
+            scan.startKeyGroup(handleIndex, position);
+            in.seek(keyGroupOffset.f1);
+            int keyGroup = rawView.readInt();
+            for (int i = 0; i < decoders.length; i++) {
+                try (InputStream stateIn = compression.decorateWithCompression(in)) {
+                    DataInputViewStreamWrapper view = new DataInputViewStreamWrapper(stateIn);
+                    StateDecoder decoder = decoders[view.readUnsignedShort()];
+                    int numEntries = view.readInt();
+                    for (int j = 0; j < numEntries; j++) {
+                        RowSupplier row = decoder.read(view);
+                        if (decoder == decoders[stateId] && !scan.accept(keyGroup, row)) {
+                            return false;
+                        }
+                    }
+                }
+            }
+        }
+        return true;
+    }
+
+    private static KeyGroupsStateHandle checkFullSnapshot(KeyedStateHandle handle) {
+        if (!(handle instanceof KeyGroupsStateHandle)) {
+            throw new UnsupportedOperationException(String.format(
+                    "The keyed state is a %s, only full snapshots can be read, please read a savepoint of the job"
+                            + " instead",
+                    handle.getClass().getSimpleName()));
+        }
+        return (KeyGroupsStateHandle) handle;
+    }
+
+    /**
+     * The heap backend writes every key group starting with its id, outside of the compressed stream, while the
+     * full snapshots of rocksdb only write the non-empty key groups starting with a state id or a compression header.
+     */
+    private static boolean isCanonicalFormat(KeyGroupsStateHandle handle, FSDataInputStream in) throws IOException {
+        if (handle instanceof KeyGroupsSavepointStateHandle) {
+            return true;
+        }
+        Tuple2<Integer, Long> last = null;
+        for (Tuple2<Integer, Long> keyGroupOffset : handle.getGroupRangeOffsets()) {
+            if (keyGroupOffset.f1 != 0L) {
+                last = keyGroupOffset;
+            }
+        }
+        if (last == null) {
+            return true;
+        }
+        in.seek(last.f1);
+        return new DataInputViewStreamWrapper(in).readInt() != last.f0;
+    }
+
+    private static String kindOf(StateMetaInfoSnapshot snapshot) {
+        if (snapshot.getBackendStateType() == StateMetaInfoSnapshot.BackendStateType.PRIORITY_QUEUE) {
+            return PRIORITY_QUEUE;
+        }
+        String kind = snapshot.getOption(StateMetaInfoSnapshot.CommonOptionsKeys.KEYED_STATE_TYPE);
+        return kind == null ? snapshot.getBackendStateType().name() : kind;
+    }
+
+    private static Object toCell(Object value) {
+        if (value == null || value instanceof CharSequence || value instanceof Number || value instanceof Boolean) {
+            return value;
+        }
+        return String.valueOf(value);
+    }
+
+    private interface RowSupplier {
+        JSONObject get() throws IOException;
+    }
+
+    /**
+     * The first entry of a keyed state of a subtask in every key group holding some, by the handle and the position
+     * of the key group in the handle. It holds a few numbers per key group and is cached with the checkpoint.
+     */
+    static final class Index {
+        private final long count;
+        private final int[] handles;
+        private final int[] positions;
+        private final long[] firstEntries;
+
+        private Index(long count, int[] handles, int[] positions, long[] firstEntries) {
+            this.count = count;
+            this.handles = handles;
+            this.positions = positions;
+            this.firstEntries = firstEntries;
+        }
+
+        /** The number of entries of the state in the subtask */
+        long getCount() {
+            return count;
+        }
+
+        /** The number of key groups holding entries of the state */
+        int getKeyGroups() {
+            return firstEntries.length;
+        }
+
+        /** @return the last key group starting at or before the entry, or -1 if the entry is out of range */
+        int find(long entry) {
+            if (entry >= count || firstEntries.length == 0) {
+                return -1;
+            }
+            int low = 0;
+            int high = firstEntries.length - 1;
+            while (low < high) {
+                int mid = (low + high + 1) >>> 1;
+                if (firstEntries[mid] <= entry) {
+                    low = mid;
+                } else {
+                    high = mid - 1;
+                }
+            }
+            return low;
+        }
+    }
+
+    private static final class IndexBuilder {
+        private final List<long[]> keyGroups = new ArrayList<>();
+
+        private void add(int handle, int position, long firstEntry) {
+            keyGroups.add(new long[] {handle, position, firstEntry});
+        }
+
+        private Index build(long count) {
+            int[] handles = new int[keyGroups.size()];
+            int[] positions = new int[keyGroups.size()];
+            long[] firstEntries = new long[keyGroups.size()];
+            for (int i = 0; i < keyGroups.size(); i++) {
+                handles[i] = (int) keyGroups.get(i)[0];
+                positions[i] = (int) keyGroups.get(i)[1];
+                firstEntries[i] = keyGroups.get(i)[2];
+            }
+            return new Index(count, handles, positions, firstEntries);
+        }
+    }
+
+    private static final class Scan {
+        private final int subtask;
+        private final long skip;
+        private final int limit;
+        private final List<Object> rows;
+        private long scanned;
+
+        /** Set when counting, the key group being scanned is indexed on its first entry */
+        private IndexBuilder index;
+
+        private int handleIndex;
+        private int position;
+        private boolean keyGroupIndexed;
+
+        private Scan(int subtask, long skip, int limit, List<Object> rows) {
+            this.subtask = subtask;
+            this.skip = skip;
+            this.limit = limit;
+            this.rows = rows;
+        }
+
+        private void startKeyGroup(int handleIndex, int position) {
+            this.handleIndex = handleIndex;
+            this.position = position;
+            this.keyGroupIndexed = false;
+        }
+
+        /** @return false once enough entries are decoded */
+        private boolean accept(int keyGroup, RowSupplier row) throws IOException {
+            if (index != null && !keyGroupIndexed) {
+                index.add(handleIndex, position, scanned);
+                keyGroupIndexed = true;
+            }
+            scanned++;
+            if (limit < 0 || scanned <= skip) {
+                return true;
+            }
+            JSONObject jsonObject = row.get();
+            jsonObject.set("subtask", subtask);
+            jsonObject.set("key-group", keyGroup);
+            rows.add(jsonObject);
+            return rows.size() < limit;
+        }
+    }
+
+    /** Decodes the entries of one keyed state with the serializers restored from the snapshot */
+    private final class StateDecoder {
+        private final String kind;
+        private final TypeSerializer<?> keySerializer;
+        private final TypeSerializer<?> namespaceSerializer;
+        private final TypeSerializer<?> valueSerializer;
+        private final boolean ambiguousKeyPossible;
+
+        private StateDecoder(TypeSerializer<?> keySerializer, StateMetaInfoSnapshot snapshot) {
+            this.kind = kindOf(snapshot);
+            this.keySerializer = keySerializer;
+            this.valueSerializer = snapshot.getTypeSerializerSnapshot(
+                            StateMetaInfoSnapshot.CommonSerializerKeys.VALUE_SERIALIZER)
+                    .restoreSerializer();
+            if (PRIORITY_QUEUE.equals(kind)) {
+                this.namespaceSerializer = null;
+                this.ambiguousKeyPossible = false;
+            } else {
+                this.namespaceSerializer = snapshot.getTypeSerializerSnapshot(
+                                StateMetaInfoSnapshot.CommonSerializerKeys.NAMESPACE_SERIALIZER)
+                        .restoreSerializer();
+                this.ambiguousKeyPossible =
+                        CompositeKeySerializationUtils.isAmbiguousKeyPossible(keySerializer, namespaceSerializer);
+            }
+        }
+
+        /** Decode an entry of the canonical format */
+        private JSONObject decode(byte[] key, byte[] value) throws IOException {
+            JSONObject row = new JSONObject();
+            DataInputDeserializer keyIn =
+                    new DataInputDeserializer(key, keyGroupPrefixBytes, key.length - keyGroupPrefixBytes);
+            if (PRIORITY_QUEUE.equals(kind)) {
+                row.set("value", toCell(valueSerializer.deserialize(keyIn)));
+                return row;
+            }
+            row.set("key", toCell(CompositeKeySerializationUtils.readKey(keySerializer, keyIn, ambiguousKeyPossible)));
+            row.set(
+                    "namespace",
+                    toCell(CompositeKeySerializationUtils.readNamespace(
+                            namespaceSerializer, keyIn, ambiguousKeyPossible)));
+            DataInputDeserializer valueIn = new DataInputDeserializer(value);
+            if (valueSerializer instanceof MapSerializer) {
+                MapSerializer<?, ?> mapSerializer = (MapSerializer<?, ?>) valueSerializer;
+                row.set("user-key", toCell(mapSerializer.getKeySerializer().deserialize(keyIn)));
+                row.set(
+                        "value",
+                        valueIn.readBoolean()
+                                ? null
+                                : toCell(mapSerializer.getValueSerializer().deserialize(valueIn)));
+            } else if (valueSerializer instanceof ListSerializer) {
+                // The elements are separated by a delimiter byte
+                TypeSerializer<?> elementSerializer = ((ListSerializer<?>) valueSerializer).getElementSerializer();
+                List<Object> elements = new ArrayList<>();
+                while (valueIn.available() > 0) {
+                    elements.add(elementSerializer.deserialize(valueIn));
+                    if (valueIn.available() > 0) {
+                        valueIn.skipBytesToRead(1);
+                    }
+                }
+                row.set("value", toCell(elements));
+            } else {
+                row.set("value", toCell(valueSerializer.deserialize(valueIn)));
+            }
+            return row;
+        }
+
+        /** Read an entry of the heap format, it is only turned into a row when it is requested */
+        private RowSupplier read(DataInputViewStreamWrapper in) throws IOException {
+            if (PRIORITY_QUEUE.equals(kind)) {
+                Object element = valueSerializer.deserialize(in);
+                return () -> new JSONObject().set("value", toCell(element));
+            }
+            Object namespace = namespaceSerializer.deserialize(in);
+            Object key = keySerializer.deserialize(in);
+            Object value = valueSerializer.deserialize(in);
+            return () -> new JSONObject()
+                    .set("key", toCell(key))
+                    .set("namespace", toCell(namespace))
+                    .set("value", toCell(value));
+        }
+    }
+}
@@ -0,0 +1,157 @@
+/*
+ *
+ *  Licensed to the Apache Software Foundation (ASF) under one or more
+ *  contributor license agreements.  See the NOTICE file distributed with
+ *  this work for additional information regarding copyright ownership.
+ *  The ASF licenses this file to You under the Apache License, Version 2.0
+ *  (the "License"); you may not use this file except in compliance with
+ *  the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+
+package org.dinky.flink.checkpoint;
+
+import org.dinky.data.model.CheckPointReadTable;
+
+import org.apache.flink.api.common.typeutils.TypeSerializer;
+import org.apache.flink.core.fs.FSDataInputStream;
+import org.apache.flink.core.memory.DataInputView;
+import org.apache.flink.core.memory.DataInputViewStreamWrapper;
+import org.apache.flink.runtime.checkpoint.OperatorSubtaskState;
+import org.apache.flink.runtime.state.OperatorBackendSerializationProxy;
+import org.apache.flink.runtime.state.OperatorStateHandle;
+import org.apache.flink.runtime.state.PartitionableListState;
+import org.apache.flink.runtime.state.RegisteredOperatorStateBackendMetaInfo;
+import org.apache.flink.runtime.state.metainfo.StateMetaInfoSnapshot;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import cn.hutool.core.util.ReflectUtil;
+import cn.hutool.json.JSONObject;
+
+/**
+ * Reads a slice of an operator state of a subtask. The offsets of the entries are in the checkpoint metadata, so an
+ * entry is read by seeking to it and only the entries of the slice are deserialized.
+ */
+final class OperatorStateReader {
+
+    private OperatorStateReader() {}
+
+    /** The distribution modes of the operator states of the subtask by state name */
+    static void collectStates(OperatorSubtaskState subtaskState, Map<String, String> states) {
+        for (OperatorStateHandle handle : subtaskState.getManagedOperatorState()) {
+            handle.getStateNameToPartitionOffsets().forEach((name, metaInfo) -> {
+                if (metaInfo.getDistributionMode() != OperatorStateHandle.Mode.BROADCAST) {
+                    states.putIfAbsent(name, metaInfo.getDistributionMode().name());
+                }
+            });
+        }
+    }
+
+    static long count(OperatorSubtaskState subtaskState, String stateName) {
+        long count = 0;
+        for (OperatorStateHandle handle : subtaskState.getManagedOperatorState()) {
+            OperatorStateHandle.StateMetaInfo metaInfo =
+                    handle.getStateNameToPartitionOffsets().get(stateName);
+            if (metaInfo != null && metaInfo.getOffsets() != null) {
+                count += metaInfo.getOffsets().length;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * @param skip the number of entries of the subtask before the slice
+     * @param limit the number of entries of the slice
+     */
+    static CheckPointReadTable read(
+            ClassLoader classLoader,
+            OperatorSubtaskState subtaskState,
+            int subtask,
+            String stateName,
+            long skip,
+            int limit)
+            throws IOException {
+        Set<String> headers = new LinkedHashSet<>();
+        List<Object> datas = new ArrayList<>(limit);
+        for (OperatorStateHandle handle : subtaskState.getManagedOperatorState()) {
+            OperatorStateHandle.StateMetaInfo metaInfo =
+                    handle.getStateNameToPartitionOffsets().get(stateName);
+            if (metaInfo == null || metaInfo.getOffsets() == null) {
+                continue;
+            }
+            long[] offsets = metaInfo.getOffsets();
+            if (skip >= offsets.length) {
+                skip -= offsets.length;
+                continue;
+            }
+            int from = (int) skip;
+            int to = (int) Math.min(offsets.length, from + (long) limit - datas.size());
+            skip = 0;
+            readSlice(classLoader, handle, stateName, Arrays.copyOfRange(offsets, from, to), headers, datas);
+            datas.forEach(row -> {
+                if (row instanceof JSONObject) {
+                    ((JSONObject) row).set("subtask", subtask);
+                }
+            });
+            if (datas.size() >= limit) {
+                break;
+            }
+        }
+        return new CheckPointReadTable(new ArrayList<>(headers), datas);
+    }
+
+    private static void readSlice(
+            ClassLoader classLoader,
+            OperatorStateHandle handle,
+            String stateName,
+            long[] offsets,
+            Set<String> headers,
+            List<Object> datas)
+            throws IOException {
+        try (FSDataInputStream in = handle.getDelegateStateHandle().openInputStream()) {
+            OperatorBackendSerializationProxy backendSerializationProxy =
+                    new OperatorBackendSerializationProxy(classLoader);
+            backendSerializationProxy.read(new DataInputViewStreamWrapper(in));
+            for (StateMetaInfoSnapshot stateMetaInfoSnapshot :
+                    backendSerializationProxy.getOperatorStateMetaInfoSnapshots()) {
+                if (!stateMetaInfoSnapshot.getName().equals(stateName)) {
+                    continue;
+                }
+                PartitionableListState<?> partitionableListState = ReflectUtil.newInstance(
+                        PartitionableListState.class,
+                        new RegisteredOperatorStateBackendMetaInfo<>(stateMetaInfoSnapshot));
+                deserializeOperatorStateValues(partitionableListState, in, offsets);
+                CheckpointReadFactory.getTable(partitionableListState).ifPresent(table -> {
+                    headers.addAll(table.getHeaders());
+                    datas.addAll(table.getDatas());
+                });
+                return;
+            }
+        }
+    }
+
+    private static <S> void deserializeOperatorStateValues(
+            PartitionableListState<S> stateListForName, FSDataInputStream in, long[] offsets) throws IOException {
+        DataInputView div = new DataInputViewStreamWrapper(in);
+        TypeSerializer<S> serializer = stateListForName.getStateMetaInfo().getPartitionStateSerializer();
+        for (long offset : offsets) {
+            in.seek(offset);
+            stateListForName.add(serializer.deserialize(div));
+        }
+    }
+}
@@ -0,0 +1,169 @@
+/*
+ *
+ *  Licensed to the Apache Software Foundation (ASF) under one or more
+ *  contributor license agreements.  See the NOTICE file distributed with
+ *  this work for additional information regarding copyright ownership.
+ *  The ASF licenses this file to You under the Apache License, Version 2.0
+ *  (the "License"); you may not use this file except in compliance with
+ *  the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+
+package org.dinky.flink.checkpoint;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.dinky.data.model.CheckPointStatePage;
+
+import org.apache.flink.api.common.state.MapState;
+import org.apache.flink.api.common.state.MapStateDescriptor;
+import org.apache.flink.api.common.state.ValueState;
+import org.apache.flink.api.common.state.ValueStateDescriptor;
+import org.apache.flink.api.common.typeinfo.Types;
+import org.apache.flink.api.java.ExecutionEnvironment;
+import org.apache.flink.configuration.Configuration;
+import org.apache.flink.runtime.state.hashmap.HashMapStateBackend;
+import org.apache.flink.state.api.BootstrapTransformation;
+import org.apache.flink.state.api.OperatorTransformation;
+import org.apache.flink.state.api.Savepoint;
+import org.apache.flink.state.api.functions.KeyedStateBootstrapFunction;
+import org.apache.flink.state.api.runtime.OperatorIDGenerator;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Test;
+
+import cn.hutool.core.io.FileUtil;
+
+class CheckpointReadTest {
+
+    private static final String UID = "keyed-state";
+    private static final int KEYS = 1000;
+
+    private static File savepointDir;
+    private static String savepointPath;
+
+    private final CheckpointRead checkpointRead = new CheckpointRead();
+
+    @AfterAll
+    static void deleteSavepoint() {
+        FileUtil.del(savepointDir);
+    }
+
+    @Test
+    void pagesHoldEveryEntryOnce() throws Exception {
+        List<Map<String, Object>> all = readAll("value", null, CheckpointRead.MAX_LIMIT);
+        assertEquals(KEYS, all.size());
+        assertEquals(
+                LongStream.range(0, KEYS).boxed().collect(Collectors.toSet()),
+                all.stream().map(row -> ((Number) row.get("key")).longValue()).collect(Collectors.toSet()));
+        for (Map<String, Object> row : all) {
+            assertEquals(((Number) row.get("key")).longValue() * 10, ((Number) row.get("value")).longValue());
+        }
+
+        // Smaller pages start in the middle of the key groups, they hold the same entries in the same order
+        assertEquals(all, readAll("value", null, 7));
+        assertEquals(all, readAll("value", null, 333));
+    }
+
+    @Test
+    void pagesOfAnotherStateOfTheKeyGroups() throws Exception {
+        List<Map<String, Object>> all = readAll("map", null, CheckpointRead.MAX_LIMIT);
+        assertEquals(2 * KEYS, all.size());
+        Set<String> entries = new HashSet<>();
+        all.forEach(row -> entries.add(row.get("key") + "/" + row.get("user-key")));
+        assertEquals(2 * KEYS, entries.size());
+        assertEquals(all, readAll("map", null, 13));
+    }
+
+    @Test
+    void filterBySubtask() throws Exception {
+        List<Map<String, Object>> all = readAll("value", null, CheckpointRead.MAX_LIMIT);
+        long total = 0;
+        for (int subtask = 0; subtask < 2; subtask++) {
+            int index = subtask;
+            List<Map<String, Object>> rows = readAll("value", subtask, 11);
+            assertFalse(rows.isEmpty());
+            rows.forEach(row -> assertEquals(index, row.get("subtask")));
+            assertEquals(
+                    all.stream().filter(row -> row.get("subtask").equals(index)).collect(Collectors.toList()), rows);
+            total += rows.size();
+        }
+        assertEquals(KEYS, total);
+    }
+
+    /** Read the pages of the state until the total is reached */
+    @SuppressWarnings("unchecked")
+    private List<Map<String, Object>> readAll(String stateName, Integer subtask, int limit) throws Exception {
+        String operatorId = OperatorIDGenerator.fromUid(UID).toHexString();
+        List<Map<String, Object>> rows = new ArrayList<>();
+        for (int page = 1; ; page++) {
+            CheckPointStatePage statePage =
+                    checkpointRead.readState(savepoint(), operatorId, stateName, subtask, page, limit);
+            for (Object row : statePage.getDatas()) {
+                rows.add((Map<String, Object>) row);
+            }
+            if (statePage.getDatas().size() < limit) {
+                assertEquals(statePage.getTotal(), rows.size());
+                return rows;
+            }
+        }
+    }
+
+    /** A savepoint of an operator with a value state and a map state of 1000 keys, written by 2 subtasks */
+    private static synchronized String savepoint() throws Exception {
+        if (savepointPath != null) {
+            return savepointPath;
+        }
+        savepointDir = Files.createTempDirectory("checkpoint-read").toFile();
+        ExecutionEnvironment env = ExecutionEnvironment.createLocalEnvironment(new Configuration());
+        env.setParallelism(2);
+        BootstrapTransformation<Long> transformation = OperatorTransformation.bootstrapWith(
+                        env.generateSequence(0, KEYS - 1))
+                .keyBy(key -> key)
+                .transform(new StateBootstrapFunction());
+        String path = new File(savepointDir, "savepoint").toURI().toString();
+        Savepoint.create(new HashMapStateBackend(), 128)
+                .withOperator(UID, transformation)
+                .write(path);
+        env.execute("write savepoint");
+        savepointPath = path;
+        return path;
+    }
+
+    private static class StateBootstrapFunction extends KeyedStateBootstrapFunction<Long, Long> {
+
+        private transient ValueState<Long> value;
+        private transient MapState<String, Long> map;
+
+        @Override
+        public void open(Configuration parameters) {
+            value = getRuntimeContext().getState(new ValueStateDescriptor<>("value", Types.LONG));
+            map = getRuntimeContext().getMapState(new MapStateDescriptor<>("map", Types.STRING, Types.LONG));
+        }
+
+        @Override
+        public void processElement(Long key, Context ctx) throws Exception {
+            value.update(key * 10);
+            map.put("a", key);
+            map.put("b", key + 1);
+        }
+    }
+}
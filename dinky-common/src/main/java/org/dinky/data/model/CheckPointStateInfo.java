@@ -0,0 +1,44 @@
+/*
+ *
+ *  Licensed to the Apache Software Foundation (ASF) under one or more
+ *  contributor license agreements.  See the NOTICE file distributed with
+ *  this work for additional information regarding copyright ownership.
+ *  The ASF licenses this file to You under the Apache License, Version 2.0
+ *  (the "License"); you may not use this file except in compliance with
+ *  the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+
+package org.dinky.data.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.Setter;
+
+/** A state of an operator in a checkpoint */
+@Getter
+@Setter
+@Builder
+@AllArgsConstructor
+public class CheckPointStateInfo {
+
+    public static final String OPERATOR_STATE = "managedOperatorState";
+    public static final String KEYED_STATE = "managedKeyedState";
+
+    private String name;
+
+    /** {@link #OPERATOR_STATE} or {@link #KEYED_STATE} */
+    private String stateType;
+
+    /** Distribution mode of an operator state, or the kind of a keyed state like VALUE, LIST or MAP */
+    private String kind;
+}
@@ -0,0 +1,65 @@
+/*
+ *
+ *  Licensed to the Apache Software Foundation (ASF) under one or more
+ *  contributor license agreements.  See the NOTICE file distributed with
+ *  this work for additional information regarding copyright ownership.
+ *  The ASF licenses this file to You under the Apache License, Version 2.0
+ *  (the "License"); you may not use this file except in compliance with
+ *  the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+
+package org.dinky.data.model;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * The dependencies of a task addressed by their content, an application fetches only the artifacts whose digest it
+ * has not cached yet.
+ */
+@Data
+@NoArgsConstructor
+public class DependencyManifest {
+
+    public static final String TYPE_JAR = "jar";
+    public static final String TYPE_PYTHON = "py";
+
+    private List<Artifact> artifacts = new ArrayList<>();
+
+    /**
+     * @return whether the manifest has an artifact of the type
+     */
+    public boolean hasArtifacts(String type) {
+        return artifacts != null && artifacts.stream().anyMatch(artifact -> type.equals(artifact.getType()));
+    }
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Artifact {
+
+        /** File name of the artifact */
+        private String name;
+
+        /** {@link #TYPE_JAR} or {@link #TYPE_PYTHON} */
+        private String type;
+
+        /** Hex sha256 of the content */
+        private String digest;
+
+        private long size;
+    }
+}
@@ -33,19 +33,26 @@ import org.apache.http.client.methods.HttpPost;
 import org.apache.http.entity.StringEntity;
 import org.apache.http.impl.client.BasicCredentialsProvider;
 import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.impl.client.HttpClientBuilder;
 import org.apache.http.impl.client.HttpClients;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
 import org.apache.http.util.EntityUtils;
 
 import java.io.IOException;
 import java.nio.charset.StandardCharsets;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
 import java.util.function.Consumer;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import cn.hutool.core.collection.CollUtil;
+import cn.hutool.core.io.IoUtil;
 import cn.hutool.core.util.RandomUtil;
+import cn.hutool.crypto.digest.DigestUtil;
 import cn.hutool.http.HttpResponse;
 import cn.hutool.http.HttpUtil;
 
@@ -53,6 +60,19 @@ public class HttpUtils {
 
     private static final Logger logger = LoggerFactory.getLogger(HttpUtils.class);
 
+    private static final int CONNECT_TIMEOUT = 10 * 1000;
+    private static final int SOCKET_TIMEOUT = 30 * 1000;
+    private static final int MAX_CONNECTIONS = 200;
+    private static final int MAX_CONNECTIONS_PER_ROUTE = 20;
+
+    /**
+     * The clients are shared, so the connections to the same webhook are kept alive and reused instead of being
+     * opened for every message. The proxied clients are kept per proxy host, port and user.
+     */
+    private static final CloseableHttpClient httpClient = buildHttpClient().build();
+
+    private static final Map<String, ProxyHttpClient> proxyHttpClients = new ConcurrentHashMap<>();
+
     public static String post(String url, String jsonParam) throws IOException {
         return post(url, jsonParam, null);
     }
@@ -68,15 +88,8 @@ public class HttpUtils {
     public static String post(String url, String jsonParam, ProxyConfig proxyConfig) throws IOException {
 
         HttpPost httpPost = buildHttpPost(url, jsonParam);
-
-        CloseableHttpClient httpClient;
-        if (proxyConfig != null) {
-            httpClient = getCloseableHttpClientOfProxy(httpPost, proxyConfig);
-        } else {
-            httpClient = HttpClients.createDefault();
-        }
-        try {
-            CloseableHttpResponse response = httpClient.execute(httpPost);
+        CloseableHttpClient client = proxyConfig != null ? getCloseableHttpClientOfProxy(proxyConfig) : httpClient;
+        try (CloseableHttpResponse response = client.execute(httpPost)) {
 
             int statusCode = response.getStatusLine().getStatusCode();
 
@@ -91,20 +104,20 @@ public class HttpUtils {
                         statusCode,
                         response.getStatusLine().getReasonPhrase());
             }
-            String resp;
-            try {
-                HttpEntity entity = response.getEntity();
-                resp = EntityUtils.toString(entity, StandardCharsets.UTF_8);
-                EntityUtils.consume(entity);
-            } finally {
-                response.close();
-            }
+            HttpEntity entity = response.getEntity();
+            String resp = EntityUtils.toString(entity, StandardCharsets.UTF_8);
+            EntityUtils.consume(entity);
             return resp;
-        } finally {
-            httpClient.close();
         }
     }
 
+    /**
+     * The shared pooled http client, it must not be closed by the caller.
+     */
+    public static CloseableHttpClient getHttpClient() {
+        return httpClient;
+    }
+
     /**
      * build HttpPost
      *
@@ -123,21 +136,56 @@ public class HttpUtils {
     /**
      * get CloseableHttpClient Of Proxy
      *
-     * @param httpPost
+     * @param proxyConfig
      * @return
      */
-    private static CloseableHttpClient getCloseableHttpClientOfProxy(HttpPost httpPost, ProxyConfig proxyConfig) {
-        CloseableHttpClient httpClient;
+    private static CloseableHttpClient getCloseableHttpClientOfProxy(ProxyConfig proxyConfig) {
+        // The password is not kept in the key, only its digest is kept to rebuild the client when it changes
+        String key = String.join(
+                "|",
+                proxyConfig.getHostname(),
+                String.valueOf(proxyConfig.getPort()),
+                String.valueOf(proxyConfig.getUser()));
+        String passwordDigest = DigestUtil.sha256Hex(String.valueOf(proxyConfig.getPassword()));
+        return proxyHttpClients.compute(key, (k, proxyClient) -> {
+                    if (proxyClient != null && proxyClient.passwordDigest.equals(passwordDigest)) {
+                        return proxyClient;
+                    }
+                    if (proxyClient != null) {
+                        IoUtil.close(proxyClient.client);
+                    }
+                    return new ProxyHttpClient(buildProxyHttpClient(proxyConfig), passwordDigest);
+                })
+                .client;
+    }
+
+    private static CloseableHttpClient buildProxyHttpClient(ProxyConfig proxyConfig) {
         HttpHost httpProxy = new HttpHost(proxyConfig.getHostname(), proxyConfig.getPort());
         CredentialsProvider provider = new BasicCredentialsProvider();
         provider.setCredentials(
                 new AuthScope(httpProxy),
                 new UsernamePasswordCredentials(proxyConfig.getUser(), proxyConfig.getPassword()));
-        httpClient =
-                HttpClients.custom().setDefaultCredentialsProvider(provider).build();
-        RequestConfig rcf = RequestConfig.custom().setProxy(httpProxy).build();
-        httpPost.setConfig(rcf);
-        return httpClient;
+        return buildHttpClient()
+                .setProxy(httpProxy)
+                .setDefaultCredentialsProvider(provider)
+                .build();
+    }
+
+    private static HttpClientBuilder buildHttpClient() {
+        PoolingHttpClientConnectionManager connectionManager =
+                new PoolingHttpClientConnectionManager(60, TimeUnit.SECONDS);
+        connectionManager.setMaxTotal(MAX_CONNECTIONS);
+        connectionManager.setDefaultMaxPerRoute(MAX_CONNECTIONS_PER_ROUTE);
+        RequestConfig requestConfig = RequestConfig.custom()
+                .setConnectionRequestTimeout(CONNECT_TIMEOUT)
+                .setConnectTimeout(CONNECT_TIMEOUT)
+                .setSocketTimeout(SOCKET_TIMEOUT)
+                .build();
+        return HttpClients.custom()
+                .setConnectionManager(connectionManager)
+                .setDefaultRequestConfig(requestConfig)
+                .evictExpiredConnections()
+                .evictIdleConnections(60, TimeUnit.SECONDS);
     }
 
     /**
@@ -163,4 +211,15 @@ public class HttpUtils {
             asyncRequest(addressList, urlParams, timeout, consumer);
         }
     }
+
+    private static class ProxyHttpClient {
+
+        private final CloseableHttpClient client;
+        private final String passwordDigest;
+
+        private ProxyHttpClient(CloseableHttpClient client, String passwordDigest) {
+            this.client = client;
+            this.passwordDigest = passwordDigest;
+        }
+    }
 }
@@ -0,0 +1,135 @@
+/*
+ *
+ *  Licensed to the Apache Software Foundation (ASF) under one or more
+ *  contributor license agreements.  See the NOTICE file distributed with
+ *  this work for additional information regarding copyright ownership.
+ *  The ASF licenses this file to You under the Apache License, Version 2.0
+ *  (the "License"); you may not use this file except in compliance with
+ *  the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+
+package org.dinky.utils;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.Consumer;
+
+/**
+ * Bounded lock-free ring buffer for many producers and a single consumer.
+ * <p>
+ * Every slot carries a sequence number telling whether it is free for the producer of a given position or
+ * filled for the consumer, producers only compete on a CAS of the tail.
+ * {@link #offer} never blocks, it returns false when the buffer is full so the caller decides to drop or retry.
+ * {@link #poll} and {@link #drain} must only be called from one thread.
+ * </p>
+ */
+public class MpscRingBuffer<E> {
+
+    private final int capacity;
+    private final int mask;
+    private final AtomicReferenceArray<E> buffer;
+    private final AtomicLongArray sequences;
+    private final AtomicLong tail = new AtomicLong(0);
+    private final AtomicLong head = new AtomicLong(0);
+
+    /**
+     * @param capacity rounded up to the next power of two
+     */
+    public MpscRingBuffer(int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Capacity must be positive: " + capacity);
+        }
+        this.capacity = capacity == 1 ? 1 : Integer.highestOneBit(capacity - 1) << 1;
+        this.mask = this.capacity - 1;
+        this.buffer = new AtomicReferenceArray<>(this.capacity);
+        this.sequences = new AtomicLongArray(this.capacity);
+        for (int i = 0; i < this.capacity; i++) {
+            sequences.set(i, i);
+        }
+    }
+
+    /**
+     * Append an element, safe to call from any thread.
+     *
+     * @return false if the buffer is full
+     */
+    public boolean offer(E e) {
+        if (e == null) {
+            throw new NullPointerException();
+        }
+        while (true) {
+            long position = tail.get();
+            int index = (int) (position & mask);
+            long diff = sequences.get(index) - position;
+            if (diff == 0) {
+                if (tail.compareAndSet(position, position + 1)) {
+                    buffer.lazySet(index, e);
+                    // Publish the slot to the consumer
+                    sequences.set(index, position + 1);
+                    return true;
+                }
+            } else if (diff < 0) {
+                return false;
+            }
+            // Another producer took the slot, try the next position
+        }
+    }
+
+    /**
+     * Remove the oldest element, single consumer only.
+     *
+     * @return null if the buffer is empty
+     */
+    public E poll() {
+        long position = head.get();
+        int index = (int) (position & mask);
+        if (sequences.get(index) != position + 1) {
+            // Empty, or a producer claimed the slot but has not published it yet
+            return null;
+        }
+        E e = buffer.get(index);
+        buffer.lazySet(index, null);
+        // Free the slot for the producer of the next round
+        sequences.set(index, position + capacity);
+        head.lazySet(position + 1);
+        return e;
+    }
+
+    /**
+     * Remove up to {@code limit} elements, single consumer only.
+     *
+     * @return the number of drained elements
+     */
+    public int drain(Consumer<E> consumer, int limit) {
+        int count = 0;
+        E e;
+        while (count < limit && (e = poll()) != null) {
+            consumer.accept(e);
+            count++;
+        }
+        return count;
+    }
+
+    /** Approximate number of elements, exact when no producer or consumer is running. */
+    public int size() {
+        return (int) Math.max(0, Math.min(tail.get() - head.get(), capacity));
+    }
+
+    public boolean isEmpty() {
+        return size() == 0;
+    }
+
+    public int capacity() {
+        return capacity;
+    }
+}
@@ -0,0 +1,135 @@
+/*
+ *
+ *  Licensed to the Apache Software Foundation (ASF) under one or more
+ *  contributor license agreements.  See the NOTICE file distributed with
+ *  this work for additional information regarding copyright ownership.
+ *  The ASF licenses this file to You under the Apache License, Version 2.0
+ *  (the "License"); you may not use this file except in compliance with
+ *  the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+
+package org.dinky.utils;
+
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.Serializable;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Resolves the physical names of the sharded databases and tables to their logical names. The number pattern of the
+ * split config is compiled once and the resolved names are memoized, up to {@code dinky.split.cache-size} names.
+ */
+@Slf4j
+public class SplitResolver implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private static final int MAX_CACHE_SIZE = Integer.getInteger("dinky.split.cache-size", 65536);
+
+    private final boolean enabled;
+    private final boolean prefix;
+    private final Pattern pattern;
+    private final String maxMatchValue;
+
+    /** physical name -> logical name, the resolver is shared by all the subtasks of the jvm */
+    private transient Map<String, String> cache = new ConcurrentHashMap<>();
+
+    public SplitResolver(Map<String, String> splitConfig) {
+        this.enabled = SplitUtil.isEnabled(splitConfig);
+        this.prefix = "prefix".equalsIgnoreCase(splitConfig.get(SplitUtil.MATCH_WAY));
+        this.maxMatchValue = splitConfig.get(SplitUtil.MAX_MATCH_VALUE);
+        String matchNumberRegex = splitConfig.get(SplitUtil.MATCH_NUMBER_REGEX);
+        Pattern compiled = null;
+        if (matchNumberRegex != null) {
+            try {
+                compiled = Pattern.compile(matchNumberRegex);
+            } catch (Exception exception) {
+                log.warn("Unable to determine sub-database sub-table,reason is {}", exception.getMessage());
+            }
+        }
+        this.pattern = compiled;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Whether the number of the name is within the max match value.
+     */
+    public boolean isSplit(String value) {
+        if (pattern == null) {
+            return false;
+        }
+        Matcher matcher = pattern.matcher(value);
+        if (matcher.find()) {
+            long splitNum = Long.parseLong(matcher.group(0).replaceFirst("_", ""));
+            return splitNum <= Long.parseLong(maxMatchValue);
+        }
+        return false;
+    }
+
+    /**
+     * @return the name without its shard number, or the name itself if it is not a shard
+     */
+    public String getReValue(String value) {
+        if (!enabled || pattern == null || value == null) {
+            return value;
+        }
+        String name = cache.get(value);
+        if (name == null) {
+            name = resolve(value);
+            if (cache.size() >= MAX_CACHE_SIZE) {
+                cache.clear();
+            }
+            cache.put(value, name);
+        }
+        return name;
+    }
+
+    private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+        in.defaultReadObject();
+        cache = new ConcurrentHashMap<>();
+    }
+
+    private String resolve(String value) {
+        try {
+            Matcher matcher = pattern.matcher(value);
+            // Determine whether it is a prefix or a suffix
+            String num = null;
+            if (prefix) {
+                if (matcher.find()) {
+                    num = matcher.group(0);
+                }
+            } else {
+                while (matcher.find()) {
+                    num = matcher.group(0);
+                }
+            }
+            if (num == null) {
+                return value;
+            }
+            long splitNum = Long.parseLong(num.replaceFirst("_", ""));
+            if (splitNum <= Long.parseLong(maxMatchValue)) {
+                return value.substring(0, value.lastIndexOf(num));
+            }
+        } catch (Exception exception) {
+            log.warn("Unable to determine sub-database sub-table,reason is {}", exception.getMessage());
+        }
+        return value;
+    }
+}
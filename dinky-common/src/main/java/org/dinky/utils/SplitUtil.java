@@ -19,8 +19,10 @@
 
 package org.dinky.utils;
 
+import java.util.Arrays;
+import java.util.List;
 import java.util.Map;
-import java.util.regex.Matcher;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.regex.Pattern;
 
 import lombok.extern.slf4j.Slf4j;
@@ -38,59 +40,59 @@ public class SplitUtil {
     public static final String MAX_MATCH_VALUE = "max_match_value";
     public static final String MATCH_WAY = "match_way";
 
+    private static final int MAX_CACHED_PATTERNS = 1024;
+
+    /** regex -> compiled pattern */
+    private static final Map<String, Pattern> PATTERNS = new ConcurrentHashMap<>();
+
+    /** split config values -> resolver */
+    private static final Map<List<String>, SplitResolver> RESOLVERS = new ConcurrentHashMap<>();
+
     public static boolean contains(String regex, String sourceData) {
-        return Pattern.matches(regex, sourceData);
+        return compile(regex).matcher(sourceData).matches();
     }
 
-    public static boolean isSplit(String value, Map<String, String> splitConfig) {
-        String matchNumberRegex = splitConfig.get(MATCH_NUMBER_REGEX);
-        Pattern pattern = Pattern.compile(matchNumberRegex);
-        Matcher matcher = pattern.matcher(value);
-        if (matcher.find()) {
-            long splitNum = Long.parseLong(matcher.group(0).replaceFirst("_", ""));
-            long maxMatchValue = Long.parseLong(splitConfig.get(MAX_MATCH_VALUE));
-            return splitNum <= maxMatchValue;
+    public static Pattern compile(String regex) {
+        Pattern pattern = PATTERNS.get(regex);
+        if (pattern == null) {
+            pattern = Pattern.compile(regex);
+            if (PATTERNS.size() >= MAX_CACHED_PATTERNS) {
+                PATTERNS.clear();
+            }
+            PATTERNS.put(regex, pattern);
         }
-        return false;
+        return pattern;
+    }
+
+    public static boolean isSplit(String value, Map<String, String> splitConfig) {
+        return getResolver(splitConfig).isSplit(value);
     }
 
     public static String getReValue(String value, Map<String, String> splitConfig) {
-        if (isEnabled(splitConfig)) {
-            try {
-                String matchNumberRegex = splitConfig.get(MATCH_NUMBER_REGEX);
-                String matchWay = splitConfig.get(MATCH_WAY);
-                Pattern pattern = Pattern.compile(matchNumberRegex);
-                Matcher matcher = pattern.matcher(value);
-                // Determine whether it is a prefix or a suffix
-                if ("prefix".equalsIgnoreCase(matchWay)) {
-                    if (matcher.find()) {
-                        String num = matcher.group(0);
-                        long splitNum = Long.parseLong(num.replaceFirst("_", ""));
-                        long maxMatchValue = Long.parseLong(splitConfig.get(MAX_MATCH_VALUE));
-                        if (splitNum <= maxMatchValue) {
-                            return value.substring(0, value.lastIndexOf(num));
-                        }
-                    }
-                } else {
-                    String num = null;
-                    while (matcher.find()) {
-                        num = matcher.group(0);
-                    }
-                    if (num == null) {
-                        return value;
-                    }
-                    long splitNum = Long.parseLong(num.replaceFirst("_", ""));
-                    long maxMatchValue = Long.parseLong(splitConfig.get(MAX_MATCH_VALUE));
-                    if (splitNum <= maxMatchValue) {
-                        return value.substring(0, value.lastIndexOf(num));
-                    }
-                }
+        if (!isEnabled(splitConfig)) {
+            return value;
+        }
+        return getResolver(splitConfig).getReValue(value);
+    }
 
-            } catch (Exception exception) {
-                log.warn("Unable to determine sub-database sub-table,reason is {}", exception.getMessage());
+    /**
+     * @return the resolver of the split config, shared by the equal configs
+     */
+    public static SplitResolver getResolver(Map<String, String> splitConfig) {
+        List<String> key = Arrays.asList(
+                splitConfig.get(ENABLE),
+                splitConfig.get(MATCH_NUMBER_REGEX),
+                splitConfig.get(MAX_MATCH_VALUE),
+                splitConfig.get(MATCH_WAY));
+        SplitResolver resolver = RESOLVERS.get(key);
+        if (resolver == null) {
+            resolver = new SplitResolver(splitConfig);
+            if (RESOLVERS.size() >= MAX_CACHED_PATTERNS) {
+                RESOLVERS.clear();
             }
+            RESOLVERS.put(key, resolver);
         }
-        return value;
+        return resolver;
     }
 
     public static boolean isEnabled(Map<String, String> split) {
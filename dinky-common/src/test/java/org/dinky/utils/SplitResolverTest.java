@@ -0,0 +1,79 @@
+/*
+ *
+ *  Licensed to the Apache Software Foundation (ASF) under one or more
+ *  contributor license agreements.  See the NOTICE file distributed with
+ *  this work for additional information regarding copyright ownership.
+ *  The ASF licenses this file to You under the Apache License, Version 2.0
+ *  (the "License"); you may not use this file except in compliance with
+ *  the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+
+package org.dinky.utils;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+
+import cn.hutool.core.util.SerializeUtil;
+
+class SplitResolverTest {
+
+    private static Map<String, String> splitConfig(String matchWay) {
+        Map<String, String> config = new HashMap<>();
+        config.put(SplitUtil.ENABLE, "true");
+        config.put(SplitUtil.MATCH_NUMBER_REGEX, "_[0-9]+");
+        config.put(SplitUtil.MAX_MATCH_VALUE, "4095");
+        config.put(SplitUtil.MATCH_WAY, matchWay);
+        return config;
+    }
+
+    @Test
+    void getReValue() {
+        SplitResolver resolver = new SplitResolver(splitConfig("suffix"));
+        assertEquals("order_2024", resolver.getReValue("order_2024_12"));
+        assertEquals("order_2024", resolver.getReValue("order_2024_12"));
+        assertEquals("order_2024_4096", resolver.getReValue("order_2024_4096"));
+        assertEquals("order", resolver.getReValue("order"));
+        assertTrue(resolver.isSplit("order_12"));
+        assertFalse(resolver.isSplit("order_4096"));
+
+        SplitResolver prefix = new SplitResolver(splitConfig("prefix"));
+        assertEquals("order", prefix.getReValue("order_12_2024"));
+
+        Map<String, String> disabled = splitConfig("suffix");
+        disabled.put(SplitUtil.ENABLE, "false");
+        assertEquals("order_12", new SplitResolver(disabled).getReValue("order_12"));
+        assertEquals("order_12", SplitUtil.getReValue("order_12", disabled));
+    }
+
+    @Test
+    void sharedByEqualConfigs() {
+        SplitResolver resolver = SplitUtil.getResolver(splitConfig("suffix"));
+        assertSame(resolver, SplitUtil.getResolver(splitConfig("suffix")));
+        assertEquals("order", SplitUtil.getReValue("order_7", splitConfig("suffix")));
+        assertTrue(SplitUtil.contains("order_[0-9]+", "order_7"));
+        assertFalse(SplitUtil.contains("order_[0-9]+", "user_7"));
+    }
+
+    @Test
+    void deserialized() {
+        SplitResolver resolver = SerializeUtil.clone(new SplitResolver(splitConfig("suffix")));
+        assertEquals("order", resolver.getReValue("order_7"));
+        assertEquals("order", resolver.getReValue("order_7"));
+    }
+}
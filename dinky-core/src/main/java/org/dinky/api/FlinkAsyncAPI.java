@@ -0,0 +1,344 @@
+/*
+ *
+ *  Licensed to the Apache Software Foundation (ASF) under one or more
+ *  contributor license agreements.  See the NOTICE file distributed with
+ *  this work for additional information regarding copyright ownership.
+ *  The ASF licenses this file to You under the Apache License, Version 2.0
+ *  (the "License"); you may not use this file except in compliance with
+ *  the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+
+package org.dinky.api;
+
+import org.dinky.data.constant.FlinkRestAPIConstant;
+import org.dinky.data.constant.NetConstant;
+
+import org.apache.http.client.config.RequestConfig;
+import org.apache.http.client.methods.CloseableHttpResponse;
+import org.apache.http.client.methods.HttpGet;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.impl.client.HttpClients;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+import org.apache.http.util.EntityUtils;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import cn.hutool.core.net.URLEncodeUtil;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Asynchronous variant of {@link FlinkAPI} for the read-only monitoring endpoints.
+ * <p>
+ * Every JobManager address owns one keep-alive connection pool that is shared by all the instances built for it.
+ * Requests run on a shared executor and complete a {@link CompletableFuture}, so the several calls of a job
+ * refresh are issued in parallel instead of one after another.
+ * </p>
+ * <p>
+ * Each address is a bulkhead: at most {@link #MAX_CONNECTIONS_PER_HOST} of its requests are handed to the executor at
+ * a time, the others wait in the queue of the address without holding a worker. A slow JobManager so holds a few
+ * workers only and the other clusters keep being served. A request fails with a {@link TimeoutException} once
+ * its deadline, queueing included, is over, and its call is aborted.
+ * </p>
+ */
+@Slf4j
+public class FlinkAsyncAPI {
+
+    /** Max concurrent requests (and pooled connections) per JobManager address */
+    private static final int MAX_CONNECTIONS_PER_HOST = 8;
+
+    /** Pooled connections not used for this time are closed */
+    private static final long MAX_IDLE_TIME = 60;
+
+    private static final int MAX_WORKER_NUM = 64;
+
+    /** Max requests waiting for a free connection per JobManager address */
+    private static final int MAX_PENDING_PER_HOST = 1024;
+
+    private static final ObjectMapper mapper = new ObjectMapper();
+
+    private static final Map<String, Host> HOSTS = new ConcurrentHashMap<>();
+
+    private static final AtomicInteger THREAD_INDEX = new AtomicInteger(0);
+
+    private static final ThreadPoolExecutor EXECUTOR = new ThreadPoolExecutor(
+            MAX_WORKER_NUM, MAX_WORKER_NUM, MAX_IDLE_TIME, TimeUnit.SECONDS, new LinkedBlockingQueue<>(), r -> {
+                Thread thread = new Thread(r, "FlinkAsyncAPI-" + THREAD_INDEX.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            });
+
+    private static final RequestConfig REQUEST_CONFIG = RequestConfig.custom()
+            .setConnectTimeout(NetConstant.SERVER_TIME_OUT_ACTIVE)
+            .setSocketTimeout(NetConstant.SERVER_TIME_OUT_ACTIVE)
+            .setConnectionRequestTimeout(NetConstant.SERVER_TIME_OUT_ACTIVE)
+            .build();
+
+    private static final ScheduledThreadPoolExecutor TIMER = new ScheduledThreadPoolExecutor(1, r -> {
+        Thread thread = new Thread(r, "FlinkAsyncAPI-Timer");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    static {
+        EXECUTOR.allowCoreThreadTimeOut(true);
+        TIMER.setRemoveOnCancelPolicy(true);
+    }
+
+    private final String address;
+
+    private final Host host;
+
+    private FlinkAsyncAPI(String address, int maxRequests, long timeout) {
+        this.address = address;
+        this.host = HOSTS.computeIfAbsent(address, key -> new Host(key, maxRequests, timeout));
+    }
+
+    public static FlinkAsyncAPI build(String address) {
+        return new FlinkAsyncAPI(address, MAX_CONNECTIONS_PER_HOST, NetConstant.SERVER_TIME_OUT_ACTIVE);
+    }
+
+    /**
+     * @param maxRequests max concurrent requests to the address, used when its pool is opened
+     * @param timeout deadline of a request in milliseconds, queueing included
+     */
+    static FlinkAsyncAPI build(String address, int maxRequests, long timeout) {
+        return new FlinkAsyncAPI(address, maxRequests, timeout);
+    }
+
+    /**
+     * Close the connection pool of an address, e.g. when its cluster instance is removed.
+     * The next instance built for this address opens a new pool.
+     */
+    public static void close(String address) {
+        Host host = HOSTS.remove(address);
+        if (host != null) {
+            try {
+                host.client.close();
+            } catch (IOException e) {
+                log.warn("Close flink rest client of {} failed", address, e);
+            }
+        }
+    }
+
+    private CompletableFuture<String> getResult(String route) {
+        String url = NetConstant.HTTP + address + NetConstant.SLASH + route;
+        HttpGet request = new HttpGet(url);
+        CompletableFuture<String> future = new CompletableFuture<>();
+        ScheduledFuture<?> timer = TIMER.schedule(
+                () -> {
+                    if (future.completeExceptionally(
+                            new TimeoutException("Request " + url + " timed out after " + host.timeout + "ms"))) {
+                        request.abort();
+                    }
+                },
+                host.timeout,
+                TimeUnit.MILLISECONDS);
+        future.whenComplete((result, e) -> timer.cancel(false));
+        host.submit(future, () -> {
+            if (future.isDone()) {
+                return;
+            }
+            try (CloseableHttpResponse response = host.client.execute(request)) {
+                // Flink answers errors with a json body as well, so the status code is left to the caller
+                future.complete(EntityUtils.toString(response.getEntity(), StandardCharsets.UTF_8));
+            } catch (Exception e) {
+                future.completeExceptionally(e);
+            }
+        });
+        return future;
+    }
+
+    /**
+     * The connection pool and the bulkhead of one JobManager address.
+     */
+    private static class Host {
+
+        private final String address;
+
+        private final CloseableHttpClient client;
+
+        private final long timeout;
+
+        /** Free request slots, a request is handed to the executor only with a slot */
+        private final Semaphore slots;
+
+        private final Queue<Runnable> pending = new ConcurrentLinkedQueue<>();
+
+        private final AtomicInteger pendingCount = new AtomicInteger();
+
+        private Host(String address, int maxRequests, long timeout) {
+            this.address = address;
+            this.timeout = timeout;
+            this.slots = new Semaphore(maxRequests);
+            PoolingHttpClientConnectionManager connectionManager = new PoolingHttpClientConnectionManager();
+            connectionManager.setMaxTotal(maxRequests);
+            connectionManager.setDefaultMaxPerRoute(maxRequests);
+            this.client = HttpClients.custom()
+                    .setConnectionManager(connectionManager)
+                    .setDefaultRequestConfig(REQUEST_CONFIG)
+                    .evictExpiredConnections()
+                    .evictIdleConnections(MAX_IDLE_TIME, TimeUnit.SECONDS)
+                    .build();
+        }
+
+        private void submit(CompletableFuture<?> future, Runnable call) {
+            if (pendingCount.incrementAndGet() > MAX_PENDING_PER_HOST) {
+                pendingCount.decrementAndGet();
+                future.completeExceptionally(new RejectedExecutionException(
+                        "Too many pending requests to " + address + ", the JobManager does not keep up"));
+                return;
+            }
+            pending.add(call);
+            drain();
+        }
+
+        /**
+         * Hand the pending requests to the executor while there are free slots. A finished request frees its slot
+         * and drains again, so a request queued while all the slots are taken is not forgotten.
+         */
+        private void drain() {
+            while (!pending.isEmpty() && slots.tryAcquire()) {
+                Runnable call = pending.poll();
+                if (call == null) {
+                    slots.release();
+                    continue;
+                }
+                pendingCount.decrementAndGet();
+                EXECUTOR.execute(() -> {
+                    try {
+                        call.run();
+                    } finally {
+                        slots.release();
+                        drain();
+                    }
+                });
+            }
+        }
+    }
+
+    private CompletableFuture<JsonNode> get(String route) {
+        return getResult(route).thenApply(res -> {
+            try {
+                return mapper.readTree(res);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+    }
+
+    public CompletableFuture<JsonNode> getOverview() {
+        return get(FlinkRestAPIConstant.OVERVIEW);
+    }
+
+    public CompletableFuture<JsonNode> getJobsOverview() {
+        return get(FlinkRestAPIConstant.JOBSLIST);
+    }
+
+    public CompletableFuture<JsonNode> getJobInfo(String jobId) {
+        return get(FlinkRestAPIConstant.JOBS + jobId);
+    }
+
+    public CompletableFuture<JsonNode> getJobInfoSpecialItem(String jobId, String flinkRestAPIConstant) {
+        return get(FlinkRestAPIConstant.JOBS + jobId + flinkRestAPIConstant);
+    }
+
+    public CompletableFuture<JsonNode> getException(String jobId) {
+        return getJobInfoSpecialItem(jobId, FlinkRestAPIConstant.EXCEPTIONS);
+    }
+
+    public CompletableFuture<JsonNode> getCheckPoints(String jobId) {
+        return getJobInfoSpecialItem(jobId, FlinkRestAPIConstant.CHECKPOINTS);
+    }
+
+    public CompletableFuture<JsonNode> getCheckPointsConfig(String jobId) {
+        return getJobInfoSpecialItem(jobId, FlinkRestAPIConstant.CHECKPOINTS_CONFIG);
+    }
+
+    public CompletableFuture<JsonNode> getJobsConfig(String jobId) {
+        return getJobInfoSpecialItem(jobId, FlinkRestAPIConstant.CONFIG);
+    }
+
+    /**
+     * GET job level metrics, e.g. numberOfCompletedCheckpoints
+     */
+    public CompletableFuture<JsonNode> getJobMetrics(String jobId, String metrics) {
+        return get(FlinkRestAPIConstant.JOBS
+                + jobId
+                + FlinkRestAPIConstant.METRICS
+                + FlinkRestAPIConstant.GET
+                + URLEncodeUtil.encode(metrics));
+    }
+
+    public CompletableFuture<JsonNode> getJobMetricsData(String jobId, String verticeId, String metrics) {
+        return get(FlinkRestAPIConstant.JOBS + jobId + FlinkRestAPIConstant.VERTICES + verticeId
+                + FlinkRestAPIConstant.METRICS + "?get=" + URLEncodeUtil.encode(metrics));
+    }
+
+    /**
+     * GET backpressure
+     */
+    public CompletableFuture<String> getBackPressure(String jobId, String verticeId) {
+        return getResult(FlinkRestAPIConstant.JOBS
+                + jobId
+                + FlinkRestAPIConstant.VERTICES
+                + verticeId
+                + FlinkRestAPIConstant.BACKPRESSURE);
+    }
+
+    /**
+     * GET watermark
+     */
+    public CompletableFuture<String> getWatermark(String jobId, String verticeId) {
+        return getResult(FlinkRestAPIConstant.JOBS
+                + jobId
+                + FlinkRestAPIConstant.VERTICES
+                + verticeId
+                + FlinkRestAPIConstant.WATERMARKS);
+    }
+
+    /**
+     * The vertex ids of a job detail returned by {@link #getJobInfo(String)}.
+     */
+    public static List<String> getVertices(JsonNode jobInfo) {
+        List<String> vertices = new ArrayList<>();
+        if (jobInfo == null || !jobInfo.has("vertices")) {
+            return vertices;
+        }
+        jobInfo.get("vertices").forEach(node -> {
+            if (node != null && node.has(FlinkAPI.ID)) {
+                vertices.add(node.get(FlinkAPI.ID).asText());
+            }
+        });
+        return vertices;
+    }
+}
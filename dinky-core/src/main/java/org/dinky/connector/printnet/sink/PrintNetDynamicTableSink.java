@@ -43,6 +43,10 @@ public class PrintNetDynamicTableSink implements DynamicTableSink, SupportsParti
     private String printIdentifier;
     private ObjectIdentifier objectIdentifier;
     private Map<String, String> staticPartitions = new LinkedHashMap<>();
+    private final String transport;
+    private final int batchSize;
+    private final long batchInterval;
+    private final boolean compression;
 
     public PrintNetDynamicTableSink(
             DataType type,
@@ -51,7 +55,11 @@ public class PrintNetDynamicTableSink implements DynamicTableSink, SupportsParti
             String hostname,
             int port,
             String printIdentifier,
-            ObjectIdentifier objectIdentifier) {
+            ObjectIdentifier objectIdentifier,
+            String transport,
+            int batchSize,
+            long batchInterval,
+            boolean compression) {
         this.hostname = hostname;
         this.port = port;
         this.encodingFormat = serializingFormat;
@@ -59,6 +67,10 @@ public class PrintNetDynamicTableSink implements DynamicTableSink, SupportsParti
         this.partitionKeys = partitionKeys;
         this.printIdentifier = printIdentifier;
         this.objectIdentifier = objectIdentifier;
+        this.transport = transport;
+        this.batchSize = batchSize;
+        this.batchInterval = batchInterval;
+        this.compression = compression;
     }
 
     @Override
@@ -83,6 +95,10 @@ public class PrintNetDynamicTableSink implements DynamicTableSink, SupportsParti
             printIdentifier += key + "=" + value;
         });
 
+        if (PrintNetDynamicTableSinkFactory.TRANSPORT_TCP.equalsIgnoreCase(transport)) {
+            return SinkFunctionProvider.of(new PrintNetFramedSinkFunction(
+                    hostname, port, serializer, converter, printIdentifier, batchSize, batchInterval, compression));
+        }
         return SinkFunctionProvider.of(
                 new PrintNetSinkFunction(hostname, port, serializer, converter, printIdentifier));
     }
@@ -90,7 +106,17 @@ public class PrintNetDynamicTableSink implements DynamicTableSink, SupportsParti
     @Override
     public DynamicTableSink copy() {
         return new PrintNetDynamicTableSink(
-                type, partitionKeys, encodingFormat, hostname, port, printIdentifier, objectIdentifier);
+                type,
+                partitionKeys,
+                encodingFormat,
+                hostname,
+                port,
+                printIdentifier,
+                objectIdentifier,
+                transport,
+                batchSize,
+                batchInterval,
+                compression);
     }
 
     @Override
@@ -33,6 +33,7 @@ import org.apache.flink.table.factories.DynamicTableSinkFactory;
 import org.apache.flink.table.factories.FactoryUtil;
 import org.apache.flink.table.factories.SerializationFormatFactory;
 
+import java.time.Duration;
 import java.util.Arrays;
 import java.util.HashSet;
 import java.util.Set;
@@ -54,6 +55,30 @@ public class PrintNetDynamicTableSinkFactory implements DynamicTableSinkFactory
             .noDefaultValue()
             .withDescription("Message that identify print and is prefixed to the output of the" + " value.");
 
+    public static final String TRANSPORT_UDP = "udp";
+    public static final String TRANSPORT_TCP = "tcp";
+
+    public static final ConfigOption<String> TRANSPORT = key("transport")
+            .stringType()
+            .defaultValue(TRANSPORT_UDP)
+            .withDescription("'udp' sends one datagram per row, 'tcp' sends batches of rows in framed messages"
+                    + " over a persistent connection, without size limit nor loss.");
+
+    public static final ConfigOption<Integer> BATCH_SIZE = key("batch-size")
+            .intType()
+            .defaultValue(500)
+            .withDescription("Max number of rows of a batch of the tcp transport.");
+
+    public static final ConfigOption<Duration> BATCH_INTERVAL = key("batch-interval")
+            .durationType()
+            .defaultValue(Duration.ofMillis(200))
+            .withDescription("Max time a row waits in a batch of the tcp transport.");
+
+    public static final ConfigOption<Boolean> COMPRESSION = key("compression")
+            .booleanType()
+            .defaultValue(false)
+            .withDescription("Deflate the batches of the tcp transport.");
+
     @Override
     public DynamicTableSink createDynamicTableSink(Context context) {
         final FactoryUtil.TableFactoryHelper helper = FactoryUtil.createTableFactoryHelper(this, context);
@@ -77,7 +102,11 @@ public class PrintNetDynamicTableSinkFactory implements DynamicTableSinkFactory
                 options.get(HOSTNAME),
                 options.get(PORT),
                 options.get(PRINT_IDENTIFIER),
-                objectIdentifier);
+                objectIdentifier,
+                options.get(TRANSPORT),
+                options.get(BATCH_SIZE),
+                options.get(BATCH_INTERVAL).toMillis(),
+                options.get(COMPRESSION));
     }
 
     @Override
@@ -92,6 +121,7 @@ public class PrintNetDynamicTableSinkFactory implements DynamicTableSinkFactory
 
     @Override
     public Set<ConfigOption<?>> optionalOptions() {
-        return new HashSet<>(Arrays.asList(PRINT_IDENTIFIER, FactoryUtil.FORMAT));
+        return new HashSet<>(Arrays.asList(
+                PRINT_IDENTIFIER, FactoryUtil.FORMAT, TRANSPORT, BATCH_SIZE, BATCH_INTERVAL, COMPRESSION));
     }
 }
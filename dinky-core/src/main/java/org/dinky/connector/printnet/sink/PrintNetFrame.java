@@ -0,0 +1,146 @@
+/*
+ *
+ *  Licensed to the Apache Software Foundation (ASF) under one or more
+ *  contributor license agreements.  See the NOTICE file distributed with
+ *  this work for additional information regarding copyright ownership.
+ *  The ASF licenses this file to You under the Apache License, Version 2.0
+ *  (the "License"); you may not use this file except in compliance with
+ *  the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+
+package org.dinky.connector.printnet.sink;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.Inflater;
+
+import lombok.Getter;
+
+/**
+ * A batch of rows of one print table sent by one subtask over the tcp transport.
+ *
+ * <p>Layout: {@code [int length][byte version][byte flags][long sequence][int subtask][short identifier length]
+ * [identifier][int row count][int uncompressed body length][body]}, the length counts the bytes after itself and the
+ * body is the rows as {@code [int length][bytes]}, deflated when the {@link #FLAG_DEFLATE} flag is set.
+ */
+@Getter
+public class PrintNetFrame {
+
+    public static final byte VERSION = 1;
+    public static final byte FLAG_DEFLATE = 1;
+    public static final int MAX_FRAME_SIZE = 64 * 1024 * 1024;
+
+    private final String identifier;
+    private final int subtask;
+    private final long sequence;
+    private final List<byte[]> rows;
+
+    public PrintNetFrame(String identifier, int subtask, long sequence, List<byte[]> rows) {
+        this.identifier = identifier;
+        this.subtask = subtask;
+        this.sequence = sequence;
+        this.rows = rows;
+    }
+
+    public byte[] encode(boolean deflate) throws IOException {
+        ByteArrayOutputStream body = new ByteArrayOutputStream();
+        int bodyLength = 0;
+        Deflater deflater = deflate ? new Deflater(Deflater.BEST_SPEED) : null;
+        try (DataOutputStream out = new DataOutputStream(deflate ? new DeflaterOutputStream(body, deflater) : body)) {
+            for (byte[] row : rows) {
+                out.writeInt(row.length);
+                out.write(row);
+                bodyLength += 4 + row.length;
+            }
+        } finally {
+            if (deflater != null) {
+                deflater.end();
+            }
+        }
+        byte[] identifierBytes = identifier.getBytes(StandardCharsets.UTF_8);
+        ByteArrayOutputStream frame = new ByteArrayOutputStream(body.size() + identifierBytes.length + 32);
+        DataOutputStream out = new DataOutputStream(frame);
+        out.writeInt(1 + 1 + 8 + 4 + 2 + identifierBytes.length + 4 + 4 + body.size());
+        out.writeByte(VERSION);
+        out.writeByte(deflate ? FLAG_DEFLATE : 0);
+        out.writeLong(sequence);
+        out.writeInt(subtask);
+        out.writeShort(identifierBytes.length);
+        out.write(identifierBytes);
+        out.writeInt(rows.size());
+        out.writeInt(bodyLength);
+        body.writeTo(out);
+        out.flush();
+        return frame.toByteArray();
+    }
+
+    /**
+     * @param frame the bytes of one frame, after its length
+     */
+    public static PrintNetFrame decode(ByteBuffer frame) throws IOException {
+        byte version = frame.get();
+        if (version != VERSION) {
+            throw new IOException("Unsupported print frame version " + version);
+        }
+        byte flags = frame.get();
+        long sequence = frame.getLong();
+        int subtask = frame.getInt();
+        byte[] identifierBytes = new byte[frame.getShort() & 0xFFFF];
+        frame.get(identifierBytes);
+        int rowCount = frame.getInt();
+        int bodyLength = frame.getInt();
+        if (bodyLength < 0 || bodyLength > MAX_FRAME_SIZE) {
+            throw new IOException("Invalid print frame body length " + bodyLength);
+        }
+        ByteBuffer body = frame;
+        if ((flags & FLAG_DEFLATE) != 0) {
+            byte[] compressed = new byte[frame.remaining()];
+            frame.get(compressed);
+            byte[] inflated = new byte[bodyLength];
+            Inflater inflater = new Inflater();
+            try {
+                inflater.setInput(compressed);
+                int length = 0;
+                while (length < bodyLength && !inflater.finished()) {
+                    int n = inflater.inflate(inflated, length, bodyLength - length);
+                    if (n == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+                        break;
+                    }
+                    length += n;
+                }
+                if (length != bodyLength) {
+                    throw new IOException("Truncated print frame body");
+                }
+            } catch (DataFormatException e) {
+                throw new IOException(e);
+            } finally {
+                inflater.end();
+            }
+            body = ByteBuffer.wrap(inflated);
+        }
+        List<byte[]> rows = new ArrayList<>(rowCount);
+        for (int i = 0; i < rowCount; i++) {
+            byte[] row = new byte[body.getInt()];
+            body.get(row);
+            rows.add(row);
+        }
+        return new PrintNetFrame(new String(identifierBytes, StandardCharsets.UTF_8), subtask, sequence, rows);
+    }
+}
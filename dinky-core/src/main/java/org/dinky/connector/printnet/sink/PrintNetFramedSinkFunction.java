@@ -0,0 +1,232 @@
+/*
+ *
+ *  Licensed to the Apache Software Foundation (ASF) under one or more
+ *  contributor license agreements.  See the NOTICE file distributed with
+ *  this work for additional information regarding copyright ownership.
+ *  The ASF licenses this file to You under the Apache License, Version 2.0
+ *  (the "License"); you may not use this file except in compliance with
+ *  the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+
+package org.dinky.connector.printnet.sink;
+
+import org.apache.flink.api.common.serialization.SerializationSchema;
+import org.apache.flink.configuration.Configuration;
+import org.apache.flink.runtime.state.FunctionInitializationContext;
+import org.apache.flink.runtime.state.FunctionSnapshotContext;
+import org.apache.flink.streaming.api.checkpoint.CheckpointedFunction;
+import org.apache.flink.streaming.api.functions.sink.RichSinkFunction;
+import org.apache.flink.table.connector.sink.DynamicTableSink;
+import org.apache.flink.table.data.RowData;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Sends the rows in batches of {@link PrintNetFrame}s over a persistent tcp connection. A batch is sent when it is
+ * full, when the batch interval elapses and on checkpoints; a frame that can not be sent is retried on a new
+ * connection and fails the job after the last attempt, so no row is silently dropped.
+ */
+@Slf4j
+public class PrintNetFramedSinkFunction extends RichSinkFunction<RowData> implements CheckpointedFunction {
+
+    private static final int MAX_BATCH_BYTES = 4 * 1024 * 1024;
+    private static final int MAX_ATTEMPTS = 3;
+
+    private final String hostname;
+    private final int port;
+    private final SerializationSchema<RowData> serializer;
+    private final DynamicTableSink.DataStructureConverter converter;
+    private final String printIdentifier;
+    private final int batchSize;
+    private final long batchInterval;
+    private final boolean deflate;
+
+    private transient SocketChannel channel;
+    private transient List<byte[]> batch;
+    private transient int batchBytes;
+    private transient long sequence;
+    private transient int subtask;
+    private transient ScheduledExecutorService scheduler;
+    private transient volatile Exception flushException;
+
+    public PrintNetFramedSinkFunction(
+            String hostname,
+            int port,
+            SerializationSchema<RowData> serializer,
+            DynamicTableSink.DataStructureConverter converter,
+            String printIdentifier,
+            int batchSize,
+            long batchInterval,
+            boolean deflate) {
+        this.hostname = hostname;
+        this.port = port;
+        this.serializer = serializer;
+        this.converter = converter;
+        this.printIdentifier = printIdentifier;
+        this.batchSize = batchSize;
+        this.batchInterval = batchInterval;
+        this.deflate = deflate;
+    }
+
+    @Override
+    public void open(Configuration parameters) throws Exception {
+        super.open(parameters);
+        if (serializer != null) {
+            serializer.open(null);
+        }
+        subtask = getRuntimeContext().getIndexOfThisSubtask();
+        batch = new ArrayList<>(batchSize);
+        batchBytes = 0;
+        sequence = 0;
+        log.info("PrintNetFramedSinkFunction target address: {}, port: {}", hostname, port);
+
+        if (batchInterval > 0) {
+            scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+                Thread thread = new Thread(r, "PrintNet-Flusher-" + subtask);
+                thread.setDaemon(true);
+                return thread;
+            });
+            scheduler.scheduleWithFixedDelay(
+                    () -> {
+                        synchronized (PrintNetFramedSinkFunction.this) {
+                            if (flushException == null) {
+                                try {
+                                    flush();
+                                } catch (Exception e) {
+                                    flushException = e;
+                                }
+                            }
+                        }
+                    },
+                    batchInterval,
+                    batchInterval,
+                    TimeUnit.MILLISECONDS);
+        }
+    }
+
+    @Override
+    public void invoke(RowData value, Context context) throws Exception {
+        checkFlushException();
+        byte[] row = serializer != null
+                ? serializer.serialize(value)
+                : converter.toExternal(value).toString().getBytes(StandardCharsets.UTF_8);
+        synchronized (this) {
+            batch.add(row);
+            batchBytes += row.length;
+            if (batch.size() >= batchSize || batchBytes >= MAX_BATCH_BYTES) {
+                flush();
+            }
+        }
+    }
+
+    @Override
+    public void snapshotState(FunctionSnapshotContext context) throws Exception {
+        checkFlushException();
+        synchronized (this) {
+            flush();
+        }
+    }
+
+    @Override
+    public void initializeState(FunctionInitializationContext context) {
+        // Nothing to restore, the batch is flushed on every checkpoint
+    }
+
+    @Override
+    public void close() throws Exception {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+        }
+        try {
+            if (flushException == null && batch != null) {
+                synchronized (this) {
+                    flush();
+                }
+            }
+        } finally {
+            closeChannel();
+            super.close();
+        }
+        checkFlushException();
+    }
+
+    private void flush() throws IOException {
+        if (batch.isEmpty()) {
+            return;
+        }
+        byte[] frame = new PrintNetFrame(printIdentifier, subtask, sequence, batch).encode(deflate);
+        for (int attempt = 1; ; attempt++) {
+            try {
+                if (channel == null) {
+                    connect();
+                }
+                ByteBuffer buffer = ByteBuffer.wrap(frame);
+                while (buffer.hasRemaining()) {
+                    channel.write(buffer);
+                }
+                break;
+            } catch (IOException e) {
+                closeChannel();
+                if (attempt >= MAX_ATTEMPTS) {
+                    throw new IOException(
+                            String.format(
+                                    "Failed to send %d rows of %s to %s:%d",
+                                    batch.size(), printIdentifier, hostname, port),
+                            e);
+                }
+                log.warn("Failed to send print frame, retry {}/{}: {}", attempt, MAX_ATTEMPTS, e.getMessage());
+                try {
+                    Thread.sleep(100L * attempt);
+                } catch (InterruptedException ie) {
+                    Thread.currentThread().interrupt();
+                    throw new IOException(ie);
+                }
+            }
+        }
+        sequence++;
+        batch = new ArrayList<>(batchSize);
+        batchBytes = 0;
+    }
+
+    private void connect() throws IOException {
+        channel = SocketChannel.open(new InetSocketAddress(hostname, port));
+        channel.configureBlocking(true);
+    }
+
+    private void closeChannel() {
+        if (channel != null) {
+            try {
+                channel.close();
+            } catch (IOException e) {
+                log.debug("Close print channel failed", e);
+            }
+            channel = null;
+        }
+    }
+
+    private void checkFlushException() {
+        if (flushException != null) {
+            throw new RuntimeException("Writing print rows failed.", flushException);
+        }
+    }
+}
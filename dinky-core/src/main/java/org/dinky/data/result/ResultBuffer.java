@@ -0,0 +1,369 @@
+/*
+ *
+ *  Licensed to the Apache Software Foundation (ASF) under one or more
+ *  contributor license agreements.  See the NOTICE file distributed with
+ *  this work for additional information regarding copyright ownership.
+ *  The ASF licenses this file to You under the Apache License, Version 2.0
+ *  (the "License"); you may not use this file except in compliance with
+ *  the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+
+package org.dinky.data.result;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * ResultBuffer
+ *
+ * <p>Column oriented buffer of the preview rows of a select. Every change of the buffer bumps its version, and every
+ * row remembers the version it was added at, so a client polling with the version of its last poll only gets the
+ * rows added since then. A retraction finds its row through a hash index on the key fields of the row, the full row
+ * when the result has no primary key, marks it as retracted and drops its values.
+ *
+ * <p>Once its collection is finished, a buffer may be spilled to a local file by the {@link ResultPool} to give its
+ * memory back, the live rows are read back from the file when it is read.
+ */
+public class ResultBuffer {
+
+    private static final int INITIAL_CAPACITY = 16;
+    private static final long ROW_OVERHEAD = 64;
+    private static final long VALUE_OVERHEAD = 40;
+
+    private final String id;
+    private final Integer owner;
+    private final List<String> columns;
+    private final int[] keyIndexes;
+
+    private Object[][] columnData;
+    private long[] rowVersions;
+    private final BitSet retracted = new BitSet();
+    private int rowCount = 0;
+    private int liveCount = 0;
+    private long version = 0;
+
+    /** key -> positions of the live rows with this key, oldest first */
+    private final Map<Object, Deque<Integer>> index = new HashMap<>();
+
+    /** add versions of the rows retracted since a version, in retraction order: [retract version, add version] */
+    private final List<long[]> retractions = new ArrayList<>();
+
+    static final int MEMORY = 0;
+    static final int SPILLING = 1;
+    static final int SPILLED = 2;
+    static final int RESTORING = 3;
+    static final int RELEASED = 4;
+
+    /** Where the rows are, the {@link ResultPool} accounts the bytes of a buffer only while it is in memory */
+    final AtomicInteger state = new AtomicInteger(MEMORY);
+
+    /** Estimated bytes of the live rows, accounted by the {@link ResultPool} */
+    final AtomicLong bytes = new AtomicLong();
+
+    private volatile boolean finished = false;
+    private volatile boolean truncated = false;
+    private volatile long lastAccess = System.currentTimeMillis();
+    private volatile File spillFile;
+
+    /**
+     * @param keyIndexes the positions of the key fields in the columns, empty to use the full row as key
+     */
+    public ResultBuffer(String id, Integer owner, List<String> columns, int[] keyIndexes) {
+        this.id = id;
+        this.owner = owner;
+        this.columns = new ArrayList<>(columns);
+        this.keyIndexes = keyIndexes;
+        this.columnData = new Object[columns.size()][INITIAL_CAPACITY];
+        this.rowVersions = new long[INITIAL_CAPACITY];
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public Integer getOwner() {
+        return owner;
+    }
+
+    public boolean isFinished() {
+        return finished;
+    }
+
+    /** No more rows are collected */
+    public void finish() {
+        finished = true;
+    }
+
+    /** The collection was stopped by the memory budget of the {@link ResultPool} */
+    public void truncate() {
+        truncated = true;
+        finished = true;
+    }
+
+    long getLastAccess() {
+        return lastAccess;
+    }
+
+    void touch() {
+        lastAccess = System.currentTimeMillis();
+    }
+
+    public boolean isSpilled() {
+        return spillFile != null;
+    }
+
+    /**
+     * Rough heap size of a row, the values are accounted as boxed objects and strings.
+     */
+    public static long estimateSize(Object[] values) {
+        long size = ROW_OVERHEAD + 8L * values.length;
+        for (Object value : values) {
+            if (value == null || value instanceof Number || value instanceof Boolean) {
+                size += 16;
+            } else if (value instanceof CharSequence) {
+                size += VALUE_OVERHEAD + 2L * ((CharSequence) value).length();
+            } else if (value instanceof byte[]) {
+                size += 16 + ((byte[]) value).length;
+            } else {
+                size += VALUE_OVERHEAD + 2L * String.valueOf(value).length();
+            }
+        }
+        return size;
+    }
+
+    public synchronized long getVersion() {
+        return version;
+    }
+
+    public synchronized int size() {
+        return liveCount;
+    }
+
+    public synchronized void add(Object[] values) {
+        if (rowCount == rowVersions.length) {
+            int capacity = Math.max(rowCount * 2, INITIAL_CAPACITY);
+            for (int i = 0; i < columnData.length; i++) {
+                columnData[i] = Arrays.copyOf(columnData[i], capacity);
+            }
+            rowVersions = Arrays.copyOf(rowVersions, capacity);
+        }
+        for (int i = 0; i < columnData.length; i++) {
+            columnData[i][rowCount] = values[i];
+        }
+        rowVersions[rowCount] = ++version;
+        index.computeIfAbsent(keyOf(values), k -> new ArrayDeque<>()).addLast(rowCount);
+        rowCount++;
+        liveCount++;
+    }
+
+    /**
+     * Retract the oldest live row with the key of the values.
+     *
+     * @return false if there is no such row
+     */
+    public boolean retract(Object[] values) {
+        return retractRow(values) >= 0;
+    }
+
+    /**
+     * Retract the oldest live row with the key of the values and drop its values.
+     *
+     * @return the estimated bytes of the retracted row, -1 if there is no such row
+     */
+    synchronized long retractRow(Object[] values) {
+        Object key = keyOf(values);
+        Deque<Integer> positions = index.get(key);
+        if (positions == null) {
+            return -1;
+        }
+        int position = positions.pollFirst();
+        if (positions.isEmpty()) {
+            index.remove(key);
+        }
+        Object[] row = new Object[columnData.length];
+        for (int i = 0; i < columnData.length; i++) {
+            row[i] = columnData[i][position];
+            columnData[i][position] = null;
+        }
+        retracted.set(position);
+        liveCount--;
+        retractions.add(new long[] {++version, rowVersions[position]});
+        return estimateSize(row);
+    }
+
+    private Object keyOf(Object[] values) {
+        if (keyIndexes.length == 0) {
+            return Arrays.asList(values.clone());
+        }
+        if (keyIndexes.length == 1) {
+            return values[keyIndexes[0]];
+        }
+        Object[] key = new Object[keyIndexes.length];
+        for (int i = 0; i < keyIndexes.length; i++) {
+            key[i] = values[keyIndexes[i]];
+        }
+        return Arrays.asList(key);
+    }
+
+    /**
+     * Read the rows added after a version. If a row the client already got has been retracted since then, the
+     * increment can not express it and all the live rows are returned instead.
+     *
+     * @param sinceVersion the version of the last poll of the client, 0 for all the live rows
+     */
+    public synchronized SelectResult read(long sinceVersion) {
+        if (spillFile == null) {
+            return readRows(sinceVersion);
+        }
+        load();
+        try {
+            return readRows(sinceVersion);
+        } finally {
+            unload();
+        }
+    }
+
+    private SelectResult readRows(long sinceVersion) {
+        boolean incremental = sinceVersion > 0 && sinceVersion <= version;
+        int last = retractions.size() - 1;
+        while (incremental && last >= 0 && retractions.get(last)[0] > sinceVersion) {
+            incremental = retractions.get(last--)[1] > sinceVersion;
+        }
+        int from = incremental ? firstRowAfter(sinceVersion) : 0;
+        List<Map<String, Object>> rowData = new ArrayList<>(Math.min(liveCount, rowCount - from));
+        for (int row = from; row < rowCount; row++) {
+            if (retracted.get(row)) {
+                continue;
+            }
+            Map<String, Object> map = new LinkedHashMap<>();
+            for (int i = 0; i < columnData.length; i++) {
+                map.put(columns.get(i), columnData[i][row]);
+            }
+            rowData.add(map);
+        }
+        SelectResult result = new SelectResult(id, rowData, new LinkedHashSet<>(columns));
+        result.setTotal(liveCount);
+        result.setCurrentCount(rowData.size());
+        result.setVersion(version);
+        result.setIncremental(incremental);
+        result.setTruncated(truncated);
+        return result;
+    }
+
+    /**
+     * Write the live rows to a file and drop them from memory. The key index is dropped too, a finished buffer is not
+     * retracted anymore.
+     */
+    synchronized void spill(File file) throws IOException {
+        try (DataOutputStream out =
+                new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(file.toPath())))) {
+            out.writeInt(liveCount);
+            for (int row = 0; row < rowCount; row++) {
+                if (retracted.get(row)) {
+                    continue;
+                }
+                out.writeLong(rowVersions[row]);
+                for (Object[] column : columnData) {
+                    ResultSpillFile.writeValue(out, column[row]);
+                }
+            }
+        }
+        spillFile = file;
+        index.clear();
+        unload();
+    }
+
+    /**
+     * Read the rows back from the spill file and delete it.
+     *
+     * @return false if the buffer is not spilled
+     */
+    synchronized boolean restore() {
+        if (spillFile == null) {
+            return false;
+        }
+        load();
+        if (!spillFile.delete()) {
+            spillFile.deleteOnExit();
+        }
+        spillFile = null;
+        return true;
+    }
+
+    /** Drop the spill file of a buffer leaving the pool */
+    synchronized void release() {
+        if (spillFile != null && !spillFile.delete()) {
+            spillFile.deleteOnExit();
+        }
+    }
+
+    private void load() {
+        try (DataInputStream in =
+                new DataInputStream(new BufferedInputStream(Files.newInputStream(spillFile.toPath())))) {
+            int count = in.readInt();
+            int capacity = Math.max(count, INITIAL_CAPACITY);
+            columnData = new Object[columns.size()][capacity];
+            rowVersions = new long[capacity];
+            for (int row = 0; row < count; row++) {
+                rowVersions[row] = in.readLong();
+                for (Object[] column : columnData) {
+                    column[row] = ResultSpillFile.readValue(in);
+                }
+            }
+            rowCount = count;
+            liveCount = count;
+            retracted.clear();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void unload() {
+        columnData = new Object[columns.size()][0];
+        rowVersions = new long[0];
+        rowCount = 0;
+        retracted.clear();
+    }
+
+    /** The rows are in add order, so are their versions */
+    private int firstRowAfter(long sinceVersion) {
+        int low = 0;
+        int high = rowCount;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (rowVersions[mid] <= sinceVersion) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+}
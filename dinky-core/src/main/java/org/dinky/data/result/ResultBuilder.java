@@ -37,10 +37,24 @@ public interface ResultBuilder {
             boolean isChangeLog,
             boolean isAutoCancel,
             String timeZone) {
+        return build(operationType, id, null, maxRowNum, isChangeLog, isAutoCancel, timeZone);
+    }
+
+    /**
+     * @param owner the user running the statement, the preview rows of a select are accounted to
+     */
+    static ResultBuilder build(
+            SqlType operationType,
+            String id,
+            Integer owner,
+            Integer maxRowNum,
+            boolean isChangeLog,
+            boolean isAutoCancel,
+            String timeZone) {
         switch (operationType) {
             case SELECT:
             case WITH:
-                return new SelectResultBuilder(id, maxRowNum, isChangeLog, isAutoCancel, timeZone);
+                return new SelectResultBuilder(id, owner, maxRowNum, isChangeLog, isAutoCancel, timeZone);
             case SHOW:
             case DESC:
             case DESCRIBE:
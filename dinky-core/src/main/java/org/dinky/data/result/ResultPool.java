@@ -19,46 +19,394 @@
 
 package org.dinky.data.result;
 
+import org.dinky.data.exception.DinkyException;
+import org.dinky.function.constant.PathConstant;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 
-import cn.hutool.cache.Cache;
-import cn.hutool.cache.impl.TimedCache;
+import cn.hutool.core.io.FileUtil;
+import lombok.extern.slf4j.Slf4j;
 
 /**
  * ResultPool
  *
+ * <p>Holds the preview rows of the selects. The estimated bytes of the rows are accounted against a global budget
+ * and a budget per user, when a budget is exceeded the coldest finished results are spilled to local files, and when
+ * that is not enough the collection of the result is stopped. New previews are turned back while their user, or the
+ * pool, is out of budget. The collectors run on a bounded executor and are cancelled with their result.
+ *
+ * <p>The bytes are accounted with atomic counters, so the collectors only meet on the pool lock when a budget is
+ * exceeded. The lock guards the access order of the results, the spill files are written and read outside of it.
+ *
+ * <p>The budgets can be set with the system properties {@code dinky.result.max-bytes},
+ * {@code dinky.result.max-user-bytes} and {@code dinky.result.max-collectors}.
+ *
  * @since 2021/7/1 22:20
  */
+@Slf4j
 public final class ResultPool {
 
     private ResultPool() {}
 
-    private static final Cache<String, SelectResult> results = new TimedCache<>(TimeUnit.MINUTES.toMillis(10));
+    private static final long TIMEOUT = TimeUnit.MINUTES.toMillis(10);
+    private static final long MAX_BYTES = Long.getLong("dinky.result.max-bytes", 256L * 1024 * 1024);
+    private static final long MAX_USER_BYTES = Long.getLong("dinky.result.max-user-bytes", 64L * 1024 * 1024);
+    private static final int MAX_COLLECTORS = Integer.getInteger("dinky.result.max-collectors", 32);
+
+    /** Rough size of a preview row, used to tell whether a new preview fits in the budget */
+    private static final long ESTIMATED_ROW_BYTES = 256;
+
+    /** Key of the bytes of the results without owner */
+    private static final int NO_OWNER = Integer.MIN_VALUE;
+
+    private static final String SPILL_PATH = PathConstant.TMP_PATH + "result" + File.separator;
+
+    /** Access ordered, the eldest result is the coldest one, guarded by the pool lock */
+    private static final LinkedHashMap<String, ResultBuffer> results = new LinkedHashMap<>(16, 0.75f, true);
+
+    /** owner -> bytes of its results in memory */
+    private static final Map<Integer, AtomicLong> userBytes = new ConcurrentHashMap<>();
+
+    private static final AtomicLong usedBytes = new AtomicLong();
 
-    public static boolean containsKey(String key) {
+    private static final Map<String, FutureTask<?>> collectors = new ConcurrentHashMap<>();
+
+    private static final AtomicInteger THREAD_INDEX = new AtomicInteger(0);
+
+    private static final ThreadPoolExecutor EXECUTOR = new ThreadPoolExecutor(
+            MAX_COLLECTORS, MAX_COLLECTORS, 60, TimeUnit.SECONDS, new SynchronousQueue<>(), r -> {
+                Thread thread = new Thread(r, "ResultCollector-" + THREAD_INDEX.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            });
+
+    static {
+        EXECUTOR.allowCoreThreadTimeOut(true);
+        FileUtil.del(SPILL_PATH);
+    }
+
+    public static synchronized boolean containsKey(String key) {
         return results.containsKey(key);
     }
 
-    public static void put(SelectResult result) {
-        results.put(result.getJobId(), result);
+    public static void put(ResultBuffer buffer) {
+        List<ResultBuffer> released;
+        synchronized (ResultPool.class) {
+            released = purge();
+            ResultBuffer old = results.put(buffer.getId(), buffer);
+            if (old != null && old != buffer) {
+                released.add(old);
+            }
+        }
+        released.forEach(ResultPool::release);
     }
 
     public static SelectResult get(String key) {
-        if (containsKey(key)) {
-            return results.get(key);
+        return get(key, 0);
+    }
+
+    /**
+     * @param sinceVersion the version of the last read, only the rows added since are returned
+     */
+    public static SelectResult get(String key, long sinceVersion) {
+        ResultBuffer buffer;
+        List<ResultBuffer> released;
+        synchronized (ResultPool.class) {
+            released = purge();
+            buffer = results.get(key);
+        }
+        released.forEach(ResultPool::release);
+        if (buffer == null) {
+            return SelectResult.buildDestruction(key);
+        }
+        buffer.touch();
+        if (buffer.state.compareAndSet(ResultBuffer.SPILLED, ResultBuffer.RESTORING)) {
+            restore(buffer);
         }
-        return SelectResult.buildDestruction(key);
+        try {
+            // A result that does not fit in memory is read from its spill file, under the lock of the buffer only
+            return buffer.read(sinceVersion);
+        } catch (Exception e) {
+            log.error("Read the result of {} failed", key, e);
+            synchronized (ResultPool.class) {
+                if (!results.remove(key, buffer)) {
+                    return SelectResult.buildDestruction(key);
+                }
+            }
+            cancel(key);
+            release(buffer);
+            return SelectResult.buildDestruction(key);
+        }
+    }
+
+    /**
+     * Turn back a new preview of a user while the user, or the pool, is out of budget or collectors.
+     */
+    public static void admit(Integer owner, Integer maxRowNum) {
+        purgeExpired();
+        if (collectors.size() >= MAX_COLLECTORS) {
+            throw new DinkyException(String.format(
+                    "Too many select previews are running (%d), please retry later or stop some of them",
+                    collectors.size()));
+        }
+        long expectedBytes = Math.min(MAX_USER_BYTES, ESTIMATED_ROW_BYTES * (maxRowNum == null ? 100 : maxRowNum));
+        if (isOverBudget(owner, expectedBytes)) {
+            spill(selectColdest(owner, expectedBytes, null));
+        }
+        if (isOverBudget(owner, expectedBytes)) {
+            throw new DinkyException(String.format(
+                    "The select preview would exceed the result memory budget (user %s of %s, all %s of %s), "
+                            + "please retry later or lower the max row num",
+                    FileUtil.readableFileSize(userBytes(owner).get()),
+                    FileUtil.readableFileSize(MAX_USER_BYTES),
+                    FileUtil.readableFileSize(usedBytes.get()),
+                    FileUtil.readableFileSize(MAX_BYTES)));
+        }
+    }
+
+    /**
+     * Run the collector of a result on the bounded executor, it is cancelled when the result is removed.
+     */
+    public static void collect(String key, Runnable collector) {
+        FutureTask<?> task = new FutureTask<Void>(collector, null) {
+
+            @Override
+            protected void done() {
+                collectors.remove(key, this);
+            }
+        };
+        FutureTask<?> old = collectors.put(key, task);
+        if (old != null) {
+            old.cancel(true);
+        }
+        try {
+            EXECUTOR.execute(task);
+        } catch (RejectedExecutionException e) {
+            collectors.remove(key, task);
+            throw new DinkyException(
+                    String.format("Too many select previews are running (%d), please retry later", MAX_COLLECTORS));
+        }
+    }
+
+    /**
+     * Reserve the memory of new rows of a result, spilling colder results when needed.
+     *
+     * @return false if the rows do not fit in the budget, or the result has left the pool
+     */
+    public static boolean reserve(ResultBuffer buffer, long bytes) {
+        if (buffer.state.get() != ResultBuffer.MEMORY || !reserveRoom(buffer.getOwner(), bytes, buffer)) {
+            return false;
+        }
+        buffer.bytes.addAndGet(bytes);
+        if (buffer.state.get() == ResultBuffer.RELEASED) {
+            // Released in the meantime, give back what the release has not seen
+            account(buffer.getOwner(), -buffer.bytes.getAndSet(0));
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * Retract a row of a result and give its memory back.
+     *
+     * @return false if there is no such row
+     */
+    public static boolean retract(ResultBuffer buffer, Object[] values) {
+        long bytes = buffer.retractRow(values);
+        if (bytes < 0) {
+            return false;
+        }
+        buffer.bytes.addAndGet(-bytes);
+        account(buffer.getOwner(), -bytes);
+        if (buffer.state.get() == ResultBuffer.RELEASED) {
+            account(buffer.getOwner(), -buffer.bytes.getAndSet(0));
+        }
+        return true;
     }
 
     public static boolean remove(String key) {
-        if (results.containsKey(key)) {
-            results.remove(key);
-            return true;
+        ResultBuffer buffer;
+        synchronized (ResultPool.class) {
+            buffer = results.remove(key);
         }
-        return false;
+        if (buffer == null) {
+            return false;
+        }
+        cancel(key);
+        release(buffer);
+        return true;
     }
 
     public static void clear() {
-        results.clear();
+        List<String> keys;
+        synchronized (ResultPool.class) {
+            keys = new ArrayList<>(results.keySet());
+        }
+        keys.forEach(ResultPool::remove);
+    }
+
+    /** Bytes of the results in memory */
+    static long getUsedBytes() {
+        return usedBytes.get();
+    }
+
+    private static AtomicLong userBytes(Integer owner) {
+        return userBytes.computeIfAbsent(owner == null ? NO_OWNER : owner, k -> new AtomicLong());
+    }
+
+    private static boolean isOverBudget(Integer owner, long bytes) {
+        return usedBytes.get() + bytes > MAX_BYTES || userBytes(owner).get() + bytes > MAX_USER_BYTES;
+    }
+
+    /**
+     * Account the bytes if they fit in the budgets.
+     */
+    private static boolean tryAccount(Integer owner, long bytes) {
+        AtomicLong user = userBytes(owner);
+        long used = usedBytes.addAndGet(bytes);
+        if (user.addAndGet(bytes) > MAX_USER_BYTES || used > MAX_BYTES) {
+            usedBytes.addAndGet(-bytes);
+            user.addAndGet(-bytes);
+            return false;
+        }
+        return true;
+    }
+
+    private static void account(Integer owner, long bytes) {
+        usedBytes.addAndGet(bytes);
+        userBytes(owner).addAndGet(bytes);
+    }
+
+    /**
+     * Account the bytes, spilling the coldest finished results when they do not fit in the budgets.
+     */
+    private static boolean reserveRoom(Integer owner, long bytes, ResultBuffer exclude) {
+        if (tryAccount(owner, bytes)) {
+            return true;
+        }
+        spill(selectColdest(owner, bytes, exclude));
+        return tryAccount(owner, bytes);
+    }
+
+    /**
+     * Pick the coldest finished results to spill until the bytes fit in the budgets. Their bytes are given back
+     * right away, and accounted again if their spill fails.
+     */
+    private static synchronized List<ResultBuffer> selectColdest(Integer owner, long bytes, ResultBuffer exclude) {
+        List<ResultBuffer> selected = Collections.emptyList();
+        for (Iterator<ResultBuffer> it = results.values().iterator(); it.hasNext() && isOverBudget(owner, bytes); ) {
+            ResultBuffer cold = it.next();
+            boolean overUser = userBytes(owner).get() + bytes > MAX_USER_BYTES;
+            boolean helps = !overUser || (owner == null ? cold.getOwner() == null : owner.equals(cold.getOwner()));
+            if (cold == exclude
+                    || !cold.isFinished()
+                    || !helps
+                    || !cold.state.compareAndSet(ResultBuffer.MEMORY, ResultBuffer.SPILLING)) {
+                continue;
+            }
+            account(cold.getOwner(), -cold.bytes.get());
+            if (selected.isEmpty()) {
+                selected = new ArrayList<>();
+            }
+            selected.add(cold);
+        }
+        return selected;
+    }
+
+    private static void spill(List<ResultBuffer> selected) {
+        for (ResultBuffer cold : selected) {
+            File file = new File(SPILL_PATH, cold.getId() + "-" + System.nanoTime() + ".result");
+            try {
+                FileUtil.mkParentDirs(file);
+                cold.spill(file);
+                if (cold.state.compareAndSet(ResultBuffer.SPILLING, ResultBuffer.SPILLED)) {
+                    log.info("Spilled the result of {} to {}", cold.getId(), file);
+                }
+            } catch (Exception e) {
+                log.warn("Spill the result of {} failed", cold.getId(), e);
+                FileUtil.del(file);
+                if (cold.state.compareAndSet(ResultBuffer.SPILLING, ResultBuffer.MEMORY)) {
+                    account(cold.getOwner(), cold.bytes.get());
+                }
+            }
+        }
+    }
+
+    /**
+     * Read a spilled result back into memory if it fits in the budgets, otherwise it stays spilled and is read from
+     * its file.
+     */
+    private static void restore(ResultBuffer buffer) {
+        Integer owner = buffer.getOwner();
+        long bytes = buffer.bytes.get();
+        boolean restored = false;
+        if (reserveRoom(owner, bytes, buffer)) {
+            try {
+                restored = buffer.restore();
+            } catch (Exception e) {
+                log.warn("Restore the spilled result of {} failed", buffer.getId(), e);
+            }
+            if (!restored || !buffer.state.compareAndSet(ResultBuffer.RESTORING, ResultBuffer.MEMORY)) {
+                account(owner, -bytes);
+            }
+        }
+        if (!restored) {
+            buffer.state.compareAndSet(ResultBuffer.RESTORING, ResultBuffer.SPILLED);
+        }
+    }
+
+    private static void cancel(String key) {
+        FutureTask<?> collector = collectors.remove(key);
+        if (collector != null) {
+            collector.cancel(true);
+        }
+    }
+
+    private static void release(ResultBuffer buffer) {
+        if (buffer.state.getAndSet(ResultBuffer.RELEASED) == ResultBuffer.MEMORY) {
+            account(buffer.getOwner(), -buffer.bytes.getAndSet(0));
+        }
+        buffer.release();
+    }
+
+    private static void purgeExpired() {
+        List<ResultBuffer> released;
+        synchronized (ResultPool.class) {
+            released = purge();
+        }
+        released.forEach(ResultPool::release);
+    }
+
+    /**
+     * Drop the results not read for a while, they are released by the caller outside of the pool lock. The results
+     * are access ordered, so the expired ones come first.
+     */
+    private static List<ResultBuffer> purge() {
+        List<ResultBuffer> expired = new ArrayList<>(0);
+        long expireTime = System.currentTimeMillis() - TIMEOUT;
+        for (Iterator<ResultBuffer> it = results.values().iterator(); it.hasNext(); ) {
+            ResultBuffer buffer = it.next();
+            if (buffer.getLastAccess() >= expireTime) {
+                break;
+            }
+            it.remove();
+            cancel(buffer.getId());
+            expired.add(buffer);
+        }
+        return expired;
     }
 }
@@ -29,13 +29,9 @@ import org.apache.flink.types.RowKind;
 
 import java.time.Instant;
 import java.time.ZoneId;
-import java.util.ArrayList;
-import java.util.LinkedHashMap;
-import java.util.LinkedHashSet;
+import java.util.Iterator;
 import java.util.List;
-import java.util.Map;
-
-import com.google.common.collect.Streams;
+import java.util.function.Predicate;
 
 import lombok.extern.slf4j.Slf4j;
 
@@ -50,6 +46,7 @@ public class ResultRunnable implements Runnable {
     private static final String nullColumn = "";
     private final TableResult tableResult;
     private final String id;
+    private final Integer owner;
     private final Integer maxRowNum;
     private final boolean isChangeLog;
     private final boolean isAutoCancel;
@@ -58,12 +55,14 @@ public class ResultRunnable implements Runnable {
     public ResultRunnable(
             TableResult tableResult,
             String id,
+            Integer owner,
             Integer maxRowNum,
             boolean isChangeLog,
             boolean isAutoCancel,
             String timeZone) {
         this.tableResult = tableResult;
         this.id = id;
+        this.owner = owner;
         this.maxRowNum = maxRowNum;
         this.isChangeLog = isChangeLog;
         this.isAutoCancel = isAutoCancel;
@@ -74,14 +73,11 @@ public class ResultRunnable implements Runnable {
     public void run() {
         try {
             tableResult.getJobClient().ifPresent(jobClient -> {
-                if (!ResultPool.containsKey(id)) {
-                    ResultPool.put(new SelectResult(id, new ArrayList<>(), new LinkedHashSet<>()));
-                }
                 try {
                     if (isChangeLog) {
-                        catchChangLog(ResultPool.get(id));
+                        catchChangLog();
                     } else {
-                        catchData(ResultPool.get(id));
+                        catchData();
                     }
                 } catch (Exception e) {
                     log.error(String.format(e.toString()));
@@ -92,58 +88,99 @@ public class ResultRunnable implements Runnable {
         }
     }
 
-    private void catchChangLog(SelectResult selectResult) {
-        List<Map<String, Object>> rows = selectResult.getRowData();
+    private void catchChangLog() {
         List<String> columns = FlinkUtil.catchColumn(tableResult);
+        int arity = columns.size();
 
         columns.add(0, FlinkConstant.OP);
-        selectResult.setColumns(new LinkedHashSet<>(columns));
-        Streams.stream(tableResult.collect()).limit(maxRowNum).forEach(row -> {
-            Map<String, Object> map = getFieldMap(columns.subList(1, columns.size()), row);
-            map.put(FlinkConstant.OP, row.getKind().shortString());
-            rows.add(map);
+        ResultBuffer buffer = new ResultBuffer(id, owner, columns, new int[0]);
+        ResultPool.put(buffer);
+        boolean completed = collect(buffer, row -> {
+            Object[] values = new Object[arity + 1];
+            values[0] = row.getKind().shortString();
+            fillFields(row, values, 1);
+            return add(buffer, values);
         });
 
-        if (isAutoCancel) {
+        if (isAutoCancel || !completed) {
             tableResult.getJobClient().ifPresent(JobClient::cancel);
         }
     }
 
-    private void catchData(SelectResult selectResult) {
-        List<Map<String, Object>> rows = selectResult.getRowData();
+    private void catchData() {
         List<String> columns = FlinkUtil.catchColumn(tableResult);
-
-        selectResult.setColumns(new LinkedHashSet<>(columns));
-        Streams.stream(tableResult.collect()).limit(maxRowNum).forEach(row -> {
-            Map<String, Object> map = getFieldMap(columns, row);
+        int[] keyIndexes = tableResult
+                .getResolvedSchema()
+                .getPrimaryKey()
+                .map(primaryKey -> primaryKey.getColumns().stream()
+                        .mapToInt(columns::indexOf)
+                        .toArray())
+                .orElse(new int[0]);
+
+        ResultBuffer buffer = new ResultBuffer(id, owner, columns, keyIndexes);
+        ResultPool.put(buffer);
+        boolean completed = collect(buffer, row -> {
+            Object[] values = new Object[columns.size()];
+            fillFields(row, values, 0);
             if (RowKind.UPDATE_BEFORE == row.getKind() || RowKind.DELETE == row.getKind()) {
-                rows.remove(map);
-            } else {
-                rows.add(map);
+                ResultPool.retract(buffer, values);
+                return true;
             }
+            return add(buffer, values);
         });
+
+        if (!completed) {
+            tableResult.getJobClient().ifPresent(JobClient::cancel);
+        }
+    }
+
+    /**
+     * @return false if the collection was stopped before the max row num, by a cancellation or the memory budget
+     */
+    private boolean collect(ResultBuffer buffer, Predicate<Row> consumer) {
+        Iterator<Row> rows = tableResult.collect();
+        try {
+            for (int count = 0; count < maxRowNum && rows.hasNext(); count++) {
+                if (Thread.currentThread().isInterrupted() || !consumer.test(rows.next())) {
+                    return false;
+                }
+            }
+            return true;
+        } catch (RuntimeException e) {
+            if (Thread.currentThread().isInterrupted()) {
+                return false;
+            }
+            throw e;
+        } finally {
+            buffer.finish();
+        }
+    }
+
+    private boolean add(ResultBuffer buffer, Object[] values) {
+        if (!ResultPool.reserve(buffer, ResultBuffer.estimateSize(values))) {
+            log.warn("The result of {} is out of memory budget, stop collecting at {} rows", id, buffer.size());
+            buffer.truncate();
+            return false;
+        }
+        buffer.add(values);
+        return true;
     }
 
-    private Map<String, Object> getFieldMap(List<String> columns, Row row) {
-        Map<String, Object> map = new LinkedHashMap<>();
+    private void fillFields(Row row, Object[] values, int offset) {
         for (int i = 0; i < row.getArity(); ++i) {
             Object field = row.getField(i);
-            String column = columns.get(i);
             if (field == null) {
-                map.put(column, nullColumn);
+                values[offset + i] = nullColumn;
             } else if (field instanceof Instant) {
-                map.put(
-                        column,
-                        ((Instant) field)
-                                .atZone(ZoneId.of(timeZone))
-                                .toLocalDateTime()
-                                .toString());
+                values[offset + i] = ((Instant) field)
+                        .atZone(ZoneId.of(timeZone))
+                        .toLocalDateTime()
+                        .toString();
             } else if (field instanceof Boolean) {
-                map.put(column, field.toString());
+                values[offset + i] = field.toString();
             } else {
-                map.put(column, field);
+                values[offset + i] = field;
             }
         }
-        return map;
     }
 }
@@ -42,6 +42,12 @@ public class SelectResult extends AbstractResult implements IResult {
     private Integer currentCount;
     private Set<String> columns;
     private boolean isDestroyed;
+    /** Version of the preview buffer, pass it to the next poll to only get the rows added since */
+    private Long version;
+    /** Whether the rows are only the ones added since the requested version */
+    private boolean incremental;
+    /** Whether the collection was stopped by the memory budget of the result pool */
+    private boolean truncated;
 
     public SelectResult(
             List<Map<String, Object>> rowData,
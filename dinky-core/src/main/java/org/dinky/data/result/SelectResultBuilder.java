@@ -20,6 +20,7 @@
 package org.dinky.data.result;
 
 import org.dinky.assertion.Asserts;
+import org.dinky.data.exception.DinkyException;
 
 import org.apache.flink.table.api.TableResult;
 
@@ -30,14 +31,16 @@ import org.apache.flink.table.api.TableResult;
  */
 public class SelectResultBuilder extends AbstractResultBuilder implements ResultBuilder {
 
+    private final Integer owner;
     private final Integer maxRowNum;
     private final boolean isChangeLog;
     private final boolean isAutoCancel;
     private final String timeZone;
 
     public SelectResultBuilder(
-            String id, Integer maxRowNum, boolean isChangeLog, boolean isAutoCancel, String timeZone) {
+            String id, Integer owner, Integer maxRowNum, boolean isChangeLog, boolean isAutoCancel, String timeZone) {
         this.id = id;
+        this.owner = owner;
         this.maxRowNum = Asserts.isNotNull(maxRowNum) ? maxRowNum : 100;
         this.isChangeLog = isChangeLog;
         this.isAutoCancel = isAutoCancel;
@@ -49,9 +52,14 @@ public class SelectResultBuilder extends AbstractResultBuilder implements Result
         if (tableResult.getJobClient().isPresent()) {
             String jobId = tableResult.getJobClient().get().getJobID().toHexString();
             ResultRunnable runnable =
-                    new ResultRunnable(tableResult, id, maxRowNum, isChangeLog, isAutoCancel, timeZone);
-            Thread thread = new Thread(runnable, jobId);
-            thread.start();
+                    new ResultRunnable(tableResult, id, owner, maxRowNum, isChangeLog, isAutoCancel, timeZone);
+            try {
+                ResultPool.collect(id, runnable);
+            } catch (DinkyException e) {
+                // Nobody would read the rows of the select
+                tableResult.getJobClient().get().cancel();
+                throw e;
+            }
             return SelectResult.buildSuccess(jobId);
         } else {
             return SelectResult.buildFailed();
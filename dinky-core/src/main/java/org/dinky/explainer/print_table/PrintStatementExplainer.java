@@ -19,6 +19,8 @@
 
 package org.dinky.explainer.print_table;
 
+import org.dinky.connector.printnet.sink.PrintNetDynamicTableSinkFactory;
+
 import java.net.InetAddress;
 import java.net.UnknownHostException;
 import java.text.MessageFormat;
@@ -39,7 +41,12 @@ public class PrintStatementExplainer {
     public static final String CREATE_SQL_TEMPLATE = "CREATE TABLE print_{0} WITH (''connector'' = ''printnet'', "
             + "''port''=''{2,number,#}'', ''hostName'' = ''{1}'')\n"
             + "AS SELECT * FROM {0}";
+    public static final String CREATE_SQL_TRANSPORT_TEMPLATE = "CREATE TABLE print_{0} WITH (''connector'' = "
+            + "''printnet'', ''port''=''{2,number,#}'', ''hostName'' = ''{1}'', ''transport'' = ''{3}'')\n"
+            + "AS SELECT * FROM {0}";
     public static final int DEFAULT_PORT = 7125;
+    /** The tcp transport is opt-in with dinky.dinkyPrintTransport */
+    public static final String DEFAULT_TRANSPORT = PrintNetDynamicTableSinkFactory.TRANSPORT_UDP;
 
     public static String[] getTableNames(String statement) {
         return splitTableNames(statement);
@@ -55,10 +62,26 @@ public class PrintStatementExplainer {
     }
 
     public static String getCreateStatement(String tableName, String localIp, Integer localPort) {
+        return getCreateStatement(tableName, localIp, localPort, DEFAULT_TRANSPORT);
+    }
+
+    /**
+     * @param transport udp or tcp, the default udp transport is used if it is empty or unknown
+     */
+    public static String getCreateStatement(String tableName, String localIp, Integer localPort, String transport) {
         String ip = Strings.isNullOrEmpty(localIp)
                 ? getSystemLocalIp().map(InetAddress::getHostAddress).orElse("127.0.0.1")
                 : localIp;
         int port = localPort == null ? DEFAULT_PORT : localPort;
+        if (PrintNetDynamicTableSinkFactory.TRANSPORT_TCP.equalsIgnoreCase(
+                Strings.nullToEmpty(transport).trim())) {
+            return MessageFormat.format(
+                    CREATE_SQL_TRANSPORT_TEMPLATE, tableName, ip, port, PrintNetDynamicTableSinkFactory.TRANSPORT_TCP);
+        }
+        if (!Strings.isNullOrEmpty(transport) && !DEFAULT_TRANSPORT.equalsIgnoreCase(transport.trim())) {
+            log.warn("Unknown print transport: {}, use {}", transport, DEFAULT_TRANSPORT);
+        }
+        // The statement of the default transport is left as it was before the transports
         return MessageFormat.format(CREATE_SQL_TEMPLATE, tableName, ip, port);
     }
 
@@ -174,6 +174,13 @@ public class JobConfig {
             notes = "Maximum number of rows")
     private Integer maxRowNum;
 
+    @ApiModelProperty(
+            value = "ID of the user running the job",
+            dataType = "Integer",
+            example = "1",
+            notes = "The preview rows of the job are accounted to this user")
+    private Integer operatorId;
+
     @ApiModelProperty(value = "Gateway configuration", dataType = "GatewayConfig", notes = "Gateway configuration")
     private GatewayConfig gatewayConfig;
 
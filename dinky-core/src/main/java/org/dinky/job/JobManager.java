@@ -400,6 +400,13 @@ public class JobManager {
         return ResultPool.get(jobId);
     }
 
+    /**
+     * @param version the version of the last poll, only the rows added since are returned
+     */
+    public static SelectResult getJobData(String jobId, long version) {
+        return ResultPool.get(jobId, version);
+    }
+
     public ExplainResult explainSql(String statement) {
         return Explainer.build(executor, useStatementSet, this)
                 .initialize(config, statement)
@@ -25,6 +25,7 @@ import org.dinky.data.enums.GatewayType;
 import org.dinky.data.result.IResult;
 import org.dinky.data.result.InsertResult;
 import org.dinky.data.result.ResultBuilder;
+import org.dinky.data.result.ResultPool;
 import org.dinky.executor.Executor;
 import org.dinky.gateway.Gateway;
 import org.dinky.gateway.result.GatewayResult;
@@ -134,6 +135,9 @@ public class JobTransBuilder extends JobBuilder {
     }
 
     private void processSingleStatement(StatementParam item) throws Exception {
+        if (config.isUseResult() && (SqlType.SELECT == item.getType() || SqlType.WITH == item.getType())) {
+            ResultPool.admit(config.getOperatorId(), config.getMaxRowNum());
+        }
         FlinkInterceptorResult flinkInterceptorResult = FlinkInterceptor.build(executor, item.getValue());
         if (Asserts.isNotNull(flinkInterceptorResult.getTableResult())) {
             updateJobWithTableResult(flinkInterceptorResult.getTableResult(), item.getType());
@@ -168,6 +172,7 @@ public class JobTransBuilder extends JobBuilder {
             IResult result = ResultBuilder.build(
                             sqlType,
                             job.getId().toString(),
+                            config.getOperatorId(),
                             config.getMaxRowNum(),
                             config.isUseChangeLog(),
                             config.isUseAutoCancel(),
@@ -0,0 +1,118 @@
+/*
+ *
+ *  Licensed to the Apache Software Foundation (ASF) under one or more
+ *  contributor license agreements.  See the NOTICE file distributed with
+ *  this work for additional information regarding copyright ownership.
+ *  The ASF licenses this file to You under the Apache License, Version 2.0
+ *  (the "License"); you may not use this file except in compliance with
+ *  the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+
+package org.dinky.trans.ddl;
+
+import org.dinky.data.model.Schema;
+import org.dinky.data.model.Table;
+import org.dinky.utils.JsonUtils;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.fasterxml.jackson.databind.SerializationFeature;
+
+import cn.hutool.crypto.digest.DigestUtil;
+
+/**
+ * The tables and columns discovered for the CDCSOURCE statements, kept per source fingerprint so that a resubmit of
+ * the same statement skips the discovery. A snapshot expires after {@code dinky.cdc.metadata-cache-ttl} millis.
+ *
+ * <p>The cache is disabled by default: a snapshot does not see the columns or the tables changed in the source since
+ * it was taken, so it only suits sources whose schemas do not change between resubmits.
+ */
+final class CDCSourceMetadataCache {
+
+    private CDCSourceMetadataCache() {}
+
+    private static final long TTL = Long.getLong("dinky.cdc.metadata-cache-ttl", 0);
+    private static final int MAX_SNAPSHOTS = 64;
+
+    /** fingerprint -> snapshot, access ordered */
+    private static final Map<String, Snapshot> snapshots = new LinkedHashMap<String, Snapshot>(16, 0.75f, true) {
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, Snapshot> eldest) {
+            return size() > MAX_SNAPSHOTS;
+        }
+    };
+
+    /**
+     * @param parts the source connections, the schema and table patterns and the split config
+     */
+    static String fingerprint(Object... parts) {
+        return DigestUtil.sha256Hex(JsonUtils.toJsonString(parts, SerializationFeature.ORDER_MAP_ENTRIES_BY_KEYS));
+    }
+
+    /**
+     * @return a copy of the snapshot, or null if there is none or it has expired
+     */
+    static synchronized Snapshot get(String fingerprint) {
+        Snapshot snapshot = snapshots.get(fingerprint);
+        if (snapshot == null) {
+            return null;
+        }
+        if (System.currentTimeMillis() - snapshot.createTime > TTL) {
+            snapshots.remove(fingerprint);
+            return null;
+        }
+        return snapshot.copy();
+    }
+
+    static synchronized void put(String fingerprint, List<Schema> schemaList, List<String> schemaTableNameList) {
+        if (TTL <= 0) {
+            return;
+        }
+        snapshots.put(fingerprint, new Snapshot(schemaList, schemaTableNameList, System.currentTimeMillis()).copy());
+    }
+
+    static synchronized void invalidate(String fingerprint) {
+        snapshots.remove(fingerprint);
+    }
+
+    static final class Snapshot {
+
+        final List<Schema> schemaList;
+        final List<String> schemaTableNameList;
+        private final long createTime;
+
+        private Snapshot(List<Schema> schemaList, List<String> schemaTableNameList, long createTime) {
+            this.schemaList = schemaList;
+            this.schemaTableNameList = schemaTableNameList;
+            this.createTime = createTime;
+        }
+
+        /** The tables are cloned, the sinks and the later statements may change them */
+        private Snapshot copy() {
+            List<Schema> schemas = new ArrayList<>(schemaList.size());
+            for (Schema schema : schemaList) {
+                List<Table> tables = new ArrayList<>(schema.getTables().size());
+                for (Table table : schema.getTables()) {
+                    Table copy = (Table) table.clone();
+                    copy.setColumns(new ArrayList<>(table.getColumns()));
+                    tables.add(copy);
+                }
+                schemas.add(new Schema(schema.getName(), tables));
+            }
+            return new Snapshot(schemas, new ArrayList<>(schemaTableNameList), createTime);
+        }
+    }
+}
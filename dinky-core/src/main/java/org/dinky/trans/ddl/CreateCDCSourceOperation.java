@@ -24,6 +24,7 @@ import org.dinky.cdc.CDCBuilder;
 import org.dinky.cdc.CDCBuilderFactory;
 import org.dinky.cdc.SinkBuilder;
 import org.dinky.cdc.SinkBuilderFactory;
+import org.dinky.data.model.Column;
 import org.dinky.data.model.FlinkCDCConfig;
 import org.dinky.data.model.Schema;
 import org.dinky.data.model.Table;
@@ -41,9 +42,16 @@ import org.apache.flink.table.api.TableResult;
 
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.stream.Collectors;
 
 /**
@@ -55,6 +63,22 @@ public class CreateCDCSourceOperation extends AbstractOperation implements Opera
 
     private static final String KEY_WORD = "EXECUTE CDCSOURCE";
 
+    /** Less than the max active connections of the pool of a driver */
+    private static final int SINK_CHECK_PARALLELISM = Integer.getInteger("dinky.cdc.sink-check-parallelism", 4);
+
+    private static final AtomicInteger THREAD_INDEX = new AtomicInteger(0);
+
+    private static final ThreadPoolExecutor SINK_CHECK_EXECUTOR = new ThreadPoolExecutor(
+            SINK_CHECK_PARALLELISM, SINK_CHECK_PARALLELISM, 60, TimeUnit.SECONDS, new LinkedBlockingQueue<>(), r -> {
+                Thread thread = new Thread(r, "CDCSinkChecker-" + THREAD_INDEX.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            });
+
+    static {
+        SINK_CHECK_EXECUTOR.allowCoreThreadTimeOut(true);
+    }
+
     public CreateCDCSourceOperation() {}
 
     public CreateCDCSourceOperation(String statement) {
@@ -76,89 +100,54 @@ public class CreateCDCSourceOperation extends AbstractOperation implements Opera
         logger.info("Start build CDCSOURCE Task...");
         CDCSource cdcSource = CDCSource.build(statement);
         FlinkCDCConfig config = cdcSource.buildFlinkCDCConfig();
+        String fingerprint = null;
         try {
             CDCBuilder cdcBuilder = CDCBuilderFactory.buildCDCBuilder(config);
             Map<String, Map<String, String>> allConfigMap = cdcBuilder.parseMetaDataConfigs();
             config.setSchemaFieldName(cdcBuilder.getSchemaFieldName());
             SinkBuilder sinkBuilder = SinkBuilderFactory.buildSinkBuilder(config);
-            List<Schema> schemaList = new ArrayList<>();
             final List<String> schemaNameList = cdcBuilder.getSchemaList();
             final List<String> tableRegList = cdcBuilder.getTableList();
-            final List<String> schemaTableNameList = new ArrayList<>();
-            if (SplitUtil.isEnabled(cdcSource.getSplit())) {
-                Map<String, String> confMap = cdcBuilder.parseMetaDataConfig();
-                Driver driver =
-                        Driver.buildWithOutPool(confMap.get("name"), confMap.get("type"), JsonUtils.toMap(confMap));
-
-                // 这直接传正则过去
-                schemaTableNameList.addAll(tableRegList.stream()
-                        .map(x -> x.replaceFirst("\\\\.", "."))
-                        .collect(Collectors.toList()));
-
-                Driver sinkDriver = checkAndCreateSinkSchema(config, schemaTableNameList.get(0));
-
-                Set<Table> tables = driver.getSplitTables(tableRegList, cdcSource.getSplit());
-
-                for (Table table : tables) {
-                    String schemaName = table.getSchema();
-                    Schema schema = Schema.build(schemaName);
-                    schema.setTables(Collections.singletonList(table));
-                    // 分库分表所有表结构都是一样的，取出列表中第一个表名即可
-                    String schemaTableName = table.getSchemaTableNameList().get(0);
-                    // 真实的表名
-                    String realSchemaName = schemaTableName.split("\\.")[0];
-                    String tableName = schemaTableName.split("\\.")[1];
-                    table.setColumns(driver.listColumnsSortByPK(realSchemaName, tableName));
-                    schemaList.add(schema);
-
-                    if (null != sinkDriver) {
-                        Table sinkTable = (Table) table.clone();
-                        sinkTable.setSchema(sinkBuilder.getSinkSchemaName(table));
-                        sinkTable.setName(sinkBuilder.getSinkTableName(table));
-                        checkAndCreateSinkTable(sinkDriver, sinkTable);
-                    }
-                }
+            final boolean split = SplitUtil.isEnabled(cdcSource.getSplit());
+            fingerprint = CDCSourceMetadataCache.fingerprint(
+                    allConfigMap,
+                    split ? cdcBuilder.parseMetaDataConfig() : null,
+                    schemaNameList,
+                    tableRegList,
+                    cdcSource.getSplit());
+            CDCSourceMetadataCache.Snapshot snapshot = CDCSourceMetadataCache.get(fingerprint);
+            final List<Schema> schemaList;
+            final List<String> schemaTableNameList;
+            if (snapshot != null) {
+                logger.info("Reuse the tables detected by the last submit of the same source...");
+                schemaList = snapshot.schemaList;
+                schemaTableNameList = snapshot.schemaTableNameList;
             } else {
-                for (String schemaName : schemaNameList) {
-                    Schema schema = Schema.build(schemaName);
-                    if (!allConfigMap.containsKey(schemaName)) {
-                        continue;
-                    }
-
-                    Driver sinkDriver = checkAndCreateSinkSchema(config, schemaName);
-                    Map<String, String> confMap = allConfigMap.get(schemaName);
-                    Driver driver = Driver.build(confMap.get("name"), confMap.get("type"), JsonUtils.toMap(confMap));
-
-                    final List<Table> tables = driver.listTables(schemaName);
-                    for (Table table : tables) {
-                        if (!Asserts.isEquals(table.getType(), "VIEW")) {
-                            if (Asserts.isNotNullCollection(tableRegList)) {
-                                for (String tableReg : tableRegList) {
-                                    if (table.getSchemaTableName().matches(tableReg.trim())
-                                            && !schema.getTables().contains(Table.build(table.getName()))) {
-                                        table.setColumns(driver.listColumnsSortByPK(schemaName, table.getName()));
-                                        schema.getTables().add(table);
-                                        schemaTableNameList.add(table.getSchemaTableName());
-                                        break;
-                                    }
-                                }
-                            } else {
-                                table.setColumns(driver.listColumnsSortByPK(schemaName, table.getName()));
-                                schemaTableNameList.add(table.getSchemaTableName());
-                                schema.getTables().add(table);
-                            }
-                        }
-                    }
+                schemaList = new ArrayList<>();
+                schemaTableNameList = new ArrayList<>();
+                if (split) {
+                    listSplitTables(cdcBuilder, cdcSource, tableRegList, schemaList);
+                    // 这直接传正则过去
+                    schemaTableNameList.addAll(tableRegList.stream()
+                            .map(x -> x.replaceFirst("\\\\.", "."))
+                            .collect(Collectors.toList()));
+                } else {
+                    listTables(allConfigMap, schemaNameList, tableRegList, schemaList, schemaTableNameList);
+                }
+                CDCSourceMetadataCache.put(fingerprint, schemaList, schemaTableNameList);
+            }
 
-                    if (null != sinkDriver) {
-                        for (Table table : schema.getTables()) {
-                            Table sinkTable = (Table) table.clone();
-                            sinkTable.setSchema(sinkBuilder.getSinkSchemaName(table));
-                            sinkTable.setName(sinkBuilder.getSinkTableName(table));
-                            checkAndCreateSinkTable(sinkDriver, sinkTable);
-                        }
-                    }
-                    schemaList.add(schema);
+            if (split) {
+                checkAndCreateSinkTables(
+                        sinkBuilder,
+                        checkAndCreateSinkSchema(config, schemaTableNameList.get(0)),
+                        schemaList.stream()
+                                .flatMap(schema -> schema.getTables().stream())
+                                .collect(Collectors.toList()));
+            } else {
+                for (Schema schema : schemaList) {
+                    checkAndCreateSinkTables(
+                            sinkBuilder, checkAndCreateSinkSchema(config, schema.getName()), schema.getTables());
                 }
             }
 
@@ -183,11 +172,133 @@ public class CreateCDCSourceOperation extends AbstractOperation implements Opera
                     cdcBuilder, streamExecutionEnvironment, executor.getCustomTableEnvironment(), streamSource);
             logger.info("Build CDCSOURCE Task successful!");
         } catch (Exception e) {
+            if (fingerprint != null) {
+                CDCSourceMetadataCache.invalidate(fingerprint);
+            }
             logger.error(e.getMessage(), e);
         }
         return null;
     }
 
+    /**
+     * List the matched tables of the schemas, the columns of the tables of a schema are fetched in one query.
+     */
+    private void listTables(
+            Map<String, Map<String, String>> allConfigMap,
+            List<String> schemaNameList,
+            List<String> tableRegList,
+            List<Schema> schemaList,
+            List<String> schemaTableNameList) {
+        for (String schemaName : schemaNameList) {
+            Schema schema = Schema.build(schemaName);
+            if (!allConfigMap.containsKey(schemaName)) {
+                continue;
+            }
+            Map<String, String> confMap = allConfigMap.get(schemaName);
+            Driver driver = Driver.build(confMap.get("name"), confMap.get("type"), JsonUtils.toMap(confMap));
+
+            final List<Table> tables = driver.listTables(schemaName);
+            for (Table table : tables) {
+                if (!Asserts.isEquals(table.getType(), "VIEW")) {
+                    if (Asserts.isNotNullCollection(tableRegList)) {
+                        for (String tableReg : tableRegList) {
+                            if (table.getSchemaTableName().matches(tableReg.trim())
+                                    && !schema.getTables().contains(Table.build(table.getName()))) {
+                                schema.getTables().add(table);
+                                schemaTableNameList.add(table.getSchemaTableName());
+                                break;
+                            }
+                        }
+                    } else {
+                        schemaTableNameList.add(table.getSchemaTableName());
+                        schema.getTables().add(table);
+                    }
+                }
+            }
+            Map<String, List<Column>> columns = driver.listColumnsSortByPK(
+                    schemaName, schema.getTables().stream().map(Table::getName).collect(Collectors.toList()));
+            for (Table table : schema.getTables()) {
+                table.setColumns(columns.get(table.getName()));
+            }
+            schemaList.add(schema);
+        }
+    }
+
+    /**
+     * List the split tables, the columns of the first real table of each split table are fetched in one query per
+     * real schema.
+     */
+    private void listSplitTables(
+            CDCBuilder cdcBuilder, CDCSource cdcSource, List<String> tableRegList, List<Schema> schemaList) {
+        Map<String, String> confMap = cdcBuilder.parseMetaDataConfig();
+        Driver driver = Driver.buildWithOutPool(confMap.get("name"), confMap.get("type"), JsonUtils.toMap(confMap));
+        try {
+            Set<Table> tables = driver.getSplitTables(tableRegList, cdcSource.getSplit());
+            // real schema -> real table name -> split tables
+            Map<String, Map<String, List<Table>>> realTables = new LinkedHashMap<>();
+            for (Table table : tables) {
+                Schema schema = Schema.build(table.getSchema());
+                schema.setTables(Collections.singletonList(table));
+                schemaList.add(schema);
+                // 分库分表所有表结构都是一样的，取出列表中第一个表名即可
+                String schemaTableName = table.getSchemaTableNameList().get(0);
+                // 真实的表名
+                String realSchemaName = schemaTableName.split("\\.")[0];
+                String tableName = schemaTableName.split("\\.")[1];
+                realTables
+                        .computeIfAbsent(realSchemaName, k -> new LinkedHashMap<>())
+                        .computeIfAbsent(tableName, k -> new ArrayList<>())
+                        .add(table);
+            }
+            for (Map.Entry<String, Map<String, List<Table>>> entry : realTables.entrySet()) {
+                Map<String, List<Column>> columns = driver.listColumnsSortByPK(
+                        entry.getKey(), entry.getValue().keySet());
+                entry.getValue()
+                        .forEach((tableName, splitTables) ->
+                                splitTables.forEach(table -> table.setColumns(columns.get(tableName))));
+            }
+        } finally {
+            driver.close();
+        }
+    }
+
+    /**
+     * Check and create the sink tables concurrently, each checker takes its own connection from the pool of the sink
+     * driver.
+     */
+    void checkAndCreateSinkTables(SinkBuilder sinkBuilder, Driver sinkDriver, List<Table> tables) throws Exception {
+        if (null == sinkDriver || tables.isEmpty()) {
+            return;
+        }
+        List<Future<?>> checks = new ArrayList<>(tables.size());
+        for (Table table : tables) {
+            Table sinkTable = (Table) table.clone();
+            sinkTable.setSchema(sinkBuilder.getSinkSchemaName(table));
+            sinkTable.setName(sinkBuilder.getSinkTableName(table));
+            checks.add(SINK_CHECK_EXECUTOR.submit(() -> {
+                sinkDriver.connect();
+                try {
+                    checkAndCreateSinkTable(sinkDriver, sinkTable);
+                } finally {
+                    sinkDriver.close();
+                }
+                return null;
+            }));
+        }
+        try {
+            for (Future<?> check : checks) {
+                check.get();
+            }
+        } catch (InterruptedException e) {
+            checks.forEach(check -> check.cancel(true));
+            Thread.currentThread().interrupt();
+            throw e;
+        } catch (ExecutionException e) {
+            checks.forEach(check -> check.cancel(true));
+            throw e.getCause() instanceof Exception ? (Exception) e.getCause() : e;
+        }
+    }
+
     Driver checkAndCreateSinkSchema(FlinkCDCConfig config, String schemaName) throws Exception {
         Map<String, String> sink = config.getSink();
         String autoCreate = sink.get(FlinkCDCConfig.AUTO_CREATE);
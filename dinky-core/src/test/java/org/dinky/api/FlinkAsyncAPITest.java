@@ -0,0 +1,126 @@
+/*
+ *
+ *  Licensed to the Apache Software Foundation (ASF) under one or more
+ *  contributor license agreements.  See the NOTICE file distributed with
+ *  this work for additional information regarding copyright ownership.
+ *  The ASF licenses this file to You under the Apache License, Version 2.0
+ *  (the "License"); you may not use this file except in compliance with
+ *  the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+
+package org.dinky.api;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+class FlinkAsyncAPITest {
+
+    private final List<HttpServer> servers = new ArrayList<>();
+
+    private final CountDownLatch release = new CountDownLatch(1);
+
+    @AfterEach
+    void stop() {
+        release.countDown();
+        for (HttpServer server : servers) {
+            FlinkAsyncAPI.close("127.0.0.1:" + server.getAddress().getPort());
+            server.stop(0);
+            ((ExecutorService) server.getExecutor()).shutdownNow();
+        }
+    }
+
+    /** A JobManager answering the jobs overview after the latch, it counts its concurrent requests */
+    private String start(CountDownLatch latch, AtomicInteger running, AtomicInteger maxRunning) throws IOException {
+        HttpServer server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.setExecutor(Executors.newCachedThreadPool());
+        server.createContext("/", exchange -> {
+            maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+            try {
+                latch.await();
+                respond(exchange);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } finally {
+                running.decrementAndGet();
+                exchange.close();
+            }
+        });
+        server.start();
+        servers.add(server);
+        return "127.0.0.1:" + server.getAddress().getPort();
+    }
+
+    private static void respond(HttpExchange exchange) throws IOException {
+        byte[] body = "{\"jobs\":[]}".getBytes(StandardCharsets.UTF_8);
+        exchange.sendResponseHeaders(200, body.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(body);
+        }
+    }
+
+    @Test
+    void timeout() throws Exception {
+        String slow = start(release, new AtomicInteger(), new AtomicInteger());
+        long start = System.currentTimeMillis();
+        CompletableFuture<JsonNode> overview = FlinkAsyncAPI.build(slow, 2, 300).getJobsOverview();
+        ExecutionException e = assertThrows(ExecutionException.class, () -> overview.get(5, TimeUnit.SECONDS));
+        assertInstanceOf(TimeoutException.class, e.getCause());
+        assertTrue(System.currentTimeMillis() - start < 3000);
+    }
+
+    @Test
+    void slowHostDoesNotStarveTheOthers() throws Exception {
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger maxRunning = new AtomicInteger();
+        String slow = start(release, running, maxRunning);
+        String fast = start(new CountDownLatch(0), new AtomicInteger(), new AtomicInteger());
+
+        // More requests than the workers of the shared executor
+        FlinkAsyncAPI slowApi = FlinkAsyncAPI.build(slow, 2, 30000);
+        List<CompletableFuture<JsonNode>> slowRequests = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            slowRequests.add(slowApi.getJobsOverview());
+        }
+
+        JsonNode overview =
+                FlinkAsyncAPI.build(fast, 2, 30000).getJobsOverview().get(5, TimeUnit.SECONDS);
+        assertTrue(overview.has("jobs"));
+        assertTrue(slowRequests.stream().noneMatch(CompletableFuture::isDone));
+
+        release.countDown();
+        for (CompletableFuture<JsonNode> request : slowRequests) {
+            assertTrue(request.get(30, TimeUnit.SECONDS).has("jobs"));
+        }
+        assertEquals(2, maxRunning.get());
+    }
+}
@@ -0,0 +1,76 @@
+/*
+ *
+ *  Licensed to the Apache Software Foundation (ASF) under one or more
+ *  contributor license agreements.  See the NOTICE file distributed with
+ *  this work for additional information regarding copyright ownership.
+ *  The ASF licenses this file to You under the Apache License, Version 2.0
+ *  (the "License"); you may not use this file except in compliance with
+ *  the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+
+package org.dinky.connector.printnet.sink;
+
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+
+import org.apache.flink.streaming.api.functions.sink.SinkFunction;
+import org.apache.flink.table.api.DataTypes;
+import org.apache.flink.table.catalog.ObjectIdentifier;
+import org.apache.flink.table.connector.sink.DynamicTableSink;
+import org.apache.flink.table.connector.sink.SinkFunctionProvider;
+
+import java.lang.reflect.Proxy;
+import java.util.Collections;
+
+import org.junit.jupiter.api.Test;
+
+class PrintNetDynamicTableSinkTest {
+
+    @Test
+    void udpSendsOneDatagramPerRow() {
+        assertInstanceOf(PrintNetSinkFunction.class, createSinkFunction(PrintNetDynamicTableSinkFactory.TRANSPORT_UDP));
+    }
+
+    @Test
+    void tcpSendsFramedBatches() {
+        assertInstanceOf(
+                PrintNetFramedSinkFunction.class, createSinkFunction(PrintNetDynamicTableSinkFactory.TRANSPORT_TCP));
+    }
+
+    @Test
+    void defaultTransportIsUdp() {
+        assertInstanceOf(
+                PrintNetSinkFunction.class,
+                createSinkFunction(PrintNetDynamicTableSinkFactory.TRANSPORT.defaultValue()));
+    }
+
+    private static SinkFunction<?> createSinkFunction(String transport) {
+        PrintNetDynamicTableSink sink = new PrintNetDynamicTableSink(
+                DataTypes.ROW(DataTypes.FIELD("id", DataTypes.INT())),
+                Collections.emptyList(),
+                null,
+                "127.0.0.1",
+                7125,
+                null,
+                ObjectIdentifier.of("catalog", "db", "t"),
+                transport,
+                500,
+                200,
+                false);
+        // The sink only keeps the converter of the context, a context returning null is enough
+        DynamicTableSink.Context context = (DynamicTableSink.Context) Proxy.newProxyInstance(
+                DynamicTableSink.Context.class.getClassLoader(),
+                new Class<?>[] {DynamicTableSink.Context.class},
+                (proxy, method, args) -> null);
+        SinkFunctionProvider provider = (SinkFunctionProvider) sink.getSinkRuntimeProvider(context);
+        return provider.createSinkFunction();
+    }
+}
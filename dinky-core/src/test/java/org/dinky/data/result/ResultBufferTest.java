@@ -0,0 +1,99 @@
+/*
+ *
+ *  Licensed to the Apache Software Foundation (ASF) under one or more
+ *  contributor license agreements.  See the NOTICE file distributed with
+ *  this work for additional information regarding copyright ownership.
+ *  The ASF licenses this file to You under the Apache License, Version 2.0
+ *  (the "License"); you may not use this file except in compliance with
+ *  the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+
+package org.dinky.data.result;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.File;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+
+import org.junit.jupiter.api.Test;
+
+class ResultBufferTest {
+
+    @Test
+    void read() {
+        ResultBuffer buffer = new ResultBuffer("1", null, Arrays.asList("id", "name"), new int[] {0});
+        for (int i = 0; i < 20; i++) {
+            buffer.add(new Object[] {i, "name" + i});
+        }
+        SelectResult all = buffer.read(0);
+        assertFalse(all.isIncremental());
+        assertEquals(20, all.getRowData().size());
+        assertEquals(20L, all.getVersion());
+
+        buffer.add(new Object[] {20, "name20"});
+        buffer.add(new Object[] {21, "name21"});
+        assertTrue(buffer.retract(new Object[] {21, "name21"}));
+        SelectResult increment = buffer.read(all.getVersion());
+        assertTrue(increment.isIncremental());
+        assertEquals(1, increment.getRowData().size());
+        assertEquals(20, increment.getRowData().get(0).get("id"));
+        assertEquals(21, increment.getTotal());
+
+        // A row the client already got is retracted, it has to read all the rows again
+        assertTrue(buffer.retract(new Object[] {5, "name5"}));
+        assertFalse(buffer.retract(new Object[] {5, "name5"}));
+        SelectResult reset = buffer.read(increment.getVersion());
+        assertFalse(reset.isIncremental());
+        assertEquals(20, reset.getRowData().size());
+        assertEquals(0, buffer.read(reset.getVersion()).getRowData().size());
+    }
+
+    @Test
+    void retractWithoutKey() {
+        ResultBuffer buffer = new ResultBuffer("1", null, Arrays.asList("word", "cnt"), new int[0]);
+        buffer.add(new Object[] {"a", 1L});
+        buffer.add(new Object[] {"a", 2L});
+        assertFalse(buffer.retract(new Object[] {"a", 3L}));
+        assertTrue(buffer.retract(new Object[] {"a", 1L}));
+        assertEquals(1, buffer.size());
+        assertEquals(2L, buffer.read(0).getRowData().get(0).get("cnt"));
+    }
+
+    @Test
+    void spill() throws Exception {
+        ResultBuffer buffer = new ResultBuffer("1", null, Arrays.asList("id", "price", "time"), new int[] {0});
+        for (int i = 0; i < 10; i++) {
+            buffer.add(new Object[] {i, new BigDecimal(i + ".5"), LocalDateTime.of(2024, 1, 1, 0, i)});
+        }
+        buffer.retract(new Object[] {3, null, null});
+        long version = buffer.getVersion();
+        buffer.add(new Object[] {10, null, null});
+        buffer.finish();
+
+        File file = File.createTempFile("result", ".result");
+        buffer.spill(file);
+        assertTrue(buffer.isSpilled());
+        assertEquals(10, buffer.size());
+        SelectResult all = buffer.read(0);
+        assertEquals(10, all.getRowData().size());
+        assertEquals(new BigDecimal("9.5"), all.getRowData().get(8).get("price"));
+        assertEquals(LocalDateTime.of(2024, 1, 1, 0, 9), all.getRowData().get(8).get("time"));
+        assertEquals(1, buffer.read(version).getRowData().size());
+
+        buffer.restore();
+        assertFalse(buffer.isSpilled());
+        assertFalse(file.exists());
+        assertEquals(10, buffer.read(0).getRowData().size());
+    }
+}
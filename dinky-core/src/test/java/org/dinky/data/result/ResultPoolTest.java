@@ -0,0 +1,141 @@
+/*
+ *
+ *  Licensed to the Apache Software Foundation (ASF) under one or more
+ *  contributor license agreements.  See the NOTICE file distributed with
+ *  this work for additional information regarding copyright ownership.
+ *  The ASF licenses this file to You under the Apache License, Version 2.0
+ *  (the "License"); you may not use this file except in compliance with
+ *  the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+
+package org.dinky.data.result;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+class ResultPoolTest {
+
+    private static final long MB = 1024 * 1024;
+
+    @AfterEach
+    void clear() {
+        ResultPool.clear();
+    }
+
+    private static ResultBuffer buffer(String id, Integer owner) {
+        ResultBuffer buffer = new ResultBuffer(id, owner, Arrays.asList("id", "name"), new int[] {0});
+        ResultPool.put(buffer);
+        return buffer;
+    }
+
+    @Test
+    void retractGivesBytesBack() {
+        ResultBuffer buffer = buffer("retract", 1);
+        for (int i = 0; i < 10; i++) {
+            Object[] values = {i, "name" + i};
+            assertTrue(ResultPool.reserve(buffer, ResultBuffer.estimateSize(values)));
+            buffer.add(values);
+        }
+        long used = ResultPool.getUsedBytes();
+        assertTrue(used > 0);
+
+        assertTrue(ResultPool.retract(buffer, new Object[] {3, "name3"}));
+        assertFalse(ResultPool.retract(buffer, new Object[] {3, "name3"}));
+        assertEquals(used - ResultBuffer.estimateSize(new Object[] {3, "name3"}), ResultPool.getUsedBytes());
+        assertEquals(9, buffer.size());
+
+        ResultPool.remove("retract");
+        assertEquals(0, ResultPool.getUsedBytes());
+        assertFalse(ResultPool.reserve(buffer, 1));
+    }
+
+    @Test
+    void spillTheColdestFinishedResult() {
+        ResultBuffer cold = buffer("cold", 2);
+        cold.add(new Object[] {1, "a"});
+        assertTrue(ResultPool.reserve(cold, 60 * MB));
+        cold.finish();
+
+        ResultBuffer hot = buffer("hot", 2);
+        assertTrue(ResultPool.reserve(hot, 10 * MB));
+        assertTrue(cold.isSpilled());
+        assertEquals(10 * MB, ResultPool.getUsedBytes());
+
+        // It does not fit back in the budget of the user, it is read from its file
+        SelectResult result = ResultPool.get("cold");
+        assertEquals(1, result.getRowData().size());
+        assertTrue(cold.isSpilled());
+
+        ResultPool.remove("hot");
+        result = ResultPool.get("cold");
+        assertEquals(1, result.getRowData().size());
+        assertFalse(cold.isSpilled());
+        assertEquals(60 * MB, ResultPool.getUsedBytes());
+    }
+
+    @Test
+    void outOfBudget() {
+        ResultBuffer buffer = buffer("full", 3);
+        assertTrue(ResultPool.reserve(buffer, 60 * MB));
+        // Not finished, it can not be spilled
+        assertFalse(ResultPool.reserve(buffer, 10 * MB));
+        assertEquals(60 * MB, ResultPool.getUsedBytes());
+    }
+
+    @Test
+    void concurrentReserves() throws Exception {
+        int writers = 8;
+        int rows = 2000;
+        ExecutorService executor = Executors.newFixedThreadPool(writers);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int w = 0; w < writers; w++) {
+            ResultBuffer buffer = buffer("writer" + w, w);
+            futures.add(executor.submit(() -> {
+                start.await();
+                for (int i = 0; i < rows; i++) {
+                    Object[] values = {i, "name" + i};
+                    assertTrue(ResultPool.reserve(buffer, ResultBuffer.estimateSize(values)));
+                    buffer.add(values);
+                    if (i % 2 == 1) {
+                        assertTrue(ResultPool.retract(buffer, new Object[] {i - 1, "name" + (i - 1)}));
+                    }
+                }
+                return null;
+            }));
+        }
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get(1, TimeUnit.MINUTES);
+        }
+        executor.shutdown();
+
+        long expected = 0;
+        for (int i = 1; i < rows; i += 2) {
+            expected += ResultBuffer.estimateSize(new Object[] {i, "name" + i});
+        }
+        assertEquals(expected * writers, ResultPool.getUsedBytes());
+        ResultPool.clear();
+        assertEquals(0, ResultPool.getUsedBytes());
+    }
+}
@@ -20,6 +20,7 @@
 package org.dinky.explainer.print_table;
 
 import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
 
 import org.junit.jupiter.api.Test;
 
@@ -35,4 +36,31 @@ class PrintStatementExplainerTest {
         assertArrayEquals(
                 new String[] {"VersionT", "Buyers", "r", "rr", "vvv"}, PrintStatementExplainer.getTableNames(sql));
     }
+
+    @Test
+    void getCreateStatementUsesUdpByDefault() {
+        String udp = "CREATE TABLE print_t WITH ('connector' = 'printnet', 'port'='7125', 'hostName' = '10.0.0.1')\n"
+                + "AS SELECT * FROM t";
+        assertEquals(udp, PrintStatementExplainer.getCreateStatement("t", "10.0.0.1", 7125));
+        assertEquals(udp, PrintStatementExplainer.getCreateStatement("t", "10.0.0.1", null, null));
+        assertEquals(udp, PrintStatementExplainer.getCreateStatement("t", "10.0.0.1", 7125, "udp"));
+    }
+
+    @Test
+    void getCreateStatementWithTcp() {
+        assertEquals(
+                "CREATE TABLE print_t WITH ('connector' = 'printnet', 'port'='7126', 'hostName' = '10.0.0.1', "
+                        + "'transport' = 'tcp')\nAS SELECT * FROM t",
+                PrintStatementExplainer.getCreateStatement("t", "10.0.0.1", 7126, " TCP "));
+    }
+
+    @Test
+    void getCreateStatementFallsBackToUdp() {
+        assertEquals(
+                PrintStatementExplainer.getCreateStatement("t", "10.0.0.1", 7125),
+                PrintStatementExplainer.getCreateStatement("t", "10.0.0.1", 7125, "quic"));
+        assertEquals(
+                PrintStatementExplainer.getCreateStatement("t", "10.0.0.1", 7125),
+                PrintStatementExplainer.getCreateStatement("t", "10.0.0.1", 7125, ""));
+    }
 }
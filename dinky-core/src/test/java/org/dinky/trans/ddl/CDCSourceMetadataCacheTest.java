@@ -0,0 +1,90 @@
+/*
+ *
+ *  Licensed to the Apache Software Foundation (ASF) under one or more
+ *  contributor license agreements.  See the NOTICE file distributed with
+ *  this work for additional information regarding copyright ownership.
+ *  The ASF licenses this file to You under the Apache License, Version 2.0
+ *  (the "License"); you may not use this file except in compliance with
+ *  the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+
+package org.dinky.trans.ddl;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import org.dinky.data.model.Column;
+import org.dinky.data.model.Schema;
+import org.dinky.data.model.Table;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+
+class CDCSourceMetadataCacheTest {
+
+    static {
+        // The cache is disabled by default
+        System.setProperty("dinky.cdc.metadata-cache-ttl", "60000");
+    }
+
+    @Test
+    void reuseSnapshot() {
+        Map<String, String> source = new HashMap<>();
+        source.put("hostname", "127.0.0.1");
+        source.put("port", "3306");
+        String fingerprint = CDCSourceMetadataCache.fingerprint(source, Arrays.asList("db"), Arrays.asList("db\\.t.*"));
+        assertEquals(
+                fingerprint,
+                CDCSourceMetadataCache.fingerprint(
+                        new HashMap<>(source), Arrays.asList("db"), Arrays.asList("db\\.t.*")));
+        assertNotEquals(
+                fingerprint,
+                CDCSourceMetadataCache.fingerprint(source, Arrays.asList("db"), Arrays.asList("db\\.user")));
+        assertNull(CDCSourceMetadataCache.get(fingerprint));
+
+        Table table = Table.build("t1");
+        table.setSchema("db");
+        table.setColumns(new ArrayList<>(
+                Collections.singletonList(Column.builder().name("id").build())));
+        List<Schema> schemaList = Collections.singletonList(new Schema("db", Collections.singletonList(table)));
+        CDCSourceMetadataCache.put(fingerprint, schemaList, Collections.singletonList("db.t1"));
+        table.getColumns().clear();
+
+        CDCSourceMetadataCache.Snapshot snapshot = CDCSourceMetadataCache.get(fingerprint);
+        assertEquals(Collections.singletonList("db.t1"), snapshot.schemaTableNameList);
+        Table cached = snapshot.schemaList.get(0).getTables().get(0);
+        assertNotSame(table, cached);
+        assertEquals("id", cached.getColumns().get(0).getName());
+
+        cached.getColumns().clear();
+        assertEquals(
+                1,
+                CDCSourceMetadataCache.get(fingerprint)
+                        .schemaList
+                        .get(0)
+                        .getTables()
+                        .get(0)
+                        .getColumns()
+                        .size());
+
+        CDCSourceMetadataCache.invalidate(fingerprint);
+        assertNull(CDCSourceMetadataCache.get(fingerprint));
+    }
+}
@@ -0,0 +1,78 @@
+/*
+ *
+ *  Licensed to the Apache Software Foundation (ASF) under one or more
+ *  contributor license agreements.  See the NOTICE file distributed with
+ *  this work for additional information regarding copyright ownership.
+ *  The ASF licenses this file to You under the Apache License, Version 2.0
+ *  (the "License"); you may not use this file except in compliance with
+ *  the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+
+package org.dinky.daemon.entity;
+
+import org.dinky.daemon.task.DaemonTask;
+
+import java.util.concurrent.Delayed;
+import java.util.concurrent.TimeUnit;
+
+import lombok.Getter;
+
+/**
+ * A {@link DaemonTask} waiting in a {@link java.util.concurrent.DelayQueue}, ordered by the time it is next due.
+ */
+@Getter
+public class DelayedTask<T extends DaemonTask> implements Delayed {
+
+    private final T task;
+
+    private volatile long dueTime;
+
+    private volatile boolean cancelled = false;
+
+    public DelayedTask(T task, long delay) {
+        this.task = task;
+        delay(delay);
+    }
+
+    /** Move the due time of this task to {@code delay} milliseconds from now. */
+    public void delay(long delay) {
+        this.dueTime = System.currentTimeMillis() + Math.max(delay, 0);
+    }
+
+    /** Schedule the next run of this task according to its refresh interval. */
+    public void reschedule() {
+        delay(task.getRefreshInterval());
+    }
+
+    /** How many milliseconds this task is overdue, 0 if it is not due yet. */
+    public long getLag() {
+        return Math.max(System.currentTimeMillis() - dueTime, 0);
+    }
+
+    /** A cancelled task is dropped the next time it is taken from the queue and is never rescheduled. */
+    public void cancel() {
+        this.cancelled = true;
+    }
+
+    @Override
+    public long getDelay(TimeUnit unit) {
+        return unit.convert(dueTime - System.currentTimeMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public int compareTo(Delayed o) {
+        if (o instanceof DelayedTask) {
+            return Long.compare(dueTime, ((DelayedTask<?>) o).dueTime);
+        }
+        return Long.compare(getDelay(TimeUnit.MILLISECONDS), o.getDelay(TimeUnit.MILLISECONDS));
+    }
+}
@@ -0,0 +1,63 @@
+/*
+ *
+ *  Licensed to the Apache Software Foundation (ASF) under one or more
+ *  contributor license agreements.  See the NOTICE file distributed with
+ *  this work for additional information regarding copyright ownership.
+ *  The ASF licenses this file to You under the Apache License, Version 2.0
+ *  (the "License"); you may not use this file except in compliance with
+ *  the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+
+package org.dinky.daemon.entity;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * A snapshot of the scheduling state of a daemon task pool.
+ * Lag is the time between the moment a task was due and the moment a worker actually started it.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class TaskQueueMetrics {
+
+    /** Number of registered tasks */
+    private int taskSize;
+
+    /** Number of worker threads */
+    private int workerNum;
+
+    /** Number of tasks being executed right now */
+    private int activeCount;
+
+    /** Number of due tasks waiting for a free worker */
+    private int pendingCount;
+
+    /** Total number of executions since startup */
+    private long executedCount;
+
+    /** Number of times a due task was rejected because the workers were saturated */
+    private long rejectedCount;
+
+    /** Lag of the last execution, in milliseconds */
+    private long lastLag;
+
+    /** Max lag since the previous snapshot, in milliseconds */
+    private long maxLag;
+
+    /** Average lag since startup, in milliseconds */
+    private long avgLag;
+}
@@ -19,36 +19,83 @@
 
 package org.dinky.daemon.pool;
 
-import org.dinky.daemon.entity.TaskQueue;
-import org.dinky.daemon.entity.TaskWorker;
+import org.dinky.daemon.entity.DelayedTask;
+import org.dinky.daemon.entity.TaskQueueMetrics;
 import org.dinky.daemon.task.DaemonTask;
 import org.dinky.daemon.task.DaemonTaskConfig;
 
-import java.util.ArrayList;
-import java.util.Collections;
-import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.DelayQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import lombok.extern.slf4j.Slf4j;
 
 /**
- * @operate
- * @return
+ * Deadline based scheduler of the flink job monitoring tasks.
+ * <p>
+ * Every task waits in a {@link DelayQueue} ordered by the time it is next due. A single dispatcher thread takes
+ * the due tasks and hands them to a bounded worker pool; after {@link DaemonTask#dealTask()} returns the task is
+ * put back into the queue with its {@link DaemonTask#getRefreshInterval()}, or dropped once it is done.
+ * No worker ever sleeps, so the number of threads only depends on the real refresh cost, not on the number of jobs.
+ * </p>
  */
+@Slf4j
 public class FlinkJobThreadPool implements ThreadPool {
 
     private static final int MAX_WORKER_NUM = 20;
     private static final int DEFAULT_WORKER_NUM = 1;
     private static final int MIN_WORKER_NUM = 1;
 
-    private final List<TaskWorker> workers = Collections.synchronizedList(new ArrayList<>());
+    /** Capacity of the queue of due tasks waiting for a free worker */
+    private static final int MAX_PENDING_NUM = 1000;
+
+    /** Delay before a task rejected by saturated workers is dispatched again */
+    private static final long REJECT_RETRY_DELAY = 500;
+
+    private final Map<DaemonTaskConfig, DelayedTask<DaemonTask>> tasks = new ConcurrentHashMap<>();
+
+    private final DelayQueue<DelayedTask<DaemonTask>> queue = new DelayQueue<>();
 
     private final Object lock = new Object();
 
-    private final AtomicInteger workerNum = new AtomicInteger(0);
+    private final AtomicInteger workerNum = new AtomicInteger(DEFAULT_WORKER_NUM);
+
+    private final AtomicInteger threadIndex = new AtomicInteger(0);
 
-    private final TaskQueue<DaemonTask> queue = new TaskQueue<>();
+    private final ThreadPoolExecutor executor;
+
+    private final Thread dispatcher;
+
+    private volatile boolean running = true;
+
+    private final AtomicLong executedCount = new AtomicLong(0);
+    private final AtomicLong rejectedCount = new AtomicLong(0);
+    private final AtomicLong totalLag = new AtomicLong(0);
+    private final AtomicLong maxLag = new AtomicLong(0);
+    private volatile long lastLag = 0;
 
     private FlinkJobThreadPool() {
-        addWorkers(DEFAULT_WORKER_NUM);
+        executor = new ThreadPoolExecutor(
+                DEFAULT_WORKER_NUM,
+                DEFAULT_WORKER_NUM,
+                60,
+                TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(MAX_PENDING_NUM),
+                r -> {
+                    Thread thread = new Thread(r, "ThreadPool-Worker-" + threadIndex.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+        dispatcher = new Thread(this::dispatch, "ThreadPool-Dispatcher");
+        dispatcher.setDaemon(true);
+        dispatcher.start();
     }
 
     private static final class DefaultThreadPoolHolder {
@@ -59,18 +106,90 @@ public class FlinkJobThreadPool implements ThreadPool {
         return DefaultThreadPoolHolder.defaultThreadPool;
     }
 
+    /**
+     * Register a task, it is executed immediately and then every {@link DaemonTask#getRefreshInterval()}.
+     * A task registered again with the same config replaces the previous one.
+     */
     @Override
     public void execute(DaemonTask daemonTask) {
         if (daemonTask != null) {
-            queue.addTask(daemonTask);
-            resizeWorkers(queue.getTaskSize() / 10);
+            DelayedTask<DaemonTask> delayedTask = new DelayedTask<>(daemonTask, 0);
+            cancel(tasks.put(daemonTask.getConfig(), delayedTask));
+            queue.offer(delayedTask);
+            resizeWorkers(tasks.size() / 10);
         }
     }
 
     public DaemonTask removeByTaskConfig(DaemonTaskConfig daemonTask) {
-        DaemonTask removed = queue.removeByTaskConfig(daemonTask);
-        resizeWorkers(queue.getTaskSize() / 10);
-        return removed;
+        DelayedTask<DaemonTask> removed = tasks.remove(daemonTask);
+        cancel(removed);
+        resizeWorkers(tasks.size() / 10);
+        return removed == null ? null : removed.getTask();
+    }
+
+    private void cancel(DelayedTask<DaemonTask> delayedTask) {
+        if (delayedTask != null) {
+            delayedTask.cancel();
+            queue.remove(delayedTask);
+        }
+    }
+
+    /**
+     * Take the due tasks from the delay queue and hand them to the workers.
+     * When all the workers are busy and the pending queue is full, the task is retried a bit later.
+     */
+    private void dispatch() {
+        while (running) {
+            DelayedTask<DaemonTask> delayedTask;
+            try {
+                delayedTask = queue.take();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+            if (delayedTask.isCancelled()) {
+                continue;
+            }
+            try {
+                executor.execute(() -> runTask(delayedTask));
+            } catch (RejectedExecutionException e) {
+                rejectedCount.incrementAndGet();
+                if (!running) {
+                    break;
+                }
+                delayedTask.delay(REJECT_RETRY_DELAY);
+                queue.offer(delayedTask);
+            }
+        }
+    }
+
+    private void runTask(DelayedTask<DaemonTask> delayedTask) {
+        if (delayedTask.isCancelled()) {
+            return;
+        }
+        recordLag(delayedTask.getLag());
+        DaemonTask daemonTask = delayedTask.getTask();
+        boolean done = false;
+        try {
+            done = daemonTask.dealTask();
+        } catch (Exception e) {
+            log.error(e.getMessage(), e);
+        }
+        executedCount.incrementAndGet();
+        if (done) {
+            tasks.remove(daemonTask.getConfig(), delayedTask);
+            delayedTask.cancel();
+            resizeWorkers(tasks.size() / 10);
+        } else if (!delayedTask.isCancelled() && running) {
+            delayedTask.reschedule();
+            queue.offer(delayedTask);
+        }
+    }
+
+    private void recordLag(long lag) {
+        lastLag = lag;
+        totalLag.addAndGet(lag);
+        maxLag.accumulateAndGet(lag, Math::max);
     }
 
     private void resizeWorkers(int afterNum) {
@@ -91,61 +210,52 @@ public class FlinkJobThreadPool implements ThreadPool {
     @Override
     public void addWorkers(int num) {
         synchronized (lock) {
-            if (num + this.workerNum.get() > MAX_WORKER_NUM) {
-                num = MAX_WORKER_NUM - this.workerNum.get();
-                if (num <= 0) {
-                    return;
-                }
-            }
-            for (int i = 0; i < num; i++) {
-                TaskWorker worker = new TaskWorker(queue);
-                workers.add(worker);
-                Thread thread = new Thread(worker, "ThreadPool-Worker-" + workerNum.incrementAndGet());
-                thread.start();
-            }
+            setWorkerNum(Math.min(workerNum.get() + num, MAX_WORKER_NUM));
         }
     }
 
     @Override
     public void removeWorker(int num) {
-
         synchronized (lock) {
-            if (num >= this.workerNum.get()) {
-                num = this.workerNum.get() - MIN_WORKER_NUM;
-                if (num <= 0) {
-                    return;
-                }
-            }
-            int count = num - 1;
-            while (count >= 0) {
-                TaskWorker worker = workers.get(count);
-                if (workers.remove(worker)) {
-                    worker.shutdown();
-                    count--;
-                }
-            }
-            // 减少线程
-            workerNum.getAndAdd(-num);
+            setWorkerNum(Math.max(workerNum.get() - num, MIN_WORKER_NUM));
+        }
+    }
+
+    private void setWorkerNum(int num) {
+        if (num == workerNum.get()) {
+            return;
+        }
+        // The maximum must never be below the core size, so the order of the two calls depends on the direction
+        if (num > executor.getMaximumPoolSize()) {
+            executor.setMaximumPoolSize(num);
+            executor.setCorePoolSize(num);
+        } else {
+            executor.setCorePoolSize(num);
+            executor.setMaximumPoolSize(num);
         }
+        workerNum.set(num);
     }
 
     @Override
     public void shutdown() {
         synchronized (lock) {
-            for (TaskWorker worker : workers) {
-                worker.shutdown();
-            }
-            workers.clear();
+            running = false;
+            dispatcher.interrupt();
+            executor.shutdownNow();
+            tasks.values().forEach(DelayedTask::cancel);
+            tasks.clear();
+            queue.clear();
         }
     }
 
     @Override
     public int getTaskSize() {
-        return queue.getTaskSize();
+        return tasks.size();
     }
 
     public DaemonTask getByTaskConfig(DaemonTaskConfig daemonTask) {
-        return queue.getByTaskConfig(daemonTask);
+        DelayedTask<DaemonTask> delayedTask = tasks.get(daemonTask);
+        return delayedTask == null ? null : delayedTask.getTask();
     }
 
     public int getWorkCount() {
@@ -153,4 +263,22 @@ public class FlinkJobThreadPool implements ThreadPool {
             return this.workerNum.get();
         }
     }
+
+    /**
+     * Snapshot of the queue state, the max lag is reset on every call.
+     */
+    public TaskQueueMetrics getMetrics() {
+        long executed = executedCount.get();
+        return TaskQueueMetrics.builder()
+                .taskSize(tasks.size())
+                .workerNum(getWorkCount())
+                .activeCount(executor.getActiveCount())
+                .pendingCount(executor.getQueue().size())
+                .executedCount(executed)
+                .rejectedCount(rejectedCount.get())
+                .lastLag(lastLag)
+                .maxLag(maxLag.getAndSet(0))
+                .avgLag(executed == 0 ? 0 : totalLag.get() / executed)
+                .build();
+    }
 }
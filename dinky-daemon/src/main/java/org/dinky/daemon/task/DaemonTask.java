@@ -20,6 +20,7 @@
 package org.dinky.daemon.task;
 
 import org.dinky.assertion.Asserts;
+import org.dinky.daemon.constant.FlinkTaskConstant;
 import org.dinky.daemon.exception.DaemonTaskException;
 import org.dinky.data.enums.Status;
 
@@ -58,4 +59,12 @@ public interface DaemonTask {
     String getType();
 
     boolean dealTask();
+
+    /**
+     * The interval in milliseconds between the end of one {@link #dealTask()} and the start of the next one.
+     * It is read again after every execution, so a task may adapt it to its current state.
+     */
+    default long getRefreshInterval() {
+        return FlinkTaskConstant.TIME_SLEEP;
+    }
 }
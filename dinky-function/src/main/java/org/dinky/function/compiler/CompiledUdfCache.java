@@ -0,0 +1,149 @@
+/*
+ *
+ *  Licensed to the Apache Software Foundation (ASF) under one or more
+ *  contributor license agreements.  See the NOTICE file distributed with
+ *  this work for additional information regarding copyright ownership.
+ *  The ASF licenses this file to You under the Apache License, Version 2.0
+ *  (the "License"); you may not use this file except in compliance with
+ *  the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+
+package org.dinky.function.compiler;
+
+import org.dinky.function.constant.PathConstant;
+import org.dinky.function.data.model.UDF;
+import org.dinky.function.util.FlinkUtils;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.UUID;
+
+import cn.hutool.core.io.FileUtil;
+import cn.hutool.core.util.StrUtil;
+import cn.hutool.crypto.SecureUtil;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Cache of the compiled udfs, keyed by the hash of their language, class name, code and the flink version. The
+ * classes are kept in memory and persisted under {@link PathConstant#UDF_CACHE_PATH}, so an unchanged udf is not
+ * compiled again, even after a restart. A udf without classes, like a python one, is cached as checked.
+ *
+ * <p>The number of the udfs kept in memory can be set with the system property {@code dinky.udf.cache-size}.
+ */
+@Slf4j
+public final class CompiledUdfCache {
+
+    private CompiledUdfCache() {}
+
+    private static final int MAX_SIZE = Integer.getInteger("dinky.udf.cache-size", 256);
+
+    private static final String CLASS_SUFFIX = ".class";
+
+    /** key -> class name -> bytecode, access ordered */
+    private static final Map<String, Map<String, byte[]>> CACHE =
+            new LinkedHashMap<String, Map<String, byte[]>>(16, 0.75f, true) {
+
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, Map<String, byte[]>> eldest) {
+                    return size() > MAX_SIZE;
+                }
+            };
+
+    public static String getKey(UDF udf) {
+        return SecureUtil.sha256(StrUtil.join(
+                "\n", udf.getFunctionLanguage(), FlinkUtils.getFlinkVersion(), udf.getClassName(), udf.getCode()));
+    }
+
+    /**
+     * @return the compiled classes of the udf, or null if it is not compiled yet
+     */
+    public static Map<String, byte[]> get(String key) {
+        synchronized (CACHE) {
+            Map<String, byte[]> classes = CACHE.get(key);
+            if (classes != null) {
+                return classes;
+            }
+        }
+        File dir = new File(PathConstant.UDF_CACHE_PATH, key);
+        if (!dir.isDirectory()) {
+            return null;
+        }
+        try {
+            Map<String, byte[]> classes = readClasses(dir);
+            synchronized (CACHE) {
+                CACHE.put(key, classes);
+            }
+            return classes;
+        } catch (Exception e) {
+            log.warn("Read the compiled udf {} failed, it is compiled again", key, e);
+            FileUtil.del(dir);
+            return null;
+        }
+    }
+
+    public static void put(String key, Map<String, byte[]> classes) {
+        Map<String, byte[]> cached = Collections.unmodifiableMap(new HashMap<>(classes));
+        synchronized (CACHE) {
+            CACHE.put(key, cached);
+        }
+        // Written aside and moved in place, a directory in the cache is always complete
+        File dir = new File(PathConstant.UDF_CACHE_PATH, key);
+        File tmpDir = new File(PathConstant.UDF_CACHE_PATH, key + "-" + UUID.randomUUID() + ".tmp");
+        try {
+            FileUtil.mkdir(tmpDir);
+            writeClasses(cached, tmpDir.getPath());
+            Files.move(tmpDir.toPath(), dir.toPath(), StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            // Another submission cached it first, or the cache path is not writable
+            log.debug("Persist the compiled udf {} failed", key, e);
+        } finally {
+            FileUtil.del(tmpDir);
+        }
+    }
+
+    /**
+     * @return whether the classes of the udf are kept in memory
+     */
+    static boolean isCached(String key) {
+        synchronized (CACHE) {
+            return CACHE.containsKey(key);
+        }
+    }
+
+    /**
+     * Write the classes to the directory, under the path of their package.
+     */
+    public static void writeClasses(Map<String, byte[]> classes, String path) {
+        classes.forEach((className, bytes) -> FileUtil.writeBytes(
+                bytes, new File(path, StrUtil.replace(className, ".", File.separator) + CLASS_SUFFIX)));
+    }
+
+    /**
+     * Read the classes under the directory, the reverse of {@link #writeClasses(Map, String)}.
+     */
+    public static Map<String, byte[]> readClasses(File dir) {
+        Map<String, byte[]> classes = new HashMap<>();
+        String root = dir.getAbsolutePath() + File.separator;
+        for (File file : FileUtil.loopFiles(dir, file -> file.getName().endsWith(CLASS_SUFFIX))) {
+            String relative = StrUtil.removePrefix(file.getAbsolutePath(), root);
+            String className = StrUtil.replace(StrUtil.removeSuffix(relative, CLASS_SUFFIX), File.separator, ".");
+            classes.put(className, FileUtil.readBytes(file));
+        }
+        return Collections.unmodifiableMap(classes);
+    }
+}
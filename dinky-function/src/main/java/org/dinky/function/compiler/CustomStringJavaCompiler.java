@@ -20,11 +20,12 @@
 package org.dinky.function.compiler;
 
 import java.io.ByteArrayOutputStream;
-import java.io.File;
 import java.io.IOException;
 import java.io.OutputStream;
 import java.net.URI;
+import java.nio.charset.StandardCharsets;
 import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
@@ -40,7 +41,6 @@ import javax.tools.JavaFileManager;
 import javax.tools.JavaFileObject;
 import javax.tools.SimpleJavaFileObject;
 import javax.tools.StandardJavaFileManager;
-import javax.tools.StandardLocation;
 import javax.tools.ToolProvider;
 
 import cn.hutool.core.io.FileUtil;
@@ -59,7 +59,10 @@ public class CustomStringJavaCompiler {
     // 存放编译之后的字节码(key:类全名,value:编译之后输出的字节码)
     private Map<String, ByteJavaFileObject> javaFileObjectMap = new ConcurrentHashMap<>();
     // 获取java的编译器
-    private JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+    private static final JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+    // 标准的内容管理器会缓存打开的 classpath，每个线程复用一个
+    private static final ThreadLocal<StandardJavaFileManager> standardFileManagers =
+            ThreadLocal.withInitial(() -> compiler.getStandardFileManager(null, null, StandardCharsets.UTF_8));
     // 存放编译过程中输出的信息
     private DiagnosticCollector<JavaFileObject> diagnosticsCollector = new DiagnosticCollector<>();
     // 编译耗时(单位ms)
@@ -79,31 +82,47 @@ public class CustomStringJavaCompiler {
     }
 
     /**
-     * 编译字符串源代码,并放在缓存目录下,编译失败在 diagnosticsCollector 中获取提示信息
+     * 在内存中编译字符串源代码,编译失败在 diagnosticsCollector 中获取提示信息
      *
      * @return true:编译成功 false:编译失败
      */
-    public boolean compilerToTmpPath(String tmpPath) {
+    public boolean compile() {
         long startTime = System.currentTimeMillis();
-        File codeFile =
-                FileUtil.writeUtf8String(sourceCode, tmpPath + StrUtil.replace(fullClassName, ".", "/") + ".java");
-        // 标准的内容管理器,更换成自己的实现，覆盖部分方法
-        StandardJavaFileManager standardFileManager = compiler.getStandardFileManager(diagnosticsCollector, null, null);
-        try {
-            standardFileManager.setLocation(
-                    StandardLocation.CLASS_OUTPUT, Collections.singletonList(new File(tmpPath)));
-        } catch (IOException e) {
-            throw new RuntimeException(e);
-        }
-        Iterable<? extends JavaFileObject> javaFileObject =
-                standardFileManager.getJavaFileObjectsFromFiles(Collections.singletonList(codeFile));
+        javaFileObjectMap.clear();
+        // 字节码输出到内存
+        StringJavaFileManage javaFileManager = new StringJavaFileManage(standardFileManagers.get());
+        JavaFileObject javaFileObject = new StringJavaFileObject(fullClassName, sourceCode);
 
         // 获取一个编译任务
-        JavaCompiler.CompilationTask task =
-                compiler.getTask(null, standardFileManager, diagnosticsCollector, null, null, javaFileObject);
+        JavaCompiler.CompilationTask task = compiler.getTask(
+                null, javaFileManager, diagnosticsCollector, null, null, Collections.singletonList(javaFileObject));
+        boolean success = task.call();
         // 设置编译耗时
         compilerTakeTime = System.currentTimeMillis() - startTime;
-        return task.call();
+        return success;
+    }
+
+    /**
+     * 编译字符串源代码,并放在缓存目录下,编译失败在 diagnosticsCollector 中获取提示信息
+     *
+     * @return true:编译成功 false:编译失败
+     */
+    public boolean compilerToTmpPath(String tmpPath) {
+        if (!compile()) {
+            return false;
+        }
+        getCompiledClasses()
+                .forEach((className, bytes) ->
+                        FileUtil.writeBytes(bytes, tmpPath + StrUtil.replace(className, ".", "/") + ".class"));
+        return true;
+    }
+
+    /** @return 编译之后的字节码(key:类全名,value:字节码)，包括内部类 */
+    public Map<String, byte[]> getCompiledClasses() {
+        Map<String, byte[]> classes = new LinkedHashMap<>();
+        javaFileObjectMap.forEach(
+                (className, javaFileObject) -> classes.put(className, javaFileObject.getCompiledBytes()));
+        return classes;
     }
 
     /** @return 编译信息(错误 警告) */
@@ -200,5 +219,9 @@ public class CustomStringJavaCompiler {
             javaFileObjectMap.put(className, javaFileObject);
             return javaFileObject;
         }
+
+        // 标准的内容管理器在线程中复用，不关闭
+        @Override
+        public void close() {}
     }
 }
@@ -41,11 +41,18 @@ public class CustomStringScalaCompiler {
     }
 
     public static IMain getInterpreter(Integer missionId) {
+        return getInterpreterByOutputPath(PathConstant.getUdfCompilerJavaPath(missionId));
+    }
+
+    /**
+     * @param outputPath class 的输出目录
+     */
+    public static IMain getInterpreterByOutputPath(String outputPath) {
 
         GenericRunnerSettings settings = new GenericRunnerSettings(new ErrorHandler());
 
         settings.usejavacp().tryToSetFromPropertyValue("true");
-        settings.Yreploutdir().tryToSetFromPropertyValue(PathConstant.getUdfCompilerJavaPath(missionId));
+        settings.Yreploutdir().tryToSetFromPropertyValue(outputPath);
         return new IMain(settings);
     }
 }
@@ -20,12 +20,21 @@
 package org.dinky.function.compiler;
 
 import org.dinky.assertion.Asserts;
+import org.dinky.function.constant.PathConstant;
 import org.dinky.function.data.model.UDF;
 import org.dinky.function.exception.UDFCompilerException;
 
 import org.apache.flink.configuration.ReadableConfig;
+import org.apache.flink.table.catalog.FunctionLanguage;
 
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+
+import org.slf4j.MDC;
 
 import cn.hutool.core.lang.Singleton;
 import cn.hutool.core.util.StrUtil;
@@ -54,6 +63,12 @@ public interface FunctionCompiler {
     static boolean getCompiler(UDF udf, ReadableConfig conf, Integer missionId) {
         Asserts.checkNull(udf, "udf为空");
         Asserts.checkNull(udf.getCode(), "udf 代码为空");
+        // 代码未变的 udf 不再编译
+        Map<String, byte[]> classes = CompiledUdfCache.get(CompiledUdfCache.getKey(udf));
+        if (classes != null) {
+            CompiledUdfCache.writeClasses(classes, PathConstant.getUdfCompilerJavaPath(missionId));
+            return true;
+        }
         boolean success;
         switch (udf.getFunctionLanguage()) {
             case JAVA:
@@ -73,18 +88,50 @@ public interface FunctionCompiler {
     }
 
     /**
-     * 编译
+     * 编译，相同代码的 udf 只编译一次，互不依赖的 udf 在 {@link UdfCompileExecutor} 中并行编译，scala 解释器逐个编译
      *
      * @param udfList udf、实例列表
      * @param conf flink-conf
      * @param missionId 任务id
      */
     static void getCompiler(List<UDF> udfList, ReadableConfig conf, Integer missionId) {
+        Map<String, UDF> distinctUdfs = new LinkedHashMap<>();
         for (UDF udf : udfList) {
-            if (!getCompiler(udf, conf, missionId)) {
-                throw new UDFCompilerException(StrUtil.format(
-                        "codeLanguage:{} , className:{} 编译失败", udf.getFunctionLanguage(), udf.getClassName()));
+            Asserts.checkNull(udf, "udf为空");
+            Asserts.checkNull(udf.getCode(), "udf 代码为空");
+            distinctUdfs.putIfAbsent(CompiledUdfCache.getKey(udf), udf);
+        }
+        Map<String, String> logContext = MDC.getCopyOfContextMap();
+        List<UDF> failedUdfs = new CopyOnWriteArrayList<>();
+        Consumer<UDF> compile = udf -> {
+            // 编译日志仍记录到提交任务的过程
+            Map<String, String> previous = MDC.getCopyOfContextMap();
+            if (logContext != null) {
+                MDC.setContextMap(logContext);
+            }
+            try {
+                if (!getCompiler(udf, conf, missionId)) {
+                    failedUdfs.add(udf);
+                }
+            } finally {
+                if (previous == null) {
+                    MDC.clear();
+                } else {
+                    MDC.setContextMap(previous);
+                }
             }
+        };
+        UdfCompileExecutor.invokeAll(distinctUdfs.values().stream()
+                .filter(udf -> udf.getFunctionLanguage() != FunctionLanguage.SCALA)
+                .map(udf -> (Runnable) () -> compile.accept(udf))
+                .collect(Collectors.toList()));
+        distinctUdfs.values().stream()
+                .filter(udf -> udf.getFunctionLanguage() == FunctionLanguage.SCALA)
+                .forEach(compile);
+        if (!failedUdfs.isEmpty()) {
+            UDF udf = failedUdfs.get(0);
+            throw new UDFCompilerException(StrUtil.format(
+                    "codeLanguage:{} , className:{} 编译失败", udf.getFunctionLanguage(), udf.getClassName()));
         }
     }
 }
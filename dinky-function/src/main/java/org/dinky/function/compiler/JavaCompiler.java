@@ -24,6 +24,8 @@ import org.dinky.function.data.model.UDF;
 
 import org.apache.flink.configuration.ReadableConfig;
 
+import java.util.Map;
+
 import lombok.extern.slf4j.Slf4j;
 
 /**
@@ -47,9 +49,12 @@ public class JavaCompiler implements FunctionCompiler {
         // TODO 改为ProcessStep注释
         log.info("正在编译 java 代码 , class: " + udf.getClassName());
         CustomStringJavaCompiler compiler = new CustomStringJavaCompiler(udf.getCode());
-        boolean res = compiler.compilerToTmpPath(PathConstant.getUdfCompilerJavaPath(missionId));
+        boolean res = compiler.compile();
         String className = compiler.getFullClassName();
         if (res) {
+            Map<String, byte[]> classes = compiler.getCompiledClasses();
+            CompiledUdfCache.put(CompiledUdfCache.getKey(udf), classes);
+            CompiledUdfCache.writeClasses(classes, PathConstant.getUdfCompilerJavaPath(missionId));
             log.info("class编译成功:" + className);
             log.info("compilerTakeTime：" + compiler.getCompilerTakeTime());
             return true;
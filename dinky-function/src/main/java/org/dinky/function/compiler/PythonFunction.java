@@ -35,6 +35,7 @@ import org.apache.flink.table.catalog.FunctionLanguage;
 import java.io.File;
 import java.io.InputStream;
 import java.nio.charset.Charset;
+import java.util.Collections;
 import java.util.List;
 import java.util.stream.Collectors;
 
@@ -92,6 +93,8 @@ public class PythonFunction implements FunctionCompiler, FunctionPackage {
             return false;
         }
         FileUtil.del(zipFile);
+        // python udf 没有 class，缓存为已校验
+        CompiledUdfCache.put(CompiledUdfCache.getKey(udf), Collections.emptyMap());
         return true;
     }
 
@@ -19,10 +19,16 @@
 
 package org.dinky.function.compiler;
 
+import org.dinky.function.constant.PathConstant;
 import org.dinky.function.data.model.UDF;
 
 import org.apache.flink.configuration.ReadableConfig;
 
+import java.io.File;
+import java.util.Map;
+import java.util.UUID;
+
+import cn.hutool.core.io.FileUtil;
 import lombok.extern.slf4j.Slf4j;
 
 /**
@@ -39,12 +45,22 @@ public class ScalaCompiler implements FunctionCompiler {
 
         String className = udf.getClassName();
         log.info("正在编译 scala 代码 , class: " + className);
-        if (CustomStringScalaCompiler.getInterpreter(missionId).compileString(udf.getCode())) {
-            log.info("scala class编译成功:" + className);
-            return true;
-        } else {
-            log.error("scala class编译失败:" + className);
-            return false;
+        // 编译到单独的目录，以便缓存这个 udf 的全部 class
+        File outputDir = new File(PathConstant.UDF_CACHE_PATH, UUID.randomUUID() + ".scala");
+        try {
+            if (CustomStringScalaCompiler.getInterpreterByOutputPath(outputDir.getPath())
+                    .compileString(udf.getCode())) {
+                Map<String, byte[]> classes = CompiledUdfCache.readClasses(outputDir);
+                CompiledUdfCache.put(CompiledUdfCache.getKey(udf), classes);
+                CompiledUdfCache.writeClasses(classes, PathConstant.getUdfCompilerJavaPath(missionId));
+                log.info("scala class编译成功:" + className);
+                return true;
+            } else {
+                log.error("scala class编译失败:" + className);
+                return false;
+            }
+        } finally {
+            FileUtil.del(outputDir);
         }
     }
 }
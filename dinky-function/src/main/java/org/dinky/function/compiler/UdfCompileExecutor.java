@@ -0,0 +1,97 @@
+/*
+ *
+ *  Licensed to the Apache Software Foundation (ASF) under one or more
+ *  contributor license agreements.  See the NOTICE file distributed with
+ *  this work for additional information regarding copyright ownership.
+ *  The ASF licenses this file to You under the Apache License, Version 2.0
+ *  (the "License"); you may not use this file except in compliance with
+ *  the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+
+package org.dinky.function.compiler;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * The threads compiling the udfs of the submissions, instead of the common fork join pool shared with the rest of
+ * the process. Their number can be set with the system property {@code dinky.udf.compile-parallelism}.
+ */
+final class UdfCompileExecutor {
+
+    private UdfCompileExecutor() {}
+
+    private static final int PARALLELISM = Integer.getInteger(
+            "dinky.udf.compile-parallelism", Math.min(4, Runtime.getRuntime().availableProcessors()));
+
+    private static final AtomicInteger THREAD_INDEX = new AtomicInteger(0);
+
+    private static final ThreadPoolExecutor EXECUTOR =
+            new ThreadPoolExecutor(PARALLELISM, PARALLELISM, 60, TimeUnit.SECONDS, new LinkedBlockingQueue<>(), r -> {
+                Thread thread = new Thread(r, "UdfCompiler-" + THREAD_INDEX.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            });
+
+    static {
+        EXECUTOR.allowCoreThreadTimeOut(true);
+    }
+
+    /**
+     * Run the tasks with the context class loader of the caller and wait for all of them. The first failure is
+     * thrown once all the tasks are done.
+     */
+    static void invokeAll(List<Runnable> tasks) {
+        ClassLoader classLoader = Thread.currentThread().getContextClassLoader();
+        List<Future<?>> futures = new ArrayList<>(tasks.size());
+        for (Runnable task : tasks) {
+            futures.add(EXECUTOR.submit(() -> {
+                Thread thread = Thread.currentThread();
+                ClassLoader original = thread.getContextClassLoader();
+                thread.setContextClassLoader(classLoader);
+                try {
+                    task.run();
+                } finally {
+                    thread.setContextClassLoader(original);
+                }
+            }));
+        }
+        RuntimeException failure = null;
+        try {
+            for (Future<?> future : futures) {
+                try {
+                    future.get();
+                } catch (ExecutionException e) {
+                    if (failure == null) {
+                        Throwable cause = e.getCause();
+                        failure = cause instanceof RuntimeException
+                                ? (RuntimeException) cause
+                                : new RuntimeException(cause);
+                    }
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            futures.forEach(future -> future.cancel(true));
+            throw new RuntimeException(e);
+        }
+        if (failure != null) {
+            throw failure;
+        }
+    }
+}
@@ -38,6 +38,9 @@ public class PathConstant {
     /** udf路径 */
     public static final String UDF_PATH = TMP_PATH + "udf" + File.separator;
 
+    /** 编译好的udf缓存路径 */
+    public static final String UDF_CACHE_PATH = UDF_PATH + "cache" + File.separator;
+
     public static final String COMPILER = "compiler";
     public static final String PACKAGE = "package";
     /** udf jar规则 */
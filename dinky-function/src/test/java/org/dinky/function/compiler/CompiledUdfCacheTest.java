@@ -0,0 +1,123 @@
+/*
+ *
+ *  Licensed to the Apache Software Foundation (ASF) under one or more
+ *  contributor license agreements.  See the NOTICE file distributed with
+ *  this work for additional information regarding copyright ownership.
+ *  The ASF licenses this file to You under the Apache License, Version 2.0
+ *  (the "License"); you may not use this file except in compliance with
+ *  the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+
+package org.dinky.function.compiler;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.dinky.function.constant.PathConstant;
+import org.dinky.function.data.model.UDF;
+
+import org.apache.flink.table.catalog.FunctionLanguage;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import cn.hutool.core.io.FileUtil;
+
+class CompiledUdfCacheTest {
+
+    private final List<String> keys = new ArrayList<>();
+
+    @AfterEach
+    void deletePersisted() {
+        keys.forEach(key -> FileUtil.del(new File(PathConstant.UDF_CACHE_PATH, key)));
+    }
+
+    @Test
+    void keyDependsOnTheCodeOnly() {
+        UDF udf = udf("com.example.Upper", "class Upper {}");
+        assertEquals(CompiledUdfCache.getKey(udf), CompiledUdfCache.getKey(udf("com.example.Upper", "class Upper {}")));
+        assertNotEquals(
+                CompiledUdfCache.getKey(udf), CompiledUdfCache.getKey(udf("com.example.Upper", "class Upper { }")));
+        assertNotEquals(
+                CompiledUdfCache.getKey(udf), CompiledUdfCache.getKey(udf("com.example.Lower", "class Upper {}")));
+        udf.setName("another_name");
+        assertEquals(CompiledUdfCache.getKey(udf), CompiledUdfCache.getKey(udf("com.example.Upper", "class Upper {}")));
+    }
+
+    @Test
+    void keepsTheLastUsedUdfsInMemory() {
+        for (int i = 0; i < 256; i++) {
+            put(key(i), "com.example.Udf" + i);
+        }
+        // Used last, so the second udf is the eldest
+        CompiledUdfCache.get(key(0));
+        put(key(256), "com.example.Udf256");
+
+        assertTrue(CompiledUdfCache.isCached(key(0)));
+        assertFalse(CompiledUdfCache.isCached(key(1)));
+        assertTrue(CompiledUdfCache.isCached(key(256)));
+    }
+
+    @Test
+    void reloadsThePersistedClasses() {
+        String key = key(0);
+        put(key, "com.example.sub.Udf");
+        for (int i = 1; i <= 256; i++) {
+            put(key(i), "com.example.Udf" + i);
+        }
+        assertFalse(CompiledUdfCache.isCached(key));
+        File dir = new File(PathConstant.UDF_CACHE_PATH, key);
+        assertTrue(new File(dir, "com/example/sub/Udf.class").isFile());
+        // Moved in place, nothing is left aside
+        assertEquals(
+                0,
+                FileUtil.loopFiles(PathConstant.UDF_CACHE_PATH, file -> file.getPath()
+                                .contains(".tmp"))
+                        .size());
+
+        Map<String, byte[]> classes = CompiledUdfCache.get(key);
+        assertEquals(Collections.singleton("com.example.sub.Udf"), classes.keySet());
+        assertArrayEquals(bytes("com.example.sub.Udf"), classes.get("com.example.sub.Udf"));
+        assertTrue(CompiledUdfCache.isCached(key));
+    }
+
+    private String key(int index) {
+        return "compiled-udf-cache-test-" + index;
+    }
+
+    private void put(String key, String className) {
+        keys.add(key);
+        CompiledUdfCache.put(key, Collections.singletonMap(className, bytes(className)));
+    }
+
+    private static byte[] bytes(String className) {
+        return className.getBytes();
+    }
+
+    private static UDF udf(String className, String code) {
+        return UDF.builder()
+                .name("upper")
+                .className(className)
+                .functionLanguage(FunctionLanguage.JAVA)
+                .code(code)
+                .build();
+    }
+}
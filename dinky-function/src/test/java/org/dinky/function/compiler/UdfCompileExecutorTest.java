@@ -0,0 +1,77 @@
+/*
+ *
+ *  Licensed to the Apache Software Foundation (ASF) under one or more
+ *  contributor license agreements.  See the NOTICE file distributed with
+ *  this work for additional information regarding copyright ownership.
+ *  The ASF licenses this file to You under the Apache License, Version 2.0
+ *  (the "License"); you may not use this file except in compliance with
+ *  the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+
+package org.dinky.function.compiler;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+
+class UdfCompileExecutorTest {
+
+    @Test
+    void runsTheTasksWithTheClassLoaderOfTheCaller() {
+        ClassLoader caller = Thread.currentThread().getContextClassLoader();
+        ClassLoader job = new URLClassLoader(new URL[0], caller);
+        List<ClassLoader> seen = new CopyOnWriteArrayList<>();
+        List<Runnable> tasks = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            tasks.add(() -> seen.add(Thread.currentThread().getContextClassLoader()));
+        }
+        Thread.currentThread().setContextClassLoader(job);
+        try {
+            UdfCompileExecutor.invokeAll(tasks);
+        } finally {
+            Thread.currentThread().setContextClassLoader(caller);
+        }
+        assertEquals(8, seen.size());
+        seen.forEach(classLoader -> assertSame(job, classLoader));
+
+        // The class loader of the workers is restored after the tasks
+        List<ClassLoader> after = new CopyOnWriteArrayList<>();
+        UdfCompileExecutor.invokeAll(
+                Arrays.asList(() -> after.add(Thread.currentThread().getContextClassLoader())));
+        assertSame(caller, after.get(0));
+    }
+
+    @Test
+    void waitsForAllTheTasksAndThrowsTheFirstFailure() {
+        AtomicInteger done = new AtomicInteger();
+        List<Runnable> tasks = new ArrayList<>();
+        tasks.add(() -> {
+            throw new IllegalStateException("compile failed");
+        });
+        for (int i = 0; i < 4; i++) {
+            tasks.add(done::incrementAndGet);
+        }
+        IllegalStateException e = assertThrows(IllegalStateException.class, () -> UdfCompileExecutor.invokeAll(tasks));
+        assertEquals("compile failed", e.getMessage());
+        assertEquals(4, done.get());
+    }
+}
@@ -19,10 +19,6 @@
 
 package org.dinky.metadata.driver;
 
-import static org.dinky.utils.SplitUtil.contains;
-import static org.dinky.utils.SplitUtil.getReValue;
-import static org.dinky.utils.SplitUtil.isSplit;
-
 import org.dinky.assertion.Asserts;
 import org.dinky.data.constant.CommonConstant;
 import org.dinky.data.enums.TableType;
@@ -38,6 +34,8 @@ import org.dinky.metadata.query.IDBQuery;
 import org.dinky.metadata.result.JdbcSelectResult;
 import org.dinky.utils.JsonUtils;
 import org.dinky.utils.LogUtil;
+import org.dinky.utils.SplitResolver;
+import org.dinky.utils.SplitUtil;
 import org.dinky.utils.TextUtil;
 
 import java.sql.Connection;
@@ -50,6 +48,7 @@ import java.sql.Statement;
 import java.text.ParseException;
 import java.text.SimpleDateFormat;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.Comparator;
 import java.util.HashMap;
@@ -58,8 +57,7 @@ import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
-import java.util.TreeSet;
-import java.util.stream.Collectors;
+import java.util.regex.Pattern;
 import java.util.stream.Stream;
 
 import com.alibaba.druid.pool.DruidDataSource;
@@ -309,75 +307,7 @@ public abstract class AbstractJdbcDriver extends AbstractDriver<AbstractJdbcConf
                 columnList.add(metaData.getColumnLabel(i));
             }
             while (results.next()) {
-                Column field = new Column();
-                String columnName = results.getString(dbQuery.columnName());
-                if (columnList.contains(dbQuery.columnKey())) {
-                    String key = results.getString(dbQuery.columnKey());
-                    field.setKeyFlag(Asserts.isNotNullString(key) && Asserts.isEqualsIgnoreCase(dbQuery.isPK(), key));
-                }
-                field.setName(columnName);
-                if (columnList.contains(dbQuery.columnType())) {
-                    String columnType = results.getString(dbQuery.columnType());
-                    if (columnType.contains("(")) {
-                        String type = columnType.replaceAll("\\(.*\\)", "");
-                        if (!columnType.contains(",")) {
-                            Integer length = Integer.valueOf(columnType.replaceAll("\\D", ""));
-                            field.setLength(length);
-                        } else {
-                            // some database does not have precision
-                            if (dbQuery.precision() != null) {
-                                // 例如浮点类型的长度和精度是一样的，decimal(10,2)
-                                field.setLength(results.getInt(dbQuery.precision()));
-                            }
-                        }
-                        field.setType(type);
-                    } else {
-                        field.setType(columnType);
-                    }
-                }
-                if (columnList.contains(dbQuery.columnComment())
-                        && Asserts.isNotNull(results.getString(dbQuery.columnComment()))) {
-                    String columnComment =
-                            results.getString(dbQuery.columnComment()).replaceAll("\"|'", "");
-                    field.setComment(columnComment);
-                }
-                if (columnList.contains(dbQuery.columnLength())) {
-                    int length = results.getInt(dbQuery.columnLength());
-                    if (!results.wasNull()) {
-                        field.setLength(length);
-                    }
-                }
-                if (columnList.contains(dbQuery.isNullable())) {
-                    field.setNullable(Asserts.isEqualsIgnoreCase(
-                            results.getString(dbQuery.isNullable()), dbQuery.nullableValue()));
-                }
-                if (columnList.contains(dbQuery.characterSet())) {
-                    field.setCharacterSet(results.getString(dbQuery.characterSet()));
-                }
-                if (columnList.contains(dbQuery.collation())) {
-                    field.setCollation(results.getString(dbQuery.collation()));
-                }
-                if (columnList.contains(dbQuery.columnPosition())) {
-                    field.setPosition(results.getInt(dbQuery.columnPosition()));
-                }
-                if (columnList.contains(dbQuery.precision())) {
-                    field.setPrecision(results.getInt(dbQuery.precision()));
-                }
-                if (columnList.contains(dbQuery.scale())) {
-                    field.setScale(results.getInt(dbQuery.scale()));
-                }
-                if (columnList.contains(dbQuery.defaultValue())) {
-                    field.setDefaultValue(results.getString(dbQuery.defaultValue()));
-                }
-                if (columnList.contains(dbQuery.autoIncrement())) {
-                    field.setAutoIncrement(
-                            Asserts.isEqualsIgnoreCase(results.getString(dbQuery.autoIncrement()), "auto_increment"));
-                }
-                if (columnList.contains(dbQuery.defaultValue())) {
-                    field.setDefaultValue(results.getString(dbQuery.defaultValue()));
-                }
-                field.setJavaType(getTypeConvert().convert(field, config));
-                columns.add(field);
+                columns.add(buildColumn(results, columnList, dbQuery));
             }
         } catch (SQLException e) {
             log.error("ListColumns error", e);
@@ -388,6 +318,82 @@ public abstract class AbstractJdbcDriver extends AbstractDriver<AbstractJdbcConf
         return columns;
     }
 
+    /**
+     * 将当前行转换为字段
+     *
+     * @param columnList 结果集的列名
+     */
+    protected Column buildColumn(ResultSet results, List<String> columnList, IDBQuery dbQuery) throws SQLException {
+        Column field = new Column();
+        String columnName = results.getString(dbQuery.columnName());
+        if (columnList.contains(dbQuery.columnKey())) {
+            String key = results.getString(dbQuery.columnKey());
+            field.setKeyFlag(Asserts.isNotNullString(key) && Asserts.isEqualsIgnoreCase(dbQuery.isPK(), key));
+        }
+        field.setName(columnName);
+        if (columnList.contains(dbQuery.columnType())) {
+            String columnType = results.getString(dbQuery.columnType());
+            if (columnType.contains("(")) {
+                String type = columnType.replaceAll("\\(.*\\)", "");
+                if (!columnType.contains(",")) {
+                    Integer length = Integer.valueOf(columnType.replaceAll("\\D", ""));
+                    field.setLength(length);
+                } else {
+                    // some database does not have precision
+                    if (dbQuery.precision() != null) {
+                        // 例如浮点类型的长度和精度是一样的，decimal(10,2)
+                        field.setLength(results.getInt(dbQuery.precision()));
+                    }
+                }
+                field.setType(type);
+            } else {
+                field.setType(columnType);
+            }
+        }
+        if (columnList.contains(dbQuery.columnComment())
+                && Asserts.isNotNull(results.getString(dbQuery.columnComment()))) {
+            String columnComment = results.getString(dbQuery.columnComment()).replaceAll("\"|'", "");
+            field.setComment(columnComment);
+        }
+        if (columnList.contains(dbQuery.columnLength())) {
+            int length = results.getInt(dbQuery.columnLength());
+            if (!results.wasNull()) {
+                field.setLength(length);
+            }
+        }
+        if (columnList.contains(dbQuery.isNullable())) {
+            field.setNullable(
+                    Asserts.isEqualsIgnoreCase(results.getString(dbQuery.isNullable()), dbQuery.nullableValue()));
+        }
+        if (columnList.contains(dbQuery.characterSet())) {
+            field.setCharacterSet(results.getString(dbQuery.characterSet()));
+        }
+        if (columnList.contains(dbQuery.collation())) {
+            field.setCollation(results.getString(dbQuery.collation()));
+        }
+        if (columnList.contains(dbQuery.columnPosition())) {
+            field.setPosition(results.getInt(dbQuery.columnPosition()));
+        }
+        if (columnList.contains(dbQuery.precision())) {
+            field.setPrecision(results.getInt(dbQuery.precision()));
+        }
+        if (columnList.contains(dbQuery.scale())) {
+            field.setScale(results.getInt(dbQuery.scale()));
+        }
+        if (columnList.contains(dbQuery.defaultValue())) {
+            field.setDefaultValue(results.getString(dbQuery.defaultValue()));
+        }
+        if (columnList.contains(dbQuery.autoIncrement())) {
+            field.setAutoIncrement(
+                    Asserts.isEqualsIgnoreCase(results.getString(dbQuery.autoIncrement()), "auto_increment"));
+        }
+        if (columnList.contains(dbQuery.defaultValue())) {
+            field.setDefaultValue(results.getString(dbQuery.defaultValue()));
+        }
+        field.setJavaType(getTypeConvert().convert(field, config));
+        return field;
+    }
+
     @Override
     public List<Column> listColumnsSortByPK(String schemaName, String tableName) {
         List<Column> columnList = listColumns(schemaName, tableName);
@@ -395,6 +401,49 @@ public abstract class AbstractJdbcDriver extends AbstractDriver<AbstractJdbcConf
         return columnList;
     }
 
+    @Override
+    public Map<String, List<Column>> listColumnsSortByPK(String schemaName, Collection<String> tableNames) {
+        IDBQuery dbQuery = getDBQuery();
+        String schemaColumnsSql = dbQuery.schemaColumnsSql(schemaName);
+        if (schemaColumnsSql == null || tableNames.size() <= 1) {
+            return super.listColumnsSortByPK(schemaName, tableNames);
+        }
+        Map<String, List<Column>> columns = new LinkedHashMap<>();
+        for (String tableName : tableNames) {
+            columns.put(tableName, new ArrayList<>());
+        }
+        PreparedStatement preparedStatement = null;
+        ResultSet results = null;
+        try {
+            preparedStatement = conn.get().prepareStatement(schemaColumnsSql);
+            results = preparedStatement.executeQuery();
+            ResultSetMetaData metaData = results.getMetaData();
+            List<String> columnList = new ArrayList<>();
+            for (int i = 1; i <= metaData.getColumnCount(); i++) {
+                columnList.add(metaData.getColumnLabel(i));
+            }
+            while (results.next()) {
+                List<Column> tableColumns = columns.get(results.getString(dbQuery.columnTableName()));
+                if (tableColumns != null) {
+                    tableColumns.add(buildColumn(results, columnList, dbQuery));
+                }
+            }
+        } catch (SQLException e) {
+            log.error("ListColumns error", e);
+            throw new BusException(e.getMessage());
+        } finally {
+            close(preparedStatement, results);
+        }
+        for (Map.Entry<String, List<Column>> entry : columns.entrySet()) {
+            if (entry.getValue().isEmpty()) {
+                // Not in the schema wide query, e.g. the case of the name differs
+                entry.setValue(listColumns(schemaName, entry.getKey()));
+            }
+            entry.getValue().sort(Comparator.comparing(Column::isKeyFlag).reversed());
+        }
+        return columns;
+    }
+
     @Override
     public boolean createTable(Table table) throws Exception {
         String sql = getCreateTableSql(table).replaceAll("\r\n", " ");
@@ -785,74 +834,70 @@ public abstract class AbstractJdbcDriver extends AbstractDriver<AbstractJdbcConf
         Set<Table> set = new HashSet<>();
         List<Map<String, String>> schemaList = getSplitSchemaList();
         IDBQuery dbQuery = getDBQuery();
+        SplitResolver resolver = SplitUtil.getResolver(splitConfig);
 
         for (String table : tableRegList) {
             String[] split = table.split("\\\\.");
-            String database = split[0];
-            String tableName = split[1];
-            // 匹配对应的表
-            List<Map<String, String>> mapList = schemaList.stream()
-                    // 过滤不匹配的表
-                    .filter(x -> contains(database, x.get(dbQuery.schemaName()))
-                            && contains(tableName, x.get(dbQuery.tableName())))
-                    .collect(Collectors.toList());
-            List<Table> tableList = mapList.stream()
-                    // 去重
-                    .collect(Collectors.collectingAndThen(
-                            Collectors.toCollection(() -> new TreeSet<>(
-                                    Comparator.comparing(x -> getReValue(x.get(dbQuery.schemaName()), splitConfig)
-                                            + "."
-                                            + getReValue(x.get(dbQuery.tableName()), splitConfig)))),
-                            ArrayList::new))
-                    .stream()
-                    .map(x -> {
-                        Table tableInfo = new Table();
-                        tableInfo.setDriverType(getType());
-                        tableInfo.setName(getReValue(x.get(dbQuery.tableName()), splitConfig));
-                        tableInfo.setComment(x.get(dbQuery.tableComment()));
-                        tableInfo.setSchema(getReValue(x.get(dbQuery.schemaName()), splitConfig));
-                        tableInfo.setType(x.get(dbQuery.tableType()));
-                        tableInfo.setCatalog(x.get(dbQuery.catalogName()));
-                        tableInfo.setEngine(x.get(dbQuery.engine()));
-                        tableInfo.setOptions(x.get(dbQuery.options()));
-                        tableInfo.setRows(Long.valueOf(x.get(dbQuery.rows())));
-                        try {
-                            tableInfo.setCreateTime(
-                                    SimpleDateFormat.getDateInstance().parse(x.get(dbQuery.createTime())));
-                            String updateTime = x.get(dbQuery.updateTime());
-                            if (Asserts.isNotNullString(updateTime)) {
-                                tableInfo.setUpdateTime(
-                                        SimpleDateFormat.getDateInstance().parse(updateTime));
-                            }
-                        } catch (ParseException ignored) {
-                            log.warn("set date fail");
-                        }
-                        TableType tableType = TableType.type(
-                                isSplit(x.get(dbQuery.schemaName()), splitConfig),
-                                isSplit(x.get(dbQuery.tableName()), splitConfig));
-                        tableInfo.setTableType(tableType);
-
-                        if (tableType != TableType.SINGLE_DATABASE_AND_TABLE) {
-                            String currentSchemaName = getReValue(x.get(dbQuery.schemaName()), splitConfig)
-                                    + "."
-                                    + getReValue(x.get(dbQuery.tableName()), splitConfig);
-                            List<String> schemaTableNameList = mapList.stream()
-                                    .filter(y -> (getReValue(y.get(dbQuery.schemaName()), splitConfig)
-                                                    + "."
-                                                    + getReValue(y.get(dbQuery.tableName()), splitConfig))
-                                            .equals(currentSchemaName))
-                                    .map(y -> y.get(dbQuery.schemaName()) + "." + y.get(dbQuery.tableName()))
-                                    .collect(Collectors.toList());
-                            tableInfo.setSchemaTableNameList(schemaTableNameList);
-                        } else {
-                            tableInfo.setSchemaTableNameList(Collections.singletonList(
-                                    x.get(dbQuery.schemaName()) + "." + x.get(dbQuery.tableName())));
-                        }
-                        return tableInfo;
-                    })
-                    .collect(Collectors.toList());
-            set.addAll(tableList);
+            Pattern database = SplitUtil.compile(split[0]);
+            Pattern tableName = SplitUtil.compile(split[1]);
+            // 匹配对应的表, 按去掉分片号后的库表名分组
+            Map<String, List<Map<String, String>>> groups = new LinkedHashMap<>();
+            for (Map<String, String> x : schemaList) {
+                String schema = x.get(dbQuery.schemaName());
+                String name = x.get(dbQuery.tableName());
+                if (!database.matcher(schema).matches()
+                        || !tableName.matcher(name).matches()) {
+                    continue;
+                }
+                groups.computeIfAbsent(
+                                resolver.getReValue(schema) + "." + resolver.getReValue(name), k -> new ArrayList<>())
+                        .add(x);
+            }
+            for (List<Map<String, String>> group : groups.values()) {
+                set.add(buildSplitTable(group, resolver, dbQuery));
+            }
         }
         return set;
     }
+
+    /**
+     * @param group the shards of one table, the first one describes the table
+     */
+    private Table buildSplitTable(List<Map<String, String>> group, SplitResolver resolver, IDBQuery dbQuery) {
+        Map<String, String> x = group.get(0);
+        Table tableInfo = new Table();
+        tableInfo.setDriverType(getType());
+        tableInfo.setName(resolver.getReValue(x.get(dbQuery.tableName())));
+        tableInfo.setComment(x.get(dbQuery.tableComment()));
+        tableInfo.setSchema(resolver.getReValue(x.get(dbQuery.schemaName())));
+        tableInfo.setType(x.get(dbQuery.tableType()));
+        tableInfo.setCatalog(x.get(dbQuery.catalogName()));
+        tableInfo.setEngine(x.get(dbQuery.engine()));
+        tableInfo.setOptions(x.get(dbQuery.options()));
+        tableInfo.setRows(Long.valueOf(x.get(dbQuery.rows())));
+        try {
+            tableInfo.setCreateTime(SimpleDateFormat.getDateInstance().parse(x.get(dbQuery.createTime())));
+            String updateTime = x.get(dbQuery.updateTime());
+            if (Asserts.isNotNullString(updateTime)) {
+                tableInfo.setUpdateTime(SimpleDateFormat.getDateInstance().parse(updateTime));
+            }
+        } catch (ParseException ignored) {
+            log.warn("set date fail");
+        }
+        TableType tableType = TableType.type(
+                resolver.isSplit(x.get(dbQuery.schemaName())), resolver.isSplit(x.get(dbQuery.tableName())));
+        tableInfo.setTableType(tableType);
+
+        if (tableType != TableType.SINGLE_DATABASE_AND_TABLE) {
+            List<String> schemaTableNameList = new ArrayList<>(group.size());
+            for (Map<String, String> y : group) {
+                schemaTableNameList.add(y.get(dbQuery.schemaName()) + "." + y.get(dbQuery.tableName()));
+            }
+            tableInfo.setSchemaTableNameList(schemaTableNameList);
+        } else {
+            tableInfo.setSchemaTableNameList(
+                    Collections.singletonList(x.get(dbQuery.schemaName()) + "." + x.get(dbQuery.tableName())));
+        }
+        return tableInfo;
+    }
 }
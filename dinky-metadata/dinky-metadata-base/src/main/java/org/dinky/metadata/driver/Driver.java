@@ -33,6 +33,8 @@ import org.dinky.metadata.enums.DriverType;
 import org.dinky.metadata.result.JdbcSelectResult;
 import org.dinky.utils.JsonUtils;
 
+import java.util.Collection;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
@@ -175,6 +177,21 @@ public interface Driver extends AutoCloseable {
 
     List<Column> listColumnsSortByPK(String schemaName, String tableName);
 
+    /**
+     * 批量获取表字段, 主键在前
+     *
+     * @param schemaName 库名
+     * @param tableNames 表名列表
+     * @return 表名 -> 字段列表
+     */
+    default Map<String, List<Column>> listColumnsSortByPK(String schemaName, Collection<String> tableNames) {
+        Map<String, List<Column>> columns = new LinkedHashMap<>();
+        for (String tableName : tableNames) {
+            columns.put(tableName, listColumnsSortByPK(schemaName, tableName));
+        }
+        return columns;
+    }
+
     List<Schema> getSchemasAndTables();
 
     List<Table> getTablesAndColumns(String schemaName);
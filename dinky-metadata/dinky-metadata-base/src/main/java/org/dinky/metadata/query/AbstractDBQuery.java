@@ -31,6 +31,16 @@ public abstract class AbstractDBQuery implements IDBQuery {
         return "show create table " + schemaName + "." + tableName;
     }
 
+    @Override
+    public String schemaColumnsSql(String schemaName) {
+        return null;
+    }
+
+    @Override
+    public String columnTableName() {
+        return "TABLE_NAME";
+    }
+
     @Override
     public String createTableName() {
         return "Create Table";
@@ -35,6 +35,12 @@ public interface IDBQuery {
     /** 表字段信息查询 SQL */
     String columnsSql(String schemaName, String tableName);
 
+    /** 整库表字段信息查询 SQL, 结果带有字段所属表名称, 不支持时返回 null */
+    String schemaColumnsSql(String schemaName);
+
+    /** 字段所属表名称 */
+    String columnTableName();
+
     /** 建表 SQL */
     String createTableSql(String schemaName, String tableName);
 